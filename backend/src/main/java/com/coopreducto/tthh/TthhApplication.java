@@ -1,15 +1,28 @@
 package com.coopreducto.tthh;
 
+import com.coopreducto.tthh.config.MarcacionImportRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
 @EnableJpaAuditing
-@org.springframework.cache.annotation.EnableCaching
 public class TthhApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(TthhApplication.class, args);
+        if (!MarcacionImportRunner.solicitada(args)) {
+            SpringApplication.run(TthhApplication.class, args);
+            return;
+        }
+        // Importación por línea de comandos: sin servidor web, sin tareas
+        // programadas ni buffer de marcaciones (su journal pertenece a la
+        // instancia en línea); el proceso termina al importar
+        SpringApplication app = new SpringApplication(TthhApplication.class);
+        app.setWebApplicationType(WebApplicationType.NONE);
+        app.setDefaultProperties(MarcacionImportRunner.PROPIEDADES);
+        ConfigurableApplicationContext ctx = app.run(args);
+        System.exit(SpringApplication.exit(ctx));
     }
 }
@@ -0,0 +1,136 @@
+package com.coopreducto.tthh.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Ejecutores para procesos en segundo plano.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Value("${app.payroll.jobs.max-concurrent:2}")
+    private int maxNominaJobs;
+
+    @Value("${app.pdf-cache.prerender-threads:0}")
+    private int hilosPdf;
+
+    @Value("${app.payroll.zip-threads:0}")
+    private int hilosZip;
+
+    @Value("${app.reportes.jobs.max-concurrent:2}")
+    private int maxReporteJobs;
+
+    /**
+     * Corridas de nómina. Pocas a la vez: cada corrida ya usa lotes grandes y
+     * conexiones del pool.
+     */
+    @Bean(name = "nominaExecutor")
+    public Executor nominaExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxNominaJobs);
+        executor.setMaxPoolSize(maxNominaJobs);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("nomina-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pre-render de PDFs de recibos. El render es intensivo en CPU: por
+     * defecto usa la mitad de los núcleos para no afectar a las peticiones.
+     * La cola es corta porque cada periodo encola unos pocos trabajadores
+     * que consumen sus recibos, no una tarea por recibo.
+     */
+    @Bean(name = "pdfExecutor")
+    public Executor pdfExecutor() {
+        int hilos = hilosPdf > 0 ? hilosPdf : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("pdf-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Render de PDFs para las descargas ZIP de un periodo. Separado del
+     * pre-render para que una descarga no espere detrás de los recibos de un
+     * cierre; si el pool y la cola están llenos, el hilo de la petición
+     * renderiza (la propia descarga se frena en lugar de encolar sin límite).
+     */
+    @Bean(name = "zipExecutor")
+    public Executor zipExecutor() {
+        int hilos = hilosZip > 0 ? hilosZip : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(hilos * 4);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("zip-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Secciones del dashboard de administración consultadas en paralelo.
+     * Si el pool está ocupado la sección se ejecuta en el hilo de la
+     * petición.
+     */
+    @Bean(name = "dashboardExecutor")
+    public Executor dashboardExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(0);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("dashboard-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Envíos del dashboard en vivo (Server-Sent Events). Cada conexión tiene
+     * a lo sumo una tarea en curso que vacía su cola de mensajes; una
+     * conexión lenta ocupa un hilo de este pool y no el del scheduler.
+     */
+    @Bean(name = "sseExecutor")
+    public Executor sseExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("sse-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Exportaciones de reportes en segundo plano. Los pedidos idénticos ya
+     * se unifican antes de llegar al pool.
+     */
+    @Bean(name = "reporteExecutor")
+    public Executor reporteExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxReporteJobs);
+        executor.setMaxPoolSize(maxReporteJobs);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("reporte-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,54 @@
+package com.coopreducto.tthh.config;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Regiones de caché de la aplicación. Cada región tiene su propio
+ * vencimiento y máximo de entradas (app.cache.{region}.ttl-segundos /
+ * max-entradas); un {@code @Cacheable} sobre una región no declarada aquí
+ * falla al invocarse.
+ *
+ * El vencimiento solo acota lo desactualizado de datos que no tienen
+ * evento (p. ej. el cambio de día para los cumpleaños); las
+ * modificaciones se invalidan por eventos en CacheServiceImpl.
+ *
+ * Los {@code @Cacheable} usan sync = true: es el camino en el que
+ * {@link TtlCache} descarta un valor cuya carga se cruzó con una
+ * invalidación.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Dashboard de administración (clave única). */
+    public static final String DASHBOARD_ADMIN = "dashboardAdmin";
+    /** Reporte demográfico (clave única). */
+    public static final String REPORTE_DEMOGRAFIA = "reporteDemografia";
+    /** Lecturas de payroll_runs: últimos periodos y total neto por año. */
+    public static final String NOMINA_RESUMEN = "nominaResumen";
+
+    @Bean
+    public CacheManager cacheManager(Environment env) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                region(env, DASHBOARD_ADMIN, 300, 10),
+                region(env, REPORTE_DEMOGRAFIA, 1800, 10),
+                region(env, NOMINA_RESUMEN, 600, 50)));
+        return cacheManager;
+    }
+
+    private static TtlCache region(Environment env, String nombre, long ttlSegundos, int maxEntradas) {
+        String prefijo = "app.cache." + nombre + ".";
+        return new TtlCache(nombre,
+                Duration.ofSeconds(env.getProperty(prefijo + "ttl-segundos", Long.class, ttlSegundos)),
+                env.getProperty(prefijo + "max-entradas", Integer.class, maxEntradas));
+    }
+}
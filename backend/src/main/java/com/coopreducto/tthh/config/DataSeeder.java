@@ -6,6 +6,7 @@ import com.coopreducto.tthh.service.FraseDelDiaService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -35,8 +36,11 @@ public class DataSeeder {
         private final PasswordEncoder passwordEncoder;
         private final FraseDelDiaService fraseDelDiaService;
         private final com.coopreducto.tthh.repository.ModuloRepository moduloRepository;
+        private final com.coopreducto.tthh.service.ReciboSalarioService reciboSalarioService;
 
+        // Como las demás tareas de arranque, no corre en la importación por línea de comandos
         @Bean
+        @ConditionalOnProperty(name = "app.tareas-inicio.enabled", havingValue = "true", matchIfMissing = true)
         public CommandLineRunner initData() {
                 return args -> {
                         try {
@@ -67,6 +71,7 @@ public class DataSeeder {
                                 Empleado admin = empleadoRepository.findByNumeroDocumento("4328485").orElse(null);
                                 if (admin != null && reciboSalarioRepository.countByEmpleado(admin) < 12) {
                                         generarRecibosCompletos2025(admin);
+                                        reciboSalarioService.reconstruirResumenNomina();
                                 }
 
                                 // 6. Comisiones
@@ -288,6 +293,7 @@ public class DataSeeder {
                         r.setSalarioBruto(e.getSalario());
                         r.setSalarioNeto(e.getSalario().multiply(new BigDecimal("0.91")));
                         r.setEstado("GENERADO");
+                        r.setSucursal(e.getSucursal());
                         r.setFechaPago(LocalDate.of(2025, m, 28));
                         r.setCreatedAt(LocalDateTime.now());
                         reciboSalarioRepository.save(r);
@@ -0,0 +1,73 @@
+package com.coopreducto.tthh.config;
+
+import com.coopreducto.tthh.service.AsistenciaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Importación de archivos de marcaciones desde la línea de comandos:
+ *
+ * <pre>
+ * java -jar sistema-tthh.jar \
+ *      --importar-marcaciones=/ruta/sucursal1.dat --importar-marcaciones=/ruta/sucursal2.csv
+ * </pre>
+ *
+ * Con la opción, TthhApplication arranca sin servidor web, sin tareas
+ * programadas ni de arranque ({@link TareasInicio}), sin datos de ejemplo y
+ * sin el buffer de marcaciones ({@link #PROPIEDADES}), y el
+ * proceso termina al importar: código 1 si algún archivo no se pudo leer.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MarcacionImportRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    private static final String OPCION = "importar-marcaciones";
+
+    /** Propiedades de la ejecución de importación. */
+    public static final Map<String, Object> PROPIEDADES = Map.of(
+            "app.scheduling.enabled", "false",
+            "app.marcaciones.buffer.enabled", "false",
+            "app.tareas-inicio.enabled", "false");
+
+    private final AsistenciaService asistenciaService;
+
+    private int fallidos;
+
+    public static boolean solicitada(String[] args) {
+        return Arrays.stream(args).anyMatch(a -> a.startsWith("--" + OPCION + "="));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPCION)) {
+            return;
+        }
+        for (String archivo : args.getOptionValues(OPCION)) {
+            Path path = Paths.get(archivo);
+            try (InputStream in = Files.newInputStream(path)) {
+                asistenciaService.importarMarcaciones(in, path.getFileName().toString());
+            } catch (IOException e) {
+                log.error("No se pudo leer el archivo de marcaciones {}: {}", path, e.getMessage());
+                fallidos++;
+            }
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return fallidos > 0 ? 1 : 0;
+    }
+}
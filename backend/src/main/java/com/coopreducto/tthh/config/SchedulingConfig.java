@@ -0,0 +1,16 @@
+package com.coopreducto.tthh.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Tareas programadas (@Scheduled). Se desactivan con
+ * app.scheduling.enabled=false, p. ej. en la importación de marcaciones
+ * por línea de comandos (ver {@link MarcacionImportRunner}).
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -1,6 +1,7 @@
 package com.coopreducto.tthh.config;
 
 import com.coopreducto.tthh.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -45,6 +46,9 @@ public class SecurityConfig {
                         .requestMatchers("/v3/api-docs/**").permitAll()
                         .requestMatchers("/swagger-ui/**").permitAll()
                         .requestMatchers("/reportes/ping").permitAll()
+                        // Despacho asíncrono de una petición ya autorizada (SSE, streaming):
+                        // el filtro JWT no vuelve a correr y el contexto llega vacío
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Todo lo demás requiere autenticación (estar logueado)
                         .anyRequest().authenticated())
                 // Añadir nuestro filtro JWT antes del filtro de autenticación estándar
@@ -0,0 +1,44 @@
+package com.coopreducto.tthh.config;
+
+import com.coopreducto.tthh.service.impl.AsistenciaServiceImpl;
+import com.coopreducto.tthh.service.impl.NominaJobServiceImpl;
+import com.coopreducto.tthh.service.impl.PresenciaDiaria;
+import com.coopreducto.tthh.service.impl.ReciboSalarioServiceImpl;
+import com.coopreducto.tthh.service.impl.ReporteJobServiceImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tareas al terminar de arrancar: cargas iniciales de resúmenes y de la
+ * presencia del día, y reanudación de los jobs de nómina y de reportes que
+ * quedaron activos.
+ *
+ * Solo corresponden a la instancia en línea. Con
+ * app.tareas-inicio.enabled=false (importación por línea de comandos, ver
+ * {@link MarcacionImportRunner}) no se ejecutan: un segundo proceso
+ * reanudaría los mismos jobs que el servidor y los cortaría al terminar.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.tareas-inicio.enabled", havingValue = "true", matchIfMissing = true)
+public class TareasInicio {
+
+    private final AsistenciaServiceImpl asistenciaService;
+    private final ReciboSalarioServiceImpl reciboSalarioService;
+    private final PresenciaDiaria presenciaDiaria;
+    private final NominaJobServiceImpl nominaJobService;
+    private final ReporteJobServiceImpl reporteJobService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ejecutar() {
+        // Primero los resúmenes: la nómina reanudada lee asistencia_resumen_mensual
+        asistenciaService.inicializarResumenes();
+        reciboSalarioService.inicializarResumenNomina();
+        presenciaDiaria.iniciar();
+        nominaJobService.reanudarPendientes();
+        reporteJobService.reanudarPendientes();
+    }
+}
@@ -0,0 +1,195 @@
+package com.coopreducto.tthh.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Región de caché en memoria acotada por cantidad de entradas (LRU) y con
+ * vencimiento por entrada. Lleva contadores de aciertos, fallos,
+ * desalojos por tamaño, vencimientos e invalidaciones para
+ * /admin/caches.
+ */
+public class TtlCache extends AbstractValueAdaptingCache {
+
+    private final String nombre;
+    private final long ttlNanos;
+    private final int maxEntradas;
+
+    // Orden de acceso: la primera entrada es la menos usada. Protegido por "entradas"
+    private final Map<Object, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private long aciertos;
+    private long fallos;
+    private long escrituras;
+    private long desalojos;
+    private long vencidas;
+    private long invalidaciones;
+    // Se incrementa en cada evict/clear; una carga iniciada antes no se guarda
+    private long generacion;
+
+    public TtlCache(String nombre, Duration ttl, int maxEntradas) {
+        super(true);
+        this.nombre = nombre;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntradas = Math.max(1, maxEntradas);
+    }
+
+    @Override
+    public String getName() {
+        return nombre;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return entradas;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        synchronized (entradas) {
+            Entrada entrada = entradas.get(key);
+            if (entrada != null && entrada.vencida(System.nanoTime())) {
+                entradas.remove(key);
+                vencidas++;
+                entrada = null;
+            }
+            if (entrada == null) {
+                fallos++;
+                return null;
+            }
+            aciertos++;
+            return entrada.valor;
+        }
+    }
+
+    /**
+     * Para {@code @Cacheable(sync = true)}: los cálculos concurrentes de la
+     * misma clave no se coordinan, el último en terminar queda guardado.
+     *
+     * Si la región se invalida mientras se calcula el valor (p. ej. el
+     * evento AFTER_COMMIT de una modificación llega durante la consulta), el
+     * valor se devuelve pero no se guarda: podría haberse leído antes del
+     * commit y quedaría desactualizado durante todo el TTL.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long generacionCarga;
+        synchronized (entradas) {
+            generacionCarga = generacion;
+        }
+        ValueWrapper actual = get(key);
+        if (actual != null) {
+            return (T) actual.get();
+        }
+        T valor;
+        try {
+            valor = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        guardar(key, valor, generacionCarga);
+        return valor;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        guardar(key, value, null);
+    }
+
+    // generacionCarga null: escritura explícita, se guarda siempre
+    private void guardar(Object key, Object value, Long generacionCarga) {
+        Entrada entrada = new Entrada(toStoreValue(value), System.nanoTime() + ttlNanos);
+        synchronized (entradas) {
+            if (generacionCarga != null && generacionCarga != generacion) {
+                return;
+            }
+            entradas.put(key, entrada);
+            escrituras++;
+            Iterator<Entrada> it = entradas.values().iterator();
+            while (entradas.size() > maxEntradas && it.hasNext()) {
+                it.next();
+                it.remove();
+                desalojos++;
+            }
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        synchronized (entradas) {
+            generacion++;
+            if (entradas.remove(key) != null) {
+                invalidaciones++;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (entradas) {
+            generacion++;
+            invalidaciones += entradas.size();
+            entradas.clear();
+        }
+    }
+
+    /**
+     * Copia de los contadores; de paso descarta las entradas vencidas para
+     * que el tamaño informado sea el real.
+     */
+    public Estadisticas estadisticas() {
+        synchronized (entradas) {
+            long ahora = System.nanoTime();
+            Iterator<Entrada> it = entradas.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().vencida(ahora)) {
+                    it.remove();
+                    vencidas++;
+                }
+            }
+            return new Estadisticas(entradas.size(), aciertos, fallos, escrituras, desalojos, vencidas,
+                    invalidaciones);
+        }
+    }
+
+    public Duration getTtl() {
+        return Duration.ofNanos(ttlNanos);
+    }
+
+    public int getMaxEntradas() {
+        return maxEntradas;
+    }
+
+    private static class Entrada {
+        private final Object valor;
+        private final long venceNanos;
+
+        Entrada(Object valor, long venceNanos) {
+            this.valor = valor;
+            this.venceNanos = venceNanos;
+        }
+
+        boolean vencida(long ahora) {
+            return ahora - venceNanos >= 0;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Estadisticas {
+        private int entradas;
+        private long aciertos;
+        private long fallos;
+        private long escrituras;
+        private long desalojos;
+        private long vencidas;
+        private long invalidaciones;
+    }
+}
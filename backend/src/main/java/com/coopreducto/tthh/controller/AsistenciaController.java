@@ -1,13 +1,22 @@
 package com.coopreducto.tthh.controller;
 
 import com.coopreducto.tthh.dto.AsistenciaDTO;
+import com.coopreducto.tthh.dto.ImportacionMarcacionesDTO;
+import com.coopreducto.tthh.dto.PresenciaDiariaDTO;
 import com.coopreducto.tthh.service.AsistenciaService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -58,11 +67,54 @@ public class AsistenciaController {
                 "ausencias", asistenciaService.contarAusencias(empleadoId, anio, mes)));
     }
 
+    /**
+     * Quién marcó, quién falta y quién llegó tarde hoy (en memoria, apto
+     * para consultas frecuentes del dashboard).
+     */
+    @GetMapping("/presencia-hoy")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<PresenciaDiariaDTO> obtenerPresenciaHoy(
+            @RequestParam(required = false) String sucursal,
+            @RequestParam(defaultValue = "false") boolean detalle) {
+        return ResponseEntity.ok(asistenciaService.obtenerPresenciaHoy(sucursal, detalle));
+    }
+
     @PostMapping("/marcar")
     public ResponseEntity<AsistenciaDTO> marcarReloj(@RequestParam Long empleadoId) {
         return ResponseEntity.ok(asistenciaService.marcarReloj(empleadoId, "AUTO"));
     }
 
+    /**
+     * Marcación para el pico de entrada: responde 202 cuando la marcación
+     * quedó registrada; aparece en /asistencia tras el siguiente volcado.
+     */
+    @PostMapping("/marcar-rapido")
+    public ResponseEntity<Map<String, Object>> marcarRelojRapido(@RequestParam Long empleadoId) {
+        LocalDateTime registradoAt = asistenciaService.marcarRelojDiferido(empleadoId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(Map.of("empleadoId", empleadoId, "registradoAt", registradoAt));
+    }
+
+    /**
+     * Importa el archivo exportado por el reloj biométrico enviado como
+     * cuerpo de la petición (sin multipart), p. ej.:
+     * curl -X POST --data-binary @marcaciones.dat -H "Content-Type: text/plain"
+     * ".../asistencia/importar?origen=marcaciones.dat"
+     */
+    @PostMapping(value = "/importar", consumes = { "text/plain", "text/csv", "application/octet-stream" })
+    @PreAuthorize("hasRole('TTHH')")
+    public ResponseEntity<ImportacionMarcacionesDTO> importarMarcaciones(
+            @RequestParam(defaultValue = "marcaciones") String origen,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(asistenciaService.importarMarcaciones(request.getInputStream(), origen));
+    }
+
+    @PostMapping("/resumenes/reconstruir")
+    @PreAuthorize("hasRole('TTHH')")
+    public ResponseEntity<Map<String, Integer>> reconstruirResumenes() {
+        return ResponseEntity.ok(Map.of("filas", asistenciaService.reconstruirResumenes()));
+    }
+
     @PutMapping("/{id}/justificar")
     public ResponseEntity<AsistenciaDTO> justificar(
             @PathVariable Long id,
@@ -74,7 +126,8 @@ public class AsistenciaController {
     @GetMapping("/reporte-global")
     public ResponseEntity<com.coopreducto.tthh.dto.AttendanceGlobalReportDTO> obtenerReporteGlobal(
             @RequestParam int anio,
-            @RequestParam int mes) {
-        return ResponseEntity.ok(asistenciaService.obtenerReporteGlobal(anio, mes));
+            @RequestParam int mes,
+            @PageableDefault(size = 50, sort = "totalDescuento", direction = Sort.Direction.DESC) Pageable pageable) {
+        return ResponseEntity.ok(asistenciaService.obtenerReporteGlobal(anio, mes, pageable));
     }
 }
@@ -0,0 +1,37 @@
+package com.coopreducto.tthh.controller;
+
+import com.coopreducto.tthh.dto.CacheEstadisticasDTO;
+import com.coopreducto.tthh.service.CacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/caches")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CacheService cacheService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('TTHH')")
+    public ResponseEntity<List<CacheEstadisticasDTO>> listar() {
+        return ResponseEntity.ok(cacheService.listar());
+    }
+
+    @DeleteMapping("/{nombre}")
+    @PreAuthorize("hasRole('TTHH')")
+    public ResponseEntity<CacheEstadisticasDTO> limpiar(@PathVariable String nombre) {
+        return ResponseEntity.ok(cacheService.limpiar(nombre));
+    }
+
+    @DeleteMapping
+    @PreAuthorize("hasRole('TTHH')")
+    public ResponseEntity<Void> limpiarTodas() {
+        cacheService.limpiarTodas();
+        return ResponseEntity.noContent().build();
+    }
+}
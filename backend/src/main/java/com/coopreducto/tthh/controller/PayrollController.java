@@ -1,7 +1,10 @@
 package com.coopreducto.tthh.controller;
 
+import com.coopreducto.tthh.dto.NominaJobDTO;
+import com.coopreducto.tthh.dto.NominaSimulacionDTO;
 import com.coopreducto.tthh.dto.ReciboSalarioDTO;
 import com.coopreducto.tthh.service.ReciboSalarioService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
@@ -15,12 +18,17 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/payroll")
 @RequiredArgsConstructor
 public class PayrollController {
 
     private final ReciboSalarioService reciboSalarioService;
+    private final com.coopreducto.tthh.service.AguinaldoService aguinaldoService;
+    private final com.coopreducto.tthh.service.NominaJobService nominaJobService;
+    private final com.coopreducto.tthh.service.NominaSimulacionService nominaSimulacionService;
     private final com.coopreducto.tthh.repository.UsuarioRepository usuarioRepository;
 
     private Long getCurrentUserId(Authentication authentication) {
@@ -123,16 +131,108 @@ public class PayrollController {
             return ResponseEntity.ok(java.math.BigDecimal.ZERO);
         }
 
-        return ResponseEntity.ok(reciboSalarioService.calcularAguinaldoProyectado(empleadoId));
+        return ResponseEntity.ok(aguinaldoService.calcularProyectado(empleadoId, java.time.LocalDate.now().getYear()));
+    }
+
+    @GetMapping("/aguinaldo/proyeccion")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<java.util.List<com.coopreducto.tthh.dto.AguinaldoDTO>> getProyeccionAguinaldo(
+            @RequestParam(required = false) Integer anio) {
+        return ResponseEntity.ok(aguinaldoService.proyeccion(anio != null ? anio : java.time.LocalDate.now().getYear()));
+    }
+
+    @GetMapping("/aguinaldo/exportar")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public void exportarAguinaldo(
+            @RequestParam(required = false) Integer anio,
+            HttpServletResponse response) throws IOException {
+        int anioProyeccion = anio != null ? anio : java.time.LocalDate.now().getYear();
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"aguinaldo_" + anioProyeccion + ".xlsx\"");
+        aguinaldoService.exportarExcel(anioProyeccion, response.getOutputStream());
     }
 
+    /**
+     * Encola la generación de la nómina y devuelve el job para consultar su
+     * avance en /payroll/jobs/{id}.
+     */
     @PostMapping("/generar")
     @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
-    public ResponseEntity<Void> generarNomina(
+    public ResponseEntity<NominaJobDTO> generarNomina(
+            @RequestParam Integer anio,
+            @RequestParam Integer mes,
+            Authentication authentication) {
+        NominaJobDTO job = nominaJobService.iniciar(anio, mes, authentication.getName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/jobs")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<java.util.List<NominaJobDTO>> getJobs() {
+        return ResponseEntity.ok(nominaJobService.findRecientes());
+    }
+
+    @GetMapping("/jobs/{id}")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<NominaJobDTO> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(nominaJobService.findById(id));
+    }
+
+    @PostMapping("/jobs/{id}/cancelar")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<NominaJobDTO> cancelarJob(@PathVariable Long id) {
+        return ResponseEntity.ok(nominaJobService.cancelar(id));
+    }
+
+    // ========================================
+    // SIMULACIÓN (borrador en memoria)
+    // ========================================
+
+    /**
+     * Arma el borrador del periodo. Los cambios posteriores de asistencia o
+     * salario se reflejan en GET /payroll/simulacion sin volver a generar.
+     */
+    @PostMapping("/simulacion")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<NominaSimulacionDTO> iniciarSimulacion(
             @RequestParam Integer anio,
             @RequestParam Integer mes) {
-        reciboSalarioService.generarNominaMensual(anio, mes);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(nominaSimulacionService.iniciar(anio, mes));
+    }
+
+    @GetMapping("/simulacion")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<NominaSimulacionDTO> getSimulacion(
+            @RequestParam Integer anio,
+            @RequestParam Integer mes) {
+        return ResponseEntity.ok(nominaSimulacionService.obtener(anio, mes));
+    }
+
+    @GetMapping("/simulacion/empleados/{empleadoId}")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<ReciboSalarioDTO> getReciboSimulado(
+            @PathVariable Long empleadoId,
+            @RequestParam Integer anio,
+            @RequestParam Integer mes) {
+        return ResponseEntity.ok(nominaSimulacionService.obtenerRecibo(anio, mes, empleadoId));
+    }
+
+    @PostMapping("/simulacion/confirmar")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<NominaSimulacionDTO> confirmarSimulacion(
+            @RequestParam Integer anio,
+            @RequestParam Integer mes) {
+        return ResponseEntity.ok(nominaSimulacionService.confirmar(anio, mes));
+    }
+
+    @DeleteMapping("/simulacion")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<Void> descartarSimulacion(
+            @RequestParam Integer anio,
+            @RequestParam Integer mes) {
+        nominaSimulacionService.descartar(anio, mes);
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/summary")
@@ -141,13 +241,21 @@ public class PayrollController {
         return ResponseEntity.ok(reciboSalarioService.getDashboardSummary());
     }
 
+    @PostMapping("/summary/reconstruir")
+    @PreAuthorize("hasRole('TTHH')")
+    public ResponseEntity<java.util.Map<String, Integer>> reconstruirSummary() {
+        int periodos = reciboSalarioService.reconstruirResumenNomina();
+        return ResponseEntity.ok(java.util.Map.of("periodos", periodos));
+    }
+
     @PostMapping("/cerrar")
     @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
-    public ResponseEntity<Void> cerrarNomina(
+    public ResponseEntity<java.util.Map<String, Integer>> cerrarNomina(
             @RequestParam Integer anio,
-            @RequestParam Integer mes) {
-        reciboSalarioService.cerrarNomina(anio, mes);
-        return ResponseEntity.ok().build();
+            @RequestParam Integer mes,
+            Authentication authentication) {
+        int afectados = reciboSalarioService.cerrarNomina(anio, mes, authentication.getName());
+        return ResponseEntity.ok(java.util.Map.of("afectados", afectados));
     }
 
     @PostMapping
@@ -166,48 +274,59 @@ public class PayrollController {
 
     @GetMapping("/exportar-planilla")
     @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
-    public ResponseEntity<Resource> exportarPlanilla(
+    public void exportarPlanilla(
             @RequestParam Integer anio,
-            @RequestParam Integer mes) {
-        Resource resource = reciboSalarioService.exportarPlanillaBancaria(anio, mes);
-
-        return ResponseEntity.ok()
-                .contentType(
-                        MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"planilla_bancaria_" + mes + "_" + anio + ".xlsx\"")
-                .body(resource);
+            @RequestParam Integer mes,
+            HttpServletResponse response) throws IOException {
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"planilla_bancaria_" + mes + "_" + anio + ".xlsx\"");
+        reciboSalarioService.exportarPlanillaBancaria(anio, mes, response.getOutputStream());
     }
 
     @GetMapping("/exportar-excel")
     @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
-    public ResponseEntity<Resource> exportarExcel(
+    public void exportarExcel(
             @RequestParam(required = false) String sucursal,
             @RequestParam(required = false) Long empleadoId,
             @RequestParam(required = false) Integer mes,
-            @RequestParam(required = false) Integer anio) {
-        Resource resource = reciboSalarioService.exportarExcel(sucursal, empleadoId, mes, anio);
+            @RequestParam(required = false) Integer anio,
+            HttpServletResponse response) throws IOException {
+        // El libro se escribe directamente en la respuesta a medida que se leen las filas
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reporte_salarios.xlsx\"");
+        reciboSalarioService.exportarExcel(sucursal, empleadoId, mes, anio, response.getOutputStream());
+    }
 
-        return ResponseEntity.ok()
-                .contentType(
-                        MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reporte_salarios.xlsx\"")
-                .body(resource);
+    /**
+     * Todos los PDFs del periodo (opcionalmente de una sucursal) en un ZIP que
+     * se envía a medida que se renderizan los recibos.
+     */
+    @GetMapping("/exportar-zip")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public void exportarZip(
+            @RequestParam Integer anio,
+            @RequestParam Integer mes,
+            @RequestParam(required = false) String sucursal,
+            HttpServletResponse response) throws IOException {
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"recibos_" + mes + "_" + anio + ".zip\"");
+        reciboSalarioService.exportarZip(anio, mes, sucursal, response.getOutputStream());
     }
 
     @GetMapping("/exportar-pdf")
     @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
-    public ResponseEntity<Resource> exportarPdf(
+    public void exportarPdf(
             @RequestParam(required = false) String sucursal,
             @RequestParam(required = false) Long empleadoId,
             @RequestParam(required = false) Integer mes,
-            @RequestParam(required = false) Integer anio) {
-        Resource resource = reciboSalarioService.exportarPdf(sucursal, empleadoId, mes, anio);
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reporte_salarios.pdf\"")
-                .body(resource);
+            @RequestParam(required = false) Integer anio,
+            HttpServletResponse response) throws IOException {
+        // Las páginas se envían a medida que se completan
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reporte_salarios.pdf\"");
+        reciboSalarioService.exportarPdf(sucursal, empleadoId, mes, anio, response.getOutputStream());
     }
 
     // Método auxiliar para verificar roles
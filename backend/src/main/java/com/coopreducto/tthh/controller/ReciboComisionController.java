@@ -2,6 +2,7 @@ package com.coopreducto.tthh.controller;
 
 import com.coopreducto.tthh.dto.ReciboComisionDTO;
 import com.coopreducto.tthh.service.ReciboComisionService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
@@ -10,8 +11,11 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/comisiones")
 @RequiredArgsConstructor
@@ -76,34 +80,41 @@ public class ReciboComisionController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/cerrar")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<java.util.Map<String, Integer>> cerrarComisiones(
+            @RequestParam Integer anio,
+            @RequestParam Integer mes,
+            Authentication authentication) {
+        int afectados = reciboComisionService.cerrarComisiones(anio, mes, authentication.getName());
+        return ResponseEntity.ok(java.util.Map.of("afectados", afectados));
+    }
+
     @GetMapping("/exportar-excel")
     @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
-    public ResponseEntity<Resource> exportarExcel(
+    public void exportarExcel(
             @RequestParam(required = false) String sucursal,
             @RequestParam(required = false) Long empleadoId,
             @RequestParam(required = false) Integer mes,
-            @RequestParam(required = false) Integer anio) {
-        Resource resource = reciboComisionService.exportarExcel(sucursal, empleadoId, mes, anio);
-
-        return ResponseEntity.ok()
-                .contentType(
-                        MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reporte_comisiones.xlsx\"")
-                .body(resource);
+            @RequestParam(required = false) Integer anio,
+            HttpServletResponse response) throws IOException {
+        // El libro se escribe directamente en la respuesta a medida que se leen las filas
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reporte_comisiones.xlsx\"");
+        reciboComisionService.exportarExcel(sucursal, empleadoId, mes, anio, response.getOutputStream());
     }
 
     @GetMapping("/exportar-pdf")
     @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
-    public ResponseEntity<Resource> exportarPdf(
+    public void exportarPdf(
             @RequestParam(required = false) String sucursal,
             @RequestParam(required = false) Long empleadoId,
             @RequestParam(required = false) Integer mes,
-            @RequestParam(required = false) Integer anio) {
-        Resource resource = reciboComisionService.exportarPdf(sucursal, empleadoId, mes, anio);
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reporte_comisiones.pdf\"")
-                .body(resource);
+            @RequestParam(required = false) Integer anio,
+            HttpServletResponse response) throws IOException {
+        // Las páginas se envían a medida que se completan
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reporte_comisiones.pdf\"");
+        reciboComisionService.exportarPdf(sucursal, empleadoId, mes, anio, response.getOutputStream());
     }
 }
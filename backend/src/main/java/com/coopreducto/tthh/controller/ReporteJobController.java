@@ -0,0 +1,70 @@
+package com.coopreducto.tthh.controller;
+
+import com.coopreducto.tthh.dto.ReporteJobDTO;
+import com.coopreducto.tthh.service.ReporteJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exportaciones en segundo plano. El pedido devuelve el job; el archivo se
+ * descarga desde /reportes/jobs/{id}/descargar cuando está COMPLETADO
+ * (consultando el job o al recibir la notificación push).
+ */
+@RestController
+@RequestMapping("/reportes/jobs")
+@RequiredArgsConstructor
+public class ReporteJobController {
+
+    private final ReporteJobService reporteJobService;
+
+    /**
+     * Tipos: SALARIOS_EXCEL, SALARIOS_PDF, SALARIOS_ZIP, PLANILLA_BANCARIA,
+     * COMISIONES_EXCEL, COMISIONES_PDF, AGUINALDO_EXCEL. El resto de los
+     * parámetros son los de la descarga directa.
+     */
+    @PostMapping
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<ReporteJobDTO> solicitar(
+            @RequestParam("tipo") String tipo,
+            @RequestParam Map<String, String> parametros,
+            Authentication authentication) {
+        Map<String, String> filtros = new HashMap<>(parametros);
+        filtros.remove("tipo");
+        ReporteJobDTO job = reporteJobService.solicitar(tipo, filtros, authentication.getName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<List<ReporteJobDTO>> getRecientes() {
+        return ResponseEntity.ok(reporteJobService.findRecientes());
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<ReporteJobDTO> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(reporteJobService.findById(id));
+    }
+
+    @GetMapping("/{id}/descargar")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public ResponseEntity<Resource> descargar(@PathVariable Long id) {
+        ReporteJobDTO job = reporteJobService.findById(id);
+        Resource archivo = reporteJobService.descargar(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.getNombreArchivo() + "\"")
+                .body(archivo);
+    }
+}
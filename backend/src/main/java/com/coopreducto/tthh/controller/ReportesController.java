@@ -1,6 +1,7 @@
 package com.coopreducto.tthh.controller;
 
 import com.coopreducto.tthh.dto.DashboardAdminDTO;
+import com.coopreducto.tthh.dto.NominaTendenciaDTO;
 import com.coopreducto.tthh.service.ReportesService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -9,6 +10,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.Map;
@@ -25,6 +27,12 @@ public class ReportesController {
         return ResponseEntity.ok(reportesService.getDashboardAdmin());
     }
 
+    @GetMapping(value = "/dashboard-admin/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
+    public SseEmitter streamDashboardAdmin() {
+        return reportesService.suscribirDashboardAdmin();
+    }
+
     @GetMapping("/ping")
     public ResponseEntity<String> ping() {
         return ResponseEntity.ok("PONG");
@@ -38,6 +46,15 @@ public class ReportesController {
         return ResponseEntity.ok(reportesService.getReporteNomina(anio, mes));
     }
 
+    @GetMapping("/nomina-tendencia")
+    @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA', 'AUDITORIA')")
+    public ResponseEntity<NominaTendenciaDTO> getNominaTendencia(
+            @RequestParam(value = "meses", defaultValue = "12") int meses,
+            @RequestParam(value = "sucursal", required = false) String sucursal,
+            @RequestParam(value = "porSucursal", defaultValue = "false") boolean porSucursal) {
+        return ResponseEntity.ok(reportesService.getNominaTendencia(meses, sucursal, porSucursal));
+    }
+
     @GetMapping("/ausentismo")
     @PreAuthorize("hasAnyRole('TTHH', 'GERENCIA')")
     public ResponseEntity<Map<String, Object>> getReporteAusentismo(
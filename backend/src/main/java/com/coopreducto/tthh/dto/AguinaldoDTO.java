@@ -0,0 +1,26 @@
+package com.coopreducto.tthh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AguinaldoDTO {
+    private Long empleadoId;
+    private String empleadoNombre;
+    private String numeroDocumento;
+    private String sucursal;
+    private String cargo;
+    private Integer anio;
+    // Recibos del año considerados
+    private Integer meses;
+    // Salario bruto + bonificaciones del año
+    private BigDecimal totalGanado;
+    private BigDecimal aguinaldoProyectado;
+}
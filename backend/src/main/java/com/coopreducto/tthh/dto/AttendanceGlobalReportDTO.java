@@ -15,7 +15,15 @@ import java.util.List;
 public class AttendanceGlobalReportDTO {
     private Integer mes;
     private Integer anio;
+    // Página solicitada del ranking
     private List<ColaboradorTardanzaDTO> tardanzas;
+    // Totales del periodo completo (no solo de la página)
+    private Integer totalColaboradores;
+    private Long totalMinutosRetraso;
+    private BigDecimal totalDescuento;
+    private Integer pagina;
+    private Integer tamanio;
+    private Integer totalPaginas;
 
     @Data
     @Builder
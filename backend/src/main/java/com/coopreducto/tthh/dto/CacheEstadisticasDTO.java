@@ -0,0 +1,24 @@
+package com.coopreducto.tthh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEstadisticasDTO {
+    private String nombre;
+    private Long ttlSegundos;
+    private Integer maxEntradas;
+    private Integer entradas;
+    private Long aciertos;
+    private Long fallos;
+    private Double tasaAciertos; // Porcentaje sobre aciertos + fallos
+    private Long escrituras;
+    private Long desalojos; // Por superar max-entradas
+    private Long vencidas;
+    private Long invalidaciones; // Por eventos o limpieza manual
+}
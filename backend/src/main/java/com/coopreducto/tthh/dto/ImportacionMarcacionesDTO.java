@@ -0,0 +1,27 @@
+package com.coopreducto.tthh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacionMarcacionesDTO {
+    private String origen;
+    private Long lineas;
+    private Long aceptadas;
+    private Long rechazadas;
+    // Pares (empleado, día) escritos tras agrupar las marcaciones
+    private Long diasEmpleado;
+    private Long registrosNuevos;
+    private Long salidasActualizadas;
+    private Long duracionMs;
+    private Long lineasPorSegundo;
+    // Primeros rechazos ("línea N: motivo")
+    private List<String> detalleRechazos;
+}
@@ -0,0 +1,32 @@
+package com.coopreducto.tthh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NominaJobDTO {
+    private Long id;
+    private Integer anio;
+    private Integer mes;
+    private String estado;
+    private Integer total;
+    private Integer procesados;
+    private Integer generados;
+    private Integer omitidos;
+    private Integer errores;
+    private Double porcentaje;
+    private Double recibosPorSegundo;
+    private Boolean cancelacionSolicitada;
+    private String mensajeError;
+    private String iniciadoPor;
+    private LocalDateTime iniciadoAt;
+    private LocalDateTime finalizadoAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,30 @@
+package com.coopreducto.tthh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NominaSimulacionDTO {
+    private Integer anio;
+    private Integer mes;
+    private Integer empleados;
+    // Empleados con recibo ya cerrado en el periodo (no se simulan)
+    private Integer cerrados;
+    private BigDecimal totalBruto;
+    private BigDecimal totalDescuentos;
+    private BigDecimal totalNeto;
+    // Recálculos incrementales desde que se armó el borrador
+    private Integer recalculos;
+    // Solo al confirmar: recibos escritos en recibos_salario
+    private Integer persistidos;
+    private LocalDateTime construidoAt;
+    private LocalDateTime actualizadoAt;
+}
@@ -0,0 +1,42 @@
+package com.coopreducto.tthh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NominaTendenciaDTO {
+    private Integer meses;
+    private String sucursal; // Filtro aplicado; null = todas
+    private List<PuntoDTO> serie;
+    private List<SucursalDTO> porSucursal; // Solo si se pidió el desglose
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PuntoDTO {
+        private Integer anio;
+        private Integer mes;
+        private String etiqueta; // "Ene", "Feb", ...
+        private Integer empleados;
+        private BigDecimal totalBruto;
+        private BigDecimal totalNeto;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SucursalDTO {
+        private String sucursal;
+        private List<PuntoDTO> serie;
+    }
+}
@@ -31,5 +31,8 @@ public class PayrollDashboardDTO {
         private BigDecimal totalNeto;
         private String estado;
         private java.time.LocalDateTime fechaGeneracion;
+        // Pre-render de PDFs tras el cierre (null si no se inició)
+        private Integer pdfsListos;
+        private Integer pdfsTotal;
     }
 }
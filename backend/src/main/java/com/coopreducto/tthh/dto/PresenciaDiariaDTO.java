@@ -0,0 +1,38 @@
+package com.coopreducto.tthh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenciaDiariaDTO {
+    private LocalDate fecha;
+    private Integer activos;
+    // Activos con algún registro de asistencia en el día
+    private Integer registrados;
+    private Integer sinMarcar;
+    private Integer tardanzas;
+    private List<SucursalDTO> porSucursal;
+    // Solo si se pide el detalle
+    private List<Long> empleadosSinMarcar;
+    private LocalDateTime cargadoAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SucursalDTO {
+        private String sucursal;
+        private Integer activos;
+        private Integer sinMarcar;
+        private Integer tardanzas;
+    }
+}
@@ -0,0 +1,28 @@
+package com.coopreducto.tthh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReporteJobDTO {
+    private Long id;
+    private String tipo;
+    private String parametros;
+    private String estado;
+    private String nombreArchivo;
+    private String contentType;
+    private Long bytes;
+    private String mensajeError;
+    private String solicitadoPor;
+    private LocalDateTime iniciadoAt;
+    private LocalDateTime finalizadoAt;
+    private LocalDateTime expiraAt;
+    private LocalDateTime createdAt;
+}
@@ -11,7 +11,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "asistencias")
+// Un registro por empleado y día. La clave también sirve a las consultas por
+// empleado en un rango de fechas (resúmenes mensuales).
+@Table(name = "asistencias", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_empleado_fecha", columnNames = { "empleado_id", "fecha" })
+}, indexes = {
+        // Conteos globales por rango de fechas y tipo
+        @Index(name = "idx_asistencias_fecha_tipo", columnList = "fecha, tipo")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
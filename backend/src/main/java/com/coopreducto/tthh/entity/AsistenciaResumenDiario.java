@@ -0,0 +1,62 @@
+package com.coopreducto.tthh.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Totales de asistencia de todo el personal por día, para reportes sobre
+ * rangos de fechas arbitrarios. Se mantiene igual que
+ * {@link AsistenciaResumenMensual}.
+ */
+@Entity
+@Table(name = "asistencia_resumen_diario", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_asistencia_resumen_diario", columnNames = { "fecha" })
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AsistenciaResumenDiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private Integer registros;
+
+    @Column(nullable = false)
+    private Integer presentes;
+
+    @Column(nullable = false)
+    private Integer tardanzas;
+
+    @Column(nullable = false)
+    private Integer ausencias;
+
+    @Column(nullable = false)
+    private Integer permisos;
+
+    @Column(nullable = false)
+    private Integer vacaciones;
+
+    @Column(nullable = false)
+    private Integer licencias;
+
+    @Column(nullable = false)
+    private Integer justificadas;
+
+    @Column(nullable = false)
+    private Long minutosRetraso;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,71 @@
+package com.coopreducto.tthh.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumen de asistencia por empleado y mes. Se actualiza por diferencias en
+ * la misma transacción que modifica asistencias (ver
+ * {@code AsistenciaResumenJdbcRepository#sumar}) y puede reconstruirse desde
+ * asistencias con {@code AsistenciaResumenMensualRepository#reconstruir}.
+ */
+@Entity
+@Table(name = "asistencia_resumen_mensual", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_asistencia_resumen_mensual", columnNames = { "empleado_id", "anio", "mes" })
+}, indexes = {
+        @Index(name = "idx_asistencia_resumen_mensual_periodo", columnList = "anio, mes")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AsistenciaResumenMensual {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "empleado_id", nullable = false)
+    private Long empleadoId;
+
+    @Column(nullable = false)
+    private Integer anio;
+
+    @Column(nullable = false)
+    private Integer mes;
+
+    // Cantidad de registros por tipo
+    @Column(nullable = false)
+    private Integer registros;
+
+    @Column(nullable = false)
+    private Integer presentes;
+
+    @Column(nullable = false)
+    private Integer tardanzas;
+
+    @Column(nullable = false)
+    private Integer ausencias;
+
+    @Column(nullable = false)
+    private Integer permisos;
+
+    @Column(nullable = false)
+    private Integer vacaciones;
+
+    @Column(nullable = false)
+    private Integer licencias;
+
+    @Column(nullable = false)
+    private Integer justificadas;
+
+    @Column(nullable = false)
+    private Long minutosRetraso;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,97 @@
+package com.coopreducto.tthh.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Corrida de generación de nómina ejecutada en segundo plano.
+ * El avance por partición se guarda en {@link NominaJobCheckpoint}.
+ *
+ * Con varias instancias de la aplicación sobre la misma base, la exclusión
+ * está en la base: periodoActivo ("anio-mes" mientras el job está activo,
+ * NULL al finalizar) es único, así que hay a lo sumo un job activo por
+ * periodo, y una instancia solo ejecuta el job si lo reclama (ejecutor y
+ * latidoAt, renovado en cada lote).
+ */
+@Entity
+@Table(name = "nomina_jobs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_nomina_jobs_periodo_activo", columnNames = "periodo_activo")
+}, indexes = {
+        @Index(name = "idx_nomina_jobs_estado", columnList = "estado"),
+        @Index(name = "idx_nomina_jobs_periodo", columnList = "anio, mes")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class NominaJob {
+
+    public static final String PENDIENTE = "PENDIENTE";
+    public static final String EN_PROCESO = "EN_PROCESO";
+    public static final String COMPLETADO = "COMPLETADO";
+    public static final String CANCELADO = "CANCELADO";
+    public static final String FALLIDO = "FALLIDO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer anio;
+
+    @Column(nullable = false)
+    private Integer mes;
+
+    @Column(nullable = false, length = 20)
+    private String estado; // PENDIENTE, EN_PROCESO, COMPLETADO, CANCELADO, FALLIDO
+
+    // Total de empleados activos al iniciar la corrida
+    private Integer total;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Boolean cancelacionSolicitada = false;
+
+    @Column(columnDefinition = "TEXT")
+    private String mensajeError;
+
+    @Column(length = 100)
+    private String iniciadoPor;
+
+    private LocalDateTime iniciadoAt;
+
+    private LocalDateTime finalizadoAt;
+
+    @Column(length = 7)
+    private String periodoActivo;
+
+    // Ejecución que tiene reclamado el job y su último latido
+    @Column(length = 36)
+    private String ejecutor;
+
+    private LocalDateTime latidoAt;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    public static String periodo(Integer anio, Integer mes) {
+        return anio + "-" + mes;
+    }
+
+    public boolean isActivo() {
+        return PENDIENTE.equals(estado) || EN_PROCESO.equals(estado);
+    }
+}
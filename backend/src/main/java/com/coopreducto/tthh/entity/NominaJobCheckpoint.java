@@ -0,0 +1,52 @@
+package com.coopreducto.tthh.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Avance confirmado de una partición de un {@link NominaJob}.
+ * Se actualiza en la misma transacción que inserta cada lote de recibos, por
+ * lo que siempre refleja el último lote realmente persistido.
+ */
+@Entity
+@Table(name = "nomina_job_checkpoints", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_checkpoint_job_particion", columnNames = { "job_id", "particion" })
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NominaJobCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(nullable = false, length = 100)
+    private String particion;
+
+    // Último empleado (en orden de ID) cuyo lote quedó confirmado
+    private Long ultimoEmpleadoId;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer generados = 0;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer omitidos = 0;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer errores = 0;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,52 @@
+package com.coopreducto.tthh.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Nómina pagada por mes y sucursal (recibos fuera de BORRADOR) para las
+ * tendencias de los reportes. La sucursal es la del empleado al cerrar el
+ * periodo. Se recalcula por periodo al cerrar la nómina o dar de alta un
+ * recibo, y puede reconstruirse desde recibos_salario con
+ * {@code NominaSerieMensualRepository#reconstruir}.
+ */
+@Entity
+@Table(name = "nomina_serie_mensual", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_nomina_serie_mensual", columnNames = { "anio", "mes", "sucursal" })
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NominaSerieMensual {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer anio;
+
+    @Column(nullable = false)
+    private Integer mes;
+
+    @Column(nullable = false, length = 100)
+    private String sucursal;
+
+    @Column(nullable = false)
+    private Integer empleados;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalBruto;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalNeto;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,52 @@
+package com.coopreducto.tthh.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Resumen por periodo de los recibos de salario para el dashboard de nómina.
+ * Se mantiene en la misma transacción que escribe los recibos (generación,
+ * alta manual, cierre, confirmación de simulación) y puede reconstruirse
+ * desde recibos_salario con {@code PayrollRunRepository#reconstruir}.
+ */
+@Entity
+@Table(name = "payroll_runs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payroll_runs_periodo", columnNames = { "anio", "mes" })
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayrollRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer anio;
+
+    @Column(nullable = false)
+    private Integer mes;
+
+    @Column(nullable = false)
+    private Integer totalEmpleados;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalNeto;
+
+    // BORRADOR mientras quede algún recibo sin cerrar; GENERADO después
+    @Column(nullable = false, length = 20)
+    private String estado;
+
+    // Alta del último recibo del periodo
+    private LocalDateTime generatedAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,60 @@
+package com.coopreducto.tthh.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Historial de cambios de estado de un periodo (nómina o comisiones).
+ * Solo se insertan filas: cada cierre queda registrado con quién lo hizo,
+ * cuándo y cuántos recibos cambiaron de estado.
+ */
+@Entity
+@Table(name = "periodo_estados", indexes = {
+        @Index(name = "idx_periodo_estados_periodo", columnList = "tipo, anio, mes")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class PeriodoEstado {
+
+    public static final String TIPO_NOMINA = "NOMINA";
+    public static final String TIPO_COMISIONES = "COMISIONES";
+
+    public static final String CERRADO = "CERRADO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20, updatable = false)
+    private String tipo; // NOMINA, COMISIONES
+
+    @Column(nullable = false, updatable = false)
+    private Integer anio;
+
+    @Column(nullable = false, updatable = false)
+    private Integer mes;
+
+    @Column(nullable = false, length = 20, updatable = false)
+    private String estado; // CERRADO
+
+    // Recibos que cambiaron de estado con esta transición
+    @Column(nullable = false, updatable = false)
+    private Integer afectados;
+
+    @Column(length = 100, updatable = false)
+    private String usuario;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
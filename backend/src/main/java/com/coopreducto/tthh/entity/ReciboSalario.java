@@ -13,7 +13,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "recibos_salario")
+@Table(name = "recibos_salario", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_empleado_anio_mes", columnNames = { "empleado_id", "anio", "mes" })
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -64,6 +66,11 @@ public class ReciboSalario {
     @Column(columnDefinition = "TEXT")
     private String observaciones;
 
+    // Sucursal del empleado al emitir o cerrar el recibo; la serie mensual
+    // agrupa por este valor para que un traslado no reescriba periodos pasados
+    @Column(length = 100)
+    private String sucursal;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -187,6 +194,14 @@ public class ReciboSalario {
         this.observaciones = observaciones;
     }
 
+    public String getSucursal() {
+        return sucursal;
+    }
+
+    public void setSucursal(String sucursal) {
+        this.sucursal = sucursal;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
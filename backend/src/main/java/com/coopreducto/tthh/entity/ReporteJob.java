@@ -0,0 +1,97 @@
+package com.coopreducto.tthh.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Exportación de un reporte ejecutada en segundo plano. La clave resume
+ * (tipo, parámetros, versión de los datos): pedidos idénticos comparten el
+ * mismo job y el mismo archivo mientras los datos no cambien y el archivo
+ * no haya vencido.
+ */
+@Entity
+@Table(name = "reporte_jobs", indexes = {
+        @Index(name = "idx_reporte_jobs_clave", columnList = "clave"),
+        @Index(name = "idx_reporte_jobs_estado", columnList = "estado, expira_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class ReporteJob {
+
+    public static final String PENDIENTE = "PENDIENTE";
+    public static final String EN_PROCESO = "EN_PROCESO";
+    public static final String COMPLETADO = "COMPLETADO";
+    public static final String FALLIDO = "FALLIDO";
+    public static final String EXPIRADO = "EXPIRADO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 40)
+    private String tipo;
+
+    // Parámetros normalizados: k1=v1&k2=v2 en orden alfabético
+    @Column(length = 500)
+    private String parametros;
+
+    @Column(length = 200)
+    private String versionDatos;
+
+    // SHA-256 de tipo, parámetros y versión
+    @Column(nullable = false, length = 64)
+    private String clave;
+
+    @Column(nullable = false, length = 20)
+    private String estado; // PENDIENTE, EN_PROCESO, COMPLETADO, FALLIDO, EXPIRADO
+
+    // Ruta relativa a {base-path}/reportes
+    @Column(length = 200)
+    private String archivo;
+
+    @Column(length = 200)
+    private String nombreArchivo;
+
+    @Column(length = 100)
+    private String contentType;
+
+    private Long bytes;
+
+    @Column(columnDefinition = "TEXT")
+    private String mensajeError;
+
+    @Column(length = 100)
+    private String solicitadoPor;
+
+    // Usuarios a notificar al terminar (el solicitante y los que se sumaron), separados por coma
+    @Column(columnDefinition = "TEXT")
+    private String suscriptores;
+
+    private LocalDateTime iniciadoAt;
+
+    private LocalDateTime finalizadoAt;
+
+    private LocalDateTime expiraAt;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    public boolean isActivo() {
+        return PENDIENTE.equals(estado) || EN_PROCESO.equals(estado);
+    }
+}
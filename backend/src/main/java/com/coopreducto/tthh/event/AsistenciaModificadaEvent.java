@@ -0,0 +1,19 @@
+package com.coopreducto.tthh.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Se publica al crear, modificar, justificar o eliminar un registro de
+ * asistencia. Los listeners transaccionales lo reciben después del commit.
+ */
+@Data
+@AllArgsConstructor
+public class AsistenciaModificadaEvent {
+    private Long empleadoId;
+    private LocalDate fecha;
+    // Tipo del registro después del cambio; null si se eliminó
+    private String tipo;
+}
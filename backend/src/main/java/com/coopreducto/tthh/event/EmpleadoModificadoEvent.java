@@ -0,0 +1,14 @@
+package com.coopreducto.tthh.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Se publica al modificar los datos o el estado de un empleado (salario,
+ * alta/baja). Los listeners transaccionales lo reciben después del commit.
+ */
+@Data
+@AllArgsConstructor
+public class EmpleadoModificadoEvent {
+    private Long empleadoId;
+}
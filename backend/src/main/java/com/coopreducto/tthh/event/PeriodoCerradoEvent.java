@@ -0,0 +1,15 @@
+package com.coopreducto.tthh.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Se publica al cerrar un periodo de nómina o comisiones. Lleva el ID de la
+ * fila de {@code periodo_estados}: los listeners transaccionales la leen
+ * después del commit para saber qué periodo se cerró.
+ */
+@Data
+@AllArgsConstructor
+public class PeriodoCerradoEvent {
+    private Long periodoEstadoId;
+}
@@ -0,0 +1,14 @@
+package com.coopreducto.tthh.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Se publica al crear o modificar montos de recibos de salario de un año
+ * (generación mensual, alta manual, confirmación de simulación).
+ */
+@Data
+@AllArgsConstructor
+public class RecibosSalarioModificadosEvent {
+    private Integer anio;
+}
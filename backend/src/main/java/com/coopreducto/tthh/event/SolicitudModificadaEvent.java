@@ -0,0 +1,14 @@
+package com.coopreducto.tthh.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Se publica al crear, modificar, aprobar, rechazar o eliminar una
+ * solicitud. Los listeners transaccionales lo reciben después del commit.
+ */
+@Data
+@AllArgsConstructor
+public class SolicitudModificadaEvent {
+    private Long solicitudId;
+}
@@ -0,0 +1,133 @@
+package com.coopreducto.tthh.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritura masiva de marcaciones de reloj con JDBC batch (volcado del
+ * buffer de marcaciones).
+ */
+@Repository
+@RequiredArgsConstructor
+public class AsistenciaJdbcRepository {
+
+    // buscarDelDia bloquea las claves de uk_empleado_fecha, así que otro
+    // proceso no puede insertar el registro del día antes del commit. El
+    // ON DUPLICATE KEY queda como resguardo: la fila se fusiona y solo avanza
+    // la salida, igual que en actualizarSalidas. GREATEST devuelve NULL con
+    // un NULL, por eso se comparan los valores con COALESCE.
+    private static final String UPSERT_MARCACION = "INSERT INTO asistencias " +
+            "(empleado_id, fecha, tipo, hora_entrada, hora_salida, minutos_retraso, justificado, created_at, " +
+            "registrado_por) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE hora_salida = CASE " +
+            "WHEN COALESCE(hora_salida, hora_entrada) IS NULL " +
+            "OR COALESCE(VALUES(hora_salida), VALUES(hora_entrada)) > COALESCE(hora_salida, hora_entrada) " +
+            "THEN COALESCE(VALUES(hora_salida), VALUES(hora_entrada)) ELSE hora_salida END";
+
+    private static final String UPDATE_SALIDA = "UPDATE asistencias SET hora_salida = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Registros existentes del día para los empleados indicados, por
+     * empleado. Si un empleado tiene más de uno se usa el primero.
+     *
+     * Lectura con bloqueo (FOR UPDATE): bloquea los registros encontrados y,
+     * sobre uk_empleado_fecha, los huecos de los que faltan, de modo que
+     * ninguna otra transacción crea el registro del día de estos empleados
+     * hasta el commit. Debe ejecutarse dentro de la transacción que inserta.
+     */
+    public Map<Long, Existente> buscarDelDia(LocalDate fecha, Collection<Long> empleadoIds) {
+        Map<Long, Existente> existentes = new HashMap<>();
+        if (empleadoIds.isEmpty()) {
+            return existentes;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("fecha", Date.valueOf(fecha))
+                .addValue("ids", empleadoIds);
+        namedJdbcTemplate.query("SELECT id, empleado_id, tipo, hora_entrada, hora_salida FROM asistencias " +
+                "WHERE fecha = :fecha AND empleado_id IN (:ids) ORDER BY id FOR UPDATE", params, rs -> {
+                    Timestamp entrada = rs.getTimestamp("hora_entrada");
+                    Timestamp salida = rs.getTimestamp("hora_salida");
+                    existentes.putIfAbsent(rs.getLong("empleado_id"), new Existente(rs.getLong("id"),
+                            rs.getString("tipo"), entrada != null ? entrada.toLocalDateTime() : null,
+                            salida != null ? salida.toLocalDateTime() : null));
+                });
+        return existentes;
+    }
+
+    /**
+     * Inserta las marcaciones nuevas en un único batch, en la transacción
+     * de buscarDelDia. Si aun así el registro del día ya existe, la marcación
+     * actualiza la salida en vez de fallar o duplicar el registro.
+     */
+    public int insertarLote(List<Nueva> nuevas) {
+        if (nuevas.isEmpty()) {
+            return 0;
+        }
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_MARCACION, nuevas, nuevas.size(), (ps, n) -> {
+            ps.setLong(1, n.getEmpleadoId());
+            ps.setDate(2, Date.valueOf(n.getFecha()));
+            ps.setString(3, n.getTipo());
+            ps.setTimestamp(4, Timestamp.valueOf(n.getHoraEntrada()));
+            ps.setTimestamp(5, n.getHoraSalida() != null ? Timestamp.valueOf(n.getHoraSalida()) : null);
+            ps.setInt(6, n.getMinutosRetraso());
+            ps.setBoolean(7, false);
+            ps.setTimestamp(8, ahora);
+            ps.setString(9, n.getRegistradoPor());
+        });
+        return nuevas.size();
+    }
+
+    /**
+     * Actualiza la hora de salida de registros existentes (id -> salida).
+     */
+    public int actualizarSalidas(Map<Long, LocalDateTime> salidas) {
+        if (salidas.isEmpty()) {
+            return 0;
+        }
+        List<Map.Entry<Long, LocalDateTime>> filas = List.copyOf(salidas.entrySet());
+        jdbcTemplate.batchUpdate(UPDATE_SALIDA, filas, filas.size(), (ps, fila) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(fila.getValue()));
+            ps.setLong(2, fila.getKey());
+        });
+        return filas.size();
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Existente {
+        private long id;
+        private String tipo;
+        private LocalDateTime horaEntrada;
+        private LocalDateTime horaSalida;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Nueva {
+        private long empleadoId;
+        private LocalDate fecha;
+        private String tipo;
+        private LocalDateTime horaEntrada;
+        private LocalDateTime horaSalida;
+        private int minutosRetraso;
+        private String registradoPor;
+    }
+}
@@ -28,23 +28,6 @@ public interface AsistenciaRepository extends JpaRepository<Asistencia, Long> {
                         @Param("fechaInicio") LocalDate fechaInicio,
                         @Param("fechaFin") LocalDate fechaFin);
 
-        @Query("SELECT COUNT(a) FROM Asistencia a WHERE a.empleado.id = :empleadoId AND a.tipo = 'TARDANZA' AND a.fecha BETWEEN :fechaInicio AND :fechaFin")
-        Long countTardanzas(@Param("empleadoId") Long empleadoId,
-                        @Param("fechaInicio") LocalDate fechaInicio,
-                        @Param("fechaFin") LocalDate fechaFin);
-
-        @Query("SELECT COUNT(a) FROM Asistencia a WHERE a.empleado.id = :empleadoId AND a.tipo = 'AUSENTE' AND a.fecha BETWEEN :fechaInicio AND :fechaFin")
-        Long countAusencias(@Param("empleadoId") Long empleadoId,
-                        @Param("fechaInicio") LocalDate fechaInicio,
-                        @Param("fechaFin") LocalDate fechaFin);
-
-        @Query("SELECT COUNT(a) FROM Asistencia a WHERE a.tipo IN ('AUSENTE', 'PERMISO', 'LICENCIA') AND a.fecha BETWEEN :fechaInicio AND :fechaFin")
-        Long countAusenciasGlobal(@Param("fechaInicio") LocalDate fechaInicio, @Param("fechaFin") LocalDate fechaFin);
-
-        @Query("SELECT a.tipo, COUNT(a) FROM Asistencia a WHERE a.fecha BETWEEN :fechaInicio AND :fechaFin GROUP BY a.tipo")
-        List<Object[]> countByTipoAndRangoFecha(@Param("fechaInicio") LocalDate fechaInicio,
-                        @Param("fechaFin") LocalDate fechaFin);
-
         // ========================================
         // CONSULTAS ADICIONALES OPTIMIZADAS
         // ========================================
@@ -55,46 +38,81 @@ public interface AsistenciaRepository extends JpaRepository<Asistencia, Long> {
                         @Param("fechaInicio") LocalDate fechaInicio,
                         @Param("fechaFin") LocalDate fechaFin);
 
+        // Los resúmenes mensuales por empleado y los totales diarios se leen de
+        // asistencia_resumen_mensual / asistencia_resumen_diario
+
+        // ========================================
+        // ESTADÍSTICAS MENSUALES
+        // Rango semiabierto [desde, hasta) sobre fecha: a diferencia de
+        // MONTH(fecha)/YEAR(fecha), permite usar los índices de la columna
+        // ========================================
+
+        @Query("SELECT COUNT(a) FROM Asistencia a WHERE a.empleado.id = :empleadoId AND a.tipo = :tipo " +
+                        "AND a.fecha >= :desde AND a.fecha < :hasta")
+        Long countByEmpleadoAndTipoEnRango(@Param("empleadoId") Long empleadoId, @Param("tipo") String tipo,
+                        @Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+        @Query("SELECT COUNT(a) FROM Asistencia a WHERE a.tipo = :tipo AND a.fecha >= :desde AND a.fecha < :hasta")
+        Long countByTipoEnRango(@Param("tipo") String tipo, @Param("desde") LocalDate desde,
+                        @Param("hasta") LocalDate hasta);
+
+        @Query("SELECT COALESCE(SUM(a.minutosRetraso), 0) FROM Asistencia a WHERE a.empleado.id = :empleadoId " +
+                        "AND a.fecha >= :desde AND a.fecha < :hasta")
+        Long sumMinutosRetrasoEnRango(@Param("empleadoId") Long empleadoId, @Param("desde") LocalDate desde,
+                        @Param("hasta") LocalDate hasta);
+
+        @Query("SELECT a.empleado.id, COUNT(a) as total FROM Asistencia a WHERE a.tipo = :tipo " +
+                        "AND a.fecha >= :desde AND a.fecha < :hasta GROUP BY a.empleado.id ORDER BY total DESC")
+        List<Object[]> topEmpleadosPorTipoEnRango(@Param("tipo") String tipo, @Param("desde") LocalDate desde,
+                        @Param("hasta") LocalDate hasta, Pageable pageable);
+
         // Estadísticas mensuales por empleado
-        @Query("SELECT COUNT(a) FROM Asistencia a WHERE a.empleado.id = :empleadoId AND a.tipo = 'PRESENTE' AND MONTH(a.fecha) = :mes AND YEAR(a.fecha) = :anio")
-        Long countPresentesMensual(@Param("empleadoId") Long empleadoId,
-                        @Param("mes") Integer mes,
-                        @Param("anio") Integer anio);
+        default Long countPresentesMensual(Long empleadoId, Integer mes, Integer anio) {
+                return countByEmpleadoAndTipoEnRango(empleadoId, "PRESENTE", inicioMes(anio, mes),
+                                inicioMes(anio, mes).plusMonths(1));
+        }
 
-        @Query("SELECT COUNT(a) FROM Asistencia a WHERE a.empleado.id = :empleadoId AND a.tipo = 'TARDANZA' AND MONTH(a.fecha) = :mes AND YEAR(a.fecha) = :anio")
-        Long countTardanzasMensual(@Param("empleadoId") Long empleadoId,
-                        @Param("mes") Integer mes,
-                        @Param("anio") Integer anio);
+        default Long countTardanzasMensual(Long empleadoId, Integer mes, Integer anio) {
+                return countByEmpleadoAndTipoEnRango(empleadoId, "TARDANZA", inicioMes(anio, mes),
+                                inicioMes(anio, mes).plusMonths(1));
+        }
 
-        @Query("SELECT COUNT(a) FROM Asistencia a WHERE a.empleado.id = :empleadoId AND a.tipo = 'AUSENTE' AND MONTH(a.fecha) = :mes AND YEAR(a.fecha) = :anio")
-        Long countAusenciasMensual(@Param("empleadoId") Long empleadoId,
-                        @Param("mes") Integer mes,
-                        @Param("anio") Integer anio);
+        default Long countAusenciasMensual(Long empleadoId, Integer mes, Integer anio) {
+                return countByEmpleadoAndTipoEnRango(empleadoId, "AUSENTE", inicioMes(anio, mes),
+                                inicioMes(anio, mes).plusMonths(1));
+        }
 
         // Totales globales mensuales
-        @Query("SELECT COUNT(a) FROM Asistencia a WHERE a.tipo = 'TARDANZA' AND MONTH(a.fecha) = :mes AND YEAR(a.fecha) = :anio")
-        Long countTardanzasGlobalMensual(@Param("mes") Integer mes, @Param("anio") Integer anio);
+        default Long countTardanzasGlobalMensual(Integer mes, Integer anio) {
+                return countByTipoEnRango("TARDANZA", inicioMes(anio, mes), inicioMes(anio, mes).plusMonths(1));
+        }
 
-        @Query("SELECT COUNT(a) FROM Asistencia a WHERE a.tipo = 'AUSENTE' AND MONTH(a.fecha) = :mes AND YEAR(a.fecha) = :anio")
-        Long countAusenciasGlobalMensual(@Param("mes") Integer mes, @Param("anio") Integer anio);
+        default Long countAusenciasGlobalMensual(Integer mes, Integer anio) {
+                return countByTipoEnRango("AUSENTE", inicioMes(anio, mes), inicioMes(anio, mes).plusMonths(1));
+        }
 
         // Suma de minutos de retraso mensual por empleado
-        @Query("SELECT COALESCE(SUM(a.minutosRetraso), 0) FROM Asistencia a WHERE a.empleado.id = :empleadoId AND MONTH(a.fecha) = :mes AND YEAR(a.fecha) = :anio")
-        Long sumMinutosRetrasoMensual(@Param("empleadoId") Long empleadoId,
-                        @Param("mes") Integer mes,
-                        @Param("anio") Integer anio);
+        default Long sumMinutosRetrasoMensual(Long empleadoId, Integer mes, Integer anio) {
+                return sumMinutosRetrasoEnRango(empleadoId, inicioMes(anio, mes), inicioMes(anio, mes).plusMonths(1));
+        }
 
         // Empleados con más tardanzas en el mes
-        @Query("SELECT a.empleado.id, COUNT(a) as total FROM Asistencia a WHERE a.tipo = 'TARDANZA' AND MONTH(a.fecha) = :mes AND YEAR(a.fecha) = :anio GROUP BY a.empleado.id ORDER BY total DESC")
-        List<Object[]> topEmpleadosTardanzasMensual(@Param("mes") Integer mes, @Param("anio") Integer anio,
-                        Pageable pageable);
+        default List<Object[]> topEmpleadosTardanzasMensual(Integer mes, Integer anio, Pageable pageable) {
+                return topEmpleadosPorTipoEnRango("TARDANZA", inicioMes(anio, mes), inicioMes(anio, mes).plusMonths(1),
+                                pageable);
+        }
 
         // Empleados con más ausencias en el mes
-        @Query("SELECT a.empleado.id, COUNT(a) as total FROM Asistencia a WHERE a.tipo = 'AUSENTE' AND MONTH(a.fecha) = :mes AND YEAR(a.fecha) = :anio GROUP BY a.empleado.id ORDER BY total DESC")
-        List<Object[]> topEmpleadosAusenciasMensual(@Param("mes") Integer mes, @Param("anio") Integer anio,
-                        Pageable pageable);
-
-        // Asistencias pendientes de hoy (empleados que no marcaron entrada)
-        @Query("SELECT COUNT(e) FROM Empleado e WHERE e.estado = 'ACTIVO' AND e.id NOT IN (SELECT a.empleado.id FROM Asistencia a WHERE a.fecha = :fecha)")
-        Long countEmpleadosSinMarcarHoy(@Param("fecha") LocalDate fecha);
+        default List<Object[]> topEmpleadosAusenciasMensual(Integer mes, Integer anio, Pageable pageable) {
+                return topEmpleadosPorTipoEnRango("AUSENTE", inicioMes(anio, mes), inicioMes(anio, mes).plusMonths(1),
+                                pageable);
+        }
+
+        private static LocalDate inicioMes(Integer anio, Integer mes) {
+                return LocalDate.of(anio, mes, 1);
+        }
+
+        // [empleadoId, tipo] de los registros del día (carga de PresenciaDiaria)
+        @Query("SELECT a.empleado.id, a.tipo FROM Asistencia a WHERE a.fecha = :fecha")
+        List<Object[]> findEmpleadoYTipoByFecha(@Param("fecha") LocalDate fecha);
 }
@@ -0,0 +1,60 @@
+package com.coopreducto.tthh.repository;
+
+import com.coopreducto.tthh.entity.AsistenciaResumenDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Lectura y reconstrucción de asistencia_resumen_diario. Las escrituras
+ * incrementales están en {@link AsistenciaResumenJdbcRepository}.
+ */
+@Repository
+public interface AsistenciaResumenDiarioRepository extends JpaRepository<AsistenciaResumenDiario, Long> {
+
+    /**
+     * Totales del rango (inclusive), una fila: [registros, presentes,
+     * tardanzas, ausencias, permisos, vacaciones, licencias, minutosRetraso].
+     */
+    @Query("SELECT COALESCE(SUM(d.registros), 0), COALESCE(SUM(d.presentes), 0), COALESCE(SUM(d.tardanzas), 0), " +
+            "COALESCE(SUM(d.ausencias), 0), COALESCE(SUM(d.permisos), 0), COALESCE(SUM(d.vacaciones), 0), " +
+            "COALESCE(SUM(d.licencias), 0), COALESCE(SUM(d.minutosRetraso), 0) " +
+            "FROM AsistenciaResumenDiario d WHERE d.fecha BETWEEN :fechaInicio AND :fechaFin")
+    List<Object[]> totalesEnRango(@Param("fechaInicio") LocalDate fechaInicio,
+            @Param("fechaFin") LocalDate fechaFin);
+
+    // ========================================
+    // RECONSTRUCCIÓN DESDE asistencias
+    // ========================================
+
+    @Modifying
+    @Query(value = "DELETE FROM asistencia_resumen_diario", nativeQuery = true)
+    int eliminarTodos();
+
+    @Modifying
+    @Query(value = "INSERT INTO asistencia_resumen_diario (fecha, registros, presentes, tardanzas, ausencias, " +
+            "permisos, vacaciones, licencias, justificadas, minutos_retraso, updated_at) " +
+            "SELECT a.fecha, COUNT(*), " +
+            "SUM(CASE WHEN a.tipo = 'PRESENTE' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.tipo = 'TARDANZA' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.tipo = 'AUSENTE' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.tipo = 'PERMISO' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.tipo = 'VACACIONES' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.tipo = 'LICENCIA' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.justificado = TRUE THEN 1 ELSE 0 END), " +
+            "COALESCE(SUM(a.minutos_retraso), 0), :ahora " +
+            "FROM asistencias a GROUP BY a.fecha", nativeQuery = true)
+    int insertarTodosDesdeAsistencias(@Param("ahora") LocalDateTime ahora);
+
+    /** Reconstruye el resumen completo. Devuelve la cantidad de días. */
+    default int reconstruir() {
+        eliminarTodos();
+        return insertarTodosDesdeAsistencias(LocalDateTime.now());
+    }
+}
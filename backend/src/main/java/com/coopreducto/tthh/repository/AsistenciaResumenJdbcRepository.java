@@ -0,0 +1,174 @@
+package com.coopreducto.tthh.repository;
+
+import com.coopreducto.tthh.entity.Asistencia;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mantenimiento incremental de asistencia_resumen_mensual y
+ * asistencia_resumen_diario: cada cambio en asistencias se aplica como una
+ * diferencia (el registro anterior resta, el nuevo suma) con un upsert por
+ * fila de resumen afectada.
+ *
+ * Debe ejecutarse en la misma transacción que modifica asistencias, para que
+ * los resúmenes nunca queden desfasados.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AsistenciaResumenJdbcRepository {
+
+    private static final String COLUMNAS = "registros, presentes, tardanzas, ausencias, permisos, vacaciones, " +
+            "licencias, justificadas, minutos_retraso, updated_at";
+
+    private static final String ACTUALIZAR = " ON DUPLICATE KEY UPDATE registros = registros + VALUES(registros), " +
+            "presentes = presentes + VALUES(presentes), tardanzas = tardanzas + VALUES(tardanzas), " +
+            "ausencias = ausencias + VALUES(ausencias), permisos = permisos + VALUES(permisos), " +
+            "vacaciones = vacaciones + VALUES(vacaciones), licencias = licencias + VALUES(licencias), " +
+            "justificadas = justificadas + VALUES(justificadas), " +
+            "minutos_retraso = minutos_retraso + VALUES(minutos_retraso), updated_at = VALUES(updated_at)";
+
+    private static final String UPSERT_MENSUAL = "INSERT INTO asistencia_resumen_mensual (empleado_id, anio, mes, " +
+            COLUMNAS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)" + ACTUALIZAR;
+
+    private static final String UPSERT_DIARIO = "INSERT INTO asistencia_resumen_diario (fecha, " + COLUMNAS +
+            ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)" + ACTUALIZAR;
+
+    // Posiciones del vector de contadores
+    private static final int REGISTROS = 0;
+    private static final int JUSTIFICADAS = 7;
+    private static final int MINUTOS = 8;
+    private static final int CONTADORES = 9;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Aplica las diferencias. Las que se anulan entre sí (p. ej. una
+     * modificación que no cambia tipo ni retraso) no generan escrituras.
+     * Las filas se actualizan siempre en el mismo orden para no provocar
+     * deadlocks entre transacciones concurrentes.
+     */
+    public void sumar(Collection<Delta> deltas) {
+        Map<Mes, long[]> meses = new TreeMap<>(Comparator.comparing(Mes::getEmpleadoId)
+                .thenComparing(Mes::getAnio).thenComparing(Mes::getMes));
+        Map<LocalDate, long[]> dias = new TreeMap<>();
+        for (Delta d : deltas) {
+            if (d == null) {
+                continue;
+            }
+            d.sumarEn(meses.computeIfAbsent(new Mes(d.getEmpleadoId(), d.getFecha().getYear(),
+                    d.getFecha().getMonthValue()), k -> new long[CONTADORES]));
+            d.sumarEn(dias.computeIfAbsent(d.getFecha(), k -> new long[CONTADORES]));
+        }
+        meses.values().removeIf(AsistenciaResumenJdbcRepository::sinCambios);
+        dias.values().removeIf(AsistenciaResumenJdbcRepository::sinCambios);
+
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        if (!meses.isEmpty()) {
+            List<Map.Entry<Mes, long[]>> filas = List.copyOf(meses.entrySet());
+            jdbcTemplate.batchUpdate(UPSERT_MENSUAL, filas, filas.size(), (ps, fila) -> {
+                ps.setLong(1, fila.getKey().getEmpleadoId());
+                ps.setInt(2, fila.getKey().getAnio());
+                ps.setInt(3, fila.getKey().getMes());
+                long[] c = fila.getValue();
+                for (int i = 0; i < CONTADORES; i++) {
+                    ps.setLong(4 + i, c[i]);
+                }
+                ps.setTimestamp(4 + CONTADORES, ahora);
+            });
+        }
+        if (!dias.isEmpty()) {
+            List<Map.Entry<LocalDate, long[]>> filas = List.copyOf(dias.entrySet());
+            jdbcTemplate.batchUpdate(UPSERT_DIARIO, filas, filas.size(), (ps, fila) -> {
+                ps.setDate(1, Date.valueOf(fila.getKey()));
+                long[] c = fila.getValue();
+                for (int i = 0; i < CONTADORES; i++) {
+                    ps.setLong(2 + i, c[i]);
+                }
+                ps.setTimestamp(2 + CONTADORES, ahora);
+            });
+        }
+    }
+
+    private static boolean sinCambios(long[] contadores) {
+        for (long c : contadores) {
+            if (c != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Índice del contador de cada tipo; -1 si el tipo solo suma a registros
+    private static int indiceTipo(String tipo) {
+        if (tipo == null) {
+            return -1;
+        }
+        return switch (tipo) {
+            case "PRESENTE" -> 1;
+            case "TARDANZA" -> 2;
+            case "AUSENTE" -> 3;
+            case "PERMISO" -> 4;
+            case "VACACIONES" -> 5;
+            case "LICENCIA" -> 6;
+            default -> -1;
+        };
+    }
+
+    /**
+     * Aporte de un registro de asistencia a los resúmenes: signo 1 al
+     * agregarlo, -1 al quitarlo.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Delta {
+        private long empleadoId;
+        private LocalDate fecha;
+        private String tipo;
+        private int minutosRetraso;
+        private boolean justificado;
+        private int signo;
+
+        /** Aporte actual del registro; null si no tiene empleado o fecha. */
+        public static Delta de(Asistencia asistencia, int signo) {
+            if (asistencia.getEmpleado() == null || asistencia.getFecha() == null) {
+                return null;
+            }
+            return new Delta(asistencia.getEmpleado().getId(), asistencia.getFecha(), asistencia.getTipo(),
+                    asistencia.getMinutosRetraso() != null ? asistencia.getMinutosRetraso() : 0,
+                    Boolean.TRUE.equals(asistencia.getJustificado()), signo);
+        }
+
+        void sumarEn(long[] contadores) {
+            contadores[REGISTROS] += signo;
+            int indice = indiceTipo(tipo);
+            if (indice >= 0) {
+                contadores[indice] += signo;
+            }
+            if (justificado) {
+                contadores[JUSTIFICADAS] += signo;
+            }
+            contadores[MINUTOS] += (long) signo * minutosRetraso;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class Mes {
+        private long empleadoId;
+        private int anio;
+        private int mes;
+    }
+}
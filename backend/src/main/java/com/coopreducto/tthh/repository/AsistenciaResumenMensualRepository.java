@@ -0,0 +1,62 @@
+package com.coopreducto.tthh.repository;
+
+import com.coopreducto.tthh.entity.AsistenciaResumenMensual;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lectura y reconstrucción de asistencia_resumen_mensual. Las escrituras
+ * incrementales están en {@link AsistenciaResumenJdbcRepository}.
+ */
+@Repository
+public interface AsistenciaResumenMensualRepository extends JpaRepository<AsistenciaResumenMensual, Long> {
+
+    List<AsistenciaResumenMensual> findByAnioAndMes(Integer anio, Integer mes);
+
+    Optional<AsistenciaResumenMensual> findByEmpleadoIdAndAnioAndMes(Long empleadoId, Integer anio, Integer mes);
+
+    /**
+     * Reporte global de tardanzas: [empleadoId, nombres, apellidos, salario,
+     * tardanzas, minutosRetraso], solo empleados con retraso en el periodo.
+     */
+    @Query("SELECT e.id, e.nombres, e.apellidos, e.salario, r.tardanzas, r.minutosRetraso " +
+            "FROM AsistenciaResumenMensual r JOIN Empleado e ON e.id = r.empleadoId " +
+            "WHERE r.anio = :anio AND r.mes = :mes AND (r.tardanzas > 0 OR r.minutosRetraso > 0)")
+    List<Object[]> tardanzasPorEmpleado(@Param("anio") Integer anio, @Param("mes") Integer mes);
+
+    // ========================================
+    // RECONSTRUCCIÓN DESDE asistencias
+    // ========================================
+
+    @Modifying
+    @Query(value = "DELETE FROM asistencia_resumen_mensual", nativeQuery = true)
+    int eliminarTodos();
+
+    @Modifying
+    @Query(value = "INSERT INTO asistencia_resumen_mensual (empleado_id, anio, mes, registros, presentes, tardanzas, " +
+            "ausencias, permisos, vacaciones, licencias, justificadas, minutos_retraso, updated_at) " +
+            "SELECT a.empleado_id, YEAR(a.fecha), MONTH(a.fecha), COUNT(*), " +
+            "SUM(CASE WHEN a.tipo = 'PRESENTE' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.tipo = 'TARDANZA' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.tipo = 'AUSENTE' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.tipo = 'PERMISO' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.tipo = 'VACACIONES' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.tipo = 'LICENCIA' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.justificado = TRUE THEN 1 ELSE 0 END), " +
+            "COALESCE(SUM(a.minutos_retraso), 0), :ahora " +
+            "FROM asistencias a GROUP BY a.empleado_id, YEAR(a.fecha), MONTH(a.fecha)", nativeQuery = true)
+    int insertarTodosDesdeAsistencias(@Param("ahora") LocalDateTime ahora);
+
+    /** Reconstruye el resumen completo. Devuelve la cantidad de filas. */
+    default int reconstruir() {
+        eliminarTodos();
+        return insertarTodosDesdeAsistencias(LocalDateTime.now());
+    }
+}
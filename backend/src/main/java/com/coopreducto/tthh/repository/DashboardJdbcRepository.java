@@ -0,0 +1,94 @@
+package com.coopreducto.tthh.repository;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Indicadores del dashboard de administración en una sola sentencia: cada
+ * tabla se recorre una vez con conteos condicionales (CASE) en lugar de un
+ * COUNT por estado o tipo.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DashboardJdbcRepository {
+
+    private static final String KPIS = "SELECT e.activos, e.inactivos, e.salarios, " +
+            "s.pendientes, s.aprobadas, s.rechazadas, s.vacaciones, s.permisos, s.nuevas_hoy, " +
+            "a.pendientes, a.aprobadas, a.rechazadas, a.en_curso, c.por_vencer " +
+            "FROM (SELECT SUM(CASE WHEN estado = 'ACTIVO' THEN 1 ELSE 0 END) AS activos, " +
+            "        SUM(CASE WHEN estado = 'INACTIVO' THEN 1 ELSE 0 END) AS inactivos, " +
+            "        SUM(CASE WHEN estado = 'ACTIVO' THEN salario ELSE 0 END) AS salarios " +
+            "      FROM empleados) e " +
+            "CROSS JOIN (SELECT SUM(CASE WHEN estado = 'PENDIENTE' THEN 1 ELSE 0 END) AS pendientes, " +
+            "        SUM(CASE WHEN estado = 'APROBADA' THEN 1 ELSE 0 END) AS aprobadas, " +
+            "        SUM(CASE WHEN estado = 'RECHAZADA' THEN 1 ELSE 0 END) AS rechazadas, " +
+            "        SUM(CASE WHEN tipo = 'VACACIONES' THEN 1 ELSE 0 END) AS vacaciones, " +
+            "        SUM(CASE WHEN tipo = 'PERMISO' THEN 1 ELSE 0 END) AS permisos, " +
+            "        SUM(CASE WHEN created_at >= ? THEN 1 ELSE 0 END) AS nuevas_hoy " +
+            "      FROM solicitudes) s " +
+            "CROSS JOIN (SELECT SUM(CASE WHEN estado = 'PENDIENTE' THEN 1 ELSE 0 END) AS pendientes, " +
+            "        SUM(CASE WHEN estado = 'APROBADA' THEN 1 ELSE 0 END) AS aprobadas, " +
+            "        SUM(CASE WHEN estado = 'RECHAZADA' THEN 1 ELSE 0 END) AS rechazadas, " +
+            "        SUM(CASE WHEN estado = 'APROBADA' AND fecha_inicio <= ? AND fecha_fin >= ? THEN 1 ELSE 0 END) " +
+            "          AS en_curso " +
+            "      FROM ausencias) a " +
+            "CROSS JOIN (SELECT COUNT(*) AS por_vencer FROM certificaciones_profesionales " +
+            "      WHERE fecha_vencimiento BETWEEN ? AND ? AND alerta_enviada = FALSE) c";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Conteos de empleados, solicitudes y ausencias por estado/tipo, suma de
+     * salarios activos y certificaciones que vencen en [desde, hasta].
+     * {@code desde} es además el día de las solicitudes nuevas y de las
+     * ausencias en curso.
+     */
+    public Kpis kpis(LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.queryForObject(KPIS, (rs, n) -> {
+            Kpis k = new Kpis();
+            // SUM sobre una tabla vacía devuelve NULL: getLong lo lee como 0
+            k.setEmpleadosActivos(rs.getLong(1));
+            k.setEmpleadosInactivos(rs.getLong(2));
+            BigDecimal salarios = rs.getBigDecimal(3);
+            k.setSalariosActivos(salarios != null ? salarios : BigDecimal.ZERO);
+            k.setSolicitudesPendientes(rs.getLong(4));
+            k.setSolicitudesAprobadas(rs.getLong(5));
+            k.setSolicitudesRechazadas(rs.getLong(6));
+            k.setSolicitudesVacaciones(rs.getLong(7));
+            k.setSolicitudesPermiso(rs.getLong(8));
+            k.setSolicitudesNuevasHoy(rs.getLong(9));
+            k.setAusenciasPendientes(rs.getLong(10));
+            k.setAusenciasAprobadas(rs.getLong(11));
+            k.setAusenciasRechazadas(rs.getLong(12));
+            k.setAusenciasEnCurso(rs.getLong(13));
+            k.setCertificacionesPorVencer(rs.getLong(14));
+            return k;
+        }, Timestamp.valueOf(desde.atStartOfDay()), Date.valueOf(desde), Date.valueOf(desde),
+                Date.valueOf(desde), Date.valueOf(hasta));
+    }
+
+    @Data
+    public static class Kpis {
+        private long empleadosActivos;
+        private long empleadosInactivos;
+        private BigDecimal salariosActivos;
+        private long solicitudesPendientes;
+        private long solicitudesAprobadas;
+        private long solicitudesRechazadas;
+        private long solicitudesVacaciones;
+        private long solicitudesPermiso;
+        private long solicitudesNuevasHoy;
+        private long ausenciasPendientes;
+        private long ausenciasAprobadas;
+        private long ausenciasRechazadas;
+        private long ausenciasEnCurso;
+        private long certificacionesPorVencer;
+    }
+}
@@ -124,6 +124,14 @@ public interface EmpleadoRepository extends JpaRepository<Empleado, Long> {
                         "ORDER BY e.diasVacacionesDisponibles DESC")
         List<Empleado> findEmpleadosConVacacionesDisponibles();
 
+        // [id, numeroDocumento, horarioEntrada] de todo el personal (importación de marcaciones)
+        @Query("SELECT e.id, e.numeroDocumento, e.horarioEntrada FROM Empleado e")
+        List<Object[]> findIdDocumentoYHorario();
+
+        // [id, sucursal, estado] de todo el personal (carga de PresenciaDiaria)
+        @Query("SELECT e.id, e.sucursal, e.estado FROM Empleado e")
+        List<Object[]> findIdSucursalYEstado();
+
         // ========================================
         // ESTADÍSTICAS
         // ========================================
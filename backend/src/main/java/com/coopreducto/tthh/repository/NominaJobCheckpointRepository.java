@@ -0,0 +1,22 @@
+package com.coopreducto.tthh.repository;
+
+import com.coopreducto.tthh.entity.NominaJobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NominaJobCheckpointRepository extends JpaRepository<NominaJobCheckpoint, Long> {
+
+    List<NominaJobCheckpoint> findByJobId(Long jobId);
+
+    /**
+     * Totales del job: [generados, omitidos, errores]
+     */
+    @Query("SELECT COALESCE(SUM(c.generados), 0), COALESCE(SUM(c.omitidos), 0), COALESCE(SUM(c.errores), 0) " +
+            "FROM NominaJobCheckpoint c WHERE c.jobId = :jobId")
+    List<Object[]> sumarAvance(@Param("jobId") Long jobId);
+}
@@ -0,0 +1,81 @@
+package com.coopreducto.tthh.repository;
+
+import com.coopreducto.tthh.entity.NominaJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NominaJobRepository extends JpaRepository<NominaJob, Long> {
+
+    List<NominaJob> findByEstadoIn(Collection<String> estados);
+
+    Optional<NominaJob> findFirstByAnioAndMesAndEstadoIn(Integer anio, Integer mes, Collection<String> estados);
+
+    List<NominaJob> findTop20ByOrderByCreatedAtDesc();
+
+    @Query("SELECT j.cancelacionSolicitada FROM NominaJob j WHERE j.id = :id")
+    Boolean isCancelacionSolicitada(@Param("id") Long id);
+
+    // Actualizaciones puntuales: el job se modifica a la vez desde el runner y
+    // desde la API (cancelación), por eso no se guarda la entidad completa.
+
+    /**
+     * Jobs activos que nadie ejecuta: sin reclamar desde antes de
+     * :vencido, o cuyo ejecutor dejó de renovar el latido.
+     */
+    @Query("SELECT j FROM NominaJob j WHERE j.estado IN ('PENDIENTE', 'EN_PROCESO') " +
+            "AND ((j.ejecutor IS NULL AND j.createdAt < :vencido) OR j.latidoAt < :vencido)")
+    List<NominaJob> findHuerfanos(@Param("vencido") LocalDateTime vencido);
+
+    /**
+     * Reclama el job para una ejecución si está activo y sin reclamar, o
+     * si su latido venció. Devuelve 0 si otra ejecución lo tiene.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE NominaJob j SET j.estado = 'EN_PROCESO', j.iniciadoAt = COALESCE(j.iniciadoAt, :ahora), " +
+            "j.ejecutor = :ejecutor, j.latidoAt = :ahora " +
+            "WHERE j.id = :id AND j.estado IN ('PENDIENTE', 'EN_PROCESO') " +
+            "AND (j.ejecutor IS NULL OR j.latidoAt < :vencido)")
+    int reclamar(@Param("id") Long id, @Param("ejecutor") String ejecutor, @Param("ahora") LocalDateTime ahora,
+            @Param("vencido") LocalDateTime vencido);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NominaJob j SET j.latidoAt = :ahora WHERE j.id = :id AND j.ejecutor = :ejecutor " +
+            "AND j.estado = 'EN_PROCESO'")
+    int renovarLatido(@Param("id") Long id, @Param("ejecutor") String ejecutor, @Param("ahora") LocalDateTime ahora);
+
+    // Al detener la instancia: otra puede reclamar el job sin esperar al vencimiento
+    @Modifying
+    @Transactional
+    @Query("UPDATE NominaJob j SET j.ejecutor = NULL, j.latidoAt = NULL WHERE j.id = :id AND j.ejecutor = :ejecutor")
+    int liberar(@Param("id") Long id, @Param("ejecutor") String ejecutor);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NominaJob j SET j.total = :total WHERE j.id = :id")
+    int actualizarTotal(@Param("id") Long id, @Param("total") Integer total);
+
+    // Solo la ejecución que tiene reclamado el job lo finaliza; libera el periodo
+    @Modifying
+    @Transactional
+    @Query("UPDATE NominaJob j SET j.estado = :estado, j.mensajeError = :mensajeError, j.finalizadoAt = :ahora, " +
+            "j.periodoActivo = NULL WHERE j.id = :id AND j.ejecutor = :ejecutor")
+    int finalizar(@Param("id") Long id, @Param("ejecutor") String ejecutor, @Param("estado") String estado,
+            @Param("mensajeError") String mensajeError, @Param("ahora") LocalDateTime ahora);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE NominaJob j SET j.cancelacionSolicitada = true WHERE j.id = :id")
+    int solicitarCancelacion(@Param("id") Long id);
+}
@@ -0,0 +1,80 @@
+package com.coopreducto.tthh.repository;
+
+import com.coopreducto.tthh.entity.NominaSerieMensual;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Todas las escrituras deben ejecutarse en la transacción que cierra o
+ * modifica los recibos del periodo.
+ */
+@Repository
+public interface NominaSerieMensualRepository extends JpaRepository<NominaSerieMensual, Long> {
+
+    /** Filas desde el periodo indicado (inclusive), en orden cronológico. */
+    @Query("SELECT s FROM NominaSerieMensual s WHERE s.anio > :anio OR (s.anio = :anio AND s.mes >= :mes) " +
+            "ORDER BY s.anio, s.mes, s.sucursal")
+    List<NominaSerieMensual> findDesde(@Param("anio") Integer anio, @Param("mes") Integer mes);
+
+    @Query(value = "SELECT anio, mes FROM nomina_serie_mensual ORDER BY anio DESC, mes DESC LIMIT 1",
+            nativeQuery = true)
+    List<Object[]> findUltimoPeriodo();
+
+    // ========================================
+    // RECÁLCULO DESDE recibos_salario
+    // ========================================
+
+    // Se agrupa por la sucursal guardada en el recibo al emitirlo o cerrarlo;
+    // la del empleado solo se usa para recibos anteriores a esa columna
+
+    @Modifying
+    @Query(value = "DELETE FROM nomina_serie_mensual WHERE anio = :anio AND mes = :mes", nativeQuery = true)
+    int eliminarPeriodo(@Param("anio") Integer anio, @Param("mes") Integer mes);
+
+    @Modifying
+    @Query(value = "INSERT INTO nomina_serie_mensual (anio, mes, sucursal, empleados, total_bruto, total_neto, " +
+            "updated_at) " +
+            "SELECT r.anio, r.mes, COALESCE(NULLIF(TRIM(COALESCE(r.sucursal, e.sucursal)), ''), 'SIN SUCURSAL'), " +
+            "COUNT(DISTINCT r.empleado_id), COALESCE(SUM(r.salario_bruto), 0), COALESCE(SUM(r.salario_neto), 0), " +
+            ":ahora " +
+            "FROM recibos_salario r JOIN empleados e ON e.id = r.empleado_id " +
+            "WHERE r.anio = :anio AND r.mes = :mes AND r.estado <> 'BORRADOR' " +
+            "GROUP BY r.anio, r.mes, COALESCE(NULLIF(TRIM(COALESCE(r.sucursal, e.sucursal)), ''), 'SIN SUCURSAL')",
+            nativeQuery = true)
+    int insertarPeriodoDesdeRecibos(@Param("anio") Integer anio, @Param("mes") Integer mes,
+            @Param("ahora") LocalDateTime ahora);
+
+    @Modifying
+    @Query(value = "DELETE FROM nomina_serie_mensual", nativeQuery = true)
+    int eliminarTodos();
+
+    @Modifying
+    @Query(value = "INSERT INTO nomina_serie_mensual (anio, mes, sucursal, empleados, total_bruto, total_neto, " +
+            "updated_at) " +
+            "SELECT r.anio, r.mes, COALESCE(NULLIF(TRIM(COALESCE(r.sucursal, e.sucursal)), ''), 'SIN SUCURSAL'), " +
+            "COUNT(DISTINCT r.empleado_id), COALESCE(SUM(r.salario_bruto), 0), COALESCE(SUM(r.salario_neto), 0), " +
+            ":ahora " +
+            "FROM recibos_salario r JOIN empleados e ON e.id = r.empleado_id " +
+            "WHERE r.estado <> 'BORRADOR' " +
+            "GROUP BY r.anio, r.mes, COALESCE(NULLIF(TRIM(COALESCE(r.sucursal, e.sucursal)), ''), 'SIN SUCURSAL')",
+            nativeQuery = true)
+    int insertarTodosDesdeRecibos(@Param("ahora") LocalDateTime ahora);
+
+    /** Vuelve a calcular un periodo desde sus recibos. */
+    default void recalcularPeriodo(Integer anio, Integer mes) {
+        eliminarPeriodo(anio, mes);
+        insertarPeriodoDesdeRecibos(anio, mes, LocalDateTime.now());
+    }
+
+    /** Reconstruye la serie completa. Devuelve la cantidad de filas (periodo, sucursal). */
+    default int reconstruir() {
+        eliminarTodos();
+        return insertarTodosDesdeRecibos(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,93 @@
+package com.coopreducto.tthh.repository;
+
+import com.coopreducto.tthh.config.CacheConfig;
+import com.coopreducto.tthh.entity.PayrollRun;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Todas las escrituras deben ejecutarse en la transacción que modifica los
+ * recibos, para que el resumen nunca quede desfasado.
+ *
+ * Las lecturas del dashboard de nómina se cachean en
+ * {@link CacheConfig#NOMINA_RESUMEN}; se invalidan con los eventos de
+ * recibos y de cierre de periodo.
+ */
+@Repository
+public interface PayrollRunRepository extends JpaRepository<PayrollRun, Long> {
+
+    @Cacheable(value = CacheConfig.NOMINA_RESUMEN, key = "'ultimos'", sync = true)
+    List<PayrollRun> findTop12ByOrderByAnioDescMesDesc();
+
+    @Cacheable(value = CacheConfig.NOMINA_RESUMEN, key = "'total-' + #anio", sync = true)
+    @Query("SELECT COALESCE(SUM(p.totalNeto), 0) FROM PayrollRun p WHERE p.anio = :anio")
+    BigDecimal sumTotalNetoByAnio(@Param("anio") Integer anio);
+
+    /**
+     * Suma recibos nuevos al periodo (lo crea si no existe). Un recibo
+     * BORRADOR deja el periodo en BORRADOR.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO payroll_runs (anio, mes, total_empleados, total_neto, estado, generated_at, updated_at) " +
+            "VALUES (:anio, :mes, :empleados, :neto, :estado, :ahora, :ahora) " +
+            "ON DUPLICATE KEY UPDATE total_empleados = total_empleados + VALUES(total_empleados), " +
+            "total_neto = total_neto + VALUES(total_neto), " +
+            "estado = CASE WHEN VALUES(estado) = 'BORRADOR' THEN 'BORRADOR' ELSE estado END, " +
+            "generated_at = VALUES(generated_at), updated_at = VALUES(updated_at)", nativeQuery = true)
+    int sumarRecibos(@Param("anio") Integer anio, @Param("mes") Integer mes, @Param("empleados") int empleados,
+            @Param("neto") BigDecimal neto, @Param("estado") String estado, @Param("ahora") LocalDateTime ahora);
+
+    @Modifying
+    @Query("UPDATE PayrollRun p SET p.estado = :estado, p.updatedAt = :ahora WHERE p.anio = :anio AND p.mes = :mes")
+    int actualizarEstado(@Param("anio") Integer anio, @Param("mes") Integer mes, @Param("estado") String estado,
+            @Param("ahora") LocalDateTime ahora);
+
+    // ========================================
+    // RECÁLCULO DESDE recibos_salario
+    // ========================================
+
+    @Modifying
+    @Query(value = "DELETE FROM payroll_runs WHERE anio = :anio AND mes = :mes", nativeQuery = true)
+    int eliminarPeriodo(@Param("anio") Integer anio, @Param("mes") Integer mes);
+
+    @Modifying
+    @Query(value = "INSERT INTO payroll_runs (anio, mes, total_empleados, total_neto, estado, generated_at, updated_at) " +
+            "SELECT r.anio, r.mes, COUNT(*), COALESCE(SUM(r.salario_neto), 0), " +
+            "CASE WHEN SUM(CASE WHEN r.estado = 'BORRADOR' THEN 1 ELSE 0 END) > 0 THEN 'BORRADOR' ELSE 'GENERADO' END, " +
+            "MAX(r.created_at), :ahora " +
+            "FROM recibos_salario r WHERE r.anio = :anio AND r.mes = :mes GROUP BY r.anio, r.mes", nativeQuery = true)
+    int insertarPeriodoDesdeRecibos(@Param("anio") Integer anio, @Param("mes") Integer mes,
+            @Param("ahora") LocalDateTime ahora);
+
+    @Modifying
+    @Query(value = "DELETE FROM payroll_runs", nativeQuery = true)
+    int eliminarTodos();
+
+    @Modifying
+    @Query(value = "INSERT INTO payroll_runs (anio, mes, total_empleados, total_neto, estado, generated_at, updated_at) " +
+            "SELECT r.anio, r.mes, COUNT(*), COALESCE(SUM(r.salario_neto), 0), " +
+            "CASE WHEN SUM(CASE WHEN r.estado = 'BORRADOR' THEN 1 ELSE 0 END) > 0 THEN 'BORRADOR' ELSE 'GENERADO' END, " +
+            "MAX(r.created_at), :ahora " +
+            "FROM recibos_salario r GROUP BY r.anio, r.mes", nativeQuery = true)
+    int insertarTodosDesdeRecibos(@Param("ahora") LocalDateTime ahora);
+
+    /** Vuelve a calcular un periodo desde sus recibos. */
+    default void recalcularPeriodo(Integer anio, Integer mes) {
+        eliminarPeriodo(anio, mes);
+        insertarPeriodoDesdeRecibos(anio, mes, LocalDateTime.now());
+    }
+
+    /** Reconstruye el resumen completo. Devuelve la cantidad de periodos. */
+    default int reconstruir() {
+        eliminarTodos();
+        return insertarTodosDesdeRecibos(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,13 @@
+package com.coopreducto.tthh.repository;
+
+import com.coopreducto.tthh.entity.PeriodoEstado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PeriodoEstadoRepository extends JpaRepository<PeriodoEstado, Long> {
+
+    List<PeriodoEstado> findByTipoAndAnioAndMesOrderByIdDesc(String tipo, Integer anio, Integer mes);
+}
@@ -5,12 +5,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReciboComisionRepository
@@ -24,7 +31,39 @@ public interface ReciboComisionRepository
 
     List<ReciboComision> findByAnioAndMes(Integer anio, Integer mes);
 
+    @Query("SELECT r.id FROM ReciboComision r WHERE r.anio = :anio AND r.mes = :mes AND r.estado <> :estado")
+    List<Long> findIdsByAnioAndMesAndEstadoNot(@Param("anio") Integer anio, @Param("mes") Integer mes,
+            @Param("estado") String estado);
+
+    @Query("SELECT r FROM ReciboComision r JOIN FETCH r.empleado WHERE r.id = :id")
+    Optional<ReciboComision> findByIdConEmpleado(@Param("id") Long id);
+
+    /**
+     * Cierre del periodo en una sola sentencia: BORRADOR → GENERADO.
+     * Devuelve la cantidad de comisiones que cambiaron de estado.
+     */
+    @Modifying
+    @Query("UPDATE ReciboComision r SET r.estado = 'GENERADO', r.updatedAt = :ahora " +
+            "WHERE r.anio = :anio AND r.mes = :mes AND r.estado = 'BORRADOR'")
+    int cerrarPeriodo(@Param("anio") Integer anio, @Param("mes") Integer mes, @Param("ahora") LocalDateTime ahora);
+
     @Query("SELECT r FROM ReciboComision r WHERE r.empleado.id = :empleadoId ORDER BY r.anio DESC, r.mes DESC")
     List<ReciboComision> findTopByEmpleadoIdOrderByAnioDescMesDesc(@Param("empleadoId") Long empleadoId,
             Pageable pageable);
+
+    /**
+     * Comisiones filtradas para exportar, leídas por cursor en bloques de 500
+     * filas. Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @Query("SELECT r FROM ReciboComision r JOIN FETCH r.empleado e " +
+            "WHERE (:sucursal IS NULL OR e.sucursal = :sucursal) " +
+            "AND (:empleadoId IS NULL OR e.id = :empleadoId) " +
+            "AND (:mes IS NULL OR r.mes = :mes) " +
+            "AND (:anio IS NULL OR r.anio = :anio) " +
+            "ORDER BY r.anio, r.mes, r.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<ReciboComision> streamParaExportar(@Param("sucursal") String sucursal,
+            @Param("empleadoId") Long empleadoId, @Param("mes") Integer mes, @Param("anio") Integer anio);
 }
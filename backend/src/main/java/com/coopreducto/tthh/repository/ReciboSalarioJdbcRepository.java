@@ -0,0 +1,91 @@
+package com.coopreducto.tthh.repository;
+
+import com.coopreducto.tthh.entity.ReciboSalario;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Escritura masiva de recibos de salario con JDBC batch.
+ * Evita el INSERT fila por fila de Hibernate (IDENTITY deshabilita el batching
+ * de JPA) durante la generación de la nómina mensual.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReciboSalarioJdbcRepository {
+
+    // Un recibo por empleado y periodo (uk_empleado_anio_mes). Los recibos
+    // existentes se descartan antes con buscarConRecibo; si aun así la fila
+    // existe, el recibo se ignora en vez de fallar o duplicarse.
+    private static final String INSERT_RECIBO = "INSERT INTO recibos_salario " +
+            "(empleado_id, anio, mes, fecha_pago, salario_bruto, descuentos_ips, descuentos_jubilacion, " +
+            "otros_descuentos, bonificaciones, salario_neto, estado, observaciones, sucursal, created_at, " +
+            "updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE id = id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Inserta en un único batch los recibos de empleados que todavía no
+     * tienen recibo del periodo y devuelve los insertados. Debe ejecutarse
+     * dentro de una transacción para que el lote se confirme de forma
+     * atómica; todos los recibos deben ser del mismo periodo.
+     *
+     * La lectura de los recibos existentes es con bloqueo (FOR UPDATE):
+     * sobre uk_empleado_anio_mes bloquea también los huecos de los empleados
+     * sin recibo, así que otro proceso (un job reanudado, la confirmación de
+     * una simulación) no puede insertar el mismo recibo hasta el commit.
+     */
+    public List<ReciboSalario> insertarLote(List<ReciboSalario> recibos) {
+        if (recibos.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> conRecibo = buscarConRecibo(recibos.get(0).getAnio(), recibos.get(0).getMes(),
+                recibos.stream().map(r -> r.getEmpleado().getId()).toList());
+        List<ReciboSalario> nuevos = recibos.stream()
+                .filter(r -> !conRecibo.contains(r.getEmpleado().getId()))
+                .toList();
+        if (nuevos.isEmpty()) {
+            return nuevos;
+        }
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_RECIBO, nuevos, nuevos.size(), (ps, r) -> {
+            ps.setLong(1, r.getEmpleado().getId());
+            ps.setInt(2, r.getAnio());
+            ps.setInt(3, r.getMes());
+            ps.setDate(4, Date.valueOf(r.getFechaPago()));
+            ps.setBigDecimal(5, r.getSalarioBruto());
+            ps.setBigDecimal(6, r.getDescuentosIps());
+            ps.setBigDecimal(7, r.getDescuentosJubilacion());
+            ps.setBigDecimal(8, r.getOtrosDescuentos());
+            ps.setBigDecimal(9, r.getBonificaciones());
+            ps.setBigDecimal(10, r.getSalarioNeto());
+            ps.setString(11, r.getEstado());
+            ps.setString(12, r.getObservaciones());
+            ps.setString(13, r.getSucursal());
+            ps.setTimestamp(14, ahora);
+            ps.setTimestamp(15, ahora);
+        });
+        return nuevos;
+    }
+
+    private Set<Long> buscarConRecibo(Integer anio, Integer mes, Collection<Long> empleadoIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("anio", anio)
+                .addValue("mes", mes)
+                .addValue("ids", empleadoIds);
+        return new HashSet<>(namedJdbcTemplate.queryForList("SELECT empleado_id FROM recibos_salario " +
+                "WHERE anio = :anio AND mes = :mes AND empleado_id IN (:ids) FOR UPDATE", params, Long.class));
+    }
+}
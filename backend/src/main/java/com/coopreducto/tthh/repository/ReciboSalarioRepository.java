@@ -6,10 +6,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReciboSalarioRepository
@@ -23,7 +33,16 @@ public interface ReciboSalarioRepository
 
     List<ReciboSalario> findByEmpleadoOrderByAnioDescMesDesc(Empleado empleado);
 
-    List<ReciboSalario> findByEmpleadoAndAnioOrderByMesDesc(Empleado empleado, Integer anio);
+
+    /**
+     * Ingresos del año por empleado para la proyección del aguinaldo:
+     * [empleadoId, nombres, apellidos, numeroDocumento, sucursal, cargo,
+     * recibos, SUM(salarioBruto), SUM(bonificaciones)].
+     */
+    @Query("SELECT e.id, e.nombres, e.apellidos, e.numeroDocumento, e.sucursal, e.cargo, COUNT(r), " +
+            "SUM(r.salarioBruto), SUM(r.bonificaciones) FROM ReciboSalario r JOIN r.empleado e " +
+            "WHERE r.anio = :anio GROUP BY e.id, e.nombres, e.apellidos, e.numeroDocumento, e.sucursal, e.cargo")
+    List<Object[]> sumarIngresosPorEmpleado(@Param("anio") Integer anio);
 
     Optional<ReciboSalario> findByEmpleadoAndAnioAndMes(Empleado empleado, Integer anio, Integer mes);
 
@@ -31,8 +50,65 @@ public interface ReciboSalarioRepository
 
     List<ReciboSalario> findByEstado(String estado);
 
+    @org.springframework.data.jpa.repository.Query("SELECT r.empleado.id FROM ReciboSalario r WHERE r.anio = :anio AND r.mes = :mes")
+    List<Long> findEmpleadoIdsByAnioAndMes(@org.springframework.data.repository.query.Param("anio") Integer anio,
+            @org.springframework.data.repository.query.Param("mes") Integer mes);
+
+    // [empleadoId, reciboId, estado] de los recibos del periodo
+    @Query("SELECT r.empleado.id, r.id, r.estado FROM ReciboSalario r WHERE r.anio = :anio AND r.mes = :mes")
+    List<Object[]> findEstadosByAnioAndMes(@Param("anio") Integer anio, @Param("mes") Integer mes);
+
+    @Query("SELECT r.id FROM ReciboSalario r WHERE r.anio = :anio AND r.mes = :mes AND r.estado <> :estado")
+    List<Long> findIdsByAnioAndMesAndEstadoNot(@Param("anio") Integer anio, @Param("mes") Integer mes,
+            @Param("estado") String estado);
+
+    @Query("SELECT r.id FROM ReciboSalario r WHERE r.anio = :anio AND r.mes = :mes " +
+            "AND (:sucursal IS NULL OR r.empleado.sucursal = :sucursal) " +
+            "ORDER BY r.empleado.sucursal, r.id")
+    List<Long> findIdsByPeriodoAndSucursal(@Param("anio") Integer anio, @Param("mes") Integer mes,
+            @Param("sucursal") String sucursal);
+
+    @Query("SELECT r FROM ReciboSalario r JOIN FETCH r.empleado WHERE r.id = :id")
+    Optional<ReciboSalario> findByIdConEmpleado(@Param("id") Long id);
+
+    /**
+     * Cierre del periodo en una sola sentencia: BORRADOR → GENERADO, fijando
+     * la sucursal actual de cada empleado en su recibo.
+     * Devuelve la cantidad de recibos que cambiaron de estado.
+     */
+    @Modifying
+    @Query("UPDATE ReciboSalario r SET r.estado = 'GENERADO', r.updatedAt = :ahora, " +
+            "r.sucursal = (SELECT e.sucursal FROM Empleado e WHERE e.id = r.empleado.id) " +
+            "WHERE r.anio = :anio AND r.mes = :mes AND r.estado = 'BORRADOR'")
+    int cerrarPeriodo(@Param("anio") Integer anio, @Param("mes") Integer mes, @Param("ahora") LocalDateTime ahora);
+
     Page<ReciboSalario> findByAnio(Integer anio, Pageable pageable);
 
-    @org.springframework.data.jpa.repository.Query("SELECT r.anio, r.mes, COUNT(r), SUM(r.salarioNeto), MAX(r.estado), MAX(r.createdAt) FROM ReciboSalario r GROUP BY r.anio, r.mes ORDER BY r.anio DESC, r.mes DESC")
-    List<Object[]> findPayrollRuns();
+    // ========================================
+    // EXPORTACIÓN (lectura por cursor)
+    // ========================================
+
+    /**
+     * Recibos filtrados para exportar, leídos por cursor en bloques de 500
+     * filas. Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @Query("SELECT r FROM ReciboSalario r JOIN FETCH r.empleado e " +
+            "WHERE (:sucursal IS NULL OR e.sucursal = :sucursal) " +
+            "AND (:empleadoId IS NULL OR e.id = :empleadoId) " +
+            "AND (:mes IS NULL OR r.mes = :mes) " +
+            "AND (:anio IS NULL OR r.anio = :anio) " +
+            "ORDER BY r.anio, r.mes, r.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<ReciboSalario> streamParaExportar(@Param("sucursal") String sucursal,
+            @Param("empleadoId") Long empleadoId, @Param("mes") Integer mes, @Param("anio") Integer anio);
+
+    @Query("SELECT r FROM ReciboSalario r JOIN FETCH r.empleado e " +
+            "WHERE r.anio = :anio AND r.mes = :mes AND r.estado IN :estados ORDER BY r.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<ReciboSalario> streamByAnioAndMesAndEstadoIn(@Param("anio") Integer anio, @Param("mes") Integer mes,
+            @Param("estados") Collection<String> estados);
 }
@@ -0,0 +1,62 @@
+package com.coopreducto.tthh.repository;
+
+import com.coopreducto.tthh.entity.ReporteJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReporteJobRepository extends JpaRepository<ReporteJob, Long> {
+
+    Optional<ReporteJob> findFirstByClaveAndEstadoInOrderByIdDesc(String clave, Collection<String> estados);
+
+    List<ReporteJob> findByEstadoIn(Collection<String> estados);
+
+    List<ReporteJob> findTop20ByOrderByCreatedAtDesc();
+
+    List<ReporteJob> findTop20BySolicitadoPorOrderByCreatedAtDesc(String solicitadoPor);
+
+    List<ReporteJob> findByEstadoInAndExpiraAtBefore(Collection<String> estados, LocalDateTime ahora);
+
+    // Actualizaciones puntuales, igual que en NominaJobRepository: el job se
+    // modifica a la vez desde el runner y desde la API (suscripciones).
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReporteJob j SET j.estado = :estado, j.iniciadoAt = :ahora WHERE j.id = :id")
+    int marcarIniciado(@Param("id") Long id, @Param("estado") String estado, @Param("ahora") LocalDateTime ahora);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReporteJob j SET j.estado = :estado, j.archivo = :archivo, j.bytes = :bytes, " +
+            "j.finalizadoAt = :ahora, j.expiraAt = :expiraAt WHERE j.id = :id")
+    int completar(@Param("id") Long id, @Param("estado") String estado, @Param("archivo") String archivo,
+            @Param("bytes") Long bytes, @Param("ahora") LocalDateTime ahora,
+            @Param("expiraAt") LocalDateTime expiraAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReporteJob j SET j.estado = :estado, j.mensajeError = :mensajeError, j.finalizadoAt = :ahora, " +
+            "j.expiraAt = :expiraAt WHERE j.id = :id")
+    int finalizar(@Param("id") Long id, @Param("estado") String estado,
+            @Param("mensajeError") String mensajeError, @Param("ahora") LocalDateTime ahora,
+            @Param("expiraAt") LocalDateTime expiraAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReporteJob j SET j.suscriptores = :suscriptores WHERE j.id = :id")
+    int actualizarSuscriptores(@Param("id") Long id, @Param("suscriptores") String suscriptores);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReporteJob j SET j.estado = 'EXPIRADO', j.archivo = NULL WHERE j.id = :id")
+    int marcarExpirado(@Param("id") Long id);
+}
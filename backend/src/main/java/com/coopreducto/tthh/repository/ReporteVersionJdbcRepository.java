@@ -0,0 +1,52 @@
+package com.coopreducto.tthh.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Versión de los datos que alimentan una exportación: cantidad de filas y
+ * última modificación. Cualquier alta, baja o cambio de esas filas
+ * produce una versión distinta, por lo que no hace falta invalidar nada al
+ * escribir.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReporteVersionJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public String recibosSalario(Integer anio, Integer mes) {
+        return version("recibos_salario", anio, mes);
+    }
+
+    public String recibosComision(Integer anio, Integer mes) {
+        return version("recibos_comision", anio, mes);
+    }
+
+    public String empleados() {
+        return version("empleados", null, null);
+    }
+
+    private String version(String tabla, Integer anio, Integer mes) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*), MAX(COALESCE(updated_at, created_at)) FROM ")
+                .append(tabla).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (anio != null) {
+            sql.append(" AND anio = ?");
+            args.add(anio);
+        }
+        if (mes != null) {
+            sql.append(" AND mes = ?");
+            args.add(mes);
+        }
+        return jdbcTemplate.queryForObject(sql.toString(), (rs, n) -> {
+            Timestamp ultima = rs.getTimestamp(2);
+            return rs.getLong(1) + "@" + (ultima != null ? ultima.getTime() : 0);
+        }, args.toArray());
+    }
+}
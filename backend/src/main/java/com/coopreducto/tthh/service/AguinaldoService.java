@@ -0,0 +1,21 @@
+package com.coopreducto.tthh.service;
+
+import com.coopreducto.tthh.dto.AguinaldoDTO;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Proyección del aguinaldo (total ganado en el año / 12) a partir de los
+ * recibos de salario. Se calcula para todo el personal con una consulta
+ * agrupada y se mantiene en caché por año.
+ */
+public interface AguinaldoService {
+
+    BigDecimal calcularProyectado(Long empleadoId, Integer anio);
+
+    List<AguinaldoDTO> proyeccion(Integer anio);
+
+    void exportarExcel(Integer anio, OutputStream out);
+}
@@ -1,9 +1,13 @@
 package com.coopreducto.tthh.service;
 
 import com.coopreducto.tthh.dto.AsistenciaDTO;
+import com.coopreducto.tthh.dto.ImportacionMarcacionesDTO;
+import com.coopreducto.tthh.dto.PresenciaDiariaDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface AsistenciaService {
@@ -29,7 +33,36 @@ public interface AsistenciaService {
     // Método para registrar entrada/salida rápida (marcado de reloj)
     AsistenciaDTO marcarReloj(Long empleadoId, String tipoMarca);
 
+    /**
+     * Marcación de alto volumen: se confirma al quedar registrada en el
+     * journal local y se escribe en asistencias en el siguiente volcado.
+     * Devuelve la hora registrada.
+     */
+    LocalDateTime marcarRelojDiferido(Long empleadoId);
+
+    /**
+     * Reconstruye los resúmenes mensual y diario desde asistencias. Devuelve
+     * la cantidad de filas mensuales.
+     */
+    int reconstruirResumenes();
+
+    /**
+     * Presencia de hoy desde memoria: activos, sin marcar y tardanzas, en
+     * total y por sucursal.
+     */
+    PresenciaDiariaDTO obtenerPresenciaHoy(String sucursal, boolean detalle);
+
+    /**
+     * Importa un archivo de marcaciones del reloj biométrico (CSV o .dat)
+     * leyéndolo como stream.
+     */
+    ImportacionMarcacionesDTO importarMarcaciones(InputStream in, String origen);
+
     AsistenciaDTO justificar(Long id, String motivo, String documentoUrl);
 
-    com.coopreducto.tthh.dto.AttendanceGlobalReportDTO obtenerReporteGlobal(int anio, int mes);
+    /**
+     * Tardanzas y descuentos del mes por empleado. La página y el orden se
+     * aplican sobre el ranking; los totales cubren el periodo completo.
+     */
+    com.coopreducto.tthh.dto.AttendanceGlobalReportDTO obtenerReporteGlobal(int anio, int mes, Pageable pageable);
 }
@@ -0,0 +1,21 @@
+package com.coopreducto.tthh.service;
+
+import com.coopreducto.tthh.dto.CacheEstadisticasDTO;
+
+import java.util.List;
+
+public interface CacheService {
+
+    List<CacheEstadisticasDTO> listar();
+
+    CacheEstadisticasDTO limpiar(String nombre);
+
+    void limpiarTodas();
+
+    /**
+     * Vacía la región cuando confirma la transacción actual (o en el acto
+     * si no hay transacción), para que una lectura concurrente no vuelva a
+     * cachear los datos previos al cambio.
+     */
+    void limpiarAlConfirmar(String nombre);
+}
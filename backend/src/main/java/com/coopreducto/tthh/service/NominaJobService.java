@@ -0,0 +1,20 @@
+package com.coopreducto.tthh.service;
+
+import com.coopreducto.tthh.dto.NominaJobDTO;
+
+import java.util.List;
+
+public interface NominaJobService {
+
+    /**
+     * Encola la generación de la nómina del periodo. Si ya existe una corrida
+     * activa para el mismo periodo, devuelve esa.
+     */
+    NominaJobDTO iniciar(Integer anio, Integer mes, String usuario);
+
+    NominaJobDTO findById(Long id);
+
+    List<NominaJobDTO> findRecientes();
+
+    NominaJobDTO cancelar(Long id);
+}
@@ -0,0 +1,30 @@
+package com.coopreducto.tthh.service;
+
+import com.coopreducto.tthh.dto.NominaSimulacionDTO;
+import com.coopreducto.tthh.dto.ReciboSalarioDTO;
+
+/**
+ * Borrador en memoria de la nómina de un periodo para simular el efecto de
+ * cambios de asistencia o salario antes de generar los recibos.
+ */
+public interface NominaSimulacionService {
+
+    /**
+     * Arma (o vuelve a armar) el borrador del periodo a partir de los
+     * agregados de asistencia.
+     */
+    NominaSimulacionDTO iniciar(Integer anio, Integer mes);
+
+    NominaSimulacionDTO obtener(Integer anio, Integer mes);
+
+    ReciboSalarioDTO obtenerRecibo(Integer anio, Integer mes, Long empleadoId);
+
+    /**
+     * Escribe el borrador en recibos_salario: actualiza los recibos BORRADOR
+     * existentes e inserta los faltantes. El borrador se descarta al
+     * comenzar, aunque la escritura falle.
+     */
+    NominaSimulacionDTO confirmar(Integer anio, Integer mes);
+
+    void descartar(Integer anio, Integer mes);
+}
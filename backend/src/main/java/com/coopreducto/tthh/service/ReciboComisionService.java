@@ -5,6 +5,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface ReciboComisionService {
@@ -20,11 +21,15 @@ public interface ReciboComisionService {
 
     Resource getPdfResource(Long id);
 
-    Resource exportarExcel(String sucursal, Long empleadoId, Integer mes, Integer anio);
+    void exportarExcel(String sucursal, Long empleadoId, Integer mes, Integer anio, OutputStream out);
 
-    Resource exportarPdf(String sucursal, Long empleadoId, Integer mes, Integer anio);
+    void exportarPdf(String sucursal, Long empleadoId, Integer mes, Integer anio, OutputStream out);
 
     void generarComisionesMensuales(Integer anio, Integer mes);
 
-    void cerrarComisiones(Integer anio, Integer mes);
+    /**
+     * Pasa las comisiones BORRADOR del periodo a GENERADO y registra el
+     * cierre. Devuelve la cantidad de comisiones cerradas.
+     */
+    int cerrarComisiones(Integer anio, Integer mes, String usuario);
 }
@@ -4,7 +4,7 @@ import com.coopreducto.tthh.dto.ReciboSalarioDTO;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import java.math.BigDecimal;
+import java.io.OutputStream;
 
 public interface ReciboSalarioService {
 
@@ -24,18 +24,28 @@ public interface ReciboSalarioService {
 
     void generarNominaMensual(Integer anio, Integer mes);
 
-    void cerrarNomina(Integer anio, Integer mes);
-
-    BigDecimal calcularAguinaldoProyectado(Long empleadoId);
+    /**
+     * Pasa los recibos BORRADOR del periodo a GENERADO y registra el cierre.
+     * Devuelve la cantidad de recibos cerrados.
+     */
+    int cerrarNomina(Integer anio, Integer mes, String usuario);
 
     com.coopreducto.tthh.dto.PayrollDashboardDTO getDashboardSummary();
 
-    Resource exportarPlanillaBancaria(Integer anio, Integer mes);
+    /**
+     * Recalcula la tabla payroll_runs desde recibos_salario. Devuelve la
+     * cantidad de periodos.
+     */
+    int reconstruirResumenNomina();
+
+    void exportarPlanillaBancaria(Integer anio, Integer mes, OutputStream out);
 
     Page<ReciboSalarioDTO> findByFilters(String sucursal, Long empleadoId, Integer mes, Integer anio,
             Pageable pageable);
 
-    Resource exportarExcel(String sucursal, Long empleadoId, Integer mes, Integer anio);
+    void exportarExcel(String sucursal, Long empleadoId, Integer mes, Integer anio, OutputStream out);
+
+    void exportarPdf(String sucursal, Long empleadoId, Integer mes, Integer anio, OutputStream out);
 
-    Resource exportarPdf(String sucursal, Long empleadoId, Integer mes, Integer anio);
+    void exportarZip(Integer anio, Integer mes, String sucursal, OutputStream out);
 }
@@ -0,0 +1,23 @@
+package com.coopreducto.tthh.service;
+
+import com.coopreducto.tthh.dto.ReporteJobDTO;
+import org.springframework.core.io.Resource;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ReporteJobService {
+
+    /**
+     * Encola la exportación. Si hay un job activo con la misma clave (tipo,
+     * parámetros y versión de los datos) el usuario se suma a ese; si ya hay
+     * un archivo vigente con esa clave se devuelve directamente.
+     */
+    ReporteJobDTO solicitar(String tipo, Map<String, String> parametros, String usuario);
+
+    ReporteJobDTO findById(Long id);
+
+    List<ReporteJobDTO> findRecientes();
+
+    Resource descargar(Long id);
+}
@@ -1,6 +1,8 @@
 package com.coopreducto.tthh.service;
 
 import com.coopreducto.tthh.dto.DashboardAdminDTO;
+import com.coopreducto.tthh.dto.NominaTendenciaDTO;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.Map;
@@ -9,8 +11,12 @@ public interface ReportesService {
 
     DashboardAdminDTO getDashboardAdmin();
 
+    SseEmitter suscribirDashboardAdmin();
+
     Map<String, Object> getReporteNomina(Integer anio, Integer mes);
 
+    NominaTendenciaDTO getNominaTendencia(int meses, String sucursal, boolean porSucursal);
+
     Map<String, Object> getReporteAusentismo(LocalDate fechaInicio, LocalDate fechaFin);
 
     Map<String, Object> getSkillsMatrix();
@@ -0,0 +1,211 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.dto.AguinaldoDTO;
+import com.coopreducto.tthh.event.EmpleadoModificadoEvent;
+import com.coopreducto.tthh.event.RecibosSalarioModificadosEvent;
+import com.coopreducto.tthh.repository.EmpleadoRepository;
+import com.coopreducto.tthh.repository.ReciboSalarioRepository;
+import com.coopreducto.tthh.service.AguinaldoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * La proyección de cada año se arma con una sola consulta agrupada sobre
+ * recibos_salario y queda en memoria hasta que cambian los recibos de ese
+ * año o los datos de un empleado.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@SuppressWarnings("null")
+public class AguinaldoServiceImpl implements AguinaldoService {
+
+    private static final BigDecimal MESES_AGUINALDO = new BigDecimal("12");
+
+    private final ReciboSalarioRepository reciboSalarioRepository;
+    private final EmpleadoRepository empleadoRepository;
+
+    // Año -> (empleadoId -> proyección), ordenado por nombre
+    private final Map<Integer, Map<Long, AguinaldoDTO>> cache = new ConcurrentHashMap<>();
+    // Se incrementa en cada invalidación para no guardar una carga iniciada antes
+    private long version;
+
+    @Override
+    public BigDecimal calcularProyectado(Long empleadoId, Integer anio) {
+        AguinaldoDTO dto = cargar(anio).get(empleadoId);
+        if (dto != null) {
+            return dto.getAguinaldoProyectado();
+        }
+        if (!empleadoRepository.existsById(empleadoId)) {
+            throw new RuntimeException("Empleado no encontrado");
+        }
+        return BigDecimal.ZERO;
+    }
+
+    @Override
+    public List<AguinaldoDTO> proyeccion(Integer anio) {
+        return List.copyOf(cargar(anio).values());
+    }
+
+    @Override
+    public void exportarExcel(Integer anio, OutputStream out) {
+        List<AguinaldoDTO> filas = proyeccion(anio);
+        SXSSFWorkbook workbook = new SXSSFWorkbook(200);
+        try {
+            Sheet sheet = workbook.createSheet("Aguinaldo " + anio);
+
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            headerStyle.setBorderBottom(BorderStyle.THIN);
+
+            String[] columns = { "Documento", "Empleado", "Sucursal", "Cargo", "Meses", "Total Ganado",
+                    "Aguinaldo Proyectado" };
+            int[] anchos = { 14, 35, 20, 25, 8, 18, 20 };
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < columns.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(columns[i]);
+                cell.setCellStyle(headerStyle);
+                sheet.setColumnWidth(i, anchos[i] * 256);
+            }
+
+            CellStyle currencyStyle = workbook.createCellStyle();
+            currencyStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0"));
+
+            int rowIdx = 1;
+            BigDecimal total = BigDecimal.ZERO;
+            for (AguinaldoDTO a : filas) {
+                Row row = sheet.createRow(rowIdx++);
+                row.createCell(0).setCellValue(a.getNumeroDocumento());
+                row.createCell(1).setCellValue(a.getEmpleadoNombre());
+                row.createCell(2).setCellValue(a.getSucursal());
+                row.createCell(3).setCellValue(a.getCargo());
+                row.createCell(4).setCellValue(a.getMeses());
+                row.createCell(5).setCellStyle(currencyStyle);
+                row.getCell(5).setCellValue(a.getTotalGanado().doubleValue());
+                row.createCell(6).setCellStyle(currencyStyle);
+                row.getCell(6).setCellValue(a.getAguinaldoProyectado().doubleValue());
+                total = total.add(a.getAguinaldoProyectado());
+            }
+
+            Row totalRow = sheet.createRow(rowIdx);
+            Cell etiqueta = totalRow.createCell(5);
+            etiqueta.setCellValue("TOTAL");
+            etiqueta.setCellStyle(headerStyle);
+            totalRow.createCell(6).setCellStyle(currencyStyle);
+            totalRow.getCell(6).setCellValue(total.doubleValue());
+
+            workbook.write(out);
+            out.flush();
+        } catch (Exception e) {
+            log.error("Error al exportar proyección de aguinaldo {}", anio, e);
+            throw new RuntimeException("Error al generar Excel de aguinaldo");
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    // ========================================
+    // CACHÉ POR AÑO
+    // ========================================
+
+    private Map<Long, AguinaldoDTO> cargar(Integer anio) {
+        Map<Long, AguinaldoDTO> proyeccion = cache.get(anio);
+        if (proyeccion != null) {
+            return proyeccion;
+        }
+
+        long versionCarga;
+        synchronized (cache) {
+            versionCarga = version;
+        }
+
+        List<AguinaldoDTO> filas = new ArrayList<>();
+        for (Object[] row : reciboSalarioRepository.sumarIngresosPorEmpleado(anio)) {
+            BigDecimal bruto = row[7] != null ? (BigDecimal) row[7] : BigDecimal.ZERO;
+            BigDecimal bonificaciones = row[8] != null ? (BigDecimal) row[8] : BigDecimal.ZERO;
+            BigDecimal totalGanado = bruto.add(bonificaciones);
+            filas.add(AguinaldoDTO.builder()
+                    .empleadoId((Long) row[0])
+                    .empleadoNombre(row[1] + " " + row[2])
+                    .numeroDocumento((String) row[3])
+                    .sucursal((String) row[4])
+                    .cargo((String) row[5])
+                    .anio(anio)
+                    .meses(((Long) row[6]).intValue())
+                    .totalGanado(totalGanado)
+                    // Aguinaldo = Total Ganado en el año / 12
+                    .aguinaldoProyectado(totalGanado.divide(MESES_AGUINALDO, 0, RoundingMode.HALF_UP))
+                    .build());
+        }
+        filas.sort(Comparator.comparing(AguinaldoDTO::getEmpleadoNombre, String.CASE_INSENSITIVE_ORDER));
+
+        Map<Long, AguinaldoDTO> nueva = new LinkedHashMap<>();
+        for (AguinaldoDTO dto : filas) {
+            nueva.put(dto.getEmpleadoId(), dto);
+        }
+        proyeccion = Collections.unmodifiableMap(nueva);
+
+        synchronized (cache) {
+            if (version == versionCarga) {
+                cache.put(anio, proyeccion);
+            }
+        }
+        log.debug("Proyección de aguinaldo {} calculada: {} empleados", anio, proyeccion.size());
+        return proyeccion;
+    }
+
+    private void invalidar(Integer anio) {
+        synchronized (cache) {
+            version++;
+            cache.remove(anio);
+        }
+    }
+
+    // La generación mensual publica fuera de transacción: fallbackExecution
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onRecibosModificados(RecibosSalarioModificadosEvent event) {
+        invalidar(event.getAnio());
+    }
+
+    // Cambian nombre, sucursal o cargo en todas las proyecciones
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onEmpleadoModificado(EmpleadoModificadoEvent event) {
+        synchronized (cache) {
+            version++;
+            cache.clear();
+        }
+    }
+}
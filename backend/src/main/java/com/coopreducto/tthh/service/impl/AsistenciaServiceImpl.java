@@ -1,26 +1,41 @@
 package com.coopreducto.tthh.service.impl;
 
 import com.coopreducto.tthh.dto.AsistenciaDTO;
+import com.coopreducto.tthh.dto.AttendanceGlobalReportDTO;
+import com.coopreducto.tthh.dto.ColaboradorTardanzaDTO;
+import com.coopreducto.tthh.dto.ImportacionMarcacionesDTO;
+import com.coopreducto.tthh.dto.PresenciaDiariaDTO;
 import com.coopreducto.tthh.entity.Asistencia;
 import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.event.AsistenciaModificadaEvent;
 import com.coopreducto.tthh.mapper.AsistenciaMapper;
 import com.coopreducto.tthh.repository.AsistenciaRepository;
+import com.coopreducto.tthh.repository.AsistenciaResumenDiarioRepository;
+import com.coopreducto.tthh.repository.AsistenciaResumenJdbcRepository;
+import com.coopreducto.tthh.repository.AsistenciaResumenJdbcRepository.Delta;
+import com.coopreducto.tthh.repository.AsistenciaResumenMensualRepository;
 import com.coopreducto.tthh.repository.EmpleadoRepository;
 import com.coopreducto.tthh.service.AsistenciaService;
+import com.coopreducto.tthh.util.Guaranies;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
@@ -32,8 +47,15 @@ import java.util.List;
 public class AsistenciaServiceImpl implements AsistenciaService {
 
     private final AsistenciaRepository asistenciaRepository;
+    private final AsistenciaResumenJdbcRepository asistenciaResumenJdbcRepository;
+    private final AsistenciaResumenMensualRepository asistenciaResumenMensualRepository;
+    private final AsistenciaResumenDiarioRepository asistenciaResumenDiarioRepository;
     private final EmpleadoRepository empleadoRepository;
     private final AsistenciaMapper asistenciaMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MarcacionBuffer marcacionBuffer;
+    private final MarcacionImporter marcacionImporter;
+    private final PresenciaDiaria presenciaDiaria;
 
     // Horario de entrada predeterminado: 08:00 AM
     private static final LocalTime HORARIO_ENTRADA = LocalTime.of(8, 0);
@@ -60,6 +82,8 @@ public class AsistenciaServiceImpl implements AsistenciaService {
         calcularRetraso(asistencia);
 
         Asistencia guardado = asistenciaRepository.save(asistencia);
+        actualizarResumenes(null, guardado);
+        publicarModificacion(guardado);
         return asistenciaMapper.toDTO(guardado);
     }
 
@@ -67,6 +91,7 @@ public class AsistenciaServiceImpl implements AsistenciaService {
     public AsistenciaDTO actualizarAsistencia(Long id, AsistenciaDTO dto) {
         Asistencia asistencia = asistenciaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Asistencia no encontrada: " + id));
+        Delta anterior = Delta.de(asistencia, -1);
 
         asistencia.setTipo(dto.getTipo());
         asistencia.setHoraEntrada(dto.getHoraEntrada());
@@ -75,15 +100,22 @@ public class AsistenciaServiceImpl implements AsistenciaService {
 
         calcularRetraso(asistencia);
 
-        return asistenciaMapper.toDTO(asistenciaRepository.save(asistencia));
+        Asistencia guardado = asistenciaRepository.save(asistencia);
+        actualizarResumenes(anterior, guardado);
+        publicarModificacion(guardado);
+        return asistenciaMapper.toDTO(guardado);
     }
 
     @Override
     public void eliminarAsistencia(Long id) {
-        if (!asistenciaRepository.existsById(id)) {
-            throw new RuntimeException("Asistencia no encontrada: " + id);
+        Asistencia asistencia = asistenciaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Asistencia no encontrada: " + id));
+        asistenciaRepository.delete(asistencia);
+        actualizarResumenes(Delta.de(asistencia, -1), null);
+        if (asistencia.getEmpleado() != null && asistencia.getFecha() != null) {
+            eventPublisher.publishEvent(
+                    new AsistenciaModificadaEvent(asistencia.getEmpleado().getId(), asistencia.getFecha(), null));
         }
-        asistenciaRepository.deleteById(id);
     }
 
     @Override
@@ -114,17 +146,17 @@ public class AsistenciaServiceImpl implements AsistenciaService {
     @Override
     @Transactional(readOnly = true)
     public Long contarTardanzas(Long empleadoId, int anio, int mes) {
-        LocalDate inicio = LocalDate.of(anio, mes, 1);
-        LocalDate fin = inicio.withDayOfMonth(inicio.lengthOfMonth());
-        return asistenciaRepository.countTardanzas(empleadoId, inicio, fin);
+        return asistenciaResumenMensualRepository.findByEmpleadoIdAndAnioAndMes(empleadoId, anio, mes)
+                .map(r -> r.getTardanzas().longValue())
+                .orElse(0L);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Long contarAusencias(Long empleadoId, int anio, int mes) {
-        LocalDate inicio = LocalDate.of(anio, mes, 1);
-        LocalDate fin = inicio.withDayOfMonth(inicio.lengthOfMonth());
-        return asistenciaRepository.countAusencias(empleadoId, inicio, fin);
+        return asistenciaResumenMensualRepository.findByEmpleadoIdAndAnioAndMes(empleadoId, anio, mes)
+                .map(r -> r.getAusencias().longValue())
+                .orElse(0L);
     }
 
     @Override
@@ -138,6 +170,7 @@ public class AsistenciaServiceImpl implements AsistenciaService {
 
         Asistencia asistencia = asistenciaRepository.findByEmpleadoIdAndFecha(empleadoId, hoy)
                 .orElse(new Asistencia());
+        Delta anterior = asistencia.getId() != null ? Delta.de(asistencia, -1) : null;
 
         if (asistencia.getId() == null) {
             // Nueva asistencia (Entrada)
@@ -151,13 +184,38 @@ public class AsistenciaServiceImpl implements AsistenciaService {
             asistencia.setHoraSalida(ahora);
         }
 
-        return asistenciaMapper.toDTO(asistenciaRepository.save(asistencia));
+        Asistencia guardado = asistenciaRepository.save(asistencia);
+        actualizarResumenes(anterior, guardado);
+        publicarModificacion(guardado);
+        return asistenciaMapper.toDTO(guardado);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public LocalDateTime marcarRelojDiferido(Long empleadoId) {
+        // Sin transacción: en el pico de entrada no se ocupa una conexión por marcación
+        return marcacionBuffer.registrar(empleadoId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportacionMarcacionesDTO importarMarcaciones(InputStream in, String origen) {
+        // Cada lote de pares (empleado, día) se confirma en su propia transacción
+        return marcacionImporter.importar(in, origen);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PresenciaDiariaDTO obtenerPresenciaHoy(String sucursal, boolean detalle) {
+        // Sin transacción: se responde desde memoria
+        return presenciaDiaria.consultar(sucursal, detalle);
     }
 
     @Override
     public AsistenciaDTO justificar(Long id, String motivo, String documentoUrl) {
         Asistencia asistencia = asistenciaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Asistencia no encontrada"));
+        Delta anterior = Delta.de(asistencia, -1);
 
         asistencia.setJustificado(true);
         asistencia.setObservaciones((asistencia.getObservaciones() != null ? asistencia.getObservaciones() + ". " : "")
@@ -166,49 +224,130 @@ public class AsistenciaServiceImpl implements AsistenciaService {
             asistencia.setDocumentoJustificacion(documentoUrl);
         }
 
-        return asistenciaMapper.toDTO(asistenciaRepository.save(asistencia));
+        Asistencia guardado = asistenciaRepository.save(asistencia);
+        actualizarResumenes(anterior, guardado);
+        publicarModificacion(guardado);
+        return asistenciaMapper.toDTO(guardado);
+    }
+
+    // ========================================
+    // RESÚMENES (asistencia_resumen_mensual / asistencia_resumen_diario)
+    // ========================================
+
+    /**
+     * Quita el aporte anterior del registro y suma el actual, en la misma
+     * transacción que la modificación.
+     */
+    private void actualizarResumenes(Delta anterior, Asistencia actual) {
+        asistenciaResumenJdbcRepository.sumar(Arrays.asList(anterior,
+                actual != null ? Delta.de(actual, 1) : null));
+    }
+
+    @Override
+    public int reconstruirResumenes() {
+        int meses = asistenciaResumenMensualRepository.reconstruir();
+        int dias = asistenciaResumenDiarioRepository.reconstruir();
+        log.info("Resúmenes de asistencia reconstruidos: {} filas mensuales, {} días", meses, dias);
+        return meses;
+    }
+
+    /**
+     * Reconstrucción nocturna: corrige cualquier desfase por cambios hechos
+     * directamente en la base de datos.
+     */
+    @Scheduled(cron = "${app.asistencia.resumen-cron:0 30 2 * * *}")
+    public void reconstruirResumenesProgramado() {
+        reconstruirResumenes();
+    }
+
+    /**
+     * Carga inicial de los resúmenes en bases que ya tenían asistencias.
+     * Lo invoca {@link com.coopreducto.tthh.config.TareasInicio}.
+     */
+    public void inicializarResumenes() {
+        if (asistenciaResumenMensualRepository.count() == 0 && asistenciaRepository.count() > 0) {
+            reconstruirResumenes();
+        }
+    }
+
+    private void publicarModificacion(Asistencia asistencia) {
+        if (asistencia.getEmpleado() != null && asistencia.getFecha() != null) {
+            eventPublisher.publishEvent(
+                    new AsistenciaModificadaEvent(asistencia.getEmpleado().getId(), asistencia.getFecha(),
+                            asistencia.getTipo()));
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
-    public com.coopreducto.tthh.dto.AttendanceGlobalReportDTO obtenerReporteGlobal(int anio, int mes) {
+    public AttendanceGlobalReportDTO obtenerReporteGlobal(int anio, int mes, Pageable pageable) {
         log.info("Generando reporte global de asistencia para {}-{}", anio, mes);
-        List<Empleado> empleados = empleadoRepository.findAll();
-        List<com.coopreducto.tthh.dto.AttendanceGlobalReportDTO.ColaboradorTardanzaDTO> listado = new ArrayList<>();
-
-        for (Empleado e : empleados) {
-            Long minutos = asistenciaRepository.sumMinutosRetrasoMensual(e.getId(), mes, anio);
-            Long cantTardanzas = asistenciaRepository.countTardanzasMensual(e.getId(), mes, anio);
-
-            if (minutos > 0 || cantTardanzas > 0) {
-                BigDecimal salario = e.getSalario() != null ? e.getSalario() : BigDecimal.ZERO;
-                BigDecimal salarioDiario = salario.divide(new BigDecimal("30"), 2, RoundingMode.HALF_UP);
-                BigDecimal salarioHora = salarioDiario.divide(new BigDecimal("8"), 2, RoundingMode.HALF_UP);
-                BigDecimal salarioMinuto = salarioHora.divide(new BigDecimal("60"), 2, RoundingMode.HALF_UP);
-                BigDecimal descuento = salarioMinuto.multiply(BigDecimal.valueOf(minutos));
-
-                listado.add(com.coopreducto.tthh.dto.AttendanceGlobalReportDTO.ColaboradorTardanzaDTO.builder()
-                        .empleadoId(e.getId())
-                        .colaborador(e.getNombreCompleto())
-                        .cantidadTardanzas(cantTardanzas.intValue())
-                        .totalMinutosRetraso(minutos)
-                        .totalDescuento(descuento)
-                        .build());
-            }
+
+        // Una fila por empleado del resumen mensual; descuentos y totales en una pasada
+        List<ColaboradorTardanzaDTO> listado = new ArrayList<>();
+        long totalMinutos = 0;
+        Guaranies totalDescuento = Guaranies.CERO;
+        for (Object[] row : asistenciaResumenMensualRepository.tardanzasPorEmpleado(anio, mes)) {
+            long minutos = ((Number) row[5]).longValue();
+            Guaranies descuento = NominaCalculator.descuentoTardanzas(Guaranies.of((BigDecimal) row[3]), minutos);
+            totalMinutos += minutos;
+            totalDescuento = totalDescuento.sumar(descuento);
+
+            listado.add(ColaboradorTardanzaDTO.builder()
+                    .empleadoId((Long) row[0])
+                    .colaborador(row[1] + " " + row[2])
+                    .cantidadTardanzas(((Number) row[4]).intValue())
+                    .totalMinutosRetraso(minutos)
+                    .totalDescuento(descuento.toBigDecimal())
+                    .build());
         }
 
-        // Ordenar por total descuento (descendente)
-        listado.sort(Comparator
-                .comparing(com.coopreducto.tthh.dto.AttendanceGlobalReportDTO.ColaboradorTardanzaDTO::getTotalDescuento)
-                .reversed());
+        // Orden y página sobre las filas ya agregadas (una por empleado)
+        listado.sort(comparadorReporte(pageable.getSort()));
+        int total = listado.size();
+        int desde = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), total) : 0;
+        int hasta = pageable.isPaged() ? Math.min(desde + pageable.getPageSize(), total) : total;
 
-        return com.coopreducto.tthh.dto.AttendanceGlobalReportDTO.builder()
+        return AttendanceGlobalReportDTO.builder()
                 .anio(anio)
                 .mes(mes)
-                .tardanzas(listado)
+                .tardanzas(new ArrayList<>(listado.subList(desde, hasta)))
+                .totalColaboradores(total)
+                .totalMinutosRetraso(totalMinutos)
+                .totalDescuento(totalDescuento.toBigDecimal())
+                .pagina(pageable.isPaged() ? pageable.getPageNumber() : 0)
+                .tamanio(pageable.isPaged() ? pageable.getPageSize() : total)
+                .totalPaginas(pageable.isPaged() ? (total + pageable.getPageSize() - 1) / pageable.getPageSize() : 1)
                 .build();
     }
 
+    /**
+     * Comparador para los campos del reporte global; por defecto mayor
+     * descuento primero.
+     */
+    private Comparator<ColaboradorTardanzaDTO> comparadorReporte(Sort sort) {
+        Comparator<ColaboradorTardanzaDTO> comparador = null;
+        for (Sort.Order orden : sort) {
+            Comparator<ColaboradorTardanzaDTO> campo = switch (orden.getProperty()) {
+                case "colaborador" -> Comparator.comparing(ColaboradorTardanzaDTO::getColaborador,
+                        String.CASE_INSENSITIVE_ORDER);
+                case "cantidadTardanzas" -> Comparator.comparing(ColaboradorTardanzaDTO::getCantidadTardanzas);
+                case "totalMinutosRetraso" -> Comparator.comparing(ColaboradorTardanzaDTO::getTotalMinutosRetraso);
+                case "totalDescuento" -> Comparator.comparing(ColaboradorTardanzaDTO::getTotalDescuento);
+                default -> throw new RuntimeException("Campo de orden no válido: " + orden.getProperty());
+            };
+            if (orden.isDescending()) {
+                campo = campo.reversed();
+            }
+            comparador = comparador == null ? campo : comparador.thenComparing(campo);
+        }
+        if (comparador == null) {
+            comparador = Comparator.comparing(ColaboradorTardanzaDTO::getTotalDescuento).reversed();
+        }
+        // Desempate estable entre páginas
+        return comparador.thenComparing(ColaboradorTardanzaDTO::getEmpleadoId);
+    }
+
     private void calcularRetraso(Asistencia asistencia) {
         if (asistencia.getHoraEntrada() != null && asistencia.getEmpleado() != null) {
             LocalTime horaEstablecida = asistencia.getEmpleado().getHorarioEntrada();
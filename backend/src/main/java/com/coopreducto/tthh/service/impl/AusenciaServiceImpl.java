@@ -3,10 +3,12 @@ package com.coopreducto.tthh.service.impl;
 import com.coopreducto.tthh.dto.AusenciaDTO;
 import com.coopreducto.tthh.entity.Ausencia;
 import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.event.AusenciaModificadaEvent;
 import com.coopreducto.tthh.repository.AusenciaRepository;
 import com.coopreducto.tthh.repository.EmpleadoRepository;
 import com.coopreducto.tthh.service.AusenciaService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -23,6 +25,7 @@ public class AusenciaServiceImpl implements AusenciaService {
     private final AusenciaRepository ausenciaRepository;
     private final EmpleadoRepository empleadoRepository;
     private final com.coopreducto.tthh.service.WebPushService webPushService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -61,6 +64,7 @@ public class AusenciaServiceImpl implements AusenciaService {
         ausencia.setEstado("PENDIENTE");
 
         Ausencia savedAusencia = ausenciaRepository.save(ausencia);
+        eventPublisher.publishEvent(new AusenciaModificadaEvent(savedAusencia.getId()));
 
         // Notify TTHH Admins
         String empleadoNombre = empleado.getNombres() + " " + empleado.getApellidos();
@@ -80,6 +84,7 @@ public class AusenciaServiceImpl implements AusenciaService {
 
         updateEntityFromDTO(ausencia, ausenciaDTO);
         Ausencia updatedAusencia = ausenciaRepository.save(ausencia);
+        eventPublisher.publishEvent(new AusenciaModificadaEvent(updatedAusencia.getId()));
 
         return convertToDTO(updatedAusencia);
     }
@@ -98,6 +103,7 @@ public class AusenciaServiceImpl implements AusenciaService {
         ausencia.setAprobadoPor(com.coopreducto.tthh.util.SecurityUtils.getCurrentUsername());
 
         Ausencia updatedAusencia = ausenciaRepository.save(ausencia);
+        eventPublisher.publishEvent(new AusenciaModificadaEvent(updatedAusencia.getId()));
         return convertToDTO(updatedAusencia);
     }
 
@@ -116,6 +122,7 @@ public class AusenciaServiceImpl implements AusenciaService {
         ausencia.setAprobadoPor(com.coopreducto.tthh.util.SecurityUtils.getCurrentUsername());
 
         Ausencia updatedAusencia = ausenciaRepository.save(ausencia);
+        eventPublisher.publishEvent(new AusenciaModificadaEvent(updatedAusencia.getId()));
         return convertToDTO(updatedAusencia);
     }
 
@@ -125,6 +132,7 @@ public class AusenciaServiceImpl implements AusenciaService {
             throw new RuntimeException("Ausencia no encontrada con ID: " + id);
         }
         ausenciaRepository.deleteById(id);
+        eventPublisher.publishEvent(new AusenciaModificadaEvent(id));
     }
 
     private AusenciaDTO convertToDTO(Ausencia ausencia) {
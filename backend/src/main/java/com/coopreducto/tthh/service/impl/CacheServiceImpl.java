@@ -0,0 +1,148 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.config.CacheConfig;
+import com.coopreducto.tthh.config.TtlCache;
+import com.coopreducto.tthh.dto.CacheEstadisticasDTO;
+import com.coopreducto.tthh.event.AusenciaModificadaEvent;
+import com.coopreducto.tthh.event.EmpleadoModificadoEvent;
+import com.coopreducto.tthh.event.PeriodoCerradoEvent;
+import com.coopreducto.tthh.event.RecibosSalarioModificadosEvent;
+import com.coopreducto.tthh.event.SolicitudModificadaEvent;
+import com.coopreducto.tthh.service.CacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Estadísticas y limpieza de las regiones de {@link CacheConfig}, e
+ * invalidación por eventos de dominio.
+ *
+ * Las invalidaciones se hacen después del commit: si se vaciara la región
+ * antes, una lectura concurrente podría volver a cachear los datos previos
+ * y servirlos hasta que venzan.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheServiceImpl implements CacheService {
+
+    private final CacheManager cacheManager;
+
+    @Override
+    public List<CacheEstadisticasDTO> listar() {
+        return cacheManager.getCacheNames().stream()
+                .sorted()
+                .map(nombre -> toDTO(region(nombre)))
+                .toList();
+    }
+
+    @Override
+    public CacheEstadisticasDTO limpiar(String nombre) {
+        Cache cache = region(nombre);
+        cache.clear();
+        log.info("Caché '{}' vaciada manualmente", nombre);
+        return toDTO(cache);
+    }
+
+    @Override
+    public void limpiarTodas() {
+        cacheManager.getCacheNames().forEach(nombre -> region(nombre).clear());
+        log.info("Todas las cachés vaciadas manualmente");
+    }
+
+    @Override
+    public void limpiarAlConfirmar(String nombre) {
+        Cache cache = region(nombre);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.clear();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.clear();
+            }
+        });
+    }
+
+    // ========================================
+    // INVALIDACIÓN POR EVENTOS
+    // ========================================
+
+    // Plantel, salarios y datos demográficos
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onEmpleadoModificado(EmpleadoModificadoEvent event) {
+        region(CacheConfig.DASHBOARD_ADMIN).clear();
+        region(CacheConfig.REPORTE_DEMOGRAFIA).clear();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onSolicitudModificada(SolicitudModificadaEvent event) {
+        region(CacheConfig.DASHBOARD_ADMIN).clear();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onAusenciaModificada(AusenciaModificadaEvent event) {
+        region(CacheConfig.DASHBOARD_ADMIN).clear();
+    }
+
+    // Cambian los totales del año, posiblemente los últimos periodos y la
+    // nómina pagada del dashboard (alta manual de recibos)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onRecibosModificados(RecibosSalarioModificadosEvent event) {
+        Cache cache = region(CacheConfig.NOMINA_RESUMEN);
+        cache.evict("ultimos");
+        cache.evict("total-" + event.getAnio());
+        region(CacheConfig.DASHBOARD_ADMIN).clear();
+    }
+
+    // El cierre cambia el estado del periodo y la serie de nómina pagada
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onPeriodoCerrado(PeriodoCerradoEvent event) {
+        region(CacheConfig.NOMINA_RESUMEN).evict("ultimos");
+        region(CacheConfig.DASHBOARD_ADMIN).clear();
+    }
+
+    private Cache region(String nombre) {
+        Cache cache = cacheManager.getCache(nombre);
+        if (cache == null) {
+            throw new RuntimeException("Caché no encontrada: " + nombre);
+        }
+        return cache;
+    }
+
+    private static CacheEstadisticasDTO toDTO(Cache cache) {
+        CacheEstadisticasDTO.CacheEstadisticasDTOBuilder dto = CacheEstadisticasDTO.builder()
+                .nombre(cache.getName());
+        if (cache instanceof TtlCache ttlCache) {
+            TtlCache.Estadisticas e = ttlCache.estadisticas();
+            long consultas = e.getAciertos() + e.getFallos();
+            dto.ttlSegundos(ttlCache.getTtl().toSeconds())
+                    .maxEntradas(ttlCache.getMaxEntradas())
+                    .entradas(e.getEntradas())
+                    .aciertos(e.getAciertos())
+                    .fallos(e.getFallos())
+                    .tasaAciertos(consultas > 0 ? e.getAciertos() * 100.0 / consultas : 0.0)
+                    .escrituras(e.getEscrituras())
+                    .desalojos(e.getDesalojos())
+                    .vencidas(e.getVencidas())
+                    .invalidaciones(e.getInvalidaciones());
+        }
+        return dto.build();
+    }
+}
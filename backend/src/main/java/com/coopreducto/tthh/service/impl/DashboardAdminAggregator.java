@@ -0,0 +1,315 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.dto.CumpleanosManualDTO;
+import com.coopreducto.tthh.dto.DashboardAdminDTO;
+import com.coopreducto.tthh.dto.NominaTendenciaDTO;
+import com.coopreducto.tthh.entity.Ausencia;
+import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.entity.Solicitud;
+import com.coopreducto.tthh.repository.AusenciaRepository;
+import com.coopreducto.tthh.repository.DashboardJdbcRepository;
+import com.coopreducto.tthh.repository.DashboardJdbcRepository.Kpis;
+import com.coopreducto.tthh.repository.EmpleadoRepository;
+import com.coopreducto.tthh.repository.SolicitudRepository;
+import com.coopreducto.tthh.service.CumpleanosService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Arma el dashboard de administración.
+ *
+ * Los indicadores escalares salen de una sola sentencia agrupada
+ * ({@link DashboardJdbcRepository#kpis}); las listas (sucursales,
+ * cumpleaños, últimas solicitudes y ausencias, tendencia de nómina) son
+ * independientes y se
+ * consultan a la vez en el pool "dashboardExecutor", cada una en su propia
+ * transacción de solo lectura. Se registra el tiempo de cada sección.
+ */
+@Slf4j
+@Component
+public class DashboardAdminAggregator {
+
+    static final int DIAS_ALERTA_CERTIFICACION = 30;
+    private static final int MAX_ULTIMAS_SOLICITUDES = 20;
+    private static final int MESES_TENDENCIA_NOMINA = 6;
+
+    private final DashboardJdbcRepository dashboardJdbcRepository;
+    private final EmpleadoRepository empleadoRepository;
+    private final SolicitudRepository solicitudRepository;
+    private final AusenciaRepository ausenciaRepository;
+    private final CumpleanosService cumpleanosService;
+    private final NominaTendencia nominaTendencia;
+    private final TransactionTemplate lectura;
+    private final Executor dashboardExecutor;
+
+    public DashboardAdminAggregator(DashboardJdbcRepository dashboardJdbcRepository,
+            EmpleadoRepository empleadoRepository, SolicitudRepository solicitudRepository,
+            AusenciaRepository ausenciaRepository, CumpleanosService cumpleanosService,
+            NominaTendencia nominaTendencia, PlatformTransactionManager transactionManager,
+            @Qualifier("dashboardExecutor") Executor dashboardExecutor) {
+        this.dashboardJdbcRepository = dashboardJdbcRepository;
+        this.empleadoRepository = empleadoRepository;
+        this.solicitudRepository = solicitudRepository;
+        this.ausenciaRepository = ausenciaRepository;
+        this.cumpleanosService = cumpleanosService;
+        this.nominaTendencia = nominaTendencia;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.dashboardExecutor = dashboardExecutor;
+    }
+
+    public DashboardAdminDTO cargar() {
+        long inicio = System.currentTimeMillis();
+        LocalDate hoy = LocalDate.now();
+        Map<String, Long> tiempos = new ConcurrentHashMap<>();
+
+        CompletableFuture<Kpis> kpisF = seccion("kpis", tiempos,
+                () -> dashboardJdbcRepository.kpis(hoy, hoy.plusDays(DIAS_ALERTA_CERTIFICACION)), null);
+        CompletableFuture<Map<String, Long>> sucursalesF = seccion("sucursales", tiempos,
+                this::colaboradoresPorSucursal, new HashMap<>());
+        CompletableFuture<Cumpleanios> cumpleaniosF = seccion("cumpleanios", tiempos,
+                () -> cumpleanios(hoy), new Cumpleanios(0L, new ArrayList<>()));
+        CompletableFuture<List<DashboardAdminDTO.SolicitudResumenDTO>> solicitudesF = seccion("solicitudes",
+                tiempos, this::ultimasSolicitudes, new ArrayList<>());
+        CompletableFuture<List<DashboardAdminDTO.SolicitudResumenDTO>> ausenciasF = seccion("ausencias",
+                tiempos, this::ultimasAusencias, new ArrayList<>());
+        CompletableFuture<List<NominaTendenciaDTO.PuntoDTO>> nominaF = seccion("nomina", tiempos,
+                () -> nominaTendencia.calcular(MESES_TENDENCIA_NOMINA, null, false).getSerie(), new ArrayList<>());
+
+        // Sin KPIs no hay dashboard: el error llega al llamador
+        Kpis kpis = kpisF.join();
+        DashboardAdminDTO dashboard = new DashboardAdminDTO();
+
+        // KPIs Principales
+        dashboard.setColaboradoresActivos(kpis.getEmpleadosActivos());
+        dashboard.setColaboradoresInactivos(kpis.getEmpleadosInactivos());
+        dashboard.setSolicitudesPendientes(kpis.getSolicitudesPendientes() + kpis.getAusenciasPendientes());
+        dashboard.setCertificacionesPorVencer(kpis.getCertificacionesPorVencer());
+
+        // Solicitudes por estado (solicitudes genéricas + ausencias)
+        Map<String, Long> porEstado = new HashMap<>();
+        porEstado.put("PENDIENTE", dashboard.getSolicitudesPendientes());
+        porEstado.put("APROBADA", kpis.getSolicitudesAprobadas() + kpis.getAusenciasAprobadas());
+        porEstado.put("RECHAZADA", kpis.getSolicitudesRechazadas() + kpis.getAusenciasRechazadas());
+        dashboard.setSolicitudesPorEstado(porEstado);
+
+        Map<String, Long> porTipo = new HashMap<>();
+        porTipo.put("VACACIONES", kpis.getSolicitudesVacaciones());
+        porTipo.put("PERMISO", kpis.getSolicitudesPermiso());
+        dashboard.setSolicitudesPorTipo(porTipo);
+
+        dashboard.setAlertas(alertas(dashboard));
+
+        // Nómina mensual estimada (suma de salarios de empleados activos)
+        BigDecimal nominaTotal = kpis.getSalariosActivos();
+        dashboard.setNominaMensualEstimada(nominaTotal);
+        // Nómina pagada: neto del último periodo con recibos (nomina_serie_mensual)
+        List<NominaTendenciaDTO.PuntoDTO> serieNomina = nominaF.join();
+        List<DashboardAdminDTO.TendenciaMensual> tendenciaNomina = new ArrayList<>();
+        for (NominaTendenciaDTO.PuntoDTO punto : serieNomina) {
+            tendenciaNomina.add(new DashboardAdminDTO.TendenciaMensual(punto.getEtiqueta(), punto.getAnio(),
+                    punto.getTotalNeto(), punto.getEmpleados().longValue()));
+        }
+        dashboard.setNominaMensualPagada(serieNomina.isEmpty() ? BigDecimal.ZERO
+                : serieNomina.get(serieNomina.size() - 1).getTotalNeto());
+        dashboard.setNominaUltimos6Meses(tendenciaNomina);
+
+        dashboard.setColaboradoresPorDepartamento(sucursalesF.join());
+
+        Cumpleanios cumpleanios = cumpleaniosF.join();
+        dashboard.setCumpleaniosMesActual(cumpleanios.getDelMes());
+        dashboard.setProximosCumpleanios(cumpleanios.getProximos());
+
+        // Últimas pendientes: solicitudes y ausencias mezcladas por fecha
+        List<DashboardAdminDTO.SolicitudResumenDTO> ultimas = new ArrayList<>(solicitudesF.join());
+        ultimas.addAll(ausenciasF.join());
+        ultimas.sort((a, b) -> LocalDateTime.parse(b.getFechaCreacion())
+                .compareTo(LocalDateTime.parse(a.getFechaCreacion())));
+        if (ultimas.size() > MAX_ULTIMAS_SOLICITUDES) {
+            ultimas = new ArrayList<>(ultimas.subList(0, MAX_ULTIMAS_SOLICITUDES));
+        }
+        dashboard.setUltimasSolicitudes(ultimas);
+
+        // Defaults for other fields
+        dashboard.setHorasFormacionMes(0);
+        dashboard.setHorasFormacionAnio(0);
+        dashboard.setColaboradoresPorCargo(new HashMap<>());
+        dashboard.setAusenciasUltimos6Meses(new ArrayList<>());
+        dashboard.setTopHabilidades(new ArrayList<>());
+
+        log.info("Dashboard admin cargado en {} ms {} ({} colaboradores activos)",
+                System.currentTimeMillis() - inicio, tiempos, dashboard.getColaboradoresActivos());
+        return dashboard;
+    }
+
+    /**
+     * Ejecuta una sección en el pool, en su propia transacción de solo
+     * lectura. Si falla devuelve {@code vacio}; con {@code vacio} null el
+     * error se propaga.
+     */
+    private <T> CompletableFuture<T> seccion(String nombre, Map<String, Long> tiempos, Supplier<T> consulta,
+            T vacio) {
+        return CompletableFuture.supplyAsync(() -> {
+            long inicio = System.nanoTime();
+            try {
+                return lectura.execute(status -> consulta.get());
+            } catch (RuntimeException e) {
+                if (vacio == null) {
+                    throw e;
+                }
+                log.warn("Dashboard admin: error en la sección {}: {}", nombre, e.getMessage());
+                return vacio;
+            } finally {
+                tiempos.put(nombre, (System.nanoTime() - inicio) / 1_000_000);
+            }
+        }, dashboardExecutor);
+    }
+
+    // ========================================
+    // SECCIONES
+    // ========================================
+
+    private Map<String, Long> colaboradoresPorSucursal() {
+        Map<String, Long> porSucursal = new HashMap<>();
+        for (Object[] row : empleadoRepository.countBySucursal()) {
+            if (row != null && row.length >= 2 && row[0] != null) {
+                porSucursal.put(row[0].toString(), (Long) row[1]);
+            }
+        }
+        return porSucursal;
+    }
+
+    // Cumpleaños próximos (Configurable: Manual o Automático)
+    private Cumpleanios cumpleanios(LocalDate hoy) {
+        List<DashboardAdminDTO.CumpleaniosDTO> proximosCumples = new ArrayList<>();
+        try {
+            List<CumpleanosManualDTO> proximos = cumpleanosService.getProximos(5);
+            long delMes = cumpleanosService.getCumpleanosDelMes().size();
+            for (CumpleanosManualDTO dto : proximos) {
+                LocalDate fechaNac = dto.getFechaNacimiento();
+                proximosCumples.add(new DashboardAdminDTO.CumpleaniosDTO(
+                        dto.getId(),
+                        dto.getNombreCompleto(),
+                        "Colaborador",
+                        "Sucursal",
+                        fechaNac != null ? fechaNac.getDayOfMonth() : 0,
+                        fechaNac != null ? fechaNac.getMonthValue() : 0,
+                        diasHastaCumpleanios(fechaNac, hoy),
+                        dto.getAvatarUrl()));
+            }
+            return new Cumpleanios(delMes, proximosCumples);
+        } catch (Exception e) {
+            log.warn("Error al cargar cumpleaños: {}. Usando fallback.", e.getMessage());
+        }
+
+        // Fallback: usar empleadoRepository directamente
+        proximosCumples.clear();
+        for (Empleado emp : empleadoRepository.findProximosCumpleanios(5)) {
+            LocalDate fechaNac = emp.getFechaNacimiento();
+            proximosCumples.add(new DashboardAdminDTO.CumpleaniosDTO(
+                    emp.getId(), emp.getNombres() + " " + emp.getApellidos(), emp.getCargo(), emp.getSucursal(),
+                    fechaNac != null ? fechaNac.getDayOfMonth() : 0,
+                    fechaNac != null ? fechaNac.getMonthValue() : 0,
+                    diasHastaCumpleanios(fechaNac, hoy), emp.getFotoUrl()));
+        }
+        return new Cumpleanios((long) empleadoRepository.findCumpleaniosDelMes().size(), proximosCumples);
+    }
+
+    private List<DashboardAdminDTO.SolicitudResumenDTO> ultimasSolicitudes() {
+        List<DashboardAdminDTO.SolicitudResumenDTO> ultimas = new ArrayList<>();
+        for (Solicitud s : solicitudRepository.findTop20ByEstadoOrderByCreatedAtDesc("PENDIENTE")) {
+            ultimas.add(new DashboardAdminDTO.SolicitudResumenDTO(
+                    s.getId(),
+                    s.getTitulo() != null ? s.getTitulo() : "Sin título",
+                    s.getTipo() != null ? s.getTipo() : "OTRO",
+                    s.getEstado() != null ? s.getEstado() : "PENDIENTE",
+                    s.getPrioridad() != null ? s.getPrioridad() : "MEDIA",
+                    s.getEmpleado() != null
+                            ? s.getEmpleado().getNombres() + " " + s.getEmpleado().getApellidos()
+                            : "Sin asignar",
+                    s.getCreatedAt() != null ? s.getCreatedAt().toString() : LocalDateTime.now().toString()));
+        }
+        return ultimas;
+    }
+
+    private List<DashboardAdminDTO.SolicitudResumenDTO> ultimasAusencias() {
+        List<DashboardAdminDTO.SolicitudResumenDTO> ultimas = new ArrayList<>();
+        for (Ausencia a : ausenciaRepository.findTop20ByEstadoOrderByCreatedAtDesc("PENDIENTE",
+                PageRequest.of(0, MAX_ULTIMAS_SOLICITUDES))) {
+            ultimas.add(new DashboardAdminDTO.SolicitudResumenDTO(
+                    a.getId(), // El frontend distingue ausencias por el título
+                    "Ausencia: " + (a.getMotivo() != null ? a.getMotivo() : "Solicitud de ausencia"),
+                    a.getTipo() != null ? a.getTipo() : "AUSENCIA",
+                    a.getEstado() != null ? a.getEstado() : "PENDIENTE",
+                    "MEDIA", // Default priority for absences
+                    a.getEmpleado() != null
+                            ? a.getEmpleado().getNombres() + " " + a.getEmpleado().getApellidos()
+                            : "Sin asignar",
+                    a.getCreatedAt() != null ? a.getCreatedAt().toString() : LocalDateTime.now().toString()));
+        }
+        return ultimas;
+    }
+
+    // ========================================
+    // CÁLCULOS EN MEMORIA
+    // ========================================
+
+    private List<DashboardAdminDTO.AlertaDTO> alertas(DashboardAdminDTO dashboard) {
+        List<DashboardAdminDTO.AlertaDTO> alertas = new ArrayList<>();
+        if (dashboard.getSolicitudesPendientes() > 0) {
+            alertas.add(new DashboardAdminDTO.AlertaDTO(
+                    "SOLICITUD_PENDIENTE",
+                    "Hay " + dashboard.getSolicitudesPendientes() + " solicitudes pendientes de revisión",
+                    "ALTA",
+                    null,
+                    "SOLICITUD"));
+        }
+        if (dashboard.getCertificacionesPorVencer() > 0) {
+            alertas.add(new DashboardAdminDTO.AlertaDTO(
+                    "CERTIFICACION_VENCIMIENTO",
+                    dashboard.getCertificacionesPorVencer() + " certificaciones vencen en los próximos "
+                            + DIAS_ALERTA_CERTIFICACION + " días",
+                    "MEDIA",
+                    null,
+                    "CERTIFICACION"));
+        }
+        return alertas;
+    }
+
+    private static Integer diasHastaCumpleanios(LocalDate fechaNac, LocalDate hoy) {
+        if (fechaNac == null) {
+            return 0;
+        }
+        LocalDate proxCumple = fechaNac.withYear(hoy.getYear());
+        if (proxCumple.isBefore(hoy)) {
+            proxCumple = proxCumple.plusYears(1);
+        }
+        return (int) ChronoUnit.DAYS.between(hoy, proxCumple);
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class Cumpleanios {
+        private Long delMes;
+        private List<DashboardAdminDTO.CumpleaniosDTO> proximos;
+    }
+}
@@ -0,0 +1,331 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.dto.PresenciaDiariaDTO;
+import com.coopreducto.tthh.event.AsistenciaModificadaEvent;
+import com.coopreducto.tthh.event.AusenciaModificadaEvent;
+import com.coopreducto.tthh.event.EmpleadoModificadoEvent;
+import com.coopreducto.tthh.event.SolicitudModificadaEvent;
+import com.coopreducto.tthh.repository.DashboardJdbcRepository;
+import com.coopreducto.tthh.repository.DashboardJdbcRepository.Kpis;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Indicadores en vivo del dashboard de administración por Server-Sent
+ * Events (/reportes/dashboard-admin/stream).
+ *
+ * Los eventos de dominio solo marcan el estado como pendiente. Cada
+ * ventana de app.dashboard.stream.ventana-ms, si hubo cambios y hay
+ * suscriptores, los indicadores se calculan una vez (una sentencia más la
+ * presencia en memoria) y se envía a todos el mismo mensaje con los
+ * valores que cambiaron. El costo no depende de cuántos dashboards estén
+ * abiertos.
+ *
+ * Mensajes: "snapshot" con todos los valores al suscribirse, "delta" con
+ * los que cambiaron y un comentario periódico para que los proxies no
+ * cierren la conexión. Cada mensaje lleva una versión creciente.
+ *
+ * El scheduler solo encola: cada conexión tiene su cola y a lo sumo una
+ * tarea en el pool "sseExecutor" que la vacía en orden. Una conexión con un
+ * envío trabado más de app.dashboard.stream.envio-timeout-ms, o con
+ * {@value #MAX_PENDIENTES} mensajes sin enviar, se descarta (el navegador
+ * se reconecta); la escritura bloqueada termina con el timeout de escritura
+ * del conector.
+ */
+@Slf4j
+@Component
+public class DashboardStream {
+
+    private static final int MAX_PENDIENTES = 20;
+
+    private final DashboardJdbcRepository dashboardJdbcRepository;
+    private final PresenciaDiaria presenciaDiaria;
+    private final ObjectMapper objectMapper;
+    private final Executor sseExecutor;
+    private final long timeoutMs;
+    private final long envioTimeoutMs;
+
+    private final List<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean pendiente = new AtomicBoolean();
+
+    // Último estado enviado, protegido por "this". Los mensajes también se
+    // encolan con "this" tomado para que lleguen en orden de versión.
+    private Map<String, Object> ultimo;
+    private LocalDate fecha;
+    private long version;
+
+    public DashboardStream(DashboardJdbcRepository dashboardJdbcRepository, PresenciaDiaria presenciaDiaria,
+            ObjectMapper objectMapper, @Qualifier("sseExecutor") Executor sseExecutor,
+            @Value("${app.dashboard.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${app.dashboard.stream.envio-timeout-ms:10000}") long envioTimeoutMs) {
+        this.dashboardJdbcRepository = dashboardJdbcRepository;
+        this.presenciaDiaria = presenciaDiaria;
+        this.objectMapper = objectMapper;
+        this.sseExecutor = sseExecutor;
+        this.timeoutMs = timeoutMs;
+        this.envioTimeoutMs = envioTimeoutMs;
+    }
+
+    public SseEmitter suscribir() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscriptor suscriptor = new Suscriptor(emitter);
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+        emitter.onTimeout(() -> suscriptores.remove(suscriptor));
+        emitter.onError(e -> suscriptores.remove(suscriptor));
+
+        synchronized (this) {
+            if (ultimo == null || pendiente.get() || !LocalDate.now().equals(fecha)) {
+                publicarCambios();
+            }
+            Map<String, Object> snapshot = new LinkedHashMap<>(ultimo);
+            snapshot.put("version", version);
+            snapshot.put("generadoAt", LocalDateTime.now().toString());
+            // Se encola antes de agregarlo: ningún delta le llega antes que el snapshot
+            suscriptor.encolar(evento("snapshot", json(snapshot)));
+            suscriptores.add(suscriptor);
+        }
+        log.debug("Dashboard en vivo: {} suscriptores", suscriptores.size());
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.stream.ventana-ms:2000}")
+    public void publicarPendientes() {
+        if (suscriptores.isEmpty()) {
+            return; // Sin dashboards abiertos no se calcula nada
+        }
+        synchronized (this) {
+            if (pendiente.get() || !LocalDate.now().equals(fecha)) {
+                publicarCambios();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.stream.heartbeat-ms:25000}")
+    public void latido() {
+        long ahora = System.currentTimeMillis();
+        for (Suscriptor suscriptor : suscriptores) {
+            if (suscriptor.trabado(ahora)) {
+                suscriptor.descartar("envío trabado");
+            } else {
+                suscriptor.encolar(() -> SseEmitter.event().comment("latido"));
+            }
+        }
+    }
+
+    // ========================================
+    // EVENTOS
+    // ========================================
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onSolicitudModificada(SolicitudModificadaEvent event) {
+        pendiente.set(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onAusenciaModificada(AusenciaModificadaEvent event) {
+        pendiente.set(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onEmpleadoModificado(EmpleadoModificadoEvent event) {
+        pendiente.set(true);
+    }
+
+    // Solo las marcaciones de hoy cambian la presencia
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onAsistenciaModificada(AsistenciaModificadaEvent event) {
+        if (LocalDate.now().equals(event.getFecha())) {
+            pendiente.set(true);
+        }
+    }
+
+    // ========================================
+    // CÁLCULO Y ENVÍO
+    // ========================================
+
+    // Con "this" tomado
+    private void publicarCambios() {
+        // Se limpia antes de calcular: un evento que llega durante el cálculo
+        // vuelve a marcarlo para la próxima ventana
+        pendiente.set(false);
+        LocalDate hoy = LocalDate.now();
+        Map<String, Object> actual = calcular(hoy);
+
+        Map<String, Object> cambios = new LinkedHashMap<>();
+        actual.forEach((clave, valor) -> {
+            if (ultimo == null || !Objects.equals(ultimo.get(clave), valor)) {
+                cambios.put(clave, valor);
+            }
+        });
+        ultimo = actual;
+        fecha = hoy;
+        if (cambios.isEmpty()) {
+            return;
+        }
+
+        version++;
+        cambios.put("version", version);
+        cambios.put("generadoAt", LocalDateTime.now().toString());
+        Supplier<SseEventBuilder> delta = evento("delta", json(cambios));
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.encolar(delta);
+        }
+    }
+
+    private Map<String, Object> calcular(LocalDate hoy) {
+        Kpis kpis = dashboardJdbcRepository.kpis(hoy,
+                hoy.plusDays(DashboardAdminAggregator.DIAS_ALERTA_CERTIFICACION));
+        PresenciaDiariaDTO presencia = presenciaDiaria.consultar(null, false);
+
+        Map<String, Object> valores = new LinkedHashMap<>();
+        valores.put("colaboradoresActivos", kpis.getEmpleadosActivos());
+        valores.put("colaboradoresInactivos", kpis.getEmpleadosInactivos());
+        valores.put("solicitudesPendientes", kpis.getSolicitudesPendientes() + kpis.getAusenciasPendientes());
+        valores.put("solicitudesNuevasHoy", kpis.getSolicitudesNuevasHoy());
+        valores.put("ausenciasHoy", kpis.getAusenciasEnCurso());
+        valores.put("certificacionesPorVencer", kpis.getCertificacionesPorVencer());
+        valores.put("presentesHoy", presencia.getRegistrados());
+        valores.put("sinMarcarHoy", presencia.getSinMarcar());
+        valores.put("tardanzasHoy", presencia.getTardanzas());
+        return valores;
+    }
+
+    // El mensaje se serializa una vez para todos los suscriptores
+    private String json(Map<String, Object> valores) {
+        try {
+            return objectMapper.writeValueAsString(valores);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error al serializar el dashboard en vivo", e);
+        }
+    }
+
+    // El builder acumula el texto al enviarse: se crea uno por envío
+    private static Supplier<SseEventBuilder> evento(String nombre, String mensaje) {
+        return () -> SseEmitter.event().name(nombre).data(mensaje, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Conexión abierta con su cola de mensajes. "enviando" garantiza una sola
+     * tarea por conexión, así los mensajes salen en el orden encolado.
+     */
+    private class Suscriptor {
+
+        private final SseEmitter emitter;
+        private final Queue<Supplier<SseEventBuilder>> cola = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendientes = new AtomicInteger();
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private volatile long envioDesde; // 0 = sin envío en curso
+        private volatile boolean cerrado;
+
+        Suscriptor(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void encolar(Supplier<SseEventBuilder> evento) {
+            if (cerrado) {
+                return;
+            }
+            if (pendientes.incrementAndGet() > MAX_PENDIENTES) {
+                descartar("demasiados mensajes pendientes");
+                return;
+            }
+            cola.add(evento);
+            programar();
+        }
+
+        boolean trabado(long ahora) {
+            long desde = envioDesde;
+            return desde > 0 && ahora - desde > envioTimeoutMs;
+        }
+
+        /** Deja de encolarle mensajes; la tarea de envío cierra la conexión. */
+        void descartar(String motivo) {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            suscriptores.remove(this);
+            cola.clear();
+            if (motivo != null) {
+                log.debug("Dashboard en vivo: conexión descartada ({})", motivo);
+            }
+            programar();
+        }
+
+        private void programar() {
+            if (!enviando.compareAndSet(false, true)) {
+                return; // La tarea en curso toma lo encolado
+            }
+            try {
+                sseExecutor.execute(this::vaciar);
+            } catch (TaskRejectedException e) {
+                enviando.set(false);
+                if (!cerrado) {
+                    descartar("pool de envíos lleno");
+                }
+            }
+        }
+
+        private void vaciar() {
+            try {
+                Supplier<SseEventBuilder> evento;
+                while (!cerrado && (evento = cola.poll()) != null) {
+                    pendientes.decrementAndGet();
+                    envioDesde = System.currentTimeMillis();
+                    emitter.send(evento.get());
+                    envioDesde = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                descartar(null); // El cliente cerró la conexión
+            } finally {
+                envioDesde = 0;
+                enviando.set(false);
+            }
+            if (cerrado) {
+                completar();
+            } else if (!cola.isEmpty()) {
+                programar(); // Encolado mientras se liberaba "enviando"
+            }
+        }
+
+        private void completar() {
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                // Ya cerrada por el contenedor
+            }
+        }
+    }
+}
@@ -2,16 +2,16 @@ package com.coopreducto.tthh.service.impl;
 
 import com.coopreducto.tthh.dto.EmpleadoDTO;
 import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.event.EmpleadoModificadoEvent;
 import com.coopreducto.tthh.mapper.EmpleadoMapper;
 import com.coopreducto.tthh.repository.EmpleadoRepository;
 import com.coopreducto.tthh.service.EmpleadoService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Caching;
 
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -29,6 +29,7 @@ public class EmpleadoServiceImpl implements EmpleadoService {
     private final EmpleadoRepository empleadoRepository;
     private final EmpleadoMapper empleadoMapper;
     private final com.coopreducto.tthh.service.FileStorageService fileStorageService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ========================================
     // CRUD BÁSICO
@@ -57,10 +58,6 @@ public class EmpleadoServiceImpl implements EmpleadoService {
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "dashboardAdmin", allEntries = true),
-            @CacheEvict(value = "reporteDemografia", allEntries = true)
-    })
     public EmpleadoDTO crear(EmpleadoDTO empleadoDTO) {
         log.info("Creando empleado: {}", empleadoDTO.getNombres());
 
@@ -83,16 +80,13 @@ public class EmpleadoServiceImpl implements EmpleadoService {
             throw new RuntimeException("Error al crear la entidad del empleado");
         }
         Empleado empleadoGuardado = empleadoRepository.save(empleado);
+        eventPublisher.publishEvent(new EmpleadoModificadoEvent(empleadoGuardado.getId()));
 
         log.info("Empleado creado exitosamente con ID: {}", empleadoGuardado.getId());
         return empleadoMapper.toDTO(empleadoGuardado);
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "dashboardAdmin", allEntries = true),
-            @CacheEvict(value = "reporteDemografia", allEntries = true)
-    })
     public EmpleadoDTO actualizar(Long id, EmpleadoDTO empleadoDTO) {
         log.info("Actualizando empleado ID: {}", id);
 
@@ -112,6 +106,7 @@ public class EmpleadoServiceImpl implements EmpleadoService {
             throw new RuntimeException("Error al actualizar el empleado");
         }
         Empleado empleadoActualizado = empleadoRepository.save(empleadoExistente);
+        eventPublisher.publishEvent(new EmpleadoModificadoEvent(id));
 
         log.info("Empleado actualizado exitosamente: {}", id);
         return empleadoMapper.toDTO(empleadoActualizado);
@@ -132,10 +127,6 @@ public class EmpleadoServiceImpl implements EmpleadoService {
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "dashboardAdmin", allEntries = true),
-            @CacheEvict(value = "reporteDemografia", allEntries = true)
-    })
     public void eliminar(Long id) {
         log.info("Eliminando empleado ID: {}", id);
 
@@ -147,6 +138,7 @@ public class EmpleadoServiceImpl implements EmpleadoService {
         }
 
         empleadoRepository.deleteById(id);
+        eventPublisher.publishEvent(new EmpleadoModificadoEvent(id));
         log.info("Empleado eliminado exitosamente: {}", id);
     }
 
@@ -266,10 +258,6 @@ public class EmpleadoServiceImpl implements EmpleadoService {
     // ========================================
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "dashboardAdmin", allEntries = true),
-            @CacheEvict(value = "reporteDemografia", allEntries = true)
-    })
     public EmpleadoDTO cambiarEstado(Long id, String nuevoEstado, String motivo) {
         log.info("Cambiando estado del empleado {} a {}", id, nuevoEstado);
 
@@ -288,6 +276,7 @@ public class EmpleadoServiceImpl implements EmpleadoService {
         }
 
         Empleado empleadoActualizado = empleadoRepository.save(empleado);
+        eventPublisher.publishEvent(new EmpleadoModificadoEvent(id));
 
         log.info("Estado cambiado de {} a {} para empleado {}", estadoAnterior, nuevoEstado, id);
         return empleadoMapper.toDTO(empleadoActualizado);
@@ -318,6 +307,7 @@ public class EmpleadoServiceImpl implements EmpleadoService {
         // Aquí podrías agregar un campo fechaFinSuspension si lo necesitas
 
         Empleado empleadoActualizado = empleadoRepository.save(empleado);
+        eventPublisher.publishEvent(new EmpleadoModificadoEvent(id));
         return empleadoMapper.toDTO(empleadoActualizado);
     }
 
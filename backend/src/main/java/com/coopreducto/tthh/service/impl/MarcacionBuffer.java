@@ -0,0 +1,319 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.service.impl.MarcacionEscritor.Clave;
+import com.coopreducto.tthh.service.impl.MarcacionEscritor.Pendiente;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingreso de marcaciones de reloj con escritura diferida.
+ *
+ * Cada marcación se agrega a un journal local y se confirma al cliente
+ * recién cuando el journal está sincronizado a disco (fsync compartido entre
+ * las marcaciones concurrentes). Un proceso programado agrupa las pendientes
+ * por (empleado, fecha) y las escribe con {@link MarcacionEscritor} cada
+ * pocos cientos de milisegundos. Los segmentos del journal se borran solo
+ * después del commit; al iniciar se reaplican los que hayan quedado (la
+ * escritura es idempotente).
+ *
+ * El volcado corre en un hilo propio y no en el scheduler compartido de
+ * Spring: las tareas nocturnas largas (reconstrucción de resúmenes,
+ * limpiezas) no deben demorar la escritura de las marcaciones.
+ *
+ * Con app.marcaciones.buffer.enabled=false (importación por línea de
+ * comandos) no se toca el journal: sus segmentos pertenecen a la instancia
+ * en línea.
+ */
+@Slf4j
+@Component
+public class MarcacionBuffer {
+
+    private static final String PREFIJO_SEGMENTO = "marcaciones-";
+    private static final String EXTENSION_SEGMENTO = ".log";
+    private static final String REGISTRADO_POR = "RELOJ";
+
+    private final MarcacionEscritor marcacionEscritor;
+    private final TransactionTemplate tx;
+    private final Path directorio;
+    private final long flushMs;
+    private final boolean habilitado;
+    private ScheduledExecutorService volcador;
+
+    // Estado del journal y de las pendientes, protegido por "lock"
+    private final Object lock = new Object();
+    private Map<Clave, Pendiente> pendientes = new HashMap<>();
+    private final List<Path> cerrados = new ArrayList<>();
+    private FileChannel canal;
+    private long segmento;
+    private boolean detenido;
+
+    // Último (segmento, posición) sincronizado a disco, protegido por "lockSync"
+    private final Object lockSync = new Object();
+    private long segmentoSincronizado;
+    private long posicionSincronizada;
+
+    public MarcacionBuffer(MarcacionEscritor marcacionEscritor,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.file-storage.base-path:uploads}") String basePath,
+            @Value("${app.marcaciones.flush-ms:300}") long flushMs,
+            @Value("${app.marcaciones.buffer.enabled:true}") boolean habilitado) {
+        this.marcacionEscritor = marcacionEscritor;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.directorio = Paths.get(basePath).toAbsolutePath().normalize().resolve("marcaciones");
+        this.flushMs = flushMs;
+        this.habilitado = habilitado;
+    }
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        if (!habilitado) {
+            detenido = true;
+            log.info("Marcaciones: buffer deshabilitado, no se usa el journal");
+            return;
+        }
+        Files.createDirectories(directorio);
+
+        // Segmentos de una ejecución anterior: se reaplican en el próximo volcado
+        TreeMap<Long, Path> existentes = new TreeMap<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio,
+                PREFIJO_SEGMENTO + "*" + EXTENSION_SEGMENTO)) {
+            for (Path path : archivos) {
+                existentes.put(numeroSegmento(path), path);
+            }
+        }
+        int recuperadas = 0;
+        for (Path path : existentes.values()) {
+            recuperadas += reproducir(path);
+            cerrados.add(path);
+        }
+        if (recuperadas > 0) {
+            log.warn("Marcaciones: {} marcaciones recuperadas de {} segmentos del journal", recuperadas,
+                    existentes.size());
+        }
+
+        segmento = existentes.isEmpty() ? 1 : existentes.lastKey() + 1;
+        canal = abrirSegmento(segmento);
+
+        volcador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "marcaciones-volcado");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        volcador.scheduleWithFixedDelay(this::volcarProgramado, flushMs, flushMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registra la marcación del empleado con la hora actual. Vuelve cuando la
+     * marcación está sincronizada en el journal; se escribe en asistencias en
+     * el siguiente volcado.
+     */
+    public LocalDateTime registrar(Long empleadoId) {
+        // Valida el empleado antes de escribir en el journal
+        marcacionEscritor.horario(empleadoId);
+
+        LocalDateTime ahora = LocalDateTime.now();
+        ByteBuffer linea = ByteBuffer.wrap((empleadoId + ";" + ahora + "\n").getBytes(StandardCharsets.UTF_8));
+        long segmentoEscrito;
+        long posicion;
+        synchronized (lock) {
+            if (detenido) {
+                throw new RuntimeException("El registro de marcaciones se está deteniendo");
+            }
+            try {
+                while (linea.hasRemaining()) {
+                    canal.write(linea);
+                }
+                segmentoEscrito = segmento;
+                posicion = canal.position();
+            } catch (IOException e) {
+                throw new RuntimeException("No se pudo registrar la marcación", e);
+            }
+            MarcacionEscritor.acumular(pendientes, empleadoId, ahora, ahora);
+        }
+        sincronizar(segmentoEscrito, posicion);
+        return ahora;
+    }
+
+    /**
+     * Escribe las marcaciones pendientes en asistencias en una transacción y
+     * borra los segmentos del journal que cubren.
+     */
+    public synchronized void volcar() {
+        Map<Clave, Pendiente> lote;
+        List<Path> segmentos;
+        synchronized (lock) {
+            if (detenido || (pendientes.isEmpty() && cerrados.isEmpty())) {
+                return;
+            }
+            try {
+                if (!pendientes.isEmpty()) {
+                    rotar();
+                }
+            } catch (IOException e) {
+                log.error("Marcaciones: no se pudo rotar el journal: {}", e.getMessage());
+                return;
+            }
+            lote = pendientes;
+            pendientes = new HashMap<>();
+            segmentos = new ArrayList<>(cerrados);
+        }
+
+        try {
+            MarcacionEscritor.Resultado escritas = tx.execute(
+                    status -> marcacionEscritor.escribir(lote, REGISTRADO_POR));
+            synchronized (lock) {
+                cerrados.removeAll(segmentos);
+            }
+            for (Path path : segmentos) {
+                Files.deleteIfExists(path);
+            }
+            if (!lote.isEmpty()) {
+                log.debug("Marcaciones: {} nuevas, {} salidas actualizadas", escritas.getInsertadas(),
+                        escritas.getActualizadas());
+            }
+        } catch (Exception e) {
+            // Se reintenta en el próximo volcado; los segmentos siguen en disco
+            log.error("Marcaciones: error al volcar {} marcaciones: {}", lote.size(), e.getMessage());
+            synchronized (lock) {
+                lote.forEach((clave, p) -> MarcacionEscritor.acumular(pendientes, clave.getEmpleadoId(),
+                        p.getPrimera(), p.getUltima()));
+            }
+        }
+    }
+
+    // Una excepción no capturada cancelaría las ejecuciones siguientes
+    private void volcarProgramado() {
+        try {
+            volcar();
+        } catch (RuntimeException e) {
+            log.error("Marcaciones: error inesperado en el volcado: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (!habilitado) {
+            return;
+        }
+        volcador.shutdown();
+        try {
+            volcador.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        volcar();
+        synchronized (lock) {
+            detenido = true;
+            try {
+                canal.force(false);
+                canal.close();
+            } catch (IOException e) {
+                log.warn("Marcaciones: no se pudo cerrar el journal: {}", e.getMessage());
+            }
+        }
+    }
+
+    // ========================================
+    // JOURNAL
+    // ========================================
+
+    /**
+     * fsync compartido: si otra marcación ya sincronizó hasta esta posición
+     * (o el segmento se cerró) no se vuelve a sincronizar.
+     */
+    private void sincronizar(long segmentoEscrito, long posicion) {
+        synchronized (lockSync) {
+            if (segmentoEscrito < segmentoSincronizado
+                    || (segmentoEscrito == segmentoSincronizado && posicion <= posicionSincronizada)) {
+                return;
+            }
+            long hasta;
+            FileChannel actual;
+            synchronized (lock) {
+                if (segmentoEscrito < segmento) {
+                    return; // rotar() sincronizó el segmento al cerrarlo
+                }
+                actual = canal;
+                try {
+                    hasta = canal.position();
+                } catch (IOException e) {
+                    throw new RuntimeException("No se pudo registrar la marcación", e);
+                }
+            }
+            try {
+                actual.force(false);
+            } catch (ClosedChannelException e) {
+                return; // Se rotó mientras tanto: rotar() ya lo sincronizó
+            } catch (IOException e) {
+                throw new RuntimeException("No se pudo registrar la marcación", e);
+            }
+            segmentoSincronizado = segmentoEscrito;
+            posicionSincronizada = hasta;
+        }
+    }
+
+    // Con "lock" tomado
+    private void rotar() throws IOException {
+        canal.force(false);
+        canal.close();
+        cerrados.add(archivoSegmento(segmento));
+        segmento++;
+        canal = abrirSegmento(segmento);
+    }
+
+    private FileChannel abrirSegmento(long numero) throws IOException {
+        return FileChannel.open(archivoSegmento(numero), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private int reproducir(Path path) throws IOException {
+        int recuperadas = 0;
+        for (String linea : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            String[] partes = linea.split(";");
+            try {
+                LocalDateTime hora = LocalDateTime.parse(partes[1]);
+                MarcacionEscritor.acumular(pendientes, Long.parseLong(partes[0]), hora, hora);
+                recuperadas++;
+            } catch (RuntimeException e) {
+                // Última línea cortada por una caída a mitad de escritura
+                log.warn("Marcaciones: línea inválida en {}: '{}'", path.getFileName(), linea);
+            }
+        }
+        return recuperadas;
+    }
+
+    private Path archivoSegmento(long numero) {
+        return directorio.resolve(String.format("%s%020d%s", PREFIJO_SEGMENTO, numero, EXTENSION_SEGMENTO));
+    }
+
+    private static long numeroSegmento(Path path) {
+        String nombre = path.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO_SEGMENTO.length(),
+                nombre.length() - EXTENSION_SEGMENTO.length()));
+    }
+}
@@ -0,0 +1,185 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.event.AsistenciaModificadaEvent;
+import com.coopreducto.tthh.event.EmpleadoModificadoEvent;
+import com.coopreducto.tthh.repository.AsistenciaJdbcRepository;
+import com.coopreducto.tthh.repository.AsistenciaJdbcRepository.Existente;
+import com.coopreducto.tthh.repository.AsistenciaJdbcRepository.Nueva;
+import com.coopreducto.tthh.repository.AsistenciaResumenJdbcRepository;
+import com.coopreducto.tthh.repository.AsistenciaResumenJdbcRepository.Delta;
+import com.coopreducto.tthh.repository.EmpleadoRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Escribe marcaciones agrupadas por (empleado, fecha) en asistencias (y
+ * sus resúmenes) con JDBC batch. Lo usan el buffer de marcaciones y la
+ * importación de archivos de reloj.
+ *
+ * Aplicar el mismo lote dos veces deja el mismo resultado: la primera
+ * marcación del día es la entrada y la última posterior a ella, la salida.
+ * Un registro existente solo se actualiza si la marcación es posterior a su
+ * salida (o a su entrada, si no tiene salida).
+ *
+ * La lectura de los registros del día bloquea sus claves en
+ * uk_empleado_fecha: otro proceso (una importación, una marcación manual)
+ * no puede crear el registro del día entre la lectura y la escritura, así
+ * que cada registro insertado suma una sola vez a los resúmenes diario y
+ * mensual. Dos lotes concurrentes sobre los mismos empleados pueden
+ * terminar en deadlock; el que MySQL aborta se reintenta (el buffer en el
+ * próximo volcado, la importación de inmediato).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MarcacionEscritor {
+
+    private static final LocalTime HORARIO_PREDETERMINADO = LocalTime.of(8, 0);
+
+    private final EmpleadoRepository empleadoRepository;
+    private final AsistenciaJdbcRepository asistenciaJdbcRepository;
+    private final AsistenciaResumenJdbcRepository asistenciaResumenJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Horario de entrada por empleado; se descarta al modificar el empleado
+    private final Map<Long, LocalTime> horarios = new ConcurrentHashMap<>();
+
+    /**
+     * Escribe el lote. Debe ejecutarse dentro de una transacción.
+     */
+    public Resultado escribir(Map<Clave, Pendiente> lote, String registradoPor) {
+        // Normalmente un solo día (salvo marcaciones cerca de la medianoche)
+        Map<LocalDate, Map<Long, Pendiente>> porFecha = new TreeMap<>();
+        lote.forEach((clave, p) -> porFecha.computeIfAbsent(clave.getFecha(), f -> new HashMap<>())
+                .put(clave.getEmpleadoId(), p));
+
+        Resultado resultado = new Resultado(0, 0);
+        for (Map.Entry<LocalDate, Map<Long, Pendiente>> dia : porFecha.entrySet()) {
+            LocalDate fecha = dia.getKey();
+            Map<Long, Existente> existentes = asistenciaJdbcRepository.buscarDelDia(fecha, dia.getValue().keySet());
+
+            List<Nueva> nuevas = new ArrayList<>();
+            Map<Long, LocalDateTime> salidas = new HashMap<>();
+            Map<Long, String> tipos = new HashMap<>();
+            dia.getValue().forEach((empleadoId, p) -> {
+                Existente existente = existentes.get(empleadoId);
+                if (existente == null) {
+                    LocalTime horario = horarioParaEscritura(empleadoId);
+                    if (horario == null) {
+                        return;
+                    }
+                    LocalDateTime entrada = p.getPrimera();
+                    long minutos = Math.max(0, ChronoUnit.MINUTES.between(horario, entrada.toLocalTime()));
+                    String tipo = minutos > 0 ? "TARDANZA" : "PRESENTE";
+                    nuevas.add(new Nueva(empleadoId, fecha, tipo, entrada,
+                            p.getUltima().isAfter(entrada) ? p.getUltima() : null, (int) minutos, registradoPor));
+                    tipos.put(empleadoId, tipo);
+                } else {
+                    tipos.put(empleadoId, existente.getTipo());
+                    LocalDateTime referencia = existente.getHoraSalida() != null ? existente.getHoraSalida()
+                            : existente.getHoraEntrada();
+                    if (referencia == null || p.getUltima().isAfter(referencia)) {
+                        salidas.put(existente.getId(), p.getUltima());
+                    }
+                }
+            });
+
+            resultado.insertadas += asistenciaJdbcRepository.insertarLote(nuevas);
+            resultado.actualizadas += asistenciaJdbcRepository.actualizarSalidas(salidas);
+            // Solo los registros nuevos cambian los resúmenes (la salida no cuenta)
+            asistenciaResumenJdbcRepository.sumar(nuevas.stream()
+                    .map(n -> new Delta(n.getEmpleadoId(), fecha, n.getTipo(), n.getMinutosRetraso(), false, 1))
+                    .toList());
+            tipos.forEach((empleadoId, tipo) -> eventPublisher.publishEvent(
+                    new AsistenciaModificadaEvent(empleadoId, fecha, tipo)));
+        }
+        return resultado;
+    }
+
+    /**
+     * Horario de entrada del empleado (08:00 si no tiene). Lanza excepción si
+     * el empleado no existe.
+     */
+    public LocalTime horario(Long empleadoId) {
+        LocalTime horario = horarios.get(empleadoId);
+        if (horario == null) {
+            horario = empleadoRepository.findById(empleadoId)
+                    .map(e -> e.getHorarioEntrada() != null ? e.getHorarioEntrada() : HORARIO_PREDETERMINADO)
+                    .orElseThrow(() -> new RuntimeException("Empleado no encontrado"));
+            horarios.put(empleadoId, horario);
+        }
+        return horario;
+    }
+
+    /**
+     * Carga anticipada de horarios (p. ej. al importar un archivo con todo
+     * el personal).
+     */
+    public void precargarHorario(Long empleadoId, LocalTime horarioEntrada) {
+        horarios.put(empleadoId, horarioEntrada != null ? horarioEntrada : HORARIO_PREDETERMINADO);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEmpleadoModificado(EmpleadoModificadoEvent event) {
+        horarios.remove(event.getEmpleadoId());
+    }
+
+    // Un empleado eliminado después de marcar no debe bloquear el resto del lote
+    private LocalTime horarioParaEscritura(Long empleadoId) {
+        try {
+            return horario(empleadoId);
+        } catch (RuntimeException e) {
+            log.warn("Marcaciones: se descarta la marcación del empleado {}: {}", empleadoId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Agrega una marcación (o un rango ya agrupado) al lote.
+     */
+    public static void acumular(Map<Clave, Pendiente> destino, Long empleadoId, LocalDateTime primera,
+            LocalDateTime ultima) {
+        destino.merge(new Clave(empleadoId, primera.toLocalDate()), new Pendiente(primera, ultima),
+                (actual, nueva) -> new Pendiente(
+                        nueva.getPrimera().isBefore(actual.getPrimera()) ? nueva.getPrimera() : actual.getPrimera(),
+                        nueva.getUltima().isAfter(actual.getUltima()) ? nueva.getUltima() : actual.getUltima()));
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Clave {
+        private Long empleadoId;
+        private LocalDate fecha;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Pendiente {
+        private LocalDateTime primera;
+        private LocalDateTime ultima;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Resultado {
+        private int insertadas;
+        private int actualizadas;
+    }
+}
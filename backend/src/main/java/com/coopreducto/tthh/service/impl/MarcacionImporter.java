@@ -0,0 +1,385 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.dto.ImportacionMarcacionesDTO;
+import com.coopreducto.tthh.repository.EmpleadoRepository;
+import com.coopreducto.tthh.service.impl.MarcacionEscritor.Clave;
+import com.coopreducto.tthh.service.impl.MarcacionEscritor.Pendiente;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Importación de archivos de marcaciones de los relojes biométricos.
+ *
+ * Formatos aceptados, una marcación por línea:
+ * <ul>
+ * <li>CSV con ',' o ';': {@code documento,2025-03-01 07:58:12[,...]}</li>
+ * <li>Exportación .dat del reloj (columnas separadas por tabulador o
+ * espacios de relleno): {@code   4328485\t2025-03-01 07:58:12\t1\t0}</li>
+ * </ul>
+ * La fecha puede venir como yyyy-MM-dd o dd/MM/yyyy y los segundos son
+ * opcionales. Una primera línea sin documento se toma como cabecera.
+ *
+ * El archivo se lee por bloques y cada línea se interpreta sobre el mismo
+ * buffer de bytes, sin crear Strings. Las marcaciones se agrupan por
+ * (empleado, día) y se escriben con {@link MarcacionEscritor} cada
+ * {@value #MAX_PENDIENTES} pares, por lo que la memoria no depende del tamaño
+ * del archivo. Como la escritura es idempotente, reimportar un archivo (o
+ * reintentar uno que falló a mitad) no duplica registros.
+ */
+@Slf4j
+@Component
+public class MarcacionImporter {
+
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+    private static final int MAX_PENDIENTES = 5_000;
+    private static final int MAX_DETALLE_RECHAZOS = 100;
+    private static final String REGISTRADO_POR = "IMPORTACION";
+    private static final int MAX_INTENTOS_LOTE = 3;
+
+    private final EmpleadoRepository empleadoRepository;
+    private final MarcacionEscritor marcacionEscritor;
+    private final TransactionTemplate tx;
+
+    public MarcacionImporter(EmpleadoRepository empleadoRepository, MarcacionEscritor marcacionEscritor,
+            PlatformTransactionManager transactionManager) {
+        this.empleadoRepository = empleadoRepository;
+        this.marcacionEscritor = marcacionEscritor;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    public ImportacionMarcacionesDTO importar(InputStream in, String origen) {
+        long inicioMs = System.currentTimeMillis();
+        Importacion importacion = new Importacion(origen, cargarDocumentos());
+
+        byte[] buf = new byte[TAMANIO_BUFFER];
+        int inicio = 0;
+        int fin = 0;
+        boolean descartando = false; // Resto de una línea más larga que el buffer
+        boolean eof = false;
+        try {
+            while (!eof) {
+                if (inicio > 0) {
+                    System.arraycopy(buf, inicio, buf, 0, fin - inicio);
+                    fin -= inicio;
+                    inicio = 0;
+                }
+                int leidos = in.read(buf, fin, buf.length - fin);
+                if (leidos < 0) {
+                    eof = true;
+                } else {
+                    fin += leidos;
+                }
+
+                int nl;
+                while ((nl = indexOf(buf, (byte) '\n', inicio, fin)) >= 0) {
+                    if (descartando) {
+                        descartando = false;
+                    } else {
+                        importacion.procesarLinea(buf, inicio, nl);
+                    }
+                    inicio = nl + 1;
+                }
+                if (eof && inicio < fin && !descartando) {
+                    importacion.procesarLinea(buf, inicio, fin);
+                    inicio = fin;
+                } else if (fin - inicio == buf.length) {
+                    // Cuenta como línea: los números de línea de los rechazos siguientes no se corren
+                    importacion.lineas++;
+                    importacion.rechazar("línea demasiado larga");
+                    descartando = true;
+                    inicio = fin;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer el archivo de marcaciones: " + e.getMessage(), e);
+        }
+        importacion.escribirPendientes();
+
+        long duracionMs = Math.max(1, System.currentTimeMillis() - inicioMs);
+        ImportacionMarcacionesDTO resultado = ImportacionMarcacionesDTO.builder()
+                .origen(origen)
+                .lineas(importacion.lineas)
+                .aceptadas(importacion.aceptadas)
+                .rechazadas(importacion.rechazadas)
+                .diasEmpleado(importacion.diasEmpleado)
+                .registrosNuevos(importacion.registrosNuevos)
+                .salidasActualizadas(importacion.salidasActualizadas)
+                .duracionMs(duracionMs)
+                .lineasPorSegundo(importacion.lineas * 1000 / duracionMs)
+                .detalleRechazos(importacion.detalleRechazos)
+                .build();
+        log.info("Importación de marcaciones '{}': {} líneas, {} aceptadas, {} rechazadas, {} nuevas, "
+                + "{} salidas actualizadas en {} ms ({} líneas/s)", origen, resultado.getLineas(),
+                resultado.getAceptadas(), resultado.getRechazadas(), resultado.getRegistrosNuevos(),
+                resultado.getSalidasActualizadas(), duracionMs, resultado.getLineasPorSegundo());
+        return resultado;
+    }
+
+    /**
+     * Documento (solo dígitos) -> id de empleado; de paso precarga los
+     * horarios de entrada para el cálculo de tardanzas.
+     */
+    private Map<Long, Long> cargarDocumentos() {
+        Map<Long, Long> documentos = new HashMap<>();
+        for (Object[] row : empleadoRepository.findIdDocumentoYHorario()) {
+            Long id = (Long) row[0];
+            long documento = soloDigitos((String) row[1]);
+            if (documento > 0) {
+                documentos.put(documento, id);
+            }
+            marcacionEscritor.precargarHorario(id, (LocalTime) row[2]);
+        }
+        return documentos;
+    }
+
+    // "4.328.485" -> 4328485; 0 si no tiene dígitos o no entra en un long
+    private static long soloDigitos(String texto) {
+        if (texto == null) {
+            return 0;
+        }
+        long valor = 0;
+        int digitos = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digitos > 18) {
+                    return 0;
+                }
+                valor = valor * 10 + (c - '0');
+            }
+        }
+        return valor;
+    }
+
+    private static int indexOf(byte[] buf, byte valor, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            if (buf[i] == valor) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Estado de una importación en curso.
+     */
+    private class Importacion {
+
+        private final String origen;
+        private final Map<Long, Long> documentos;
+        private final Map<Clave, Pendiente> pendientes = new HashMap<>();
+        private final Tokenizador tok = new Tokenizador();
+        private final List<String> detalleRechazos = new ArrayList<>();
+
+        private long lineas;
+        private long aceptadas;
+        private long rechazadas;
+        private long diasEmpleado;
+        private long registrosNuevos;
+        private long salidasActualizadas;
+
+        Importacion(String origen, Map<Long, Long> documentos) {
+            this.origen = origen;
+            this.documentos = documentos;
+        }
+
+        void procesarLinea(byte[] buf, int desde, int hasta) {
+            lineas++;
+            if (hasta > desde && buf[hasta - 1] == '\r') {
+                hasta--;
+            }
+            tok.reiniciar(buf, desde, hasta);
+            tok.saltarSeparadores();
+            if (tok.terminado()) {
+                return; // Línea en blanco
+            }
+
+            long documento = tok.numero(18);
+            if (tok.digitos == 0) {
+                if (lineas > 1) {
+                    rechazar("documento inválido");
+                }
+                return; // Cabecera
+            }
+            Long empleadoId = documentos.get(documento);
+            if (empleadoId == null) {
+                rechazar("documento no registrado: ", documento);
+                return;
+            }
+
+            LocalDateTime hora = tok.fechaHora();
+            if (hora == null) {
+                rechazar("fecha/hora inválida");
+                return;
+            }
+
+            MarcacionEscritor.acumular(pendientes, empleadoId, hora, hora);
+            aceptadas++;
+            if (pendientes.size() >= MAX_PENDIENTES) {
+                escribirPendientes();
+            }
+        }
+
+        void rechazar(String motivo) {
+            rechazar(motivo, "");
+        }
+
+        // El detalle solo se arma para los primeros rechazos
+        void rechazar(String motivo, Object dato) {
+            rechazadas++;
+            if (detalleRechazos.size() < MAX_DETALLE_RECHAZOS) {
+                detalleRechazos.add("línea " + lineas + ": " + motivo + dato);
+            }
+        }
+
+        void escribirPendientes() {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            MarcacionEscritor.Resultado resultado = escribirConReintento();
+            diasEmpleado += pendientes.size();
+            registrosNuevos += resultado.getInsertadas();
+            salidasActualizadas += resultado.getActualizadas();
+            log.debug("Importación '{}': {} líneas leídas, {} pares escritos", origen, lineas, diasEmpleado);
+            pendientes.clear();
+        }
+
+        // La escritura bloquea los registros del día: un volcado concurrente del
+        // buffer sobre los mismos empleados puede abortar el lote por deadlock.
+        // Reescribir el lote es idempotente.
+        private MarcacionEscritor.Resultado escribirConReintento() {
+            for (int intento = 1; ; intento++) {
+                try {
+                    return tx.execute(status -> marcacionEscritor.escribir(pendientes, REGISTRADO_POR));
+                } catch (PessimisticLockingFailureException e) {
+                    if (intento >= MAX_INTENTOS_LOTE) {
+                        throw e;
+                    }
+                    log.warn("Importación '{}': lote abortado por bloqueo, reintento {}: {}", origen, intento,
+                            e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Lectura de campos directamente sobre el buffer de bytes de la línea.
+     */
+    private static class Tokenizador {
+
+        private byte[] buf;
+        private int pos;
+        private int fin;
+        private int digitos;
+
+        void reiniciar(byte[] buf, int desde, int hasta) {
+            this.buf = buf;
+            this.pos = desde;
+            this.fin = hasta;
+        }
+
+        boolean terminado() {
+            return pos >= fin;
+        }
+
+        // Espacios, tabuladores, separadores CSV y comillas
+        void saltarSeparadores() {
+            while (pos < fin) {
+                byte b = buf[pos];
+                if (b != ' ' && b != '\t' && b != ',' && b != ';' && b != '"') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        /**
+         * Lee un entero sin signo de hasta {@code maxDigitos}; deja en
+         * {@link #digitos} cuántos leyó (0 si no había número).
+         */
+        long numero(int maxDigitos) {
+            long valor = 0;
+            digitos = 0;
+            while (pos < fin && buf[pos] >= '0' && buf[pos] <= '9') {
+                if (++digitos > maxDigitos) {
+                    digitos = 0;
+                    return 0;
+                }
+                valor = valor * 10 + (buf[pos] - '0');
+                pos++;
+            }
+            return valor;
+        }
+
+        boolean consumir(char c) {
+            if (pos < fin && buf[pos] == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * yyyy-MM-dd o dd/MM/yyyy (también con '/' o '-' indistintamente),
+         * seguido de ' ' o 'T' y HH:mm[:ss]. null si no es válida.
+         */
+        LocalDateTime fechaHora() {
+            saltarSeparadores();
+            int n1 = (int) numero(4);
+            int d1 = digitos;
+            if (d1 == 0 || !(consumir('-') || consumir('/'))) {
+                return null;
+            }
+            int n2 = (int) numero(2);
+            if (digitos == 0 || !(consumir('-') || consumir('/'))) {
+                return null;
+            }
+            int n3 = (int) numero(4);
+            int d3 = digitos;
+            if (d3 == 0 || !(consumir(' ') || consumir('T') || consumir('\t'))) {
+                return null;
+            }
+            saltarSeparadores();
+            int hora = (int) numero(2);
+            if (digitos == 0 || !consumir(':')) {
+                return null;
+            }
+            int minuto = (int) numero(2);
+            if (digitos == 0) {
+                return null;
+            }
+            int segundo = 0;
+            if (consumir(':')) {
+                segundo = (int) numero(2);
+                if (digitos == 0) {
+                    return null;
+                }
+            }
+
+            try {
+                if (d1 == 4) {
+                    return LocalDateTime.of(n1, n2, n3, hora, minuto, segundo);
+                }
+                if (d3 == 4) {
+                    return LocalDateTime.of(n3, n2, n1, hora, minuto, segundo);
+                }
+                return null;
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.entity.AsistenciaResumenMensual;
+import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.entity.ReciboSalario;
+import com.coopreducto.tthh.util.Guaranies;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Cálculo del recibo de salario de un empleado para un periodo.
+ * Función pura de (Empleado, resumen de asistencia): no accede a la base de
+ * datos, por lo que puede ejecutarse en memoria para toda la planilla.
+ * La aritmética usa {@link Guaranies} y solo convierte a BigDecimal al
+ * completar la entidad.
+ */
+@Component
+public class NominaCalculator {
+
+    // IPS: 9/100
+    private static final long IPS_NUMERADOR = 9L;
+    private static final long IPS_DENOMINADOR = 100L;
+    private static final long DIAS_MES = 30L;
+    private static final long HORAS_DIA = 8L;
+    private static final long MINUTOS_HORA = 60L;
+
+    public ReciboSalario calcular(Empleado empleado, ResumenAsistencia resumen, int anio, int mes) {
+        if (resumen == null) {
+            resumen = ResumenAsistencia.VACIO;
+        }
+
+        // Datos base
+        Guaranies salarioBase = Guaranies.of(empleado.getSalario() != null ? empleado.getSalario().longValue() : 0L);
+
+        // IPS (9%)
+        Guaranies descuentoIps = salarioBase.porcentaje(IPS_NUMERADOR, IPS_DENOMINADOR);
+
+        // Descuento por ausencias (salario diario * días)
+        Guaranies salarioDiario = salarioBase.dividir(DIAS_MES);
+        Guaranies descuentoAusencias = salarioDiario.multiplicar(resumen.getAusencias());
+
+        // Descuento por tardanzas (salario por minuto * minutos)
+        Guaranies salarioMinuto = salarioPorMinuto(salarioDiario);
+        Guaranies descuentoTardanzas = salarioMinuto.multiplicar(resumen.getMinutosRetraso());
+
+        Guaranies totalDescuentos = descuentoIps.sumar(descuentoAusencias).sumar(descuentoTardanzas);
+
+        // Neto
+        Guaranies salarioNeto = salarioBase.restar(totalDescuentos).noNegativo();
+
+        ReciboSalario recibo = new ReciboSalario();
+        recibo.setEmpleado(empleado);
+        recibo.setAnio(anio);
+        recibo.setMes(mes);
+        recibo.setFechaPago(LocalDate.of(anio, mes, 28)); // Pago el 28
+        recibo.setSalarioBruto(salarioBase.toBigDecimal());
+        recibo.setDescuentosIps(descuentoIps.toBigDecimal());
+        recibo.setDescuentosJubilacion(BigDecimal.ZERO);
+        recibo.setOtrosDescuentos(descuentoAusencias.sumar(descuentoTardanzas).toBigDecimal());
+        recibo.setBonificaciones(BigDecimal.ZERO);
+        recibo.setSalarioNeto(salarioNeto.toBigDecimal());
+        recibo.setEstado("BORRADOR");
+        recibo.setSucursal(empleado.getSucursal());
+
+        String obs = "";
+        if (resumen.getAusencias() > 0)
+            obs += "Ausencias: " + resumen.getAusencias() + ". ";
+        if (resumen.getTardanzas() > 0)
+            obs += "Tardanzas: " + resumen.getTardanzas() + ". ";
+        recibo.setObservaciones(obs);
+
+        return recibo;
+    }
+
+    /**
+     * Salario por minuto a partir del diario: /8 horas y /60 minutos,
+     * redondeando a centésimos en cada paso como la planilla original.
+     */
+    public static Guaranies salarioPorMinuto(Guaranies salarioDiario) {
+        return salarioDiario.dividir(HORAS_DIA).dividir(MINUTOS_HORA);
+    }
+
+    /**
+     * Descuento por minutos de retraso sobre un salario mensual.
+     */
+    public static Guaranies descuentoTardanzas(Guaranies salarioMensual, long minutosRetraso) {
+        return salarioPorMinuto(salarioMensual.dividir(DIAS_MES)).multiplicar(minutosRetraso);
+    }
+
+    /**
+     * Agregado mensual de asistencia de un empleado.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class ResumenAsistencia {
+        public static final ResumenAsistencia VACIO = new ResumenAsistencia(0L, 0L, 0L);
+
+        private final long ausencias;
+        private final long tardanzas;
+        private final long minutosRetraso;
+
+        public static ResumenAsistencia de(AsistenciaResumenMensual resumen) {
+            return new ResumenAsistencia(resumen.getAusencias(), resumen.getTardanzas(),
+                    resumen.getMinutosRetraso());
+        }
+    }
+}
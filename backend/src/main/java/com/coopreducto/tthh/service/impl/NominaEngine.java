@@ -0,0 +1,308 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.entity.ReciboSalario;
+import com.coopreducto.tthh.event.RecibosSalarioModificadosEvent;
+import com.coopreducto.tthh.entity.AsistenciaResumenMensual;
+import com.coopreducto.tthh.repository.AsistenciaResumenMensualRepository;
+import com.coopreducto.tthh.repository.EmpleadoRepository;
+import com.coopreducto.tthh.repository.PayrollRunRepository;
+import com.coopreducto.tthh.repository.ReciboSalarioJdbcRepository;
+import com.coopreducto.tthh.repository.ReciboSalarioRepository;
+import com.coopreducto.tthh.service.impl.NominaCalculator.ResumenAsistencia;
+import com.coopreducto.tthh.util.Guaranies;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StopWatch;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Motor de generación de la nómina mensual basado en conjuntos.
+ *
+ * En lugar de 4-5 consultas por empleado, carga los recibos existentes y el
+ * resumen de asistencia de todo el mes en consultas agrupadas, calcula los
+ * recibos en memoria y los escribe con JDBC batch en transacciones por lote.
+ * Los empleados que ya tienen recibo en el periodo se omiten, por lo que
+ * volver a ejecutar una corrida es idempotente.
+ *
+ * Cada sucursal es una partición independiente que se procesa en un hilo
+ * virtual con sus propios lotes y su propio checkpoint.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NominaEngine {
+
+    private final EmpleadoRepository empleadoRepository;
+    private final ReciboSalarioRepository reciboSalarioRepository;
+    private final AsistenciaResumenMensualRepository asistenciaResumenMensualRepository;
+    private final ReciboSalarioJdbcRepository reciboSalarioJdbcRepository;
+    private final PayrollRunRepository payrollRunRepository;
+    private final NominaCalculator nominaCalculator;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public static final String PARTICION_SIN_SUCURSAL = "SIN_SUCURSAL";
+
+    @Value("${app.payroll.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.payroll.max-parallel-writers:0}")
+    private int maxEscritores;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+
+    // Lotes escribiendo a la vez (entre todas las corridas). Las particiones se
+    // calculan en paralelo, pero la escritura se limita a una fracción del pool
+    // de Hikari para no dejar sin conexiones a las peticiones interactivas.
+    private Semaphore escritores;
+
+    @PostConstruct
+    void init() {
+        int permisos = maxEscritores > 0 ? maxEscritores : Math.max(1, poolSize / 4);
+        escritores = new Semaphore(permisos, true);
+        log.info("Nómina: hasta {} lotes escribiendo en paralelo (pool de {} conexiones)", permisos, poolSize);
+    }
+
+    public ResultadoNomina generar(int anio, int mes) {
+        return generar(anio, mes, Seguimiento.NINGUNO);
+    }
+
+    /**
+     * Genera la nómina del periodo notificando el avance a {@code seguimiento}.
+     * Los empleados se procesan en orden de ID para que un checkpoint
+     * (último empleado confirmado) permita reanudar una corrida interrumpida.
+     */
+    public ResultadoNomina generar(int anio, int mes, Seguimiento seguimiento) {
+        StopWatch reloj = new StopWatch("nomina-" + mes + "/" + anio);
+
+        // 1. Carga: empleados activos, recibos existentes y resumen de asistencia
+        reloj.start("carga");
+        List<Empleado> empleados = new ArrayList<>(empleadoRepository.findByEstado("ACTIVO"));
+        empleados.sort(Comparator.comparing(Empleado::getId));
+        Set<Long> conRecibo = new HashSet<>(reciboSalarioRepository.findEmpleadoIdsByAnioAndMes(anio, mes));
+        Map<Long, ResumenAsistencia> resumenes = cargarResumenes(anio, mes);
+        reloj.stop();
+        log.info("Nómina {}/{} - carga: {} empleados activos, {} con recibo, {} con asistencia ({} ms)",
+                mes, anio, empleados.size(), conRecibo.size(), resumenes.size(), reloj.getLastTaskTimeMillis());
+
+        seguimiento.inicio(empleados.size());
+
+        // 2. Cálculo y escritura por partición (sucursal), cada una en su hilo virtual
+        reloj.start("procesamiento");
+        Map<String, List<Empleado>> particiones = particionar(empleados);
+        ResultadoNomina resultado = new ResultadoNomina();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ResultadoNomina>> futuros = new ArrayList<>(particiones.size());
+            particiones.forEach((particion, miembros) -> futuros.add(executor.submit(
+                    () -> procesarParticion(particion, miembros, conRecibo, resumenes, anio, mes, seguimiento))));
+            for (Future<ResultadoNomina> futuro : futuros) {
+                resultado.acumular(futuro.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Generación de nómina interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error al procesar partición de nómina: " + e.getCause().getMessage(),
+                    e.getCause());
+        } finally {
+            // Aun con error, los lotes ya confirmados cambiaron los recibos del año
+            eventPublisher.publishEvent(new RecibosSalarioModificadosEvent(anio));
+        }
+        reloj.stop();
+        log.info("Nómina {}/{} - procesamiento: {} particiones, {} generados, {} omitidos, {} errores ({} ms)",
+                mes, anio, particiones.size(), resultado.getGenerados(), resultado.getOmitidos(),
+                resultado.getErrores(), reloj.getLastTaskTimeMillis());
+
+        resultado.setDuracionMs(reloj.getTotalTimeMillis());
+        return resultado;
+    }
+
+    private ResultadoNomina procesarParticion(String particion, List<Empleado> empleados, Set<Long> conRecibo,
+            Map<Long, ResumenAsistencia> resumenes, int anio, int mes, Seguimiento seguimiento) {
+        ResultadoNomina resultado = new ResultadoNomina();
+        resultado.setEmpleados(empleados.size());
+
+        // Reanudación: saltar los empleados ya confirmados en una corrida anterior
+        Long checkpoint = seguimiento.ultimoEmpleadoConfirmado(particion);
+        List<Empleado> pendientes = checkpoint == null ? empleados
+                : empleados.stream().filter(e -> e.getId() > checkpoint).toList();
+        resultado.setReanudados(empleados.size() - pendientes.size());
+        if (checkpoint != null) {
+            log.info("Nómina {}/{} - partición {}: reanudando después del empleado {} ({} ya procesados)",
+                    mes, anio, particion, checkpoint, resultado.getReanudados());
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        // Tras un lote fallido el checkpoint deja de avanzar: una reanudación
+        // vuelve a procesar desde ahí y los que ya tienen recibo se omiten
+        boolean retenido = false;
+        for (int i = 0; i < pendientes.size(); i += chunkSize) {
+            if (seguimiento.cancelado()) {
+                log.warn("Nómina {}/{} - partición {}: cancelada por el usuario", mes, anio, particion);
+                resultado.setCancelado(true);
+                break;
+            }
+
+            List<Empleado> bloque = pendientes.subList(i, Math.min(i + chunkSize, pendientes.size()));
+            List<ReciboSalario> recibos = new ArrayList<>(bloque.size());
+            int omitidos = 0;
+            int errores = 0;
+            for (Empleado empleado : bloque) {
+                if (conRecibo.contains(empleado.getId())) {
+                    omitidos++;
+                    continue;
+                }
+                try {
+                    recibos.add(nominaCalculator.calcular(empleado, resumenes.get(empleado.getId()), anio, mes));
+                } catch (Exception e) {
+                    errores++;
+                    log.error("Error al calcular nómina para empleado {}: {}", empleado.getId(), e.getMessage());
+                }
+            }
+
+            Long ultimoId = retenido ? null : bloque.get(bloque.size() - 1).getId();
+            int omitidosLote = omitidos;
+            int erroresLote = errores;
+            try {
+                escritores.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                resultado.setCancelado(true);
+                break;
+            }
+            try {
+                // El checkpoint y el resumen del periodo se confirman junto con los recibos del lote
+                // Los empleados que recibieron su recibo de otro proceso desde la lectura inicial se omiten
+                List<ReciboSalario> insertados = tx.execute(status -> {
+                    List<ReciboSalario> escritos = reciboSalarioJdbcRepository.insertarLote(recibos);
+                    if (!escritos.isEmpty()) {
+                        Guaranies neto = Guaranies.CERO;
+                        for (ReciboSalario recibo : escritos) {
+                            neto = neto.sumar(Guaranies.of(recibo.getSalarioNeto()));
+                        }
+                        payrollRunRepository.sumarRecibos(anio, mes, escritos.size(), neto.toBigDecimal(),
+                                "BORRADOR", LocalDateTime.now());
+                    }
+                    seguimiento.loteConfirmado(particion, ultimoId, escritos.size(),
+                            omitidosLote + recibos.size() - escritos.size(), erroresLote);
+                    return escritos;
+                });
+                resultado.setGenerados(resultado.getGenerados() + insertados.size());
+                omitidos += recibos.size() - insertados.size();
+            } catch (Exception e) {
+                log.error("Error al escribir lote de nómina {}/{} ({} recibos): {}", mes, anio, recibos.size(),
+                        e.getMessage());
+                errores += recibos.size();
+                int erroresFallido = errores;
+                retenido = true;
+                // Se registran los errores sin mover el checkpoint para que se reintenten
+                tx.executeWithoutResult(status -> seguimiento.loteConfirmado(particion, null, 0,
+                        omitidosLote, erroresFallido));
+            } finally {
+                escritores.release();
+            }
+            resultado.setOmitidos(resultado.getOmitidos() + omitidos);
+            resultado.setErrores(resultado.getErrores() + errores);
+        }
+        return resultado;
+    }
+
+    /**
+     * Agrupa los empleados por sucursal, conservando el orden por ID dentro de
+     * cada partición (necesario para el checkpoint).
+     */
+    private Map<String, List<Empleado>> particionar(List<Empleado> empleados) {
+        Map<String, List<Empleado>> particiones = new TreeMap<>();
+        for (Empleado empleado : empleados) {
+            String sucursal = empleado.getSucursal() != null && !empleado.getSucursal().isBlank()
+                    ? empleado.getSucursal()
+                    : PARTICION_SIN_SUCURSAL;
+            particiones.computeIfAbsent(sucursal, k -> new ArrayList<>()).add(empleado);
+        }
+        return particiones;
+    }
+
+    /**
+     * Resumen de asistencia del mes para todos los empleados, indexado por ID.
+     */
+    public Map<Long, ResumenAsistencia> cargarResumenes(int anio, int mes) {
+        Map<Long, ResumenAsistencia> resumenes = new HashMap<>();
+        for (AsistenciaResumenMensual resumen : asistenciaResumenMensualRepository.findByAnioAndMes(anio, mes)) {
+            resumenes.put(resumen.getEmpleadoId(), ResumenAsistencia.de(resumen));
+        }
+        return resumenes;
+    }
+
+    @Data
+    public static class ResultadoNomina {
+        private int empleados;
+        private int generados;
+        private int omitidos;
+        private int errores;
+        private int reanudados;
+        private boolean cancelado;
+        private long duracionMs;
+
+        void acumular(ResultadoNomina otro) {
+            empleados += otro.empleados;
+            generados += otro.generados;
+            omitidos += otro.omitidos;
+            errores += otro.errores;
+            reanudados += otro.reanudados;
+            cancelado |= otro.cancelado;
+        }
+    }
+
+    /**
+     * Observador del avance de una corrida de nómina (jobs en segundo plano).
+     */
+    public interface Seguimiento {
+
+        Seguimiento NINGUNO = new Seguimiento() {
+        };
+
+        /** Último empleado confirmado en una corrida anterior, o null. */
+        default Long ultimoEmpleadoConfirmado(String particion) {
+            return null;
+        }
+
+        default boolean cancelado() {
+            return false;
+        }
+
+        default void inicio(int totalEmpleados) {
+        }
+
+        /**
+         * Se invoca dentro de la transacción del lote. {@code ultimoEmpleadoId}
+         * es null cuando el checkpoint no debe avanzar (lote fallido o
+         * posterior a uno fallido).
+         */
+        default void loteConfirmado(String particion, Long ultimoEmpleadoId, int generados, int omitidos,
+                int errores) {
+        }
+    }
+}
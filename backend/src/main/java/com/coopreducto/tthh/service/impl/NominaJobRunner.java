@@ -0,0 +1,170 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.entity.NominaJob;
+import com.coopreducto.tthh.entity.NominaJobCheckpoint;
+import com.coopreducto.tthh.repository.NominaJobCheckpointRepository;
+import com.coopreducto.tthh.repository.NominaJobRepository;
+import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ejecuta un {@link NominaJob} en el pool "nominaExecutor", guardando un
+ * checkpoint por partición en la misma transacción de cada lote.
+ *
+ * Antes de ejecutar, el job se reclama en la base (UPDATE condicional): si
+ * otra instancia o el mismo job encolado dos veces ya lo tiene, no se
+ * ejecuta. El latido se renueva en cada lote; si la renovación falla (otra
+ * ejecución reclamó el job tras vencer el latido) la corrida se detiene.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NominaJobRunner {
+
+    private final NominaJobRepository jobRepository;
+    private final NominaJobCheckpointRepository checkpointRepository;
+    private final NominaEngine nominaEngine;
+
+    @Value("${app.payroll.jobs.latido-vencido-ms:300000}")
+    private long latidoVencidoMs;
+
+    // Jobs en ejecución en esta instancia y su ejecutor (para liberarlos al detenerla)
+    private final Map<Long, String> ejecutando = new ConcurrentHashMap<>();
+
+    @Async("nominaExecutor")
+    public void ejecutar(Long jobId) {
+        String ejecutor = UUID.randomUUID().toString();
+        LocalDateTime ahora = LocalDateTime.now();
+        if (jobRepository.reclamar(jobId, ejecutor, ahora, vencimiento(ahora)) == 0) {
+            log.debug("Job de nómina {}: inactivo o reclamado por otra ejecución", jobId);
+            return;
+        }
+        NominaJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        ejecutando.put(jobId, ejecutor);
+        log.info("Job de nómina {} ({}/{}) en proceso", jobId, job.getMes(), job.getAnio());
+
+        Map<String, NominaJobCheckpoint> checkpoints = new ConcurrentHashMap<>();
+        checkpointRepository.findByJobId(jobId).forEach(c -> checkpoints.put(c.getParticion(), c));
+
+        try {
+            NominaEngine.ResultadoNomina resultado = nominaEngine.generar(job.getAnio(), job.getMes(),
+                    new SeguimientoJob(jobId, ejecutor, checkpoints));
+            String estado = resultado.isCancelado() ? NominaJob.CANCELADO : NominaJob.COMPLETADO;
+            if (jobRepository.finalizar(jobId, ejecutor, estado, null, LocalDateTime.now()) == 0) {
+                log.warn("Job de nómina {}: reclamado por otra ejecución, se deja de procesar", jobId);
+                return;
+            }
+            log.info("Job de nómina {} {}: {} generados, {} omitidos, {} errores en {} ms", jobId, estado,
+                    resultado.getGenerados(), resultado.getOmitidos(), resultado.getErrores(),
+                    resultado.getDuracionMs());
+        } catch (Exception e) {
+            log.error("Job de nómina {} fallido: {}", jobId, e.getMessage(), e);
+            jobRepository.finalizar(jobId, ejecutor, NominaJob.FALLIDO, e.getMessage(), LocalDateTime.now());
+        } finally {
+            ejecutando.remove(jobId, ejecutor);
+        }
+    }
+
+    /**
+     * Límite del latido: un job reclamado cuyo último latido es anterior se
+     * considera abandonado.
+     */
+    public LocalDateTime vencimiento(LocalDateTime ahora) {
+        return ahora.minus(Duration.ofMillis(latidoVencidoMs));
+    }
+
+    // El pool no espera a las corridas al detenerse: se liberan para que otra
+    // instancia (o esta al reiniciar) las reanude sin esperar al vencimiento
+    @PreDestroy
+    public void liberar() {
+        ejecutando.forEach((jobId, ejecutor) -> {
+            if (jobRepository.liberar(jobId, ejecutor) > 0) {
+                log.info("Job de nómina {} liberado al detener la aplicación", jobId);
+            }
+        });
+    }
+
+    private class SeguimientoJob implements NominaEngine.Seguimiento {
+
+        private final Long jobId;
+        private final String ejecutor;
+        private final Map<String, NominaJobCheckpoint> checkpoints;
+
+        SeguimientoJob(Long jobId, String ejecutor, Map<String, NominaJobCheckpoint> checkpoints) {
+            this.jobId = jobId;
+            this.ejecutor = ejecutor;
+            this.checkpoints = checkpoints;
+        }
+
+        @Override
+        public Long ultimoEmpleadoConfirmado(String particion) {
+            NominaJobCheckpoint checkpoint = checkpoints.get(particion);
+            return checkpoint != null ? checkpoint.getUltimoEmpleadoId() : null;
+        }
+
+        @Override
+        public boolean cancelado() {
+            // Se consulta antes de cada lote: renueva el latido y detiene la
+            // corrida si otra ejecución reclamó el job
+            if (jobRepository.renovarLatido(jobId, ejecutor, LocalDateTime.now()) == 0) {
+                log.warn("Job de nómina {}: se perdió el reclamo, se detiene la corrida", jobId);
+                return true;
+            }
+            return Boolean.TRUE.equals(jobRepository.isCancelacionSolicitada(jobId));
+        }
+
+        @Override
+        public void inicio(int totalEmpleados) {
+            jobRepository.actualizarTotal(jobId, totalEmpleados);
+        }
+
+        @Override
+        public void loteConfirmado(String particion, Long ultimoEmpleadoId, int generados, int omitidos,
+                int errores) {
+            // Se trabaja sobre una copia: el checkpoint en memoria solo se
+            // reemplaza si la transacción del lote se confirma
+            NominaJobCheckpoint anterior = checkpoints.get(particion);
+            NominaJobCheckpoint checkpoint = NominaJobCheckpoint.builder()
+                    .jobId(jobId)
+                    .particion(particion)
+                    .build();
+            if (anterior != null) {
+                checkpoint.setId(anterior.getId());
+                checkpoint.setUltimoEmpleadoId(anterior.getUltimoEmpleadoId());
+                checkpoint.setGenerados(anterior.getGenerados());
+                checkpoint.setOmitidos(anterior.getOmitidos());
+                checkpoint.setErrores(anterior.getErrores());
+            }
+            if (ultimoEmpleadoId != null) {
+                checkpoint.setUltimoEmpleadoId(ultimoEmpleadoId);
+            }
+            checkpoint.setGenerados(checkpoint.getGenerados() + generados);
+            checkpoint.setOmitidos(checkpoint.getOmitidos() + omitidos);
+            checkpoint.setErrores(checkpoint.getErrores() + errores);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+
+            NominaJobCheckpoint guardado = checkpointRepository.save(checkpoint);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    checkpoints.put(particion, guardado);
+                }
+            });
+        }
+    }
+}
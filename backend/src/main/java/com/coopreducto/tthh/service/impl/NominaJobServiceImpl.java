@@ -0,0 +1,181 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.dto.NominaJobDTO;
+import com.coopreducto.tthh.entity.NominaJob;
+import com.coopreducto.tthh.repository.NominaJobCheckpointRepository;
+import com.coopreducto.tthh.repository.NominaJobRepository;
+import com.coopreducto.tthh.service.NominaJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+@SuppressWarnings("null")
+public class NominaJobServiceImpl implements NominaJobService {
+
+    private static final List<String> ESTADOS_ACTIVOS = List.of(NominaJob.PENDIENTE, NominaJob.EN_PROCESO);
+
+    private final NominaJobRepository jobRepository;
+    private final NominaJobCheckpointRepository checkpointRepository;
+    private final NominaJobRunner nominaJobRunner;
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public NominaJobDTO iniciar(Integer anio, Integer mes, String usuario) {
+        if (mes == null || mes < 1 || mes > 12) {
+            throw new RuntimeException("Mes inválido: " + mes);
+        }
+
+        NominaJob activo = jobRepository.findFirstByAnioAndMesAndEstadoIn(anio, mes, ESTADOS_ACTIVOS).orElse(null);
+        if (activo != null) {
+            log.info("Ya existe un job de nómina activo para {}/{}: {}", mes, anio, activo.getId());
+            return toDTO(activo);
+        }
+
+        // Se confirma antes de encolar para que el runner encuentre el registro.
+        // uk_nomina_jobs_periodo_activo rechaza un segundo job activo del periodo
+        // aunque lo cree otra instancia entre la búsqueda y el alta.
+        NominaJob job;
+        try {
+            job = jobRepository.save(NominaJob.builder()
+                    .anio(anio)
+                    .mes(mes)
+                    .estado(NominaJob.PENDIENTE)
+                    .periodoActivo(NominaJob.periodo(anio, mes))
+                    .iniciadoPor(usuario)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            activo = jobRepository.findFirstByAnioAndMesAndEstadoIn(anio, mes, ESTADOS_ACTIVOS)
+                    .orElseThrow(() -> e);
+            log.info("Ya existe un job de nómina activo para {}/{}: {}", mes, anio, activo.getId());
+            return toDTO(activo);
+        }
+        nominaJobRunner.ejecutar(job.getId());
+
+        log.info("Job de nómina {} encolado para {}/{} por {}", job.getId(), mes, anio, usuario);
+        return toDTO(job);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public NominaJobDTO findById(Long id) {
+        return jobRepository.findById(id)
+                .map(this::toDTO)
+                .orElseThrow(() -> new RuntimeException("Job de nómina no encontrado"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<NominaJobDTO> findRecientes() {
+        return jobRepository.findTop20ByOrderByCreatedAtDesc().stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public NominaJobDTO cancelar(Long id) {
+        NominaJob job = jobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Job de nómina no encontrado"));
+        if (!job.isActivo()) {
+            throw new RuntimeException("El job de nómina ya finalizó con estado " + job.getEstado());
+        }
+
+        // El runner revisa la marca entre lotes; el lote en curso se confirma
+        jobRepository.solicitarCancelacion(id);
+        log.info("Cancelación solicitada para job de nómina {}", id);
+        return findById(id);
+    }
+
+    /**
+     * Reanuda las corridas que quedaron activas al detenerse la aplicación.
+     * Cada una continúa desde el último lote confirmado de su checkpoint; las
+     * que otra instancia tiene reclamadas no se ejecutan (ver
+     * {@link NominaJobRunner}). Lo invoca
+     * {@link com.coopreducto.tthh.config.TareasInicio}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reanudarPendientes() {
+        List<NominaJob> pendientes = jobRepository.findByEstadoIn(ESTADOS_ACTIVOS);
+        for (NominaJob job : pendientes) {
+            log.info("Reanudando job de nómina {} ({}/{})", job.getId(), job.getMes(), job.getAnio());
+            nominaJobRunner.ejecutar(job.getId());
+        }
+    }
+
+    /**
+     * Reanuda las corridas cuya instancia dejó de renovar el latido (se
+     * detuvo sin liberarlas) o que nunca se empezaron a ejecutar.
+     */
+    @Scheduled(fixedDelayString = "${app.payroll.jobs.huerfanos-ms:60000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reanudarHuerfanos() {
+        for (NominaJob job : jobRepository.findHuerfanos(nominaJobRunner.vencimiento(LocalDateTime.now()))) {
+            log.warn("Reanudando job de nómina {} ({}/{}) sin ejecutor activo", job.getId(), job.getMes(),
+                    job.getAnio());
+            nominaJobRunner.ejecutar(job.getId());
+        }
+    }
+
+    private NominaJobDTO toDTO(NominaJob job) {
+        int generados = 0;
+        int omitidos = 0;
+        int errores = 0;
+        if (job.getId() != null) {
+            List<Object[]> avance = checkpointRepository.sumarAvance(job.getId());
+            if (!avance.isEmpty()) {
+                Object[] row = avance.get(0);
+                generados = ((Number) row[0]).intValue();
+                omitidos = ((Number) row[1]).intValue();
+                errores = ((Number) row[2]).intValue();
+            }
+        }
+        int procesados = generados + omitidos + errores;
+
+        Double porcentaje = null;
+        if (job.getTotal() != null && job.getTotal() > 0) {
+            porcentaje = Math.min(100.0, procesados * 100.0 / job.getTotal());
+        }
+
+        Double recibosPorSegundo = null;
+        if (job.getIniciadoAt() != null) {
+            LocalDateTime fin = job.getFinalizadoAt() != null ? job.getFinalizadoAt() : LocalDateTime.now();
+            long millis = Duration.between(job.getIniciadoAt(), fin).toMillis();
+            if (millis > 0) {
+                recibosPorSegundo = procesados * 1000.0 / millis;
+            }
+        }
+
+        return NominaJobDTO.builder()
+                .id(job.getId())
+                .anio(job.getAnio())
+                .mes(job.getMes())
+                .estado(job.getEstado())
+                .total(job.getTotal())
+                .procesados(procesados)
+                .generados(generados)
+                .omitidos(omitidos)
+                .errores(errores)
+                .porcentaje(porcentaje)
+                .recibosPorSegundo(recibosPorSegundo)
+                .cancelacionSolicitada(job.getCancelacionSolicitada())
+                .mensajeError(job.getMensajeError())
+                .iniciadoPor(job.getIniciadoPor())
+                .iniciadoAt(job.getIniciadoAt())
+                .finalizadoAt(job.getFinalizadoAt())
+                .createdAt(job.getCreatedAt())
+                .build();
+    }
+}
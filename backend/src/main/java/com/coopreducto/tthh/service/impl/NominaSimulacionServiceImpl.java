@@ -0,0 +1,444 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.dto.NominaSimulacionDTO;
+import com.coopreducto.tthh.dto.ReciboSalarioDTO;
+import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.entity.PeriodoEstado;
+import com.coopreducto.tthh.entity.ReciboSalario;
+import com.coopreducto.tthh.event.AsistenciaModificadaEvent;
+import com.coopreducto.tthh.event.EmpleadoModificadoEvent;
+import com.coopreducto.tthh.event.PeriodoCerradoEvent;
+import com.coopreducto.tthh.event.RecibosSalarioModificadosEvent;
+import com.coopreducto.tthh.repository.AsistenciaResumenMensualRepository;
+import com.coopreducto.tthh.repository.EmpleadoRepository;
+import com.coopreducto.tthh.repository.PayrollRunRepository;
+import com.coopreducto.tthh.repository.PeriodoEstadoRepository;
+import com.coopreducto.tthh.repository.ReciboSalarioJdbcRepository;
+import com.coopreducto.tthh.repository.ReciboSalarioRepository;
+import com.coopreducto.tthh.service.NominaSimulacionService;
+import com.coopreducto.tthh.service.impl.NominaCalculator.ResumenAsistencia;
+import com.coopreducto.tthh.util.Guaranies;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Simulación de la nómina de un periodo sobre un borrador en memoria.
+ *
+ * El borrador se arma una vez con las mismas consultas agrupadas que
+ * {@link NominaEngine} y luego se mantiene al día escuchando los cambios de
+ * asistencia y de empleados: solo se recalcula el empleado afectado y los
+ * totales se ajustan restando su recibo anterior y sumando el nuevo. Nada
+ * se escribe en recibos_salario hasta {@link #confirmar}.
+ *
+ * Los borradores sin consultas durante app.payroll.simulacion.ttl-minutos se
+ * descartan, y nunca hay más de app.payroll.simulacion.max-borradores (al
+ * armar uno nuevo se descarta el usado hace más tiempo).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+@SuppressWarnings("null")
+public class NominaSimulacionServiceImpl implements NominaSimulacionService {
+
+    private static final int LOTE_CONFIRMACION = 500;
+
+    private final EmpleadoRepository empleadoRepository;
+    private final AsistenciaResumenMensualRepository asistenciaResumenMensualRepository;
+    private final ReciboSalarioRepository reciboSalarioRepository;
+    private final ReciboSalarioJdbcRepository reciboSalarioJdbcRepository;
+    private final NominaCalculator nominaCalculator;
+    private final NominaEngine nominaEngine;
+    private final EntityManager entityManager;
+    private final PeriodoEstadoRepository periodoEstadoRepository;
+    private final PayrollRunRepository payrollRunRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, Borrador> borradores = new ConcurrentHashMap<>();
+
+    @Value("${app.payroll.simulacion.ttl-minutos:120}")
+    private long ttlMinutos;
+
+    @Value("${app.payroll.simulacion.max-borradores:6}")
+    private int maxBorradores;
+
+    @Override
+    @Transactional(readOnly = true)
+    public NominaSimulacionDTO iniciar(Integer anio, Integer mes) {
+        long inicio = System.currentTimeMillis();
+
+        // Se registra antes de cargar: los cambios confirmados durante la carga
+        // quedan pendientes y se aplican al terminar
+        Borrador borrador = new Borrador(anio, mes);
+        borradores.put(clave(anio, mes), borrador);
+        descartarExcedentes(borrador);
+
+        List<Empleado> empleados = empleadoRepository.findByEstado("ACTIVO");
+        Map<Long, String> estados = cargarEstadosRecibos(anio, mes);
+        Map<Long, ResumenAsistencia> resumenes = nominaEngine.cargarResumenes(anio, mes);
+
+        Set<Long> pendientes;
+        synchronized (borrador) {
+            for (Empleado empleado : empleados) {
+                String estado = estados.get(empleado.getId());
+                if (estado != null && !"BORRADOR".equals(estado)) {
+                    borrador.cerrados.add(empleado.getId());
+                    continue;
+                }
+                borrador.reemplazar(empleado.getId(),
+                        nominaCalculator.calcular(empleado, resumenes.get(empleado.getId()), anio, mes));
+            }
+            borrador.listo = true;
+            pendientes = new HashSet<>(borrador.pendientes);
+            borrador.pendientes.clear();
+        }
+        pendientes.forEach(empleadoId -> refrescarEmpleado(borrador, empleadoId));
+
+        log.info("Simulación de nómina {}/{} armada: {} empleados, {} cerrados ({} ms)", mes, anio,
+                borrador.recibos.size(), borrador.cerrados.size(), System.currentTimeMillis() - inicio);
+        return toDTO(borrador);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public NominaSimulacionDTO obtener(Integer anio, Integer mes) {
+        return toDTO(requerir(anio, mes));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ReciboSalarioDTO obtenerRecibo(Integer anio, Integer mes, Long empleadoId) {
+        Borrador borrador = requerir(anio, mes);
+        synchronized (borrador) {
+            ReciboSalario recibo = borrador.recibos.get(empleadoId);
+            if (recibo == null) {
+                throw new RuntimeException("Empleado no encontrado en la simulación");
+            }
+            return toReciboDTO(recibo);
+        }
+    }
+
+    @Override
+    public NominaSimulacionDTO confirmar(Integer anio, Integer mes) {
+        Borrador borrador = requerir(anio, mes);
+        // Se retira antes de escribir: deja de recibir cambios y otra
+        // confirmación simultánea no lo encuentra. Si la escritura falla hay
+        // que volver a iniciar la simulación.
+        if (!borradores.remove(clave(anio, mes), borrador)) {
+            throw new RuntimeException("La simulación de " + mes + "/" + anio + " ya se está confirmando");
+        }
+
+        // Copia bajo el lock; la escritura en la base se hace sin tenerlo
+        Map<Long, ReciboSalario> simulados;
+        NominaSimulacionDTO dto;
+        synchronized (borrador) {
+            simulados = new HashMap<>(borrador.recibos);
+            dto = toDTO(borrador);
+        }
+
+        // Se vuelve a leer el estado: pudo generarse o cerrarse la nómina
+        // después de armar el borrador
+        Map<Long, Long> borradoresExistentes = new HashMap<>();
+        Set<Long> conRecibo = new HashSet<>();
+        for (Object[] row : reciboSalarioRepository.findEstadosByAnioAndMes(anio, mes)) {
+            conRecibo.add((Long) row[0]);
+            if ("BORRADOR".equals(row[2])) {
+                borradoresExistentes.put((Long) row[1], (Long) row[0]);
+            }
+        }
+
+        List<ReciboSalario> nuevos = new ArrayList<>();
+        simulados.forEach((empleadoId, recibo) -> {
+            if (!conRecibo.contains(empleadoId)) {
+                nuevos.add(recibo);
+            }
+        });
+
+        // Recibos BORRADOR existentes: se actualizan los montos
+        int actualizados = 0;
+        List<Long> ids = new ArrayList<>(borradoresExistentes.keySet());
+        for (int i = 0; i < ids.size(); i += LOTE_CONFIRMACION) {
+            for (ReciboSalario recibo : reciboSalarioRepository
+                    .findAllById(ids.subList(i, Math.min(i + LOTE_CONFIRMACION, ids.size())))) {
+                ReciboSalario simulado = simulados.get(borradoresExistentes.get(recibo.getId()));
+                if (simulado != null) {
+                    copiarMontos(simulado, recibo);
+                    actualizados++;
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        // Empleados sin recibo: JDBC batch como la generación mensual. Los que
+        // recibieron su recibo de otro proceso desde la lectura se omiten.
+        int insertados = 0;
+        for (int i = 0; i < nuevos.size(); i += LOTE_CONFIRMACION) {
+            insertados += reciboSalarioJdbcRepository.insertarLote(nuevos.subList(i, Math.min(i + LOTE_CONFIRMACION,
+                    nuevos.size()))).size();
+        }
+        // Cambian montos de recibos existentes: se recalcula el periodo completo
+        payrollRunRepository.recalcularPeriodo(anio, mes);
+        eventPublisher.publishEvent(new RecibosSalarioModificadosEvent(anio));
+
+        log.info("Simulación de nómina {}/{} confirmada: {} recibos actualizados, {} insertados, {} omitidos", mes,
+                anio, actualizados, insertados, nuevos.size() - insertados);
+        dto.setPersistidos(actualizados + insertados);
+        return dto;
+    }
+
+    @Override
+    public void descartar(Integer anio, Integer mes) {
+        if (borradores.remove(clave(anio, mes)) != null) {
+            log.info("Simulación de nómina {}/{} descartada", mes, anio);
+        }
+    }
+
+    /**
+     * Descarta los borradores que nadie consultó dentro del TTL.
+     */
+    @Scheduled(fixedDelayString = "${app.payroll.simulacion.limpieza-ms:300000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void descartarVencidos() {
+        long limite = System.currentTimeMillis() - ttlMinutos * 60_000L;
+        borradores.forEach((clave, borrador) -> {
+            if (borrador.usadoAt < limite && borradores.remove(clave, borrador)) {
+                log.info("Simulación de nómina {}/{} descartada por inactividad", borrador.mes, borrador.anio);
+            }
+        });
+    }
+
+    // Mantiene como máximo maxBorradores, descartando los usados hace más tiempo
+    private void descartarExcedentes(Borrador actual) {
+        while (borradores.size() > maxBorradores) {
+            Map.Entry<String, Borrador> masAntiguo = borradores.entrySet().stream()
+                    .filter(e -> e.getValue() != actual)
+                    .min(Comparator.comparingLong(e -> e.getValue().usadoAt))
+                    .orElse(null);
+            if (masAntiguo == null) {
+                return;
+            }
+            if (borradores.remove(masAntiguo.getKey(), masAntiguo.getValue())) {
+                log.info("Simulación de nómina {}/{} descartada: máximo de {} borradores",
+                        masAntiguo.getValue().mes, masAntiguo.getValue().anio, maxBorradores);
+            }
+        }
+    }
+
+    // ========================================
+    // ACTUALIZACIÓN INCREMENTAL
+    // ========================================
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onAsistenciaModificada(AsistenciaModificadaEvent event) {
+        Borrador borrador = borradores.get(clave(event.getFecha().getYear(), event.getFecha().getMonthValue()));
+        if (borrador != null) {
+            refrescarEmpleado(borrador, event.getEmpleadoId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onEmpleadoModificado(EmpleadoModificadoEvent event) {
+        for (Borrador borrador : borradores.values()) {
+            refrescarEmpleado(borrador, event.getEmpleadoId());
+        }
+    }
+
+    /**
+     * Al cerrar la nómina los recibos dejan de ser BORRADOR: la simulación ya
+     * no puede confirmarse.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onPeriodoCerrado(PeriodoCerradoEvent event) {
+        periodoEstadoRepository.findById(event.getPeriodoEstadoId())
+                .filter(cierre -> PeriodoEstado.TIPO_NOMINA.equals(cierre.getTipo()))
+                .ifPresent(cierre -> descartar(cierre.getAnio(), cierre.getMes()));
+    }
+
+    /**
+     * Recalcula un empleado con sus datos y su asistencia actuales. Las
+     * lecturas se hacen sin el lock del borrador (las consultas y el resto
+     * de los eventos no esperan a la base); para que dos cambios seguidos del
+     * mismo empleado se apliquen en orden, cada lectura toma un número y solo
+     * se aplica si no empezó otra lectura posterior del mismo empleado.
+     */
+    private void refrescarEmpleado(Borrador borrador, Long empleadoId) {
+        long lectura;
+        synchronized (borrador) {
+            if (!borrador.listo) {
+                borrador.pendientes.add(empleadoId);
+                return;
+            }
+            if (borrador.cerrados.contains(empleadoId)) {
+                return;
+            }
+            lectura = ++borrador.lecturas;
+            borrador.ultimaLectura.put(empleadoId, lectura);
+        }
+
+        Empleado empleado = empleadoRepository.findById(empleadoId)
+                .filter(e -> "ACTIVO".equals(e.getEstado()))
+                .orElse(null);
+        ReciboSalario recibo = empleado == null ? null
+                : nominaCalculator.calcular(empleado, cargarResumen(empleadoId, borrador.anio, borrador.mes),
+                        borrador.anio, borrador.mes);
+
+        synchronized (borrador) {
+            if (!borrador.ultimaLectura.remove(empleadoId, lectura)) {
+                return; // Una lectura posterior aplica datos más nuevos
+            }
+            if (borrador.cerrados.contains(empleadoId)) {
+                return;
+            }
+            borrador.reemplazar(empleadoId, recibo);
+            borrador.recalculos++;
+            borrador.actualizadoAt = LocalDateTime.now();
+        }
+    }
+
+    private ResumenAsistencia cargarResumen(Long empleadoId, int anio, int mes) {
+        return asistenciaResumenMensualRepository.findByEmpleadoIdAndAnioAndMes(empleadoId, anio, mes)
+                .map(ResumenAsistencia::de)
+                .orElse(ResumenAsistencia.VACIO);
+    }
+
+    private Map<Long, String> cargarEstadosRecibos(Integer anio, Integer mes) {
+        Map<Long, String> estados = new HashMap<>();
+        for (Object[] row : reciboSalarioRepository.findEstadosByAnioAndMes(anio, mes)) {
+            estados.put((Long) row[0], (String) row[2]);
+        }
+        return estados;
+    }
+
+    private void copiarMontos(ReciboSalario origen, ReciboSalario destino) {
+        destino.setSalarioBruto(origen.getSalarioBruto());
+        destino.setDescuentosIps(origen.getDescuentosIps());
+        destino.setDescuentosJubilacion(origen.getDescuentosJubilacion());
+        destino.setOtrosDescuentos(origen.getOtrosDescuentos());
+        destino.setBonificaciones(origen.getBonificaciones());
+        destino.setSalarioNeto(origen.getSalarioNeto());
+        destino.setObservaciones(origen.getObservaciones());
+    }
+
+    private Borrador requerir(Integer anio, Integer mes) {
+        Borrador borrador = borradores.get(clave(anio, mes));
+        if (borrador == null) {
+            throw new RuntimeException("No hay una simulación iniciada para " + mes + "/" + anio);
+        }
+        borrador.usadoAt = System.currentTimeMillis();
+        return borrador;
+    }
+
+    private String clave(int anio, int mes) {
+        return anio + "-" + mes;
+    }
+
+    private NominaSimulacionDTO toDTO(Borrador borrador) {
+        synchronized (borrador) {
+            return NominaSimulacionDTO.builder()
+                    .anio(borrador.anio)
+                    .mes(borrador.mes)
+                    .empleados(borrador.recibos.size())
+                    .cerrados(borrador.cerrados.size())
+                    .totalBruto(borrador.totalBruto.toBigDecimal())
+                    .totalDescuentos(borrador.totalDescuentos.toBigDecimal())
+                    .totalNeto(borrador.totalNeto.toBigDecimal())
+                    .recalculos(borrador.recalculos)
+                    .construidoAt(borrador.construidoAt)
+                    .actualizadoAt(borrador.actualizadoAt)
+                    .build();
+        }
+    }
+
+    private ReciboSalarioDTO toReciboDTO(ReciboSalario recibo) {
+        ReciboSalarioDTO dto = new ReciboSalarioDTO();
+        dto.setEmpleadoId(recibo.getEmpleado().getId());
+        dto.setEmpleadoNombre(recibo.getEmpleado().getNombres() + " " + recibo.getEmpleado().getApellidos());
+        dto.setAnio(recibo.getAnio());
+        dto.setMes(recibo.getMes());
+        dto.setFechaPago(recibo.getFechaPago());
+        dto.setSalarioBruto(recibo.getSalarioBruto());
+        dto.setDescuentosIps(recibo.getDescuentosIps());
+        dto.setDescuentosJubilacion(recibo.getDescuentosJubilacion());
+        dto.setOtrosDescuentos(recibo.getOtrosDescuentos());
+        dto.setBonificaciones(recibo.getBonificaciones());
+        dto.setSalarioNeto(recibo.getSalarioNeto());
+        dto.setEstado(recibo.getEstado());
+        dto.setObservaciones(recibo.getObservaciones());
+        return dto;
+    }
+
+    /**
+     * Recibos simulados de un periodo y sus totales. Se accede siempre con
+     * el objeto bloqueado.
+     */
+    private static class Borrador {
+        private final int anio;
+        private final int mes;
+        private final Map<Long, ReciboSalario> recibos = new HashMap<>();
+        private final Set<Long> cerrados = new HashSet<>();
+        // Cambios recibidos mientras se armaba el borrador
+        private final Set<Long> pendientes = new HashSet<>();
+        private boolean listo;
+        // Número de la última lectura iniciada por empleado (ver refrescarEmpleado)
+        private final Map<Long, Long> ultimaLectura = new HashMap<>();
+        private long lecturas;
+
+        private Guaranies totalBruto = Guaranies.CERO;
+        private Guaranies totalDescuentos = Guaranies.CERO;
+        private Guaranies totalNeto = Guaranies.CERO;
+        private int recalculos;
+        private final LocalDateTime construidoAt = LocalDateTime.now();
+        private LocalDateTime actualizadoAt = construidoAt;
+        // Última consulta, para el TTL (se lee sin el lock)
+        private volatile long usadoAt = System.currentTimeMillis();
+
+        private Borrador(int anio, int mes) {
+            this.anio = anio;
+            this.mes = mes;
+        }
+
+        /** Cambia el recibo del empleado (null = quitarlo) ajustando los totales. */
+        private void reemplazar(Long empleadoId, ReciboSalario nuevo) {
+            ReciboSalario anterior = nuevo != null ? recibos.put(empleadoId, nuevo) : recibos.remove(empleadoId);
+            if (anterior != null) {
+                totalBruto = totalBruto.restar(Guaranies.of(anterior.getSalarioBruto()));
+                totalDescuentos = totalDescuentos.restar(descuentos(anterior));
+                totalNeto = totalNeto.restar(Guaranies.of(anterior.getSalarioNeto()));
+            }
+            if (nuevo != null) {
+                totalBruto = totalBruto.sumar(Guaranies.of(nuevo.getSalarioBruto()));
+                totalDescuentos = totalDescuentos.sumar(descuentos(nuevo));
+                totalNeto = totalNeto.sumar(Guaranies.of(nuevo.getSalarioNeto()));
+            }
+        }
+
+        private static Guaranies descuentos(ReciboSalario recibo) {
+            return Guaranies.of(recibo.getDescuentosIps())
+                    .sumar(Guaranies.of(recibo.getDescuentosJubilacion()))
+                    .sumar(Guaranies.of(recibo.getOtrosDescuentos()));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.dto.NominaTendenciaDTO;
+import com.coopreducto.tthh.entity.NominaSerieMensual;
+import com.coopreducto.tthh.repository.NominaSerieMensualRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tendencias de nómina pagada leídas de nomina_serie_mensual: a lo sumo
+ * {@value #MAX_MESES} meses por sucursal, sin tocar recibos_salario.
+ *
+ * La serie termina en el último periodo con nómina pagada (o en el mes
+ * actual si todavía no hay ninguno) y los meses sin recibos van en cero.
+ */
+@Component
+@RequiredArgsConstructor
+public class NominaTendencia {
+
+    public static final int MAX_MESES = 36;
+
+    private static final String[] NOMBRES_MESES = { "", "Ene", "Feb", "Mar", "Abr", "May", "Jun", "Jul", "Ago",
+            "Sep", "Oct", "Nov", "Dic" };
+
+    private final NominaSerieMensualRepository nominaSerieMensualRepository;
+
+    public NominaTendenciaDTO calcular(int meses, String sucursal, boolean porSucursal) {
+        if (meses < 1 || meses > MAX_MESES) {
+            throw new RuntimeException("La cantidad de meses debe estar entre 1 y " + MAX_MESES);
+        }
+        String filtro = sucursal != null && !sucursal.isBlank() ? sucursal.trim() : null;
+        YearMonth hasta = ultimoPeriodo();
+        YearMonth desde = hasta.minusMonths(meses - 1L);
+
+        Map<YearMonth, NominaTendenciaDTO.PuntoDTO> total = serieVacia(desde, hasta);
+        Map<String, Map<YearMonth, NominaTendenciaDTO.PuntoDTO>> sucursales = new TreeMap<>();
+        for (NominaSerieMensual fila : nominaSerieMensualRepository.findDesde(desde.getYear(),
+                desde.getMonthValue())) {
+            YearMonth periodo = YearMonth.of(fila.getAnio(), fila.getMes());
+            if (periodo.isAfter(hasta) || (filtro != null && !filtro.equalsIgnoreCase(fila.getSucursal()))) {
+                continue;
+            }
+            sumar(total.get(periodo), fila);
+            if (porSucursal) {
+                sumar(sucursales.computeIfAbsent(fila.getSucursal(), k -> serieVacia(desde, hasta)).get(periodo),
+                        fila);
+            }
+        }
+
+        List<NominaTendenciaDTO.SucursalDTO> desglose = null;
+        if (porSucursal) {
+            desglose = new ArrayList<>();
+            for (Map.Entry<String, Map<YearMonth, NominaTendenciaDTO.PuntoDTO>> e : sucursales.entrySet()) {
+                desglose.add(NominaTendenciaDTO.SucursalDTO.builder()
+                        .sucursal(e.getKey())
+                        .serie(new ArrayList<>(e.getValue().values()))
+                        .build());
+            }
+        }
+        return NominaTendenciaDTO.builder()
+                .meses(meses)
+                .sucursal(filtro)
+                .serie(new ArrayList<>(total.values()))
+                .porSucursal(desglose)
+                .build();
+    }
+
+    private YearMonth ultimoPeriodo() {
+        YearMonth actual = YearMonth.now();
+        List<Object[]> ultimo = nominaSerieMensualRepository.findUltimoPeriodo();
+        if (ultimo.isEmpty()) {
+            return actual;
+        }
+        YearMonth periodo = YearMonth.of(((Number) ultimo.get(0)[0]).intValue(),
+                ((Number) ultimo.get(0)[1]).intValue());
+        return periodo.isAfter(actual) ? actual : periodo;
+    }
+
+    private static Map<YearMonth, NominaTendenciaDTO.PuntoDTO> serieVacia(YearMonth desde, YearMonth hasta) {
+        Map<YearMonth, NominaTendenciaDTO.PuntoDTO> serie = new LinkedHashMap<>();
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            serie.put(mes, NominaTendenciaDTO.PuntoDTO.builder()
+                    .anio(mes.getYear())
+                    .mes(mes.getMonthValue())
+                    .etiqueta(NOMBRES_MESES[mes.getMonthValue()])
+                    .empleados(0)
+                    .totalBruto(BigDecimal.ZERO)
+                    .totalNeto(BigDecimal.ZERO)
+                    .build());
+        }
+        return serie;
+    }
+
+    private static void sumar(NominaTendenciaDTO.PuntoDTO punto, NominaSerieMensual fila) {
+        punto.setEmpleados(punto.getEmpleados() + fila.getEmpleados());
+        punto.setTotalBruto(punto.getTotalBruto().add(fila.getTotalBruto()));
+        punto.setTotalNeto(punto.getTotalNeto().add(fila.getTotalNeto()));
+    }
+}
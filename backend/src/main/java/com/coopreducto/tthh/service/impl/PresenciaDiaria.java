@@ -0,0 +1,235 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.dto.PresenciaDiariaDTO;
+import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.event.AsistenciaModificadaEvent;
+import com.coopreducto.tthh.event.EmpleadoModificadoEvent;
+import com.coopreducto.tthh.repository.AsistenciaRepository;
+import com.coopreducto.tthh.repository.EmpleadoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Presencia del día en memoria: quién marcó, quién llegó tarde y quién
+ * falta, sin consultar asistencias.
+ *
+ * Cada empleado recibe un ordinal denso y el estado se guarda en bitmaps
+ * indexados por ese ordinal (plantel activo, con registro hoy, con
+ * tardanza hoy). Se carga desde la base al iniciar y a medianoche, y se
+ * actualiza con los eventos de asistencia y de empleados después de cada
+ * commit (marcaciones, buffer del reloj, importaciones, cargas manuales).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PresenciaDiaria {
+
+    private static final String SIN_SUCURSAL = "SIN SUCURSAL";
+
+    private final EmpleadoRepository empleadoRepository;
+    private final AsistenciaRepository asistenciaRepository;
+
+    // Estado del día, protegido por "this"
+    private LocalDate fecha;
+    private LocalDateTime cargadoAt;
+    private final Map<Long, Integer> ordinales = new HashMap<>();
+    private final List<Long> ids = new ArrayList<>();
+    private final List<String> sucursales = new ArrayList<>();
+    private final Map<String, Integer> indiceSucursal = new HashMap<>();
+    private int[] sucursalDe = new int[0]; // ordinal -> índice en sucursales
+    private final BitSet activos = new BitSet();
+    private final BitSet registrados = new BitSet();
+    private final BitSet tardanzas = new BitSet();
+
+    // Carga al arrancar; la invoca TareasInicio
+    public void iniciar() {
+        recargar(LocalDate.now());
+    }
+
+    @Scheduled(cron = "${app.asistencia.presencia-cron:0 0 0 * * *}")
+    public void recargarDia() {
+        recargar(LocalDate.now());
+    }
+
+    /**
+     * Carga el plantel y los registros del día desde la base. Los eventos que
+     * llegan mientras tanto esperan al final de la carga y se aplican
+     * encima (son idempotentes).
+     */
+    public synchronized void recargar(LocalDate dia) {
+        long inicio = System.currentTimeMillis();
+        ordinales.clear();
+        ids.clear();
+        sucursales.clear();
+        indiceSucursal.clear();
+        activos.clear();
+        registrados.clear();
+        tardanzas.clear();
+
+        for (Object[] row : empleadoRepository.findIdSucursalYEstado()) {
+            int ordinal = ordinal((Long) row[0]);
+            asignarSucursal(ordinal, (String) row[1]);
+            activos.set(ordinal, "ACTIVO".equals(row[2]));
+        }
+        for (Object[] row : asistenciaRepository.findEmpleadoYTipoByFecha(dia)) {
+            Integer ordinal = ordinales.get((Long) row[0]);
+            if (ordinal != null) {
+                registrados.set(ordinal);
+                tardanzas.set(ordinal, "TARDANZA".equals(row[1]));
+            }
+        }
+        fecha = dia;
+        cargadoAt = LocalDateTime.now();
+        log.info("Presencia del {}: {} activos, {} con registro ({} ms)", dia, activos.cardinality(),
+                registrados.cardinality(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Resumen del día, opcionalmente de una sola sucursal. Con
+     * {@code detalle} incluye los IDs de los activos sin registro.
+     */
+    public synchronized PresenciaDiariaDTO consultar(String sucursal, boolean detalle) {
+        LocalDate hoy = LocalDate.now();
+        if (!hoy.equals(fecha)) {
+            recargar(hoy); // La recarga de medianoche todavía no corrió
+        }
+
+        Integer filtro = sucursal != null ? indiceSucursal.get(normalizarSucursal(sucursal)) : null;
+        int[] activosPorSucursal = new int[sucursales.size()];
+        int[] sinMarcarPorSucursal = new int[sucursales.size()];
+        int[] tardanzasPorSucursal = new int[sucursales.size()];
+        List<Long> sinMarcar = detalle ? new ArrayList<>() : null;
+
+        if (sucursal == null || filtro != null) {
+            for (int i = activos.nextSetBit(0); i >= 0; i = activos.nextSetBit(i + 1)) {
+                int s = sucursalDe[i];
+                if (filtro != null && s != filtro) {
+                    continue;
+                }
+                activosPorSucursal[s]++;
+                if (!registrados.get(i)) {
+                    sinMarcarPorSucursal[s]++;
+                    if (sinMarcar != null) {
+                        sinMarcar.add(ids.get(i));
+                    }
+                } else if (tardanzas.get(i)) {
+                    tardanzasPorSucursal[s]++;
+                }
+            }
+        }
+
+        List<PresenciaDiariaDTO.SucursalDTO> porSucursal = new ArrayList<>();
+        for (int s = 0; s < sucursales.size(); s++) {
+            if (activosPorSucursal[s] > 0) {
+                porSucursal.add(PresenciaDiariaDTO.SucursalDTO.builder()
+                        .sucursal(sucursales.get(s))
+                        .activos(activosPorSucursal[s])
+                        .sinMarcar(sinMarcarPorSucursal[s])
+                        .tardanzas(tardanzasPorSucursal[s])
+                        .build());
+            }
+        }
+        porSucursal.sort(Comparator.comparing(PresenciaDiariaDTO.SucursalDTO::getSucursal));
+
+        int totalActivos = Arrays.stream(activosPorSucursal).sum();
+        int totalSinMarcar = Arrays.stream(sinMarcarPorSucursal).sum();
+        return PresenciaDiariaDTO.builder()
+                .fecha(fecha)
+                .activos(totalActivos)
+                .registrados(totalActivos - totalSinMarcar)
+                .sinMarcar(totalSinMarcar)
+                .tardanzas(Arrays.stream(tardanzasPorSucursal).sum())
+                .porSucursal(porSucursal)
+                .empleadosSinMarcar(sinMarcar)
+                .cargadoAt(cargadoAt)
+                .build();
+    }
+
+    // ========================================
+    // ACTUALIZACIÓN INCREMENTAL
+    // ========================================
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public synchronized void onAsistenciaModificada(AsistenciaModificadaEvent event) {
+        if (fecha == null || !fecha.equals(event.getFecha())) {
+            return; // Otro día: no afecta la presencia de hoy
+        }
+        Integer ordinal = ordinales.get(event.getEmpleadoId());
+        if (ordinal == null) {
+            return;
+        }
+        if (event.getTipo() == null) {
+            registrados.clear(ordinal);
+            tardanzas.clear(ordinal);
+        } else {
+            registrados.set(ordinal);
+            tardanzas.set(ordinal, "TARDANZA".equals(event.getTipo()));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onEmpleadoModificado(EmpleadoModificadoEvent event) {
+        Optional<Empleado> empleado = empleadoRepository.findById(event.getEmpleadoId());
+        synchronized (this) {
+            if (empleado.isPresent()) {
+                int ordinal = ordinal(event.getEmpleadoId());
+                asignarSucursal(ordinal, empleado.get().getSucursal());
+                activos.set(ordinal, empleado.get().isActivo());
+            } else {
+                Integer ordinal = ordinales.get(event.getEmpleadoId());
+                if (ordinal != null) {
+                    activos.clear(ordinal);
+                }
+            }
+        }
+    }
+
+    // Con "this" tomado
+    private int ordinal(Long empleadoId) {
+        Integer ordinal = ordinales.get(empleadoId);
+        if (ordinal == null) {
+            ordinal = ids.size();
+            ordinales.put(empleadoId, ordinal);
+            ids.add(empleadoId);
+            if (ordinal >= sucursalDe.length) {
+                sucursalDe = Arrays.copyOf(sucursalDe, Math.max(64, sucursalDe.length * 2));
+            }
+        }
+        return ordinal;
+    }
+
+    // Con "this" tomado
+    private void asignarSucursal(int ordinal, String sucursal) {
+        String nombre = normalizarSucursal(sucursal);
+        Integer indice = indiceSucursal.get(nombre);
+        if (indice == null) {
+            indice = sucursales.size();
+            sucursales.add(nombre);
+            indiceSucursal.put(nombre, indice);
+        }
+        sucursalDe[ordinal] = indice;
+    }
+
+    private static String normalizarSucursal(String sucursal) {
+        return sucursal != null && !sucursal.isBlank() ? sucursal.trim() : SIN_SUCURSAL;
+    }
+}
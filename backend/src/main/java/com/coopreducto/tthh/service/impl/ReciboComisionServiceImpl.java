@@ -2,28 +2,39 @@ package com.coopreducto.tthh.service.impl;
 
 import com.coopreducto.tthh.dto.ReciboComisionDTO;
 import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.entity.PeriodoEstado;
 import com.coopreducto.tthh.entity.ReciboComision;
+import com.coopreducto.tthh.event.PeriodoCerradoEvent;
 import com.coopreducto.tthh.repository.EmpleadoRepository;
+import com.coopreducto.tthh.repository.PeriodoEstadoRepository;
 import com.coopreducto.tthh.repository.ReciboComisionRepository;
 import com.coopreducto.tthh.service.ReciboComisionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import jakarta.persistence.criteria.Predicate;
 import java.util.ArrayList;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.io.ByteArrayOutputStream;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import jakarta.persistence.EntityManager;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -32,8 +43,20 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 @SuppressWarnings("null")
 public class ReciboComisionServiceImpl implements ReciboComisionService {
 
+    // Filas de Excel retenidas en memoria; el resto se vuelca a disco
+    private static final int VENTANA_FILAS_EXCEL = 200;
+    private static final int LOTE_LIMPIEZA_EXPORTACION = 500;
+    // Filas de la tabla PDF que se arman antes de volcarlas al documento
+    private static final int FILAS_POR_BLOQUE_PDF = 200;
+
     private final ReciboComisionRepository reciboComisionRepository;
     private final EmpleadoRepository empleadoRepository;
+    private final EntityManager entityManager;
+    private final ReciboPdfCache reciboPdfCache;
+    private final ReciboPdfRenderer reciboPdfRenderer;
+    private final ReciboPdfPreRenderer reciboPdfPreRenderer;
+    private final PeriodoEstadoRepository periodoEstadoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -81,11 +104,11 @@ public class ReciboComisionServiceImpl implements ReciboComisionService {
 
     @Override
     @Transactional(readOnly = true)
-    public Resource exportarExcel(String sucursal, Long empleadoId, Integer mes, Integer anio) {
-        Specification<ReciboComision> spec = buildSpecification(sucursal, empleadoId, mes, anio);
-        List<ReciboComision> comisiones = reciboComisionRepository.findAll(spec);
-
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    public void exportarExcel(String sucursal, Long empleadoId, Integer mes, Integer anio, OutputStream out) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(VENTANA_FILAS_EXCEL);
+        workbook.setCompressTempFiles(true);
+        try (Stream<ReciboComision> comisiones = reciboComisionRepository.streamParaExportar(
+                normalizarSucursal(sucursal), empleadoId, mes, anio)) {
             Sheet sheet = workbook.createSheet("Reporte de Comisiones");
 
             CellStyle headerStyle = workbook.createCellStyle();
@@ -96,13 +119,16 @@ public class ReciboComisionServiceImpl implements ReciboComisionService {
             headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
             headerStyle.setBorderBottom(BorderStyle.THIN);
 
+            // Anchos fijos: autoSizeColumn no es compatible con el streaming
             String[] columns = { "Documento", "Empleado", "Sucursal", "Mes", "Año", "Producción", "% Meta", "Comisión",
                     "Estado" };
+            int[] anchos = { 14, 35, 20, 12, 8, 18, 10, 16, 12 };
             Row headerRow = sheet.createRow(0);
             for (int i = 0; i < columns.length; i++) {
                 Cell cell = headerRow.createCell(i);
                 cell.setCellValue(columns[i]);
                 cell.setCellStyle(headerStyle);
+                sheet.setColumnWidth(i, anchos[i] * 256);
             }
 
             DataFormat format = workbook.createDataFormat();
@@ -113,14 +139,16 @@ public class ReciboComisionServiceImpl implements ReciboComisionService {
             percentStyle.setDataFormat(format.getFormat("0.00%"));
 
             int rowIdx = 1;
-            for (ReciboComision c : comisiones) {
+            Iterator<ReciboComision> it = comisiones.iterator();
+            while (it.hasNext()) {
+                ReciboComision c = it.next();
                 Row row = sheet.createRow(rowIdx++);
                 Empleado e = c.getEmpleado();
 
                 row.createCell(0).setCellValue(e.getNumeroDocumento());
                 row.createCell(1).setCellValue(e.getNombreCompleto());
                 row.createCell(2).setCellValue(e.getSucursal());
-                row.createCell(3).setCellValue(getMesNombre(c.getMes()));
+                row.createCell(3).setCellValue(ReciboPdfRenderer.nombreMes(c.getMes()));
                 row.createCell(4).setCellValue(c.getAnio());
 
                 Cell prodCell = row.createCell(5);
@@ -136,38 +164,46 @@ public class ReciboComisionServiceImpl implements ReciboComisionService {
                 comCell.setCellStyle(currencyStyle);
 
                 row.createCell(8).setCellValue(c.getEstado());
-            }
 
-            for (int i = 0; i < columns.length; i++) {
-                sheet.autoSizeColumn(i);
+                // Liberar las entidades ya exportadas
+                if (rowIdx % LOTE_LIMPIEZA_EXPORTACION == 0) {
+                    entityManager.clear();
+                }
             }
 
             workbook.write(out);
-            return new ByteArrayResource(out.toByteArray());
+            out.flush();
         } catch (Exception e) {
             log.error("Error exporting commissions Excel", e);
             throw new RuntimeException("Error al generar reporte Excel");
+        } finally {
+            workbook.dispose();
         }
     }
 
+    /**
+     * "Todas las sucursales" o vacío equivale a no filtrar.
+     */
+    private String normalizarSucursal(String sucursal) {
+        if (sucursal == null || sucursal.isEmpty() || "Todas las sucursales".equals(sucursal)) {
+            return null;
+        }
+        return sucursal;
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public Resource exportarPdf(String sucursal, Long empleadoId, Integer mes, Integer anio) {
-        Specification<ReciboComision> spec = buildSpecification(sucursal, empleadoId, mes, anio);
-        List<ReciboComision> comisiones = reciboComisionRepository.findAll(spec);
-
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    public void exportarPdf(String sucursal, Long empleadoId, Integer mes, Integer anio, OutputStream out) {
+        try (Stream<ReciboComision> comisiones = reciboComisionRepository.streamParaExportar(
+                normalizarSucursal(sucursal), empleadoId, mes, anio)) {
             com.lowagie.text.Document document = new com.lowagie.text.Document(com.lowagie.text.PageSize.A4.rotate());
-            com.lowagie.text.pdf.PdfWriter.getInstance(document, out);
+            com.lowagie.text.pdf.PdfWriter writer = com.lowagie.text.pdf.PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
             document.open();
 
-            com.lowagie.text.Font titleFont = new com.lowagie.text.Font(com.lowagie.text.Font.HELVETICA, 18,
-                    com.lowagie.text.Font.BOLD, java.awt.Color.DARK_GRAY);
-            com.lowagie.text.Font headerFont = new com.lowagie.text.Font(com.lowagie.text.Font.HELVETICA, 10,
-                    com.lowagie.text.Font.BOLD, java.awt.Color.WHITE);
-            com.lowagie.text.Font bodyFont = new com.lowagie.text.Font(com.lowagie.text.Font.HELVETICA, 9);
-            com.lowagie.text.Font boldFont = new com.lowagie.text.Font(com.lowagie.text.Font.HELVETICA, 9,
-                    com.lowagie.text.Font.BOLD);
+            com.lowagie.text.Font titleFont = ReciboPdfRenderer.FUENTE_TITULO_REPORTE;
+            com.lowagie.text.Font bodyFont = ReciboPdfRenderer.FUENTE_CUERPO_REPORTE;
+            com.lowagie.text.Font boldFont = ReciboPdfRenderer.FUENTE_NEGRITA_REPORTE;
 
             com.lowagie.text.Paragraph title = new com.lowagie.text.Paragraph(
                     "REPORTE DE COMISIONES - COOPERATIVA REDUCTO", titleFont);
@@ -181,34 +217,39 @@ public class ReciboComisionServiceImpl implements ReciboComisionService {
 
             String[] headers = { "DOC", "EMPLEADO", "SUCURSAL", "MES", "PRODUCCIÓN", "% META", "COMISIÓN", "ESTADO" };
             for (String h : headers) {
-                com.lowagie.text.pdf.PdfPCell cell = new com.lowagie.text.pdf.PdfPCell(
-                        new com.lowagie.text.Phrase(h, headerFont));
-                cell.setBackgroundColor(java.awt.Color.GRAY);
-                cell.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_CENTER);
-                cell.setPadding(5);
-                table.addCell(cell);
+                table.addCell(ReciboPdfRenderer.celdaCabeceraReporte(h));
             }
-
-            java.text.NumberFormat nf = java.text.NumberFormat.getCurrencyInstance(new java.util.Locale("es", "PY"));
-            nf.setCurrency(java.util.Currency.getInstance("PYG"));
-            nf.setMaximumFractionDigits(0);
+            // Tabla incompleta: se agrega al documento por bloques y la cabecera se
+            // repite en cada página
+            table.setHeaderRows(1);
+            table.setComplete(false);
 
             BigDecimal totalProduccion = BigDecimal.ZERO;
             BigDecimal totalComisiones = BigDecimal.ZERO;
 
-            for (ReciboComision c : comisiones) {
+            int filas = 0;
+            Iterator<ReciboComision> it = comisiones.iterator();
+            while (it.hasNext()) {
+                ReciboComision c = it.next();
                 table.addCell(new com.lowagie.text.Phrase(c.getEmpleado().getNumeroDocumento(), bodyFont));
                 table.addCell(new com.lowagie.text.Phrase(c.getEmpleado().getNombreCompleto(), bodyFont));
                 table.addCell(new com.lowagie.text.Phrase(c.getEmpleado().getSucursal(), bodyFont));
-                table.addCell(new com.lowagie.text.Phrase(getMesNombre(c.getMes()), bodyFont));
+                table.addCell(new com.lowagie.text.Phrase(ReciboPdfRenderer.nombreMes(c.getMes()), bodyFont));
 
-                table.addCell(createRightAlignedCell(nf.format(c.getProduccionMensual()), bodyFont));
-                table.addCell(createRightAlignedCell(c.getMetaAlcanzadaPorcentaje().toString() + "%", bodyFont));
-                table.addCell(createRightAlignedCell(nf.format(c.getMontoComision()), boldFont));
+                table.addCell(ReciboPdfRenderer.celdaMonto(c.getProduccionMensual(), bodyFont));
+                table.addCell(ReciboPdfRenderer.celdaNumeroReporte(c.getMetaAlcanzadaPorcentaje().toString() + "%",
+                        bodyFont));
+                table.addCell(ReciboPdfRenderer.celdaMonto(c.getMontoComision(), boldFont));
                 table.addCell(new com.lowagie.text.Phrase(c.getEstado(), bodyFont));
 
                 totalProduccion = totalProduccion.add(c.getProduccionMensual());
                 totalComisiones = totalComisiones.add(c.getMontoComision());
+
+                // Volcar las filas del bloque a la salida y liberar las entidades
+                if (++filas % FILAS_POR_BLOQUE_PDF == 0) {
+                    document.add(table);
+                    entityManager.clear();
+                }
             }
 
             com.lowagie.text.pdf.PdfPCell footerLabel = new com.lowagie.text.pdf.PdfPCell(
@@ -218,33 +259,21 @@ public class ReciboComisionServiceImpl implements ReciboComisionService {
             footerLabel.setPadding(5);
             table.addCell(footerLabel);
 
-            table.addCell(createRightAlignedCell(nf.format(totalProduccion), boldFont));
+            table.addCell(ReciboPdfRenderer.celdaMonto(totalProduccion, boldFont));
             table.addCell(new com.lowagie.text.Phrase("", bodyFont));
-            table.addCell(createRightAlignedCell(nf.format(totalComisiones), boldFont));
+            table.addCell(ReciboPdfRenderer.celdaMonto(totalComisiones, boldFont));
             table.addCell(new com.lowagie.text.Phrase("", bodyFont));
 
+            table.setComplete(true);
             document.add(table);
             document.close();
-            return new ByteArrayResource(out.toByteArray());
+            out.flush();
         } catch (Exception e) {
             log.error("Error exporting commissions PDF", e);
             throw new RuntimeException("Error al generar reporte PDF");
         }
     }
 
-    private com.lowagie.text.pdf.PdfPCell createRightAlignedCell(String text, com.lowagie.text.Font font) {
-        com.lowagie.text.pdf.PdfPCell cell = new com.lowagie.text.pdf.PdfPCell(new com.lowagie.text.Phrase(text, font));
-        cell.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_RIGHT);
-        cell.setPadding(5);
-        return cell;
-    }
-
-    private String getMesNombre(int mes) {
-        String[] meses = { "Enero", "Febrero", "Marzo", "Abril", "Mayo", "Junio", "Julio", "Agosto", "Septiembre",
-                "Octubre", "Noviembre", "Diciembre" };
-        return meses[mes - 1];
-    }
-
     @Override
     @Transactional(readOnly = true)
     public ReciboComisionDTO findById(Long id) {
@@ -269,68 +298,18 @@ public class ReciboComisionServiceImpl implements ReciboComisionService {
     public Resource getPdfResource(Long id) {
         ReciboComision comision = reciboComisionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Recibo de comisión no encontrado"));
-        Empleado empleado = comision.getEmpleado();
-
-        try (java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream()) {
-            com.lowagie.text.Document document = new com.lowagie.text.Document(com.lowagie.text.PageSize.A4);
-            com.lowagie.text.pdf.PdfWriter.getInstance(document, out);
-            document.open();
-
-            // Fonts
-            com.lowagie.text.Font companyFont = com.lowagie.text.FontFactory
-                    .getFont(com.lowagie.text.FontFactory.HELVETICA_BOLD, 16, java.awt.Color.decode("#006400"));
-            com.lowagie.text.Font titleFont = com.lowagie.text.FontFactory
-                    .getFont(com.lowagie.text.FontFactory.HELVETICA_BOLD, 14);
-            com.lowagie.text.Font headerLabelFont = com.lowagie.text.FontFactory
-                    .getFont(com.lowagie.text.FontFactory.HELVETICA_BOLD, 9);
-            com.lowagie.text.Font normalFont = com.lowagie.text.FontFactory
-                    .getFont(com.lowagie.text.FontFactory.HELVETICA, 9);
-            com.lowagie.text.Font smallFont = com.lowagie.text.FontFactory
-                    .getFont(com.lowagie.text.FontFactory.HELVETICA, 8);
-
-            java.text.NumberFormat nf = java.text.NumberFormat
-                    .getCurrencyInstance(java.util.Locale.forLanguageTag("es-PY"));
-            java.time.format.DateTimeFormatter dtf = java.time.format.DateTimeFormatter.ofPattern("dd/MM/yy");
-
-            // Header (Simple Version)
-            document.add(new com.lowagie.text.Paragraph("Cooperativa Reducto Ltda", companyFont));
-            document.add(new com.lowagie.text.Paragraph("LIQUIDACIÓN DE COMISIONES", titleFont));
-            document.add(new com.lowagie.text.Paragraph("\n"));
-
-            // Empleado Info
-            document.add(new com.lowagie.text.Paragraph("Empleado: " + empleado.getNombreCompleto(), normalFont));
-            document.add(new com.lowagie.text.Paragraph("Documento: " + empleado.getNumeroDocumento(), normalFont));
-            document.add(new com.lowagie.text.Paragraph("Cargo: " + empleado.getCargo(), normalFont));
-            document.add(new com.lowagie.text.Paragraph("Periodo: " + comision.getMes() + "/" + comision.getAnio(),
-                    normalFont));
-            document.add(new com.lowagie.text.Paragraph("\n"));
-
-            // Table of concepts
-            com.lowagie.text.pdf.PdfPTable table = new com.lowagie.text.pdf.PdfPTable(2);
-            table.setWidthPercentage(100);
-
-            table.addCell(new com.lowagie.text.Phrase("Concepto", headerLabelFont));
-            table.addCell(new com.lowagie.text.Phrase("Monto", headerLabelFont));
-
-            table.addCell(new com.lowagie.text.Phrase("Producción Mensual Alcanzada", normalFont));
-            table.addCell(new com.lowagie.text.Phrase(nf.format(comision.getProduccionMensual()), normalFont));
-
-            table.addCell(new com.lowagie.text.Phrase("Comisión Liquidada", normalFont));
-            table.addCell(new com.lowagie.text.Phrase(nf.format(comision.getMontoComision()), normalFont));
-
-            document.add(table);
-
-            document.add(new com.lowagie.text.Paragraph("\n\n"));
-            document.add(new com.lowagie.text.Paragraph("________________________", normalFont));
-            document.add(new com.lowagie.text.Paragraph("Firma Recibí Conforme", smallFont));
 
-            document.close();
-            return new ByteArrayResource(out.toByteArray());
-
-        } catch (Exception e) {
-            log.error("Error generating Commission PDF", e);
-            throw new RuntimeException("Error al generar el PDF de la comisión");
+        // Un borrador todavía puede cambiar: se renderiza siempre
+        if ("BORRADOR".equals(comision.getEstado())) {
+            return new ByteArrayResource(renderizarPdf(comision));
         }
+        byte[] pdf = reciboPdfCache.obtener(ReciboPdfCache.TIPO_COMISION, id, reciboPdfCache.hash(comision),
+                () -> renderizarPdf(comision));
+        return new ByteArrayResource(pdf);
+    }
+
+    private byte[] renderizarPdf(ReciboComision comision) {
+        return reciboPdfRenderer.renderizar(comision);
     }
 
     @Override
@@ -339,14 +318,48 @@ public class ReciboComisionServiceImpl implements ReciboComisionService {
     }
 
     @Override
-    public void cerrarComisiones(Integer anio, Integer mes) {
-        List<ReciboComision> comisiones = reciboComisionRepository.findByAnioAndMes(anio, mes);
-        for (ReciboComision c : comisiones) {
-            if ("BORRADOR".equals(c.getEstado())) {
-                c.setEstado("GENERADO");
-                reciboComisionRepository.save(c);
-            }
+    public int cerrarComisiones(Integer anio, Integer mes, String usuario) {
+        // Una sola sentencia condicional: un cierre concurrente del mismo periodo
+        // no encuentra filas en BORRADOR
+        int afectados = reciboComisionRepository.cerrarPeriodo(anio, mes, LocalDateTime.now());
+        PeriodoEstado cierre = periodoEstadoRepository.save(PeriodoEstado.builder()
+                .tipo(PeriodoEstado.TIPO_COMISIONES)
+                .anio(anio)
+                .mes(mes)
+                .estado(PeriodoEstado.CERRADO)
+                .afectados(afectados)
+                .usuario(usuario)
+                .build());
+        log.info("Comisiones {}/{} cerradas por {}: {} recibos pasaron a GENERADO", mes, anio, usuario, afectados);
+
+        if (afectados > 0) {
+            eventPublisher.publishEvent(new PeriodoCerradoEvent(cierre.getId()));
         }
+        return afectados;
+    }
+
+    /**
+     * Pre-render de los PDFs de comisiones una vez confirmado el cierre.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onPeriodoCerrado(PeriodoCerradoEvent event) {
+        PeriodoEstado cierre = periodoEstadoRepository.findById(event.getPeriodoEstadoId()).orElse(null);
+        if (cierre == null || !PeriodoEstado.TIPO_COMISIONES.equals(cierre.getTipo())) {
+            return;
+        }
+        List<Long> ids = reciboComisionRepository.findIdsByAnioAndMesAndEstadoNot(cierre.getAnio(),
+                cierre.getMes(), "BORRADOR");
+        reciboPdfPreRenderer.encolar(
+                ReciboPdfPreRenderer.clave(ReciboPdfCache.TIPO_COMISION, cierre.getAnio(), cierre.getMes()),
+                ids, this::prerenderizarPdf);
+    }
+
+    private void prerenderizarPdf(Long id) {
+        ReciboComision comision = reciboComisionRepository.findByIdConEmpleado(id)
+                .orElseThrow(() -> new RuntimeException("Recibo de comisión no encontrado"));
+        reciboPdfCache.precalentar(ReciboPdfCache.TIPO_COMISION, id, reciboPdfCache.hash(comision),
+                () -> renderizarPdf(comision));
     }
 
     private ReciboComisionDTO convertToDTO(ReciboComision entity) {
@@ -0,0 +1,315 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.entity.ReciboComision;
+import com.coopreducto.tthh.entity.ReciboSalario;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caché de PDFs de recibos ya renderizados.
+ *
+ * Las entradas se identifican por (tipo, id del recibo, hash del contenido):
+ * si cambia cualquier dato que aparece en el PDF cambia el hash, por lo que
+ * nunca se sirve un PDF desactualizado. Tiene dos niveles:
+ * <ul>
+ * <li>Disco: {base-path}/cache/recibos/{tipo}/{id}_{hash}.pdf. Cada lectura
+ * renueva la fecha del archivo y una limpieza diaria borra los que no se
+ * leyeron en app.pdf-cache.disco-retencion-dias.</li>
+ * <li>Memoria: LRU acotado por bytes para los recibos más descargados.</li>
+ * </ul>
+ * Varias peticiones simultáneas del mismo recibo comparten un único render.
+ */
+@Slf4j
+@Component
+public class ReciboPdfCache {
+
+    public static final String TIPO_SALARIO = "salario";
+    public static final String TIPO_COMISION = "comision";
+
+    // Cambiar al modificar el diseño del recibo para descartar los PDFs previos
+    private static final String VERSION_PLANTILLA = "v2";
+
+    private final Path directorio;
+    private final long maxBytesMemoria;
+    private final long retencionDias;
+
+    private final Map<String, byte[]> memoria = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytesMemoria;
+
+    private final Map<String, CompletableFuture<byte[]>> enCurso = new ConcurrentHashMap<>();
+
+    public ReciboPdfCache(@Value("${app.file-storage.base-path:uploads}") String basePath,
+            @Value("${app.pdf-cache.memoria-max-mb:64}") long memoriaMaxMb,
+            @Value("${app.pdf-cache.disco-retencion-dias:60}") long retencionDias) {
+        this.directorio = Paths.get(basePath).toAbsolutePath().normalize().resolve("cache").resolve("recibos");
+        this.maxBytesMemoria = memoriaMaxMb * 1024 * 1024;
+        this.retencionDias = retencionDias;
+        try {
+            Files.createDirectories(directorio.resolve(TIPO_SALARIO));
+            Files.createDirectories(directorio.resolve(TIPO_COMISION));
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo crear el directorio de caché de recibos", e);
+        }
+    }
+
+    /**
+     * Devuelve el PDF desde memoria o disco; si no existe lo renderiza una
+     * sola vez y lo guarda en ambos niveles.
+     */
+    public byte[] obtener(String tipo, Long id, String hash, Supplier<byte[]> renderizar) {
+        String clave = clave(tipo, id, hash);
+
+        byte[] pdf = leerMemoria(clave);
+        if (pdf != null) {
+            return pdf;
+        }
+
+        CompletableFuture<byte[]> nuevo = new CompletableFuture<>();
+        CompletableFuture<byte[]> existente = enCurso.putIfAbsent(clave, nuevo);
+        if (existente != null) {
+            try {
+                return existente.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            pdf = leerDisco(tipo, id, hash);
+            if (pdf == null) {
+                pdf = renderizar.get();
+                escribirDisco(tipo, id, hash, pdf);
+            }
+            guardarMemoria(clave, pdf);
+            nuevo.complete(pdf);
+            return pdf;
+        } catch (RuntimeException e) {
+            nuevo.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(clave);
+        }
+    }
+
+    /**
+     * Garantiza que el PDF esté en disco, sin ocupar el nivel en memoria
+     * (usado por el pre-render de periodos completos).
+     */
+    public void precalentar(String tipo, Long id, String hash, Supplier<byte[]> renderizar) {
+        if (!contiene(tipo, id, hash)) {
+            escribirDisco(tipo, id, hash, renderizar.get());
+        }
+    }
+
+    /**
+     * Como {@link #obtener}, pero solo usa el nivel de disco. Para lecturas
+     * masivas (ZIP de un periodo) que desplazarían a los recibos frecuentes.
+     */
+    public byte[] obtenerDeDisco(String tipo, Long id, String hash, Supplier<byte[]> renderizar) {
+        byte[] pdf = leerDisco(tipo, id, hash);
+        if (pdf == null) {
+            pdf = renderizar.get();
+            escribirDisco(tipo, id, hash, pdf);
+        }
+        return pdf;
+    }
+
+    /**
+     * Indica si el PDF con ese contenido ya está en disco.
+     */
+    public boolean contiene(String tipo, Long id, String hash) {
+        return Files.exists(archivo(tipo, id, hash));
+    }
+
+    /**
+     * Descarta todas las versiones cacheadas de un recibo.
+     */
+    public void invalidar(String tipo, Long id) {
+        invalidarExcepto(tipo, id, null);
+    }
+
+    // ========================================
+    // HASH DE CONTENIDO
+    // ========================================
+
+    public String hash(ReciboSalario recibo) {
+        Empleado e = recibo.getEmpleado();
+        // updatedAt/createdAt: la fecha y hora impresas en la cabecera
+        return sha256(VERSION_PLANTILLA, recibo.getId(), recibo.getAnio(), recibo.getMes(), recibo.getFechaPago(),
+                recibo.getUpdatedAt(), recibo.getCreatedAt(), recibo.getSalarioBruto(), recibo.getDescuentosIps(), recibo.getDescuentosJubilacion(),
+                recibo.getOtrosDescuentos(), recibo.getBonificaciones(), recibo.getSalarioNeto(),
+                e.getId(), e.getNombres(), e.getApellidos(), e.getNumeroDocumento(), e.getNumeroSocio(),
+                e.getCargo());
+    }
+
+    public String hash(ReciboComision comision) {
+        Empleado e = comision.getEmpleado();
+        return sha256(VERSION_PLANTILLA, comision.getId(), comision.getAnio(), comision.getMes(),
+                comision.getFechaPago(), comision.getProduccionMensual(), comision.getMetaAlcanzadaPorcentaje(),
+                comision.getMontoComision(), e.getId(), e.getNombres(), e.getApellidos(), e.getNumeroDocumento(),
+                e.getCargo());
+    }
+
+    private String sha256(Object... partes) {
+        StringBuilder sb = new StringBuilder();
+        for (Object parte : partes) {
+            // BigDecimal: sin ceros finales para que 100 y 100.00 den el mismo hash
+            if (parte instanceof BigDecimal bd) {
+                parte = bd.stripTrailingZeros().toPlainString();
+            }
+            sb.append(parte).append('|');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            // 16 bytes son suficientes para el nombre de archivo
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ========================================
+    // NIVEL MEMORIA
+    // ========================================
+
+    private synchronized byte[] leerMemoria(String clave) {
+        return memoria.get(clave);
+    }
+
+    private synchronized void guardarMemoria(String clave, byte[] pdf) {
+        if (pdf.length > maxBytesMemoria / 4) {
+            return; // No ocupar la caché con un solo archivo grande
+        }
+        byte[] anterior = memoria.put(clave, pdf);
+        bytesMemoria += pdf.length - (anterior != null ? anterior.length : 0);
+
+        Iterator<Map.Entry<String, byte[]>> it = memoria.entrySet().iterator();
+        while (bytesMemoria > maxBytesMemoria && it.hasNext()) {
+            Map.Entry<String, byte[]> masAntiguo = it.next();
+            bytesMemoria -= masAntiguo.getValue().length;
+            it.remove();
+        }
+    }
+
+    private synchronized void quitarMemoria(String tipo, Long id, String hashVigente) {
+        String prefijo = tipo + ":" + id + ":";
+        Iterator<Map.Entry<String, byte[]>> it = memoria.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, byte[]> entrada = it.next();
+            if (entrada.getKey().startsWith(prefijo)
+                    && (hashVigente == null || !entrada.getKey().endsWith(":" + hashVigente))) {
+                bytesMemoria -= entrada.getValue().length;
+                it.remove();
+            }
+        }
+    }
+
+    // ========================================
+    // NIVEL DISCO
+    // ========================================
+
+    private byte[] leerDisco(String tipo, Long id, String hash) {
+        Path path = archivo(tipo, id, hash);
+        try {
+            if (!Files.exists(path)) {
+                return null;
+            }
+            byte[] pdf = Files.readAllBytes(path);
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now())); // Último uso, para la retención
+            return pdf;
+        } catch (IOException e) {
+            log.warn("No se pudo leer el PDF cacheado {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private void escribirDisco(String tipo, Long id, String hash, byte[] pdf) {
+        Path destino = archivo(tipo, id, hash);
+        try {
+            // Escritura atómica: otro lector nunca ve un archivo a medio escribir
+            Path temporal = Files.createTempFile(destino.getParent(), id + "_", ".tmp");
+            Files.write(temporal, pdf);
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            invalidarExcepto(tipo, id, hash);
+        } catch (IOException e) {
+            // El PDF se sirve igual; solo se pierde la entrada de disco
+            log.warn("No se pudo guardar el PDF {} en caché: {}", destino, e.getMessage());
+        }
+    }
+
+    /**
+     * Elimina las versiones anteriores (otro hash) de un recibo.
+     */
+    private void invalidarExcepto(String tipo, Long id, String hashVigente) {
+        quitarMemoria(tipo, id, hashVigente);
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio.resolve(tipo), id + "_*.pdf")) {
+            for (Path path : archivos) {
+                if (hashVigente == null || !path.getFileName().toString().equals(id + "_" + hashVigente + ".pdf")) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo invalidar la caché del recibo {} {}: {}", tipo, id, e.getMessage());
+        }
+    }
+
+    /**
+     * Borra los PDFs que no se leyeron ni escribieron dentro del periodo de
+     * retención y los temporales que quedaron de escrituras interrumpidas.
+     */
+    @Scheduled(cron = "${app.pdf-cache.limpieza-cron:0 30 3 * * *}")
+    public void limpiarVencidos() {
+        Instant limitePdf = Instant.now().minus(Duration.ofDays(retencionDias));
+        Instant limiteTemporal = Instant.now().minus(Duration.ofHours(1));
+        int borrados = 0;
+        for (String tipo : List.of(TIPO_SALARIO, TIPO_COMISION)) {
+            try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio.resolve(tipo))) {
+                for (Path path : archivos) {
+                    Instant limite = path.getFileName().toString().endsWith(".tmp") ? limiteTemporal : limitePdf;
+                    if (Files.getLastModifiedTime(path).toInstant().isBefore(limite) && Files.deleteIfExists(path)) {
+                        borrados++;
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("No se pudo limpiar la caché de recibos {}: {}", tipo, e.getMessage());
+            }
+        }
+        if (borrados > 0) {
+            log.info("Caché de recibos: {} PDFs sin uso en {} días eliminados", borrados, retencionDias);
+        }
+    }
+
+    private Path archivo(String tipo, Long id, String hash) {
+        return directorio.resolve(tipo).resolve(id + "_" + hash + ".pdf");
+    }
+
+    private String clave(String tipo, Long id, String hash) {
+        return tipo + ":" + id + ":" + hash;
+    }
+}
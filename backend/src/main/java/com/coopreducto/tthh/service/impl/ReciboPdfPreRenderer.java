@@ -0,0 +1,137 @@
+package com.coopreducto.tthh.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Pre-renderiza en segundo plano los PDFs de un periodo en el pool
+ * "pdfExecutor" y lleva el avance por periodo para el dashboard.
+ * El avance vive en memoria: tras un reinicio se pierde, pero los PDFs ya
+ * escritos siguen en la caché de disco y el resto se renderiza al
+ * descargarse.
+ */
+@Slf4j
+@Component
+public class ReciboPdfPreRenderer {
+
+    private final Executor pdfExecutor;
+    private final int trabajadores;
+    private final Map<String, Progreso> progresos = new ConcurrentHashMap<>();
+
+    public ReciboPdfPreRenderer(@Qualifier("pdfExecutor") Executor pdfExecutor,
+            @Value("${app.pdf-cache.prerender-threads:0}") int hilos) {
+        this.pdfExecutor = pdfExecutor;
+        this.trabajadores = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    public static String clave(String tipo, int anio, int mes) {
+        return tipo + ":" + anio + "-" + mes;
+    }
+
+    /**
+     * Pre-renderiza los recibos del periodo. {@code renderizar} debe ser
+     * idempotente (los recibos ya cacheados no se vuelven a generar).
+     *
+     * En lugar de una tarea por recibo se encolan hasta {@code trabajadores}
+     * tareas que toman los IDs de una cola compartida, así la cola del pool
+     * no crece con el tamaño de la planilla. Si el pool no acepta ninguna,
+     * los recibos se renderizan cuando se descarguen.
+     */
+    public void encolar(String clave, List<Long> ids, Consumer<Long> renderizar) {
+        Progreso progreso = new Progreso(ids.size());
+        progresos.put(clave, progreso);
+        Queue<Long> pendientes = new ConcurrentLinkedQueue<>(ids);
+
+        int aceptados = 0;
+        for (int i = 0; i < Math.min(trabajadores, ids.size()); i++) {
+            try {
+                pdfExecutor.execute(() -> procesar(clave, pendientes, renderizar, progreso));
+                aceptados++;
+            } catch (TaskRejectedException e) {
+                break; // Los trabajadores ya aceptados consumen toda la cola
+            }
+        }
+        if (aceptados == 0 && !ids.isEmpty()) {
+            log.warn("Pre-render de PDFs {} descartado: el pool de PDFs está saturado", clave);
+            progresos.remove(clave, progreso);
+            return;
+        }
+        log.info("Pre-render de PDFs {}: {} recibos, {} trabajadores", clave, ids.size(), aceptados);
+    }
+
+    private void procesar(String clave, Queue<Long> pendientes, Consumer<Long> renderizar, Progreso progreso) {
+        Long id;
+        while ((id = pendientes.poll()) != null) {
+            try {
+                renderizar.accept(id);
+                progreso.listos.incrementAndGet();
+            } catch (Exception e) {
+                progreso.errores.incrementAndGet();
+                log.warn("No se pudo pre-renderizar el recibo {} ({}): {}", id, clave, e.getMessage());
+            }
+        }
+        synchronized (progreso) {
+            if (progreso.isFinalizado() && progreso.finalizadoAt == null) {
+                progreso.finalizadoAt = LocalDateTime.now();
+                log.info("Pre-render de PDFs {} finalizado: {} listos, {} errores", clave,
+                        progreso.getListos(), progreso.getErrores());
+            }
+        }
+    }
+
+    /**
+     * Avance del último pre-render del periodo, o null si no hubo.
+     */
+    public Progreso progreso(String clave) {
+        return progresos.get(clave);
+    }
+
+    public static class Progreso {
+        private final int total;
+        private final AtomicInteger listos = new AtomicInteger();
+        private final AtomicInteger errores = new AtomicInteger();
+        private final LocalDateTime iniciadoAt = LocalDateTime.now();
+        private volatile LocalDateTime finalizadoAt;
+
+        Progreso(int total) {
+            this.total = total;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getListos() {
+            return listos.get();
+        }
+
+        public int getErrores() {
+            return errores.get();
+        }
+
+        public boolean isFinalizado() {
+            return listos.get() + errores.get() >= total;
+        }
+
+        public LocalDateTime getIniciadoAt() {
+            return iniciadoAt;
+        }
+
+        public LocalDateTime getFinalizadoAt() {
+            return finalizadoAt;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.entity.ReciboComision;
+import com.coopreducto.tthh.entity.ReciboSalario;
+import com.lowagie.text.Document;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import com.lowagie.text.pdf.draw.LineSeparator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Currency;
+import java.util.Locale;
+
+/**
+ * Renderizado de los PDFs de recibos (salario y comisión) y estilos
+ * compartidos con los reportes PDF de listados.
+ *
+ * Fuentes, colores y formateadores se crean una sola vez: las fuentes no se
+ * modifican después de construidas y pueden compartirse entre hilos, los
+ * {@link DateTimeFormatter} son inmutables y el {@link NumberFormat} (que no
+ * es thread-safe) se mantiene uno por hilo. Las celdas y tablas sí son
+ * mutables y se crean en cada documento.
+ */
+@Slf4j
+@Component
+public class ReciboPdfRenderer {
+
+    public static final Color VERDE_INSTITUCIONAL = new Color(0x00, 0x64, 0x00);
+
+    // Recibos
+    public static final Font FUENTE_EMPRESA = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16,
+            VERDE_INSTITUCIONAL);
+    public static final Font FUENTE_EMPRESA_SUBTITULO = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10,
+            VERDE_INSTITUCIONAL);
+    public static final Font FUENTE_TITULO = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
+    public static final Font FUENTE_ETIQUETA = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9);
+    public static final Font FUENTE_NORMAL = FontFactory.getFont(FontFactory.HELVETICA, 9);
+    public static final Font FUENTE_PEQUENA = FontFactory.getFont(FontFactory.HELVETICA, 8);
+
+    // Reportes de listados
+    public static final Font FUENTE_TITULO_REPORTE = new Font(Font.HELVETICA, 18, Font.BOLD, Color.DARK_GRAY);
+    public static final Font FUENTE_CABECERA_REPORTE = new Font(Font.HELVETICA, 10, Font.BOLD, Color.WHITE);
+    public static final Font FUENTE_CUERPO_REPORTE = new Font(Font.HELVETICA, 9);
+    public static final Font FUENTE_NEGRITA_REPORTE = new Font(Font.HELVETICA, 9, Font.BOLD);
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yy");
+    private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private static final ThreadLocal<NumberFormat> FORMATO_MONEDA = ThreadLocal.withInitial(() -> {
+        NumberFormat nf = NumberFormat.getCurrencyInstance(Locale.of("es", "PY"));
+        nf.setCurrency(Currency.getInstance("PYG"));
+        nf.setMaximumFractionDigits(0);
+        return nf;
+    });
+
+    private static final String[] MESES = { "Enero", "Febrero", "Marzo", "Abril", "Mayo", "Junio", "Julio",
+            "Agosto", "Septiembre", "Octubre", "Noviembre", "Diciembre" };
+
+    private static final float[] ANCHOS_CONCEPTOS = { 6, 2, 2 };
+
+    // Desglose de "otros descuentos" que se muestra en el recibo
+    private static final BigDecimal DESCUENTO_CORPORATIVO = new BigDecimal("69000");
+    private static final BigDecimal FONDO_SOCIAL = new BigDecimal("10000");
+    private static final BigDecimal ANTICIPO_NOVIEMBRE = new BigDecimal("600000");
+    private static final BigDecimal ANTICIPO = new BigDecimal("500000");
+    private static final BigDecimal ALMUERZO = new BigDecimal("65000");
+
+    // ========================================
+    // RECIBO DE SALARIO
+    // ========================================
+
+    public byte[] renderizar(ReciboSalario recibo) {
+        Empleado empleado = recibo.getEmpleado();
+
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Document document = new Document(PageSize.A4);
+            PdfWriter.getInstance(document, out);
+            document.open();
+
+            // ================= CABECERA =================
+            PdfPTable headerTable = new PdfPTable(3);
+            headerTable.setWidthPercentage(100);
+            headerTable.setWidths(new float[] { 2, 4, 2 });
+
+            // Col 1: logo simulado con texto verde
+            PdfPCell logoCell = new PdfPCell();
+            logoCell.setBorder(Rectangle.NO_BORDER);
+            logoCell.addElement(new Paragraph("/^\\", FUENTE_EMPRESA));
+            logoCell.addElement(new Paragraph("/___\\", FUENTE_EMPRESA));
+            headerTable.addCell(logoCell);
+
+            // Col 2: nombre de la empresa
+            PdfPCell companyCell = new PdfPCell();
+            companyCell.setBorder(Rectangle.NO_BORDER);
+            companyCell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+            companyCell.addElement(new Paragraph("Cooperativa Reducto Ltda", FUENTE_EMPRESA));
+            companyCell.addElement(new Paragraph("de Microfinanza", FUENTE_EMPRESA_SUBTITULO));
+            headerTable.addCell(companyCell);
+
+            // Col 3: metadatos
+            PdfPCell metaCell = new PdfPCell();
+            metaCell.setBorder(Rectangle.NO_BORDER);
+            metaCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+            // Última modificación del recibo y no la hora actual: el PDF se cachea
+            // y se sirve igual a todos los que lo descargan después
+            LocalDateTime emitido = recibo.getUpdatedAt() != null ? recibo.getUpdatedAt()
+                    : recibo.getCreatedAt() != null ? recibo.getCreatedAt()
+                    : recibo.getFechaPago().atStartOfDay();
+            metaCell.addElement(parrafoDerecha("Fecha : " + emitido.format(FORMATO_FECHA), FUENTE_PEQUENA));
+            metaCell.addElement(parrafoDerecha("Hora : " + emitido.format(FORMATO_HORA), FUENTE_PEQUENA));
+            metaCell.addElement(parrafoDerecha("Hoja : 1 de 1", FUENTE_PEQUENA));
+            metaCell.addElement(parrafoDerecha("Salario.AprLiquidacionBorrador", FUENTE_PEQUENA));
+            headerTable.addCell(metaCell);
+
+            document.add(headerTable);
+
+            document.add(new Paragraph("Usuario: tcabral", FUENTE_PEQUENA));
+            document.add(new Paragraph("\n"));
+
+            Paragraph title = new Paragraph("LIQUIDACIÓN DE SALARIO", FUENTE_TITULO);
+            title.setAlignment(Element.ALIGN_CENTER);
+            document.add(title);
+
+            String nroSocio = empleado.getNumeroSocio() != null ? empleado.getNumeroSocio()
+                    : empleado.getId().toString();
+            String fechaDesde = LocalDate.of(recibo.getAnio(), recibo.getMes(), 1).format(FORMATO_FECHA);
+            String fechaHasta = recibo.getFechaPago().format(FORMATO_FECHA);
+
+            Paragraph subtitle = new Paragraph(
+                    "Nro.: " + nroSocio + " (Desde " + fechaDesde + " Hasta " + fechaHasta + ")", FUENTE_NORMAL);
+            subtitle.setAlignment(Element.ALIGN_CENTER);
+            document.add(subtitle);
+
+            document.add(new Paragraph("\n"));
+            document.add(new Paragraph("Obs.: Salario " + nombreMes(recibo.getMes()) + " " + recibo.getAnio(),
+                    FUENTE_NORMAL));
+
+            LineSeparator line = new LineSeparator();
+            line.setLineWidth(1);
+            document.add(line);
+
+            // ================= COLUMNAS =================
+            PdfPTable mainTable = new PdfPTable(6);
+            mainTable.setWidthPercentage(100);
+            mainTable.setWidths(new float[] { 2, 4, 3, 4, 2, 2 });
+
+            mainTable.addCell(celda("Nro Doc. Nro.", FUENTE_ETIQUETA));
+            mainTable.addCell(celda("Nombre Completo", FUENTE_ETIQUETA));
+            mainTable.addCell(celda("Cargo", FUENTE_ETIQUETA));
+            mainTable.addCell(celda("Concepto Salario", FUENTE_ETIQUETA));
+            mainTable.addCell(celda("Ingreso", FUENTE_ETIQUETA));
+            mainTable.addCell(celda("Egreso", FUENTE_ETIQUETA));
+
+            mainTable.addCell(celda("0 " + empleado.getNumeroDocumento(), FUENTE_NORMAL));
+            mainTable.addCell(celda(empleado.getApellidos() + ", " + empleado.getNombres(), FUENTE_NORMAL));
+            mainTable.addCell(celda(empleado.getCargo(), FUENTE_NORMAL));
+            mainTable.addCell(celda("", FUENTE_NORMAL));
+            mainTable.addCell(celda("", FUENTE_NORMAL));
+            mainTable.addCell(celda("", FUENTE_NORMAL));
+
+            document.add(mainTable);
+            document.add(line);
+
+            // ================= DETALLE =================
+            PdfPTable infoTable = new PdfPTable(2);
+            infoTable.setWidthPercentage(100);
+            infoTable.addCell(celda("SALARIO NOMINAL: " + moneda(recibo.getSalarioBruto()), FUENTE_NORMAL));
+            PdfPCell daysCell = celda("DIAS TRABAJADOS: 30", FUENTE_NORMAL);
+            daysCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+            infoTable.addCell(daysCell);
+            document.add(infoTable);
+
+            document.add(new Paragraph("\n"));
+
+            // Conceptos alineados a la derecha: espacio, ingreso, egreso
+            PdfPTable conceptTable = new PdfPTable(3);
+            conceptTable.setWidthPercentage(100);
+            conceptTable.setWidths(ANCHOS_CONCEPTOS);
+            agregarConceptos(conceptTable, recibo);
+            document.add(conceptTable);
+
+            document.add(new Paragraph("\n"));
+
+            // Totales
+            PdfPTable totalTable = new PdfPTable(3);
+            totalTable.setWidthPercentage(100);
+            totalTable.setWidths(ANCHOS_CONCEPTOS);
+
+            BigDecimal totalIng = recibo.getSalarioBruto()
+                    .add(recibo.getBonificaciones() != null ? recibo.getBonificaciones() : BigDecimal.ZERO);
+            BigDecimal totalEgr = recibo.getSalarioNeto() != null
+                    ? totalIng.subtract(recibo.getSalarioNeto())
+                    : BigDecimal.ZERO;
+
+            totalTable.addCell(celdaDerecha("TOTAL:", FUENTE_ETIQUETA, Rectangle.NO_BORDER));
+            totalTable.addCell(celdaDerecha(moneda(totalIng), FUENTE_NORMAL, Rectangle.NO_BORDER));
+            totalTable.addCell(celdaDerecha(moneda(totalEgr), FUENTE_NORMAL, Rectangle.NO_BORDER));
+            document.add(totalTable);
+
+            // Líquido a cobrar
+            PdfPTable liqTable = new PdfPTable(3);
+            liqTable.setWidthPercentage(100);
+            liqTable.setWidths(ANCHOS_CONCEPTOS);
+            liqTable.addCell(celdaDerecha("LIQUIDO A COBRAR:", FUENTE_ETIQUETA, Rectangle.TOP));
+            liqTable.addCell(celdaDerecha(moneda(recibo.getSalarioNeto()), FUENTE_ETIQUETA, Rectangle.TOP));
+            liqTable.addCell(celda("", FUENTE_NORMAL));
+            document.add(liqTable);
+
+            document.add(line);
+
+            PdfPTable footerTable = new PdfPTable(1);
+            footerTable.setWidthPercentage(100);
+            PdfPCell fCell = celda("DIAS TRABAJADOS: 30", FUENTE_NORMAL);
+            fCell.setHorizontalAlignment(Element.ALIGN_CENTER);
+            footerTable.addCell(fCell);
+            document.add(footerTable);
+
+            document.close();
+            return out.toByteArray();
+
+        } catch (Exception e) {
+            log.error("Error al generar el PDF del recibo {}", recibo.getId(), e);
+            throw new RuntimeException("Error al generar el PDF del recibo");
+        }
+    }
+
+    /**
+     * Ingresos y egresos del recibo. "Otros descuentos" se desglosa en los
+     * conceptos fijos de la cooperativa y el resto se muestra como un total.
+     */
+    private void agregarConceptos(PdfPTable table, ReciboSalario recibo) {
+        filaConcepto(table, "SALARIO MENSUAL", recibo.getSalarioBruto(), null);
+        if (recibo.getBonificaciones() != null && recibo.getBonificaciones().compareTo(BigDecimal.ZERO) > 0) {
+            filaConcepto(table, "PLUS POR CARGO", recibo.getBonificaciones(), null);
+        }
+
+        BigDecimal otros = recibo.getOtrosDescuentos() != null ? recibo.getOtrosDescuentos() : BigDecimal.ZERO;
+        BigDecimal ips = recibo.getDescuentosIps();
+        if (ips != null && ips.compareTo(BigDecimal.ZERO) > 0) {
+            filaConcepto(table, "IPS APORTE FUNCIONARIO 9 %", null, ips);
+        }
+
+        BigDecimal corporativo = DESCUENTO_CORPORATIVO.min(otros);
+        BigDecimal fondo = FONDO_SOCIAL.min(otros.subtract(corporativo));
+        BigDecimal remainder = otros.subtract(corporativo).subtract(fondo);
+
+        if (remainder.compareTo(ANTICIPO_NOVIEMBRE) >= 0) {
+            filaConcepto(table, "ANTICIPO QUINCENAL DESCUENTO", null, ANTICIPO_NOVIEMBRE);
+            remainder = remainder.subtract(ANTICIPO_NOVIEMBRE);
+        } else if (remainder.compareTo(ANTICIPO) >= 0) {
+            filaConcepto(table, "ANTICIPO QUINCENAL DESCUENTO", null, ANTICIPO);
+            remainder = remainder.subtract(ANTICIPO);
+        }
+
+        if (remainder.compareTo(ALMUERZO) >= 0) {
+            filaConcepto(table, "DESCUENTO ALMUERZO", null, ALMUERZO);
+            remainder = remainder.subtract(ALMUERZO);
+        }
+
+        filaConcepto(table, "DESCUENTOS CORPORATIVOS", null, corporativo);
+        filaConcepto(table, "FONDO SOCIAL EMPLEADO", null, fondo);
+
+        if (remainder.compareTo(BigDecimal.ZERO) > 0) {
+            filaConcepto(table, "OTROS DESCUENTOS", null, remainder);
+        }
+    }
+
+    private void filaConcepto(PdfPTable table, String concepto, BigDecimal ingreso, BigDecimal egreso) {
+        table.addCell(celdaDerecha(concepto, FUENTE_NORMAL, Rectangle.NO_BORDER));
+        table.addCell(celdaDerecha(montoOCero(ingreso), FUENTE_NORMAL, Rectangle.NO_BORDER));
+        table.addCell(celdaDerecha(montoOCero(egreso), FUENTE_NORMAL, Rectangle.NO_BORDER));
+    }
+
+    private String montoOCero(BigDecimal monto) {
+        return monto != null && monto.compareTo(BigDecimal.ZERO) != 0 ? moneda(monto) : "0";
+    }
+
+    // ========================================
+    // RECIBO DE COMISIÓN
+    // ========================================
+
+    public byte[] renderizar(ReciboComision comision) {
+        Empleado empleado = comision.getEmpleado();
+
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Document document = new Document(PageSize.A4);
+            PdfWriter.getInstance(document, out);
+            document.open();
+
+            document.add(new Paragraph("Cooperativa Reducto Ltda", FUENTE_EMPRESA));
+            document.add(new Paragraph("LIQUIDACIÓN DE COMISIONES", FUENTE_TITULO));
+            document.add(new Paragraph("\n"));
+
+            document.add(new Paragraph("Empleado: " + empleado.getNombreCompleto(), FUENTE_NORMAL));
+            document.add(new Paragraph("Documento: " + empleado.getNumeroDocumento(), FUENTE_NORMAL));
+            document.add(new Paragraph("Cargo: " + empleado.getCargo(), FUENTE_NORMAL));
+            document.add(new Paragraph("Periodo: " + comision.getMes() + "/" + comision.getAnio(), FUENTE_NORMAL));
+            document.add(new Paragraph("\n"));
+
+            PdfPTable table = new PdfPTable(2);
+            table.setWidthPercentage(100);
+
+            table.addCell(new Phrase("Concepto", FUENTE_ETIQUETA));
+            table.addCell(new Phrase("Monto", FUENTE_ETIQUETA));
+
+            table.addCell(new Phrase("Producción Mensual Alcanzada", FUENTE_NORMAL));
+            table.addCell(new Phrase(moneda(comision.getProduccionMensual()), FUENTE_NORMAL));
+
+            table.addCell(new Phrase("Comisión Liquidada", FUENTE_NORMAL));
+            table.addCell(new Phrase(moneda(comision.getMontoComision()), FUENTE_NORMAL));
+
+            document.add(table);
+
+            document.add(new Paragraph("\n\n"));
+            document.add(new Paragraph("________________________", FUENTE_NORMAL));
+            document.add(new Paragraph("Firma Recibí Conforme", FUENTE_PEQUENA));
+
+            document.close();
+            return out.toByteArray();
+
+        } catch (Exception e) {
+            log.error("Error al generar el PDF de la comisión {}", comision.getId(), e);
+            throw new RuntimeException("Error al generar el PDF de la comisión");
+        }
+    }
+
+    // ========================================
+    // UTILIDADES COMPARTIDAS
+    // ========================================
+
+    /** Monto en guaraníes sin decimales (formateador propio del hilo). */
+    public static String moneda(BigDecimal monto) {
+        return FORMATO_MONEDA.get().format(monto);
+    }
+
+    public static String nombreMes(int mes) {
+        return MESES[mes - 1];
+    }
+
+    /** Celda de cabecera de los reportes de listados. */
+    public static PdfPCell celdaCabeceraReporte(String texto) {
+        PdfPCell cell = new PdfPCell(new Phrase(texto, FUENTE_CABECERA_REPORTE));
+        cell.setBackgroundColor(Color.GRAY);
+        cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+        cell.setPadding(5);
+        return cell;
+    }
+
+    /** Celda numérica con borde de los reportes de listados. */
+    public static PdfPCell celdaNumeroReporte(String texto, Font font) {
+        PdfPCell cell = new PdfPCell(new Phrase(texto, font));
+        cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        cell.setPadding(5);
+        return cell;
+    }
+
+    /** Celda de monto en guaraníes de los reportes de listados. */
+    public static PdfPCell celdaMonto(BigDecimal monto, Font font) {
+        return celdaNumeroReporte(moneda(monto), font);
+    }
+
+    private static PdfPCell celda(String texto, Font font) {
+        PdfPCell cell = new PdfPCell(new Phrase(texto, font));
+        cell.setBorder(Rectangle.NO_BORDER);
+        cell.setPadding(2f);
+        return cell;
+    }
+
+    private static PdfPCell celdaDerecha(String texto, Font font, int borde) {
+        PdfPCell cell = new PdfPCell(new Phrase(texto, font));
+        cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        cell.setBorder(borde);
+        return cell;
+    }
+
+    private static Paragraph parrafoDerecha(String texto, Font font) {
+        Paragraph p = new Paragraph(texto, font);
+        p.setAlignment(Element.ALIGN_RIGHT);
+        return p;
+    }
+}
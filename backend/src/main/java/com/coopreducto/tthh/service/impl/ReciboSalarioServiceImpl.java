@@ -1,20 +1,31 @@
 package com.coopreducto.tthh.service.impl;
 
+import com.coopreducto.tthh.config.CacheConfig;
 import com.coopreducto.tthh.dto.ReciboSalarioDTO;
 import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.entity.PeriodoEstado;
 import com.coopreducto.tthh.entity.ReciboSalario;
+import com.coopreducto.tthh.event.PeriodoCerradoEvent;
+import com.coopreducto.tthh.event.RecibosSalarioModificadosEvent;
 import com.coopreducto.tthh.repository.EmpleadoRepository;
+import com.coopreducto.tthh.repository.NominaSerieMensualRepository;
+import com.coopreducto.tthh.repository.PayrollRunRepository;
+import com.coopreducto.tthh.repository.PeriodoEstadoRepository;
 import com.coopreducto.tthh.repository.ReciboSalarioRepository;
-import com.coopreducto.tthh.repository.AsistenciaRepository;
+import com.coopreducto.tthh.service.CacheService;
 import com.coopreducto.tthh.service.ReciboSalarioService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import jakarta.persistence.criteria.Predicate;
 import java.util.ArrayList;
 
@@ -23,8 +34,11 @@ import java.time.LocalDate;
 import java.util.List;
 
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import java.io.ByteArrayOutputStream;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import jakarta.persistence.EntityManager;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -34,9 +48,25 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
 
         private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ReciboSalarioServiceImpl.class);
 
+        // Filas de Excel retenidas en memoria; el resto se vuelca a disco
+        private static final int VENTANA_FILAS_EXCEL = 200;
+        private static final int LOTE_LIMPIEZA_EXPORTACION = 500;
+        // Filas de la tabla PDF que se arman antes de volcarlas al documento
+        private static final int FILAS_POR_BLOQUE_PDF = 200;
+
         private final ReciboSalarioRepository reciboSalarioRepository;
         private final EmpleadoRepository empleadoRepository;
-        private final AsistenciaRepository asistenciaRepository;
+        private final NominaEngine nominaEngine;
+        private final EntityManager entityManager;
+        private final ReciboPdfCache reciboPdfCache;
+        private final ReciboPdfPreRenderer reciboPdfPreRenderer;
+        private final ReciboZipExporter reciboZipExporter;
+        private final ReciboPdfRenderer reciboPdfRenderer;
+        private final ApplicationEventPublisher eventPublisher;
+        private final PeriodoEstadoRepository periodoEstadoRepository;
+        private final PayrollRunRepository payrollRunRepository;
+        private final NominaSerieMensualRepository nominaSerieMensualRepository;
+        private final CacheService cacheService;
 
         @Override
         @Transactional(readOnly = true)
@@ -109,349 +139,42 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
                 Empleado empleado = empleadoRepository.findById(reciboDTO.getEmpleadoId())
                                 .orElseThrow(() -> new RuntimeException("Empleado no encontrado"));
 
+                if (reciboSalarioRepository.findByEmpleadoAndAnioAndMes(empleado, reciboDTO.getAnio(),
+                                reciboDTO.getMes()).isPresent()) {
+                        throw new RuntimeException("Ya existe un recibo del empleado para el periodo "
+                                        + reciboDTO.getMes() + "/" + reciboDTO.getAnio());
+                }
+
                 ReciboSalario recibo = convertToEntity(reciboDTO);
                 recibo.setEmpleado(empleado);
                 recibo.setEstado("GENERADO");
-
-                return convertToDTO(reciboSalarioRepository.save(recibo));
+                recibo.setSucursal(empleado.getSucursal());
+
+                ReciboSalario guardado = reciboSalarioRepository.save(recibo);
+                payrollRunRepository.sumarRecibos(guardado.getAnio(), guardado.getMes(), 1,
+                                guardado.getSalarioNeto() != null ? guardado.getSalarioNeto() : BigDecimal.ZERO,
+                                guardado.getEstado(), java.time.LocalDateTime.now());
+                nominaSerieMensualRepository.recalcularPeriodo(guardado.getAnio(), guardado.getMes());
+                eventPublisher.publishEvent(new RecibosSalarioModificadosEvent(guardado.getAnio()));
+                return convertToDTO(guardado);
         }
 
         @Override
         public Resource getPdfResource(Long id) {
                 ReciboSalario recibo = reciboSalarioRepository.findById(id)
                                 .orElseThrow(() -> new RuntimeException("Recibo no encontrado"));
-                Empleado empleado = recibo.getEmpleado();
-
-                try (java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream()) {
-                        com.lowagie.text.Document document = new com.lowagie.text.Document(
-                                        com.lowagie.text.PageSize.A4);
-                        com.lowagie.text.pdf.PdfWriter.getInstance(document, out);
-                        document.open();
-
-                        // Fonts
-                        com.lowagie.text.Font companyFont = com.lowagie.text.FontFactory
-                                        .getFont(com.lowagie.text.FontFactory.HELVETICA_BOLD, 16,
-                                                        java.awt.Color.decode("#006400")); // Dark
-                                                                                           // Green
-                        com.lowagie.text.Font titleFont = com.lowagie.text.FontFactory
-                                        .getFont(com.lowagie.text.FontFactory.HELVETICA_BOLD, 14);
-                        com.lowagie.text.Font headerLabelFont = com.lowagie.text.FontFactory
-                                        .getFont(com.lowagie.text.FontFactory.HELVETICA_BOLD, 9);
-                        com.lowagie.text.Font normalFont = com.lowagie.text.FontFactory
-                                        .getFont(com.lowagie.text.FontFactory.HELVETICA, 9);
-                        com.lowagie.text.Font smallFont = com.lowagie.text.FontFactory
-                                        .getFont(com.lowagie.text.FontFactory.HELVETICA, 8);
-
-                        java.text.NumberFormat nf = java.text.NumberFormat
-                                        .getCurrencyInstance(java.util.Locale.of("es", "PY"));
-                        java.time.format.DateTimeFormatter dtf = java.time.format.DateTimeFormatter
-                                        .ofPattern("dd/MM/yy");
-                        java.time.format.DateTimeFormatter timeFmt = java.time.format.DateTimeFormatter
-                                        .ofPattern("HH:mm:ss");
-
-                        // ================= HEADER =================
-                        com.lowagie.text.pdf.PdfPTable headerTable = new com.lowagie.text.pdf.PdfPTable(3);
-                        headerTable.setWidthPercentage(100);
-                        headerTable.setWidths(new float[] { 2, 4, 2 });
-
-                        // Col 1: Logo (Simulated Text for now)
-                        com.lowagie.text.pdf.PdfPCell logoCell = new com.lowagie.text.pdf.PdfPCell();
-                        logoCell.setBorder(com.lowagie.text.Rectangle.NO_BORDER);
-                        // Draw a triangle logic or just text? Text is safer if no image.
-                        // Simulating the logo with green text
-                        logoCell.addElement(new com.lowagie.text.Paragraph("/^\\", companyFont));
-                        logoCell.addElement(new com.lowagie.text.Paragraph("/___\\", companyFont));
-                        headerTable.addCell(logoCell);
-
-                        // Col 2: Company Name
-                        com.lowagie.text.pdf.PdfPCell companyCell = new com.lowagie.text.pdf.PdfPCell();
-                        companyCell.setBorder(com.lowagie.text.Rectangle.NO_BORDER);
-                        companyCell.setVerticalAlignment(com.lowagie.text.Element.ALIGN_MIDDLE);
-                        companyCell.addElement(new com.lowagie.text.Paragraph("Cooperativa Reducto Ltda", companyFont));
-                        companyCell.addElement(new com.lowagie.text.Paragraph("de Microfinanza",
-                                        com.lowagie.text.FontFactory.getFont(
-                                                        com.lowagie.text.FontFactory.HELVETICA_BOLD, 10,
-                                                        java.awt.Color.decode("#006400"))));
-                        headerTable.addCell(companyCell);
-
-                        // Col 3: Meta Info
-                        com.lowagie.text.pdf.PdfPCell metaCell = new com.lowagie.text.pdf.PdfPCell();
-                        metaCell.setBorder(com.lowagie.text.Rectangle.NO_BORDER);
-                        metaCell.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_RIGHT);
-                        metaCell.addElement(
-                                        createRightAlignedParagraph("Fecha : " + java.time.LocalDate.now().format(dtf),
-                                                        smallFont));
-                        metaCell.addElement(
-                                        createRightAlignedParagraph(
-                                                        "Hora : " + java.time.LocalTime.now().format(timeFmt),
-                                                        smallFont));
-                        metaCell.addElement(createRightAlignedParagraph("Hoja : 1 de 1", smallFont));
-                        metaCell.addElement(createRightAlignedParagraph("Salario.AprLiquidacionBorrador", smallFont));
-                        headerTable.addCell(metaCell);
-
-                        document.add(headerTable);
-
-                        // User info row
-                        // Try to find username if possible, otherwise mock or leave empty
-                        document.add(new com.lowagie.text.Paragraph("Usuario: tcabral", smallFont)); // Hardcoded match
-                                                                                                     // example
-
-                        document.add(new com.lowagie.text.Paragraph("\n"));
-
-                        // Title
-                        com.lowagie.text.Paragraph title = new com.lowagie.text.Paragraph("LIQUIDACIÓN DE SALARIO",
-                                        titleFont);
-                        title.setAlignment(com.lowagie.text.Element.ALIGN_CENTER);
-                        document.add(title);
-
-                        // Subtitle Nro (Empleado ID or Socio)
-                        String nroSocio = empleado.getNumeroSocio() != null ? empleado.getNumeroSocio()
-                                        : empleado.getId().toString();
-                        String fechaDesde = java.time.LocalDate.of(recibo.getAnio(), recibo.getMes(), 1).format(dtf);
-                        String fechaHasta = recibo.getFechaPago().format(dtf); // Usually end of month
-
-                        com.lowagie.text.Paragraph subtitle = new com.lowagie.text.Paragraph(
-                                        "Nro.: " + nroSocio + " (Desde " + fechaDesde + " Hasta " + fechaHasta + ")",
-                                        normalFont);
-                        subtitle.setAlignment(com.lowagie.text.Element.ALIGN_CENTER);
-                        document.add(subtitle);
-
-                        document.add(new com.lowagie.text.Paragraph("\n"));
-                        document.add(new com.lowagie.text.Paragraph(
-                                        "Obs.: Salario " + getMesNombre(recibo.getMes()) + " " + recibo.getAnio(),
-                                        normalFont));
-
-                        // Separator line
-                        com.lowagie.text.pdf.draw.LineSeparator line = new com.lowagie.text.pdf.draw.LineSeparator();
-                        line.setLineWidth(1);
-                        document.add(line);
-
-                        // ================= HEADER COLUMNS =================
-                        // Headers: Nro Doc. Nro. | Nombre Completo | Cargo | Concepto Salario | Ingreso
-                        // | Egreso
-                        com.lowagie.text.pdf.PdfPTable mainTable = new com.lowagie.text.pdf.PdfPTable(6);
-                        mainTable.setWidthPercentage(100);
-                        mainTable.setWidths(new float[] { 2, 4, 3, 4, 2, 2 });
-
-                        mainTable.addCell(createCell("Nro Doc. Nro.", headerLabelFont));
-                        mainTable.addCell(createCell("Nombre Completo", headerLabelFont));
-                        mainTable.addCell(createCell("Cargo", headerLabelFont));
-                        mainTable.addCell(createCell("Concepto Salario", headerLabelFont));
-                        mainTable.addCell(createCell("Ingreso", headerLabelFont));
-                        mainTable.addCell(createCell("Egreso", headerLabelFont));
-
-                        // Data Line 1 (Empty cells for concept/amounts)
-                        mainTable.addCell(createCell("0 " + empleado.getNumeroDocumento(), normalFont));
-                        mainTable.addCell(
-                                        createCell(empleado.getApellidos() + ", " + empleado.getNombres(), normalFont));
-                        mainTable.addCell(createCell(empleado.getCargo(), normalFont));
-                        mainTable.addCell(createCell("", normalFont));
-                        mainTable.addCell(createCell("", normalFont));
-                        mainTable.addCell(createCell("", normalFont));
-
-                        document.add(mainTable);
-
-                        // Line separator again
-                        document.add(line);
-
-                        // ================= BODY DETAILS =================
-                        // Custom layout to match reference:
-                        // "SALARIO NOMINAL: 4.500.000" (Left) "DIAS TRABAJADOS: 30" (Right)
-
-                        com.lowagie.text.pdf.PdfPTable infoTable = new com.lowagie.text.pdf.PdfPTable(2);
-                        infoTable.setWidthPercentage(100);
-                        infoTable.addCell(createCell("SALARIO NOMINAL: " + nf.format(recibo.getSalarioBruto()),
-                                        normalFont));
-                        com.lowagie.text.pdf.PdfPCell daysCell = createCell("DIAS TRABAJADOS: 30", normalFont);
-                        daysCell.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_RIGHT);
-                        infoTable.addCell(daysCell);
-                        document.add(infoTable);
-
-                        document.add(new com.lowagie.text.Paragraph("\n"));
-
-                        // Concepts List (Right Aligned block mainly)
-                        // We use a table with empty left cols to push content to right
-                        com.lowagie.text.pdf.PdfPTable conceptTable = new com.lowagie.text.pdf.PdfPTable(3);
-                        conceptTable.setWidthPercentage(100);
-                        conceptTable.setWidths(new float[] { 6, 2, 2 }); // Space, Ingreso, Egreso
-
-                        // Reconstruct logic for breakdown
-                        // Ingresos
-                        addConceptRow(conceptTable, "SALARIO MENSUAL", recibo.getSalarioBruto(), null, normalFont, nf);
-                        if (recibo.getBonificaciones() != null
-                                        && recibo.getBonificaciones().compareTo(BigDecimal.ZERO) > 0) {
-                                addConceptRow(conceptTable, "PLUS POR CARGO", recibo.getBonificaciones(), null,
-                                                normalFont, nf);
-                        }
 
-                        // Egresos
-                        // Deduce components from 'otrosDescuentos' or user fixed values if this is the
-                        // demo user
-                        BigDecimal otros = recibo.getOtrosDescuentos() != null ? recibo.getOtrosDescuentos()
-                                        : BigDecimal.ZERO;
-                        BigDecimal ips = recibo.getDescuentosIps();
-
-                        if (ips != null && ips.compareTo(BigDecimal.ZERO) > 0) {
-                                addConceptRow(conceptTable, "IPS APORTE FUNCIONARIO 9 %", null, ips, normalFont, nf);
-                        }
-
-                        // Logic to verify if it's our seeded user to show specific breakdown
-                        // Total seeded 'otrosDescuentos' = 69k + 10k + Anticipo + (Almuerzo 65k?)
-                        BigDecimal corp = new BigDecimal("69000");
-                        BigDecimal fondo = new BigDecimal("10000");
-                        BigDecimal remainder = otros.subtract(corp.min(otros))
-                                        .subtract(fondo.min(otros.subtract(corp.min(otros))));
-
-                        // Anticipo? (Nov = 600k, others 500k or 0)
-                        if (remainder.compareTo(new BigDecimal("600000")) >= 0) {
-                                addConceptRow(conceptTable, "ANTICIPO QUINCENAL DESCUENTO", null,
-                                                new BigDecimal("600000"), normalFont,
-                                                nf);
-                                remainder = remainder.subtract(new BigDecimal("600000"));
-                        } else if (remainder.compareTo(new BigDecimal("500000")) >= 0) {
-                                addConceptRow(conceptTable, "ANTICIPO QUINCENAL DESCUENTO", null,
-                                                new BigDecimal("500000"), normalFont,
-                                                nf);
-                                remainder = remainder.subtract(new BigDecimal("500000"));
-                        }
-
-                        if (remainder.compareTo(new BigDecimal("65000")) >= 0) {
-                                addConceptRow(conceptTable, "DESCUENTO ALMUERZO", null, new BigDecimal("65000"),
-                                                normalFont, nf);
-                                remainder = remainder.subtract(new BigDecimal("65000"));
-                        }
-
-                        // Fixed ones
-                        addConceptRow(conceptTable, "DESCUENTOS CORPORATIVOS", null, corp.min(otros), normalFont, nf);
-                        addConceptRow(conceptTable, "FONDO SOCIAL EMPLEADO", null,
-                                        fondo.min(otros.subtract(corp.min(otros))), normalFont, nf);
-
-                        if (remainder.compareTo(BigDecimal.ZERO) > 0) {
-                                addConceptRow(conceptTable, "OTROS DESCUENTOS", null, remainder, normalFont, nf);
-                        }
-
-                        document.add(conceptTable);
-
-                        document.add(new com.lowagie.text.Paragraph("\n"));
-
-                        // Totals
-                        com.lowagie.text.pdf.PdfPTable totalTable = new com.lowagie.text.pdf.PdfPTable(3);
-                        totalTable.setWidthPercentage(100);
-                        totalTable.setWidths(new float[] { 6, 2, 2 });
-
-                        com.lowagie.text.pdf.PdfPCell totalLabel = new com.lowagie.text.pdf.PdfPCell(
-                                        new com.lowagie.text.Phrase("TOTAL:", headerLabelFont));
-                        totalLabel.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_RIGHT);
-                        totalLabel.setBorder(com.lowagie.text.Rectangle.NO_BORDER);
-                        totalTable.addCell(totalLabel);
-
-                        BigDecimal totalIng = recibo.getSalarioBruto()
-                                        .add(recibo.getBonificaciones() != null ? recibo.getBonificaciones()
-                                                        : BigDecimal.ZERO);
-                        BigDecimal totalEgr = recibo.getSalarioNeto() != null
-                                        ? totalIng.subtract(recibo.getSalarioNeto())
-                                        : BigDecimal.ZERO;
-
-                        com.lowagie.text.pdf.PdfPCell valIng = new com.lowagie.text.pdf.PdfPCell(
-                                        new com.lowagie.text.Phrase(nf.format(totalIng), normalFont));
-                        valIng.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_RIGHT);
-                        valIng.setBorder(com.lowagie.text.Rectangle.NO_BORDER);
-                        totalTable.addCell(valIng);
-
-                        com.lowagie.text.pdf.PdfPCell valEgr = new com.lowagie.text.pdf.PdfPCell(
-                                        new com.lowagie.text.Phrase(nf.format(totalEgr), normalFont));
-                        valEgr.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_RIGHT);
-                        valEgr.setBorder(com.lowagie.text.Rectangle.NO_BORDER);
-                        totalTable.addCell(valEgr);
-
-                        document.add(totalTable);
-
-                        // Liquido
-                        com.lowagie.text.pdf.PdfPTable liqTable = new com.lowagie.text.pdf.PdfPTable(3);
-                        liqTable.setWidthPercentage(100);
-                        liqTable.setWidths(new float[] { 6, 2, 2 }); // Maintain alignment
-
-                        com.lowagie.text.pdf.PdfPCell liqLabel = new com.lowagie.text.pdf.PdfPCell(
-                                        new com.lowagie.text.Phrase("LIQUIDO A COBRAR:", headerLabelFont));
-                        liqLabel.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_RIGHT);
-                        liqLabel.setBorder(com.lowagie.text.Rectangle.TOP);
-                        liqTable.addCell(liqLabel);
-
-                        com.lowagie.text.pdf.PdfPCell liqVal = new com.lowagie.text.pdf.PdfPCell(
-                                        new com.lowagie.text.Phrase(nf.format(recibo.getSalarioNeto()),
-                                                        headerLabelFont));
-                        liqVal.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_RIGHT);
-                        liqVal.setBorder(com.lowagie.text.Rectangle.TOP);
-                        liqTable.addCell(liqVal);
-
-                        liqTable.addCell(createCell("", normalFont)); // Empty cell
-
-                        document.add(liqTable);
-
-                        document.add(line);
-
-                        // Footer
-                        com.lowagie.text.pdf.PdfPTable footerTable = new com.lowagie.text.pdf.PdfPTable(1);
-                        footerTable.setWidthPercentage(100);
-                        com.lowagie.text.pdf.PdfPCell fCell = createCell("DIAS TRABAJADOS: 30", normalFont);
-                        fCell.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_CENTER);
-                        footerTable.addCell(fCell);
-                        document.add(footerTable);
-
-                        document.close();
-                        return new ByteArrayResource(out.toByteArray());
-
-                } catch (Exception e) {
-                        log.error("Error generating PDF", e);
-                        throw new RuntimeException("Error al generar el PDF del recibo");
+                // Un borrador todavía puede cambiar: se renderiza siempre
+                if ("BORRADOR".equals(recibo.getEstado())) {
+                        return new ByteArrayResource(renderizarPdf(recibo));
                 }
+                byte[] pdf = reciboPdfCache.obtener(ReciboPdfCache.TIPO_SALARIO, id, reciboPdfCache.hash(recibo),
+                                () -> renderizarPdf(recibo));
+                return new ByteArrayResource(pdf);
         }
 
-        private com.lowagie.text.Paragraph createRightAlignedParagraph(String text, com.lowagie.text.Font font) {
-                com.lowagie.text.Paragraph p = new com.lowagie.text.Paragraph(text, font);
-                p.setAlignment(com.lowagie.text.Element.ALIGN_RIGHT);
-                return p;
-        }
-
-        private com.lowagie.text.pdf.PdfPCell createCell(String text, com.lowagie.text.Font font) {
-                com.lowagie.text.pdf.PdfPCell cell = new com.lowagie.text.pdf.PdfPCell(
-                                new com.lowagie.text.Phrase(text, font));
-                cell.setBorder(com.lowagie.text.Rectangle.NO_BORDER);
-                cell.setPadding(2f);
-                return cell;
-        }
-
-        private void addConceptRow(com.lowagie.text.pdf.PdfPTable table, String concept, BigDecimal ingreso,
-                        BigDecimal egreso,
-                        com.lowagie.text.Font font, java.text.NumberFormat nf) {
-                // Concept Name aligned right
-                com.lowagie.text.pdf.PdfPCell cellName = new com.lowagie.text.pdf.PdfPCell(
-                                new com.lowagie.text.Phrase(concept, font));
-                cellName.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_RIGHT);
-                cellName.setBorder(com.lowagie.text.Rectangle.NO_BORDER);
-                table.addCell(cellName);
-
-                String ingresoStr = (ingreso != null && ingreso.compareTo(BigDecimal.ZERO) != 0) ? nf.format(ingreso)
-                                : "0";
-                com.lowagie.text.pdf.PdfPCell cellIngreso = new com.lowagie.text.pdf.PdfPCell(
-                                new com.lowagie.text.Phrase(ingresoStr, font));
-                cellIngreso.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_RIGHT);
-                cellIngreso.setBorder(com.lowagie.text.Rectangle.NO_BORDER);
-                table.addCell(cellIngreso);
-
-                String egresoStr = (egreso != null && egreso.compareTo(BigDecimal.ZERO) != 0) ? nf.format(egreso) : "0";
-                com.lowagie.text.pdf.PdfPCell cellEgreso = new com.lowagie.text.pdf.PdfPCell(
-                                new com.lowagie.text.Phrase(egresoStr, font));
-                cellEgreso.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_RIGHT);
-                cellEgreso.setBorder(com.lowagie.text.Rectangle.NO_BORDER);
-                table.addCell(cellEgreso);
-        }
-
-        private String getMesNombre(int mes) {
-                String[] meses = { "Enero", "Febrero", "Marzo", "Abril", "Mayo", "Junio", "Julio", "Agosto",
-                                "Septiembre",
-                                "Octubre", "Noviembre", "Diciembre" };
-                return meses[mes - 1];
+        private byte[] renderizarPdf(ReciboSalario recibo) {
+                return reciboPdfRenderer.renderizar(recibo);
         }
 
         // ... rest of the class
@@ -483,29 +206,6 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
                 return dto;
         }
 
-        @Override
-        public BigDecimal calcularAguinaldoProyectado(Long empleadoId) {
-                Empleado empleado = empleadoRepository.findById(empleadoId)
-                                .orElseThrow(() -> new RuntimeException("Empleado no encontrado"));
-
-                Integer anioActual = LocalDate.now().getYear();
-
-                // Sumar todos los salarios brutos + bonificaciones del año actual
-                List<ReciboSalario> recibosAnio = reciboSalarioRepository.findByEmpleadoAndAnioOrderByMesDesc(empleado,
-                                anioActual);
-
-                BigDecimal totalGanado = BigDecimal.ZERO;
-                for (ReciboSalario r : recibosAnio) {
-                        totalGanado = totalGanado.add(r.getSalarioBruto());
-                        if (r.getBonificaciones() != null) {
-                                totalGanado = totalGanado.add(r.getBonificaciones());
-                        }
-                }
-
-                // Aguinaldo = Total Ganado en el año / 12
-                return totalGanado.divide(new BigDecimal("12"), 0, java.math.RoundingMode.HALF_UP);
-        }
-
         private ReciboSalarioDTO convertToDTO(ReciboSalario entity) {
                 ReciboSalarioDTO dto = new ReciboSalarioDTO();
                 dto.setId(entity.getId());
@@ -543,112 +243,46 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
         }
 
         @Override
+        @Transactional(propagation = Propagation.NOT_SUPPORTED)
         public void generarNominaMensual(Integer anio, Integer mes) {
                 log.info("Iniciando generación de nómina para {}/{}", mes, anio);
 
-                // 1. Obtener todos los empleados activos
-                List<Empleado> empleados = empleadoRepository.findByEstado("ACTIVO");
-                log.info("Se procesarán {} empleados activos", empleados.size());
-
-                for (Empleado empleado : empleados) {
-                        try {
-                                // 2. Verificar si ya existe recibo para este periodo
-                                if (reciboSalarioRepository.findByEmpleadoAndAnioAndMes(empleado, anio, mes)
-                                                .isPresent()) {
-                                        log.info("Recibo ya existe para empleado {} en periodo {}/{}", empleado.getId(),
-                                                        mes, anio);
-                                        continue; // Skip
-                                }
+                // Cada lote se confirma en su propia transacción dentro del motor
+                NominaEngine.ResultadoNomina resultado = nominaEngine.generar(anio, mes);
 
-                                // 3. Obtener datos base
-                                BigDecimal salarioBase = BigDecimal
-                                                .valueOf(empleado.getSalario() != null
-                                                                ? empleado.getSalario().longValue()
-                                                                : 0L);
-
-                                // 4. Calcular asistencia (ausencias, llegadas tardías) real
-                                Long ausencias = asistenciaRepository.countAusenciasMensual(empleado.getId(), mes,
-                                                anio);
-                                Long tardanzas = asistenciaRepository.countTardanzasMensual(empleado.getId(), mes,
-                                                anio);
-
-                                // 5. Calcular descuentos
-                                // IPS (9%)
-                                BigDecimal descuentoIps = salarioBase.multiply(new BigDecimal("0.09"));
-
-                                // Descuento por ausencias (Calculo simple: salario diario * dias)
-                                BigDecimal salarioDiario = salarioBase.divide(new BigDecimal("30"), 2,
-                                                java.math.RoundingMode.HALF_UP);
-                                BigDecimal descuentoAusencias = salarioDiario.multiply(BigDecimal.valueOf(ausencias));
-
-                                // Descuento por tardanzas (Cálculo exacto: salario por minuto * minutos)
-                                Long minutosRetraso = asistenciaRepository.sumMinutosRetrasoMensual(empleado.getId(),
-                                                mes, anio);
-                                BigDecimal salarioHora = salarioDiario.divide(new BigDecimal("8"), 2,
-                                                java.math.RoundingMode.HALF_UP);
-                                BigDecimal salarioMinuto = salarioHora.divide(new BigDecimal("60"), 2,
-                                                java.math.RoundingMode.HALF_UP);
-                                BigDecimal descuentoTardanzas = salarioMinuto
-                                                .multiply(BigDecimal.valueOf(minutosRetraso));
-
-                                BigDecimal totalDescuentos = descuentoIps.add(descuentoAusencias)
-                                                .add(descuentoTardanzas);
-
-                                // 6. Calcular neto
-                                BigDecimal salarioNeto = salarioBase.subtract(totalDescuentos);
-                                if (salarioNeto.compareTo(BigDecimal.ZERO) < 0)
-                                        salarioNeto = BigDecimal.ZERO;
-
-                                // 7. Crear Recibo
-                                ReciboSalario recibo = new ReciboSalario();
-                                recibo.setEmpleado(empleado);
-                                recibo.setAnio(anio);
-                                recibo.setMes(mes);
-                                recibo.setFechaPago(LocalDate.of(anio, mes, 28)); // Pago el 28
-                                recibo.setSalarioBruto(salarioBase);
-                                recibo.setDescuentosIps(descuentoIps);
-                                recibo.setDescuentosJubilacion(BigDecimal.ZERO);
-                                recibo.setOtrosDescuentos(descuentoAusencias.add(descuentoTardanzas));
-                                recibo.setBonificaciones(BigDecimal.ZERO);
-                                recibo.setSalarioNeto(salarioNeto);
-                                recibo.setEstado("BORRADOR");
-
-                                String obs = "";
-                                if (ausencias > 0)
-                                        obs += "Ausencias: " + ausencias + ". ";
-                                if (tardanzas > 0)
-                                        obs += "Tardanzas: " + tardanzas + ". ";
-                                recibo.setObservaciones(obs);
-
-                                reciboSalarioRepository.save(recibo);
-
-                        } catch (Exception e) {
-                                log.error("Error al generar nómina para empleado {}: {}", empleado.getId(),
-                                                e.getMessage());
-                        }
-                }
-                log.info("Generación de nómina completada");
+                log.info("Generación de nómina completada: {} generados, {} omitidos, {} errores en {} ms",
+                                resultado.getGenerados(), resultado.getOmitidos(), resultado.getErrores(),
+                                resultado.getDuracionMs());
         }
 
         @Override
         @Transactional(readOnly = true)
         public com.coopreducto.tthh.dto.PayrollDashboardDTO getDashboardSummary() {
-                List<Object[]> runs = reciboSalarioRepository.findPayrollRuns();
-                List<com.coopreducto.tthh.dto.PayrollDashboardDTO.PayrollRunDTO> historial = runs.stream()
-                                .map(row -> com.coopreducto.tthh.dto.PayrollDashboardDTO.PayrollRunDTO.builder()
-                                                .anio((Integer) row[0])
-                                                .mes((Integer) row[1])
-                                                .totalEmpleados(((Long) row[2]).intValue())
-                                                .totalNeto((BigDecimal) row[3])
-                                                .estado((String) row[4])
-                                                .fechaGeneracion((java.time.LocalDateTime) row[5])
+                // Lee el resumen mantenido en payroll_runs en lugar de agrupar recibos_salario
+                // (cacheado en el repositorio; el avance de PDFs se agrega en cada consulta)
+                List<com.coopreducto.tthh.dto.PayrollDashboardDTO.PayrollRunDTO> historial = payrollRunRepository
+                                .findTop12ByOrderByAnioDescMesDesc().stream()
+                                .map(run -> com.coopreducto.tthh.dto.PayrollDashboardDTO.PayrollRunDTO.builder()
+                                                .anio(run.getAnio())
+                                                .mes(run.getMes())
+                                                .totalEmpleados(run.getTotalEmpleados())
+                                                .totalNeto(run.getTotalNeto())
+                                                .estado(run.getEstado())
+                                                .fechaGeneracion(run.getGeneratedAt())
                                                 .build())
                                 .toList();
 
-                BigDecimal totalAnio = historial.stream()
-                                .filter(r -> r.getAnio().equals(LocalDate.now().getYear()))
-                                .map(com.coopreducto.tthh.dto.PayrollDashboardDTO.PayrollRunDTO::getTotalNeto)
-                                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                // Avance del pre-render de PDFs de cada periodo cerrado
+                for (com.coopreducto.tthh.dto.PayrollDashboardDTO.PayrollRunDTO run : historial) {
+                        ReciboPdfPreRenderer.Progreso progreso = reciboPdfPreRenderer.progreso(ReciboPdfPreRenderer
+                                        .clave(ReciboPdfCache.TIPO_SALARIO, run.getAnio(), run.getMes()));
+                        if (progreso != null) {
+                                run.setPdfsListos(progreso.getListos());
+                                run.setPdfsTotal(progreso.getTotal());
+                        }
+                }
+
+                BigDecimal totalAnio = payrollRunRepository.sumTotalNetoByAnio(LocalDate.now().getYear());
 
                 com.coopreducto.tthh.dto.PayrollDashboardDTO.PayrollRunDTO ultima = historial.isEmpty() ? null
                                 : historial.get(0);
@@ -664,34 +298,96 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
         }
 
         @Override
-        public void cerrarNomina(Integer anio, Integer mes) {
-                List<ReciboSalario> recibos = reciboSalarioRepository.findByAnioAndMes(anio, mes);
-                for (ReciboSalario r : recibos) {
-                        if ("BORRADOR".equals(r.getEstado())) {
-                                r.setEstado("GENERADO");
-                                reciboSalarioRepository.save(r);
-                        }
+        public int reconstruirResumenNomina() {
+                int periodos = payrollRunRepository.reconstruir();
+                int filasSerie = nominaSerieMensualRepository.reconstruir();
+                cacheService.limpiarAlConfirmar(CacheConfig.NOMINA_RESUMEN);
+                cacheService.limpiarAlConfirmar(CacheConfig.DASHBOARD_ADMIN);
+                log.info("Resumen de nómina reconstruido: {} periodos, {} filas de la serie mensual", periodos,
+                                filasSerie);
+                return periodos;
+        }
+
+        /**
+         * Carga inicial de payroll_runs y nomina_serie_mensual en bases que ya
+         * tenían recibos antes de existir las tablas. Lo invoca
+         * {@link com.coopreducto.tthh.config.TareasInicio}.
+         */
+        public void inicializarResumenNomina() {
+                if ((payrollRunRepository.count() == 0 || nominaSerieMensualRepository.count() == 0)
+                                && reciboSalarioRepository.count() > 0) {
+                        reconstruirResumenNomina();
+                }
+        }
+
+        @Override
+        public int cerrarNomina(Integer anio, Integer mes, String usuario) {
+                // Una sola sentencia condicional: un cierre concurrente del mismo
+                // periodo no encuentra filas en BORRADOR
+                int afectados = reciboSalarioRepository.cerrarPeriodo(anio, mes, java.time.LocalDateTime.now());
+                PeriodoEstado cierre = periodoEstadoRepository.save(PeriodoEstado.builder()
+                                .tipo(PeriodoEstado.TIPO_NOMINA)
+                                .anio(anio)
+                                .mes(mes)
+                                .estado(PeriodoEstado.CERRADO)
+                                .afectados(afectados)
+                                .usuario(usuario)
+                                .build());
+                log.info("Nómina {}/{} cerrada por {}: {} recibos pasaron a GENERADO", mes, anio, usuario, afectados);
+                if (afectados > 0) {
+                        payrollRunRepository.actualizarEstado(anio, mes, "GENERADO", java.time.LocalDateTime.now());
+                        nominaSerieMensualRepository.recalcularPeriodo(anio, mes);
+                }
+
+                // Los PDFs se pre-renderizan una vez confirmado el cierre
+                if (afectados > 0) {
+                        eventPublisher.publishEvent(new PeriodoCerradoEvent(cierre.getId()));
+                }
+                return afectados;
+        }
+
+        @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+        @Transactional(propagation = Propagation.NOT_SUPPORTED)
+        public void onPeriodoCerrado(PeriodoCerradoEvent event) {
+                PeriodoEstado cierre = periodoEstadoRepository.findById(event.getPeriodoEstadoId()).orElse(null);
+                if (cierre == null || !PeriodoEstado.TIPO_NOMINA.equals(cierre.getTipo())) {
+                        return;
                 }
+                List<Long> ids = reciboSalarioRepository.findIdsByAnioAndMesAndEstadoNot(cierre.getAnio(),
+                                cierre.getMes(), "BORRADOR");
+                reciboPdfPreRenderer.encolar(
+                                ReciboPdfPreRenderer.clave(ReciboPdfCache.TIPO_SALARIO, cierre.getAnio(), cierre.getMes()),
+                                ids, this::prerenderizarPdf);
+        }
+
+        /**
+         * Deja el PDF del recibo en la caché de disco. Se ejecuta en el pool de
+         * pre-render, fuera de la transacción del cierre.
+         */
+        private void prerenderizarPdf(Long id) {
+                ReciboSalario recibo = reciboSalarioRepository.findByIdConEmpleado(id)
+                                .orElseThrow(() -> new RuntimeException("Recibo no encontrado"));
+                reciboPdfCache.precalentar(ReciboPdfCache.TIPO_SALARIO, id, reciboPdfCache.hash(recibo),
+                                () -> renderizarPdf(recibo));
         }
 
         @Override
         @Transactional(readOnly = true)
-        public Resource exportarPlanillaBancaria(Integer anio, Integer mes) {
+        public void exportarPlanillaBancaria(Integer anio, Integer mes, OutputStream out) {
                 log.info("Exportando planilla bancaria para {}/{}", mes, anio);
-                List<ReciboSalario> recibos = reciboSalarioRepository.findByAnioAndMes(anio, mes);
-
-                // Solo exportar los que no están en borrador (opcional, pero recomendado)
-                List<ReciboSalario> recibosAprobados = recibos.stream()
-                                .filter(r -> "GENERADO".equals(r.getEstado()) || "ENVIADO".equals(r.getEstado()))
-                                .toList();
 
-                try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                // Solo exportar los que no están en borrador
+                SXSSFWorkbook workbook = new SXSSFWorkbook(VENTANA_FILAS_EXCEL);
+                workbook.setCompressTempFiles(true);
+                try (Stream<ReciboSalario> recibos = reciboSalarioRepository.streamByAnioAndMesAndEstadoIn(anio, mes,
+                                List.of("GENERADO", "ENVIADO"))) {
                         Sheet sheet = workbook.createSheet("Planilla Bancaria");
 
                         // Cabecera
                         Row headerRow = sheet.createRow(0);
                         String[] columns = { "Documento", "Empleado", "Banco", "Tipo Cuenta", "Nro Cuenta",
                                         "Líquido a Cobrar", "Moneda" };
+                        int[] anchos = { 14, 35, 22, 14, 20, 18, 12 };
 
                         CellStyle headerStyle = workbook.createCellStyle();
                         Font headerFont = workbook.createFont();
@@ -704,6 +400,7 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
                                 Cell cell = headerRow.createCell(i);
                                 cell.setCellValue(columns[i]);
                                 cell.setCellStyle(headerStyle);
+                                sheet.setColumnWidth(i, anchos[i] * 256);
                         }
 
                         // Datos
@@ -712,7 +409,9 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
                         CellStyle currencyStyle = workbook.createCellStyle();
                         currencyStyle.setDataFormat(format.getFormat("#,##0"));
 
-                        for (ReciboSalario r : recibosAprobados) {
+                        Iterator<ReciboSalario> it = recibos.iterator();
+                        while (it.hasNext()) {
+                                ReciboSalario r = it.next();
                                 Empleado e = r.getEmpleado();
                                 Row row = sheet.createRow(rowIdx++);
 
@@ -729,29 +428,27 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
                                 montoCell.setCellStyle(currencyStyle);
 
                                 row.createCell(6).setCellValue(e.getMoneda() != null ? e.getMoneda() : "GUARANIES");
-                        }
 
-                        // Auto-ajustar columnas
-                        for (int i = 0; i < columns.length; i++) {
-                                sheet.autoSizeColumn(i);
+                                liberarFilaExportada(rowIdx);
                         }
 
                         workbook.write(out);
-                        return new ByteArrayResource(out.toByteArray());
-
+                        out.flush();
                 } catch (Exception e) {
                         log.error("Error al exportar planilla bancaria", e);
                         throw new RuntimeException("Error generador Excel de planilla bancaria");
+                } finally {
+                        workbook.dispose();
                 }
         }
 
         @Override
         @Transactional(readOnly = true)
-        public Resource exportarExcel(String sucursal, Long empleadoId, Integer mes, Integer anio) {
-                Specification<ReciboSalario> spec = buildSpecification(sucursal, empleadoId, mes, anio);
-                List<ReciboSalario> recibos = reciboSalarioRepository.findAll(spec);
-
-                try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+        public void exportarExcel(String sucursal, Long empleadoId, Integer mes, Integer anio, OutputStream out) {
+                SXSSFWorkbook workbook = new SXSSFWorkbook(VENTANA_FILAS_EXCEL);
+                workbook.setCompressTempFiles(true);
+                try (Stream<ReciboSalario> recibos = reciboSalarioRepository.streamParaExportar(
+                                normalizarSucursal(sucursal), empleadoId, mes, anio)) {
                         Sheet sheet = workbook.createSheet("Reporte de Salarios");
 
                         // Estilo Cabecera
@@ -763,14 +460,16 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
                         headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
                         headerStyle.setBorderBottom(BorderStyle.THIN);
 
-                        // Cabeceras
+                        // Cabeceras (anchos fijos: autoSizeColumn no es compatible con el streaming)
                         String[] columns = { "Documento", "Empleado", "Sucursal", "Cargo", "Mes", "Año", "S. Bruto",
                                         "IPS", "Jubilación", "Otros Dtos.", "Bonif.", "S. Neto", "Estado" };
+                        int[] anchos = { 14, 35, 20, 25, 12, 8, 15, 13, 13, 13, 13, 15, 12 };
                         Row headerRow = sheet.createRow(0);
                         for (int i = 0; i < columns.length; i++) {
                                 Cell cell = headerRow.createCell(i);
                                 cell.setCellValue(columns[i]);
                                 cell.setCellStyle(headerStyle);
+                                sheet.setColumnWidth(i, anchos[i] * 256);
                         }
 
                         // Estilos de datos
@@ -779,7 +478,9 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
                         currencyStyle.setDataFormat(format.getFormat("#,##0"));
 
                         int rowIdx = 1;
-                        for (ReciboSalario r : recibos) {
+                        Iterator<ReciboSalario> it = recibos.iterator();
+                        while (it.hasNext()) {
+                                ReciboSalario r = it.next();
                                 Row row = sheet.createRow(rowIdx++);
                                 Empleado e = r.getEmpleado();
 
@@ -787,7 +488,7 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
                                 row.createCell(1).setCellValue(e.getNombreCompleto());
                                 row.createCell(2).setCellValue(e.getSucursal());
                                 row.createCell(3).setCellValue(e.getCargo());
-                                row.createCell(4).setCellValue(getMesNombre(r.getMes()));
+                                row.createCell(4).setCellValue(ReciboPdfRenderer.nombreMes(r.getMes()));
                                 row.createCell(5).setCellValue(r.getAnio());
 
                                 row.createCell(6).setCellStyle(currencyStyle);
@@ -809,43 +510,90 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
                                 row.getCell(11).setCellValue(r.getSalarioNeto().doubleValue());
 
                                 row.createCell(12).setCellValue(r.getEstado());
-                        }
 
-                        // Auto-ajustar columnas
-                        for (int i = 0; i < columns.length; i++) {
-                                sheet.autoSizeColumn(i);
+                                liberarFilaExportada(rowIdx);
                         }
 
                         workbook.write(out);
-                        return new ByteArrayResource(out.toByteArray());
-
+                        out.flush();
                 } catch (Exception e) {
                         log.error("Error al exportar Excel de salarios", e);
                         throw new RuntimeException("Error al generar reporte Excel");
+                } finally {
+                        workbook.dispose();
                 }
         }
 
         @Override
-        @Transactional(readOnly = true)
-        public Resource exportarPdf(String sucursal, Long empleadoId, Integer mes, Integer anio) {
-                Specification<ReciboSalario> spec = buildSpecification(sucursal, empleadoId, mes, anio);
-                List<ReciboSalario> recibos = reciboSalarioRepository.findAll(spec);
+        @Transactional(propagation = Propagation.NOT_SUPPORTED)
+        public void exportarZip(Integer anio, Integer mes, String sucursal, OutputStream out) {
+                List<Long> ids = reciboSalarioRepository.findIdsByPeriodoAndSucursal(anio, mes,
+                                normalizarSucursal(sucursal));
+                log.info("Exportando ZIP de {} recibos para {}/{} (sucursal: {})", ids.size(), mes, anio, sucursal);
+
+                try {
+                        int escritos = reciboZipExporter.exportar(ids, this::renderizarEntradaZip, out);
+                        log.info("ZIP de recibos {}/{} completado: {} archivos", mes, anio, escritos);
+                } catch (java.io.IOException e) {
+                        log.warn("Exportación ZIP {}/{} interrumpida: {}", mes, anio, e.getMessage());
+                        throw new RuntimeException("Error al generar el ZIP de recibos");
+                }
+        }
+
+        /**
+         * Renderiza un recibo para el ZIP (en el pool de PDFs). Los recibos
+         * cerrados se toman de la caché de disco.
+         */
+        private ReciboZipExporter.EntradaZip renderizarEntradaZip(Long id) {
+                ReciboSalario recibo = reciboSalarioRepository.findByIdConEmpleado(id)
+                                .orElseThrow(() -> new RuntimeException("Recibo no encontrado"));
+                Empleado e = recibo.getEmpleado();
+
+                byte[] pdf = "BORRADOR".equals(recibo.getEstado())
+                                ? renderizarPdf(recibo)
+                                : reciboPdfCache.obtenerDeDisco(ReciboPdfCache.TIPO_SALARIO, id,
+                                                reciboPdfCache.hash(recibo), () -> renderizarPdf(recibo));
+
+                String carpeta = e.getSucursal() != null ? e.getSucursal() : "Sin sucursal";
+                String nombre = carpeta + "/recibo_" + recibo.getAnio() + "_"
+                                + String.format("%02d", recibo.getMes()) + "_" + e.getNumeroDocumento() + ".pdf";
+                return new ReciboZipExporter.EntradaZip(nombre.replaceAll("[\\\\:*?\"<>|]", "_"), pdf);
+        }
+
+        /**
+         * "Todas las sucursales" o vacío equivale a no filtrar.
+         */
+        private String normalizarSucursal(String sucursal) {
+                if (sucursal == null || sucursal.isEmpty() || "Todas las sucursales".equals(sucursal)) {
+                        return null;
+                }
+                return sucursal;
+        }
+
+        /**
+         * Vacía el contexto de persistencia cada cierta cantidad de filas para
+         * que las entidades ya exportadas puedan liberarse.
+         */
+        private void liberarFilaExportada(int filas) {
+                if (filas % LOTE_LIMPIEZA_EXPORTACION == 0) {
+                        entityManager.clear();
+                }
+        }
 
-                try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+        @Override
+        @Transactional(readOnly = true)
+        public void exportarPdf(String sucursal, Long empleadoId, Integer mes, Integer anio, OutputStream out) {
+                try (Stream<ReciboSalario> recibos = reciboSalarioRepository.streamParaExportar(
+                                normalizarSucursal(sucursal), empleadoId, mes, anio)) {
                         com.lowagie.text.Document document = new com.lowagie.text.Document(
                                         com.lowagie.text.PageSize.A4.rotate());
-                        com.lowagie.text.pdf.PdfWriter.getInstance(document, out);
+                        com.lowagie.text.pdf.PdfWriter writer = com.lowagie.text.pdf.PdfWriter.getInstance(document, out);
+                        writer.setCloseStream(false);
                         document.open();
 
-                        // Fuentes
-                        com.lowagie.text.Font titleFont = new com.lowagie.text.Font(com.lowagie.text.Font.HELVETICA, 18,
-                                        com.lowagie.text.Font.BOLD, java.awt.Color.DARK_GRAY);
-                        com.lowagie.text.Font headerFont = new com.lowagie.text.Font(com.lowagie.text.Font.HELVETICA,
-                                        10,
-                                        com.lowagie.text.Font.BOLD, java.awt.Color.WHITE);
-                        com.lowagie.text.Font bodyFont = new com.lowagie.text.Font(com.lowagie.text.Font.HELVETICA, 9);
-                        com.lowagie.text.Font boldFont = new com.lowagie.text.Font(com.lowagie.text.Font.HELVETICA, 9,
-                                        com.lowagie.text.Font.BOLD);
+                        com.lowagie.text.Font titleFont = ReciboPdfRenderer.FUENTE_TITULO_REPORTE;
+                        com.lowagie.text.Font bodyFont = ReciboPdfRenderer.FUENTE_CUERPO_REPORTE;
+                        com.lowagie.text.Font boldFont = ReciboPdfRenderer.FUENTE_NEGRITA_REPORTE;
 
                         // Título
                         com.lowagie.text.Paragraph title = new com.lowagie.text.Paragraph(
@@ -859,7 +607,7 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
                         StringBuilder filtersInfo = new StringBuilder("Filtros aplicados: ");
                         filtersInfo.append("Año: ").append(anio).append(" | ");
                         if (mes != null)
-                                filtersInfo.append("Mes: ").append(getMesNombre(mes)).append(" | ");
+                                filtersInfo.append("Mes: ").append(ReciboPdfRenderer.nombreMes(mes)).append(" | ");
                         if (sucursal != null && !"Todas las sucursales".equals(sucursal))
                                 filtersInfo.append("Sucursal: ").append(sucursal).append(" | ");
 
@@ -878,39 +626,42 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
                         String[] headers = { "DOC", "EMPLEADO", "SUCURSAL", "BRUTO", "IPS", "JUB", "OTROS", "BONIF",
                                         "NETO", "ESTADO" };
                         for (String h : headers) {
-                                com.lowagie.text.pdf.PdfPCell cell = new com.lowagie.text.pdf.PdfPCell(
-                                                new com.lowagie.text.Phrase(h, headerFont));
-                                cell.setBackgroundColor(java.awt.Color.GRAY);
-                                cell.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_CENTER);
-                                cell.setPadding(5);
-                                table.addCell(cell);
+                                table.addCell(ReciboPdfRenderer.celdaCabeceraReporte(h));
                         }
-
-                        java.text.NumberFormat nf = java.text.NumberFormat
-                                        .getCurrencyInstance(new java.util.Locale("es", "PY"));
-                        nf.setCurrency(java.util.Currency.getInstance("PYG"));
-                        nf.setMaximumFractionDigits(0);
+                        // Tabla incompleta: se agrega al documento por bloques y la cabecera
+                        // se repite en cada página
+                        table.setHeaderRows(1);
+                        table.setComplete(false);
 
                         BigDecimal totalBruto = BigDecimal.ZERO;
                         BigDecimal totalNeto = BigDecimal.ZERO;
 
-                        for (ReciboSalario r : recibos) {
+                        int filas = 0;
+                        Iterator<ReciboSalario> it = recibos.iterator();
+                        while (it.hasNext()) {
+                                ReciboSalario r = it.next();
                                 table.addCell(new com.lowagie.text.Phrase(r.getEmpleado().getNumeroDocumento(),
                                                 bodyFont));
                                 table.addCell(new com.lowagie.text.Phrase(r.getEmpleado().getNombreCompleto(),
                                                 bodyFont));
                                 table.addCell(new com.lowagie.text.Phrase(r.getEmpleado().getSucursal(), bodyFont));
 
-                                table.addCell(createRightAlignedCell(nf.format(r.getSalarioBruto()), bodyFont));
-                                table.addCell(createRightAlignedCell(nf.format(r.getDescuentosIps()), bodyFont));
-                                table.addCell(createRightAlignedCell(nf.format(r.getDescuentosJubilacion()), bodyFont));
-                                table.addCell(createRightAlignedCell(nf.format(r.getOtrosDescuentos()), bodyFont));
-                                table.addCell(createRightAlignedCell(nf.format(r.getBonificaciones()), bodyFont));
-                                table.addCell(createRightAlignedCell(nf.format(r.getSalarioNeto()), boldFont));
+                                table.addCell(ReciboPdfRenderer.celdaMonto(r.getSalarioBruto(), bodyFont));
+                                table.addCell(ReciboPdfRenderer.celdaMonto(r.getDescuentosIps(), bodyFont));
+                                table.addCell(ReciboPdfRenderer.celdaMonto(r.getDescuentosJubilacion(), bodyFont));
+                                table.addCell(ReciboPdfRenderer.celdaMonto(r.getOtrosDescuentos(), bodyFont));
+                                table.addCell(ReciboPdfRenderer.celdaMonto(r.getBonificaciones(), bodyFont));
+                                table.addCell(ReciboPdfRenderer.celdaMonto(r.getSalarioNeto(), boldFont));
                                 table.addCell(new com.lowagie.text.Phrase(r.getEstado(), bodyFont));
 
                                 totalBruto = totalBruto.add(r.getSalarioBruto());
                                 totalNeto = totalNeto.add(r.getSalarioNeto());
+
+                                // Volcar las filas del bloque a la salida y liberar las entidades
+                                if (++filas % FILAS_POR_BLOQUE_PDF == 0) {
+                                        document.add(table);
+                                        entityManager.clear();
+                                }
                         }
 
                         // Totales Table
@@ -921,29 +672,22 @@ public class ReciboSalarioServiceImpl implements ReciboSalarioService {
                         footerLabel.setPadding(5);
                         table.addCell(footerLabel);
 
-                        table.addCell(createRightAlignedCell(nf.format(totalBruto), boldFont));
+                        table.addCell(ReciboPdfRenderer.celdaMonto(totalBruto, boldFont));
                         table.addCell(new com.lowagie.text.Phrase("", bodyFont)); // IPS empty
                         table.addCell(new com.lowagie.text.Phrase("", bodyFont)); // JUB empty
                         table.addCell(new com.lowagie.text.Phrase("", bodyFont)); // OTROS empty
                         table.addCell(new com.lowagie.text.Phrase("", bodyFont)); // BONIF empty
-                        table.addCell(createRightAlignedCell(nf.format(totalNeto), boldFont));
+                        table.addCell(ReciboPdfRenderer.celdaMonto(totalNeto, boldFont));
                         table.addCell(new com.lowagie.text.Phrase("", bodyFont));
 
+                        table.setComplete(true);
                         document.add(table);
                         document.close();
-                        return new ByteArrayResource(out.toByteArray());
+                        out.flush();
 
                 } catch (Exception e) {
                         log.error("Error al exportar PDF de salarios", e);
                         throw new RuntimeException("Error al generar reporte PDF");
                 }
         }
-
-        private com.lowagie.text.pdf.PdfPCell createRightAlignedCell(String text, com.lowagie.text.Font font) {
-                com.lowagie.text.pdf.PdfPCell cell = new com.lowagie.text.pdf.PdfPCell(
-                                new com.lowagie.text.Phrase(text, font));
-                cell.setHorizontalAlignment(com.lowagie.text.Element.ALIGN_RIGHT);
-                cell.setPadding(5);
-                return cell;
-        }
 }
@@ -0,0 +1,107 @@
+package com.coopreducto.tthh.service.impl;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Escribe un ZIP de recibos en un stream a medida que se renderizan.
+ *
+ * Los PDFs se generan en paralelo en el pool "zipExecutor", pero nunca hay
+ * más de {@code ventana} recibos en vuelo: el escritor consume las entradas
+ * en orden y solo entonces se encola la siguiente. La memoria queda acotada
+ * por el tamaño de la ventana y no por la cantidad de recibos.
+ *
+ * Las entradas se guardan sin comprimir (STORED): los PDFs ya vienen
+ * comprimidos y deflactarlos de nuevo solo consume CPU.
+ */
+@Slf4j
+@Component
+public class ReciboZipExporter {
+
+    private final Executor zipExecutor;
+    private final int ventana;
+
+    public ReciboZipExporter(@Qualifier("zipExecutor") Executor zipExecutor,
+            @Value("${app.payroll.zip-ventana:0}") int ventana) {
+        this.zipExecutor = zipExecutor;
+        this.ventana = ventana > 0 ? ventana : Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    public int exportar(List<Long> ids, Function<Long, EntradaZip> renderizar, OutputStream out) throws IOException {
+        Deque<CompletableFuture<EntradaZip>> enVuelo = new ArrayDeque<>();
+        Iterator<Long> pendientes = ids.iterator();
+        Set<String> nombres = new HashSet<>();
+        int escritos = 0;
+
+        // No se cierra: el stream de salida pertenece al llamador
+        ZipOutputStream zip = new ZipOutputStream(out);
+        try {
+            while (pendientes.hasNext() || !enVuelo.isEmpty()) {
+                while (pendientes.hasNext() && enVuelo.size() < ventana) {
+                    Long id = pendientes.next();
+                    enVuelo.add(CompletableFuture.supplyAsync(() -> renderizar.apply(id), zipExecutor));
+                }
+
+                EntradaZip entrada = enVuelo.poll().join();
+                String nombre = entrada.getNombre();
+                if (!nombres.add(nombre)) {
+                    nombre = nombre.replace(".pdf", "_" + escritos + ".pdf");
+                }
+                zip.putNextEntry(entradaSinComprimir(nombre, entrada.getContenido()));
+                zip.write(entrada.getContenido());
+                zip.closeEntry();
+                escritos++;
+            }
+            zip.finish();
+            out.flush();
+            return escritos;
+        } catch (CompletionException e) {
+            enVuelo.forEach(f -> f.cancel(true));
+            throw new RuntimeException("Error al renderizar recibo para el ZIP: " + e.getCause().getMessage(),
+                    e.getCause());
+        } catch (IOException | RuntimeException e) {
+            // Cliente desconectado u otro error: no seguir renderizando
+            enVuelo.forEach(f -> f.cancel(true));
+            throw e;
+        }
+    }
+
+    // STORED exige conocer tamaño y CRC antes de escribir el contenido
+    private static ZipEntry entradaSinComprimir(String nombre, byte[] contenido) {
+        CRC32 crc = new CRC32();
+        crc.update(contenido);
+        ZipEntry entrada = new ZipEntry(nombre);
+        entrada.setMethod(ZipEntry.STORED);
+        entrada.setSize(contenido.length);
+        entrada.setCompressedSize(contenido.length);
+        entrada.setCrc(crc.getValue());
+        return entrada;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class EntradaZip {
+        private String nombre;
+        private byte[] contenido;
+    }
+}
@@ -0,0 +1,235 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.repository.ReporteVersionJdbcRepository;
+import com.coopreducto.tthh.service.AguinaldoService;
+import com.coopreducto.tthh.service.ReciboComisionService;
+import com.coopreducto.tthh.service.ReciboSalarioService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tipos de exportación disponibles como job: parámetros admitidos, nombre
+ * del archivo, versión de los datos de los que depende y escritura del
+ * contenido con los mismos servicios que las descargas directas.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReporteExportador {
+
+    public static final String SALARIOS_EXCEL = "SALARIOS_EXCEL";
+    public static final String SALARIOS_PDF = "SALARIOS_PDF";
+    public static final String SALARIOS_ZIP = "SALARIOS_ZIP";
+    public static final String PLANILLA_BANCARIA = "PLANILLA_BANCARIA";
+    public static final String COMISIONES_EXCEL = "COMISIONES_EXCEL";
+    public static final String COMISIONES_PDF = "COMISIONES_PDF";
+    public static final String AGUINALDO_EXCEL = "AGUINALDO_EXCEL";
+
+    private static final String XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    private static final String PDF = "application/pdf";
+    private static final String ZIP = "application/zip";
+
+    private static final List<String> FILTROS_RECIBOS = List.of("anio", "mes", "sucursal", "empleadoId");
+    private static final List<String> ENTEROS = List.of("anio", "mes", "empleadoId");
+
+    private static final Map<String, Tipo> TIPOS = Map.of(
+            SALARIOS_EXCEL, new Tipo(FILTROS_RECIBOS, List.of(), "xlsx", XLSX),
+            SALARIOS_PDF, new Tipo(FILTROS_RECIBOS, List.of(), "pdf", PDF),
+            SALARIOS_ZIP, new Tipo(List.of("anio", "mes", "sucursal"), List.of("anio", "mes"), "zip", ZIP),
+            PLANILLA_BANCARIA, new Tipo(List.of("anio", "mes"), List.of("anio", "mes"), "xlsx", XLSX),
+            COMISIONES_EXCEL, new Tipo(FILTROS_RECIBOS, List.of(), "xlsx", XLSX),
+            COMISIONES_PDF, new Tipo(FILTROS_RECIBOS, List.of(), "pdf", PDF),
+            AGUINALDO_EXCEL, new Tipo(List.of("anio"), List.of(), "xlsx", XLSX));
+
+    private final ReciboSalarioService reciboSalarioService;
+    private final ReciboComisionService reciboComisionService;
+    private final AguinaldoService aguinaldoService;
+    private final ReporteVersionJdbcRepository reporteVersionJdbcRepository;
+
+    /**
+     * Valida y normaliza el pedido y calcula su clave. Los parámetros que el
+     * tipo no usa se descartan para que no generen claves distintas.
+     */
+    public Pedido preparar(String tipo, Map<String, String> parametros) {
+        Tipo definicion = tipo != null ? TIPOS.get(tipo) : null;
+        if (definicion == null) {
+            throw new RuntimeException("Tipo de reporte no soportado: " + tipo);
+        }
+
+        Map<String, String> normalizados = new TreeMap<>();
+        parametros.forEach((k, v) -> {
+            if (v != null && !v.isBlank() && definicion.parametros.contains(k)) {
+                normalizados.put(k, v.trim());
+            }
+        });
+        if (AGUINALDO_EXCEL.equals(tipo)) {
+            normalizados.putIfAbsent("anio", String.valueOf(LocalDate.now().getYear()));
+        }
+        for (String requerido : definicion.requeridos) {
+            if (!normalizados.containsKey(requerido)) {
+                throw new RuntimeException("Parámetro requerido: " + requerido);
+            }
+        }
+        ENTEROS.forEach(nombre -> largo(normalizados, nombre)); // Falla si no es numérico
+
+        String texto = serializar(normalizados);
+        String version = versionDatos(tipo, normalizados);
+        return new Pedido(tipo, texto, version, clave(tipo, texto, version), nombreArchivo(tipo, normalizados),
+                definicion.contentType);
+    }
+
+    public void escribir(String tipo, Map<String, String> p, OutputStream out) throws IOException {
+        switch (tipo) {
+            case SALARIOS_EXCEL -> reciboSalarioService.exportarExcel(p.get("sucursal"), largo(p, "empleadoId"),
+                    entero(p, "mes"), entero(p, "anio"), out);
+            case SALARIOS_PDF -> reciboSalarioService.exportarPdf(p.get("sucursal"), largo(p, "empleadoId"),
+                    entero(p, "mes"), entero(p, "anio"), out);
+            case SALARIOS_ZIP -> reciboSalarioService.exportarZip(entero(p, "anio"), entero(p, "mes"),
+                    p.get("sucursal"), out);
+            case PLANILLA_BANCARIA -> reciboSalarioService.exportarPlanillaBancaria(entero(p, "anio"),
+                    entero(p, "mes"), out);
+            case COMISIONES_EXCEL -> reciboComisionService.exportarExcel(p.get("sucursal"),
+                    largo(p, "empleadoId"), entero(p, "mes"), entero(p, "anio"), out);
+            case COMISIONES_PDF -> reciboComisionService.exportarPdf(p.get("sucursal"), largo(p, "empleadoId"),
+                    entero(p, "mes"), entero(p, "anio"), out);
+            case AGUINALDO_EXCEL -> aguinaldoService.exportarExcel(entero(p, "anio"), out);
+            default -> throw new RuntimeException("Tipo de reporte no soportado: " + tipo);
+        }
+    }
+
+    public String extension(String tipo) {
+        Tipo definicion = TIPOS.get(tipo);
+        return definicion != null ? definicion.extension : "bin";
+    }
+
+    /** Inversa de la serialización guardada en ReporteJob.parametros. */
+    public static Map<String, String> parsear(String parametros) {
+        Map<String, String> mapa = new TreeMap<>();
+        if (parametros == null || parametros.isEmpty()) {
+            return mapa;
+        }
+        for (String par : parametros.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                mapa.put(decodificar(par.substring(0, igual)), decodificar(par.substring(igual + 1)));
+            }
+        }
+        return mapa;
+    }
+
+    // ========================================
+    // VERSIÓN DE LOS DATOS
+    // ========================================
+
+    private String versionDatos(String tipo, Map<String, String> p) {
+        return switch (tipo) {
+            case SALARIOS_EXCEL, SALARIOS_PDF, SALARIOS_ZIP, PLANILLA_BANCARIA ->
+                    "rs:" + reporteVersionJdbcRepository.recibosSalario(entero(p, "anio"), entero(p, "mes"))
+                            + "|e:" + reporteVersionJdbcRepository.empleados();
+            case COMISIONES_EXCEL, COMISIONES_PDF ->
+                    "rc:" + reporteVersionJdbcRepository.recibosComision(entero(p, "anio"), entero(p, "mes"))
+                            + "|e:" + reporteVersionJdbcRepository.empleados();
+            case AGUINALDO_EXCEL ->
+                    "rs:" + reporteVersionJdbcRepository.recibosSalario(entero(p, "anio"), null)
+                            + "|e:" + reporteVersionJdbcRepository.empleados();
+            // Todo tipo nuevo debe declarar de qué datos depende su archivo
+            default -> throw new RuntimeException("Tipo de reporte no soportado: " + tipo);
+        };
+    }
+
+    private static String clave(String tipo, String parametros, String version) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((tipo + "\n" + parametros + "\n" + version).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ========================================
+    // AUXILIARES
+    // ========================================
+
+    private String nombreArchivo(String tipo, Map<String, String> p) {
+        String periodo = p.containsKey("mes") ? "_" + p.get("mes") + "_" + p.get("anio")
+                : p.containsKey("anio") ? "_" + p.get("anio") : "";
+        String base = switch (tipo) {
+            case SALARIOS_EXCEL, SALARIOS_PDF -> "reporte_salarios" + periodo;
+            case SALARIOS_ZIP -> "recibos" + periodo;
+            case PLANILLA_BANCARIA -> "planilla_bancaria" + periodo;
+            case COMISIONES_EXCEL, COMISIONES_PDF -> "reporte_comisiones" + periodo;
+            case AGUINALDO_EXCEL -> "aguinaldo" + periodo;
+            default -> throw new RuntimeException("Tipo de reporte no soportado: " + tipo);
+        };
+        return base + "." + extension(tipo);
+    }
+
+    private static String serializar(Map<String, String> parametros) {
+        StringBuilder sb = new StringBuilder();
+        parametros.forEach((k, v) -> {
+            if (sb.length() > 0) {
+                sb.append('&');
+            }
+            sb.append(codificar(k)).append('=').append(codificar(v));
+        });
+        return sb.toString();
+    }
+
+    private static String codificar(String valor) {
+        return java.net.URLEncoder.encode(valor, StandardCharsets.UTF_8);
+    }
+
+    private static String decodificar(String valor) {
+        return java.net.URLDecoder.decode(valor, StandardCharsets.UTF_8);
+    }
+
+    private static Integer entero(Map<String, String> p, String nombre) {
+        Long valor = largo(p, nombre);
+        return valor != null ? valor.intValue() : null;
+    }
+
+    private static Long largo(Map<String, String> p, String nombre) {
+        String valor = p.get(nombre);
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Parámetro inválido: " + nombre + "=" + valor);
+        }
+    }
+
+    /** Pedido normalizado, listo para buscar o crear el job. */
+    @Data
+    @AllArgsConstructor
+    public static class Pedido {
+        private String tipo;
+        private String parametros;
+        private String versionDatos;
+        private String clave;
+        private String nombreArchivo;
+        private String contentType;
+    }
+
+    @AllArgsConstructor
+    private static class Tipo {
+        private final List<String> parametros;
+        private final List<String> requeridos;
+        private final String extension;
+        private final String contentType;
+    }
+}
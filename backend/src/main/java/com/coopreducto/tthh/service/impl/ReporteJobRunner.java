@@ -0,0 +1,115 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.entity.ReporteJob;
+import com.coopreducto.tthh.repository.ReporteJobRepository;
+import com.coopreducto.tthh.repository.UsuarioRepository;
+import com.coopreducto.tthh.service.WebPushService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+
+/**
+ * Ejecuta un {@link ReporteJob} en el pool "reporteExecutor": escribe el
+ * archivo en {base-path}/reportes (primero en un temporal, para que nunca
+ * se descargue a medias) y avisa por push a los suscriptores del job.
+ */
+@Slf4j
+@Component
+public class ReporteJobRunner {
+
+    private final ReporteJobRepository jobRepository;
+    private final ReporteExportador reporteExportador;
+    private final UsuarioRepository usuarioRepository;
+    private final WebPushService webPushService;
+    private final Path directorio;
+    private final long retencionHoras;
+
+    public ReporteJobRunner(ReporteJobRepository jobRepository, ReporteExportador reporteExportador,
+            UsuarioRepository usuarioRepository, WebPushService webPushService,
+            @Value("${app.file-storage.base-path:uploads}") String basePath,
+            @Value("${app.reportes.retencion-horas:24}") long retencionHoras) {
+        this.jobRepository = jobRepository;
+        this.reporteExportador = reporteExportador;
+        this.usuarioRepository = usuarioRepository;
+        this.webPushService = webPushService;
+        this.directorio = Paths.get(basePath).toAbsolutePath().normalize().resolve("reportes");
+        this.retencionHoras = retencionHoras;
+        try {
+            Files.createDirectories(directorio);
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo crear el directorio de reportes", e);
+        }
+    }
+
+    @Async("reporteExecutor")
+    public void ejecutar(Long jobId) {
+        ReporteJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || !job.isActivo()) {
+            return;
+        }
+
+        long inicio = System.currentTimeMillis();
+        jobRepository.marcarIniciado(jobId, ReporteJob.EN_PROCESO, LocalDateTime.now());
+        String archivo = jobId + "." + reporteExportador.extension(job.getTipo());
+        Path temporal = directorio.resolve(jobId + ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporal))) {
+                reporteExportador.escribir(job.getTipo(), ReporteExportador.parsear(job.getParametros()), out);
+            }
+            Path destino = ruta(archivo);
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            LocalDateTime ahora = LocalDateTime.now();
+            jobRepository.completar(jobId, ReporteJob.COMPLETADO, archivo, Files.size(destino), ahora,
+                    ahora.plusHours(retencionHoras));
+            log.info("Reporte {} ({} {}) generado en {} ms: {} bytes", jobId, job.getTipo(), job.getParametros(),
+                    System.currentTimeMillis() - inicio, Files.size(destino));
+            notificar(jobId, "📄 Reporte listo", job.getNombreArchivo() + " está listo para descargar");
+        } catch (Exception e) {
+            log.error("Reporte {} ({}) fallido: {}", jobId, job.getTipo(), e.getMessage(), e);
+            borrar(temporal);
+            LocalDateTime ahora = LocalDateTime.now();
+            jobRepository.finalizar(jobId, ReporteJob.FALLIDO, e.getMessage(), ahora,
+                    ahora.plusHours(retencionHoras));
+            notificar(jobId, "⚠️ Error en reporte", "No se pudo generar " + job.getNombreArchivo());
+        }
+    }
+
+    public Path ruta(String archivo) {
+        return directorio.resolve(archivo).normalize();
+    }
+
+    public void borrar(Path ruta) {
+        try {
+            Files.deleteIfExists(ruta);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar {}: {}", ruta, e.getMessage());
+        }
+    }
+
+    // Se relee el job: pueden haberse sumado suscriptores mientras se generaba
+    private void notificar(Long jobId, String titulo, String cuerpo) {
+        ReporteJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getSuscriptores() == null) {
+            return;
+        }
+        for (String username : job.getSuscriptores().split(",")) {
+            try {
+                usuarioRepository.findByUsername(username).ifPresent(usuario -> webPushService
+                        .sendToUser(usuario.getId(), titulo, cuerpo, "/reportes?job=" + jobId));
+            } catch (Exception e) {
+                log.warn("No se pudo notificar el reporte {} a {}: {}", jobId, username, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.dto.ReporteJobDTO;
+import com.coopreducto.tthh.entity.ReporteJob;
+import com.coopreducto.tthh.repository.ReporteJobRepository;
+import com.coopreducto.tthh.service.ReporteJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+@SuppressWarnings("null")
+public class ReporteJobServiceImpl implements ReporteJobService {
+
+    private static final List<String> ESTADOS_ACTIVOS = List.of(ReporteJob.PENDIENTE, ReporteJob.EN_PROCESO);
+    private static final List<String> ESTADOS_REUTILIZABLES = List.of(ReporteJob.PENDIENTE, ReporteJob.EN_PROCESO,
+            ReporteJob.COMPLETADO);
+    private static final List<String> ESTADOS_FINALES = List.of(ReporteJob.COMPLETADO, ReporteJob.FALLIDO);
+
+    private final ReporteJobRepository jobRepository;
+    private final ReporteExportador reporteExportador;
+    private final ReporteJobRunner reporteJobRunner;
+
+    // Búsqueda y alta bajo el mismo lock: dos pedidos idénticos simultáneos no crean dos jobs
+    private final Object lockSolicitudes = new Object();
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReporteJobDTO solicitar(String tipo, Map<String, String> parametros, String usuario) {
+        ReporteExportador.Pedido pedido = reporteExportador.preparar(tipo, parametros);
+
+        ReporteJob job;
+        synchronized (lockSolicitudes) {
+            ReporteJob existente = jobRepository
+                    .findFirstByClaveAndEstadoInOrderByIdDesc(pedido.getClave(), ESTADOS_REUTILIZABLES)
+                    .orElse(null);
+            if (existente != null && existente.isActivo()) {
+                suscribir(existente, usuario);
+                log.info("Reporte {} {}: {} se suma al job activo {}", tipo, pedido.getParametros(), usuario,
+                        existente.getId());
+                return toDTO(existente);
+            }
+            if (existente != null && vigente(existente)) {
+                log.info("Reporte {} {}: se reutiliza el archivo del job {}", tipo, pedido.getParametros(),
+                        existente.getId());
+                return toDTO(existente);
+            }
+
+            // Se confirma antes de encolar para que el runner encuentre el registro
+            job = jobRepository.save(ReporteJob.builder()
+                    .tipo(pedido.getTipo())
+                    .parametros(pedido.getParametros())
+                    .versionDatos(pedido.getVersionDatos())
+                    .clave(pedido.getClave())
+                    .estado(ReporteJob.PENDIENTE)
+                    .nombreArchivo(pedido.getNombreArchivo())
+                    .contentType(pedido.getContentType())
+                    .solicitadoPor(usuario)
+                    .suscriptores(usuario)
+                    .build());
+        }
+        reporteJobRunner.ejecutar(job.getId());
+
+        log.info("Reporte {} encolado: {} {} por {}", job.getId(), tipo, pedido.getParametros(), usuario);
+        return toDTO(job);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ReporteJobDTO findById(Long id) {
+        return jobRepository.findById(id)
+                .map(this::toDTO)
+                .orElseThrow(() -> new RuntimeException("Reporte no encontrado"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ReporteJobDTO> findRecientes() {
+        return jobRepository.findTop20ByOrderByCreatedAtDesc().stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Resource descargar(Long id) {
+        ReporteJob job = jobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Reporte no encontrado"));
+        if (job.isActivo()) {
+            throw new RuntimeException("El reporte todavía se está generando");
+        }
+        if (!vigente(job)) {
+            throw new RuntimeException("El reporte no está disponible (estado " + job.getEstado() + ")");
+        }
+        return new FileSystemResource(reporteJobRunner.ruta(job.getArchivo()));
+    }
+
+    /**
+     * Borra los archivos vencidos. Los registros quedan como EXPIRADO para
+     * el historial.
+     */
+    @Scheduled(cron = "${app.reportes.limpieza-cron:0 0 * * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void limpiarVencidos() {
+        List<ReporteJob> vencidos = jobRepository.findByEstadoInAndExpiraAtBefore(ESTADOS_FINALES,
+                LocalDateTime.now());
+        for (ReporteJob job : vencidos) {
+            if (job.getArchivo() != null) {
+                reporteJobRunner.borrar(reporteJobRunner.ruta(job.getArchivo()));
+            }
+            jobRepository.marcarExpirado(job.getId());
+        }
+        if (!vencidos.isEmpty()) {
+            log.info("Reportes vencidos eliminados: {}", vencidos.size());
+        }
+    }
+
+    /**
+     * Vuelve a encolar los jobs que quedaron activos al detenerse la
+     * aplicación; el archivo se genera de nuevo desde el principio. Lo
+     * invoca {@link com.coopreducto.tthh.config.TareasInicio}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reanudarPendientes() {
+        for (ReporteJob job : jobRepository.findByEstadoIn(ESTADOS_ACTIVOS)) {
+            log.info("Reanudando reporte {} ({})", job.getId(), job.getTipo());
+            reporteJobRunner.ejecutar(job.getId());
+        }
+    }
+
+    // Con lockSolicitudes tomado
+    private void suscribir(ReporteJob job, String usuario) {
+        List<String> suscriptores = job.getSuscriptores() != null
+                ? new ArrayList<>(Arrays.asList(job.getSuscriptores().split(",")))
+                : new ArrayList<>();
+        if (usuario != null && !suscriptores.contains(usuario)) {
+            suscriptores.add(usuario);
+            jobRepository.actualizarSuscriptores(job.getId(), String.join(",", suscriptores));
+        }
+    }
+
+    private boolean vigente(ReporteJob job) {
+        return ReporteJob.COMPLETADO.equals(job.getEstado())
+                && job.getArchivo() != null
+                && (job.getExpiraAt() == null || job.getExpiraAt().isAfter(LocalDateTime.now()))
+                && Files.exists(reporteJobRunner.ruta(job.getArchivo()));
+    }
+
+    private ReporteJobDTO toDTO(ReporteJob job) {
+        return ReporteJobDTO.builder()
+                .id(job.getId())
+                .tipo(job.getTipo())
+                .parametros(job.getParametros())
+                .estado(job.getEstado())
+                .nombreArchivo(job.getNombreArchivo())
+                .contentType(job.getContentType())
+                .bytes(job.getBytes())
+                .mensajeError(job.getMensajeError())
+                .solicitadoPor(job.getSolicitadoPor())
+                .iniciadoAt(job.getIniciadoAt())
+                .finalizadoAt(job.getFinalizadoAt())
+                .expiraAt(job.getExpiraAt())
+                .createdAt(job.getCreatedAt())
+                .build();
+    }
+}
@@ -1,17 +1,20 @@
 package com.coopreducto.tthh.service.impl;
 
+import com.coopreducto.tthh.config.CacheConfig;
 import com.coopreducto.tthh.dto.DashboardAdminDTO;
+import com.coopreducto.tthh.dto.NominaTendenciaDTO;
 import com.coopreducto.tthh.repository.*;
 import com.coopreducto.tthh.service.ReportesService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.*;
 
 @Slf4j
@@ -21,248 +24,17 @@ import java.util.*;
 public class ReportesServiceImpl implements ReportesService {
 
     private final EmpleadoRepository empleadoRepository;
-    private final SolicitudRepository solicitudRepository;
-    private final AusenciaRepository ausenciaRepository; // Added dependency
-    private final CertificacionProfesionalRepository certificacionRepository;
-    private final AsistenciaRepository asistenciaRepository;
-    private final com.coopreducto.tthh.service.CumpleanosService cumpleanosService;
+    private final AsistenciaResumenDiarioRepository asistenciaResumenDiarioRepository;
+    private final DashboardAdminAggregator dashboardAdminAggregator;
+    private final NominaTendencia nominaTendencia;
+    private final DashboardStream dashboardStream;
 
     @Override
-    @Cacheable(value = "dashboardAdmin")
+    @Cacheable(value = CacheConfig.DASHBOARD_ADMIN, sync = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Cada sección usa su propia transacción
     public DashboardAdminDTO getDashboardAdmin() {
         try {
-            DashboardAdminDTO dashboard = new DashboardAdminDTO();
-
-            // KPIs Principales
-            dashboard.setColaboradoresActivos(empleadoRepository.countByEstado("ACTIVO"));
-            dashboard.setColaboradoresInactivos(empleadoRepository.countByEstado("INACTIVO"));
-
-            // Solicitudes pendientes (Sumar Solicitudes Genéricas + Ausencias)
-            long solicitudesPendientes = solicitudRepository.countByEstado("PENDIENTE");
-            long ausenciasPendientes = ausenciaRepository.countByEstado("PENDIENTE");
-            dashboard.setSolicitudesPendientes(solicitudesPendientes + ausenciasPendientes);
-
-            // Certificaciones por vencer (próximos 30 días)
-            LocalDate hoy = LocalDate.now();
-            LocalDate en30Dias = hoy.plusDays(30);
-            try {
-                dashboard.setCertificacionesPorVencer(
-                        (long) certificacionRepository.findProximasAVencer(hoy, en30Dias).size());
-            } catch (Exception e) {
-                log.warn("Error al contar certificaciones por vencer: {}", e.getMessage());
-                dashboard.setCertificacionesPorVencer(0L);
-            }
-
-            // Distribución por departamento (Real)
-            try {
-                List<Object[]> sucStats = empleadoRepository.countBySucursal();
-                Map<String, Long> porSucursal = new HashMap<>();
-                if (sucStats != null) {
-                    for (Object[] row : sucStats) {
-                        if (row != null && row.length >= 2 && row[0] != null) {
-                            porSucursal.put(row[0].toString(), (Long) row[1]);
-                        }
-                    }
-                }
-                dashboard.setColaboradoresPorDepartamento(porSucursal);
-            } catch (Exception e) {
-                log.error("Error en distribución por sucursal: {}", e.getMessage());
-                dashboard.setColaboradoresPorDepartamento(new HashMap<>());
-            }
-
-            // Solicitudes por estado
-            Map<String, Long> porEstado = new HashMap<>();
-            porEstado.put("PENDIENTE", dashboard.getSolicitudesPendientes());
-            porEstado.put("APROBADA",
-                    solicitudRepository.countByEstado("APROBADA") + ausenciaRepository.countByEstado("APROBADA"));
-            porEstado.put("RECHAZADA",
-                    solicitudRepository.countByEstado("RECHAZADA") + ausenciaRepository.countByEstado("RECHAZADA"));
-            dashboard.setSolicitudesPorEstado(porEstado);
-
-            // Alertas
-            List<DashboardAdminDTO.AlertaDTO> alertas = new ArrayList<>();
-            if (dashboard.getSolicitudesPendientes() > 0) {
-                alertas.add(new DashboardAdminDTO.AlertaDTO(
-                        "SOLICITUD_PENDIENTE",
-                        "Hay " + dashboard.getSolicitudesPendientes() + " solicitudes pendientes de revisión",
-                        "ALTA",
-                        null,
-                        "SOLICITUD"));
-            }
-            if (dashboard.getCertificacionesPorVencer() > 0) {
-                alertas.add(new DashboardAdminDTO.AlertaDTO(
-                        "CERTIFICACION_VENCIMIENTO",
-                        dashboard.getCertificacionesPorVencer() + " certificaciones vencen en los próximos 30 días",
-                        "MEDIA",
-                        null,
-                        "CERTIFICACION"));
-            }
-            dashboard.setAlertas(alertas);
-
-            // Cumpleaños próximos (Configurable: Manual o Automático)
-            List<DashboardAdminDTO.CumpleaniosDTO> proximosCumples = new ArrayList<>();
-            try {
-                List<com.coopreducto.tthh.dto.CumpleanosManualDTO> proximos = cumpleanosService.getProximos(5);
-                dashboard.setCumpleaniosMesActual((long) cumpleanosService.getCumpleanosDelMes().size());
-
-                for (com.coopreducto.tthh.dto.CumpleanosManualDTO dto : proximos) {
-                    LocalDate fechaNac = dto.getFechaNacimiento();
-                    Integer diasRestantes = 0;
-
-                    if (fechaNac != null) {
-                        LocalDate proxCumple = fechaNac.withYear(hoy.getYear());
-                        if (proxCumple.isBefore(hoy)) {
-                            proxCumple = proxCumple.plusYears(1);
-                        }
-                        diasRestantes = (int) java.time.temporal.ChronoUnit.DAYS.between(hoy, proxCumple);
-                    }
-
-                    proximosCumples.add(new DashboardAdminDTO.CumpleaniosDTO(
-                            dto.getId(),
-                            dto.getNombreCompleto(),
-                            "Colaborador",
-                            "Sucursal",
-                            fechaNac != null ? fechaNac.getDayOfMonth() : 0,
-                            fechaNac != null ? fechaNac.getMonthValue() : 0,
-                            diasRestantes,
-                            dto.getAvatarUrl()));
-                }
-            } catch (Exception e) {
-                log.warn("Error al cargar cumpleaños: {}. Usando fallback.", e.getMessage());
-                // Fallback: usar empleadoRepository directamente
-                List<com.coopreducto.tthh.entity.Empleado> cumpleanierosProximos = empleadoRepository
-                        .findProximosCumpleanios(5);
-                dashboard.setCumpleaniosMesActual((long) empleadoRepository.findCumpleaniosDelMes().size());
-                for (com.coopreducto.tthh.entity.Empleado emp : cumpleanierosProximos) {
-                    LocalDate fechaNac = emp.getFechaNacimiento();
-                    Integer diasRestantes = 0;
-                    if (fechaNac != null) {
-                        LocalDate proxCumple = fechaNac.withYear(hoy.getYear());
-                        if (proxCumple.isBefore(hoy))
-                            proxCumple = proxCumple.plusYears(1);
-                        diasRestantes = (int) java.time.temporal.ChronoUnit.DAYS.between(hoy, proxCumple);
-                    }
-                    proximosCumples.add(new DashboardAdminDTO.CumpleaniosDTO(
-                            emp.getId(), emp.getNombres() + " " + emp.getApellidos(), emp.getCargo(), emp.getSucursal(),
-                            fechaNac != null ? fechaNac.getDayOfMonth() : 0,
-                            fechaNac != null ? fechaNac.getMonthValue() : 0,
-                            diasRestantes, emp.getFotoUrl()));
-                }
-            }
-            dashboard.setProximosCumpleanios(proximosCumples);
-
-            // Calcular nómina mensual estimada (suma de todos los salarios de empleados
-            // activos)
-            BigDecimal nominaTotal = empleadoRepository.sumSalarioByEstado("ACTIVO");
-            if (nominaTotal == null)
-                nominaTotal = BigDecimal.ZERO;
-            dashboard.setNominaMensualEstimada(nominaTotal);
-
-            log.info("KPIs cargados con éxito para {} empleados.", dashboard.getColaboradoresActivos());
-
-            // Simular nómina pagada (95% de la estimada como ejemplo)
-            dashboard.setNominaMensualPagada(nominaTotal.multiply(new BigDecimal("0.95"))
-                    .setScale(0, java.math.RoundingMode.HALF_UP));
-
-            // Generar tendencia de nómina últimos 6 meses con variaciones realistas
-            List<DashboardAdminDTO.TendenciaMensual> nominaHistorica = new ArrayList<>();
-            java.time.YearMonth mesActual = java.time.YearMonth.now();
-            Random rand = new Random(42); // Seed fijo para consistencia
-            String[] nombresMeses = { "", "Ene", "Feb", "Mar", "Abr", "May", "Jun", "Jul", "Ago", "Sep", "Oct", "Nov",
-                    "Dic" };
-
-            for (int i = 5; i >= 0; i--) {
-                java.time.YearMonth mes = mesActual.minusMonths(i);
-                double variacion = 0.95 + (rand.nextDouble() * 0.10); // 0.95 a 1.05
-                BigDecimal nominaMes = nominaTotal.multiply(new BigDecimal(variacion))
-                        .setScale(0, java.math.RoundingMode.HALF_UP);
-
-                nominaHistorica.add(new DashboardAdminDTO.TendenciaMensual(
-                        nombresMeses[mes.getMonthValue()],
-                        mes.getYear(),
-                        nominaMes,
-                        dashboard.getColaboradoresActivos()));
-            }
-            dashboard.setNominaUltimos6Meses(nominaHistorica);
-
-            // Solicitudes por tipo
-            Map<String, Long> porTipo = new HashMap<>();
-            porTipo.put("VACACIONES", solicitudRepository.countByTipo("VACACIONES"));
-            porTipo.put("PERMISO", solicitudRepository.countByTipo("PERMISO"));
-            // porTipo.put("CONSTANCIA_LABORAL",
-            // solicitudRepository.countByTipo("CONSTANCIA_LABORAL"));
-            // porTipo.put("AUMENTO_SALARIO",
-            // solicitudRepository.countByTipo("AUMENTO_SALARIO"));
-            dashboard.setSolicitudesPorTipo(porTipo);
-
-            // Últimas solicitudes pendientes (Top 20 Mezclado)
-            List<DashboardAdminDTO.SolicitudResumenDTO> ultimas = new ArrayList<>();
-            try {
-                // Fetch Requests
-                List<com.coopreducto.tthh.entity.Solicitud> solicitudesPendientesList = solicitudRepository
-                        .findTop20ByEstadoOrderByCreatedAtDesc("PENDIENTE");
-
-                // Fetch Absences
-                List<com.coopreducto.tthh.entity.Ausencia> ausenciasPendientesList = ausenciaRepository
-                        .findTop20ByEstadoOrderByCreatedAtDesc("PENDIENTE",
-                                org.springframework.data.domain.PageRequest.of(0, 20));
-
-                if (solicitudesPendientesList != null) {
-                    for (com.coopreducto.tthh.entity.Solicitud s : solicitudesPendientesList) {
-                        ultimas.add(new DashboardAdminDTO.SolicitudResumenDTO(
-                                s.getId(),
-                                s.getTitulo() != null ? s.getTitulo() : "Sin título",
-                                s.getTipo() != null ? s.getTipo() : "OTRO",
-                                s.getEstado() != null ? s.getEstado() : "PENDIENTE",
-                                s.getPrioridad() != null ? s.getPrioridad() : "MEDIA",
-                                s.getEmpleado() != null
-                                        ? s.getEmpleado().getNombres() + " " + s.getEmpleado().getApellidos()
-                                        : "Sin asignar",
-                                s.getCreatedAt() != null ? s.getCreatedAt().toString()
-                                        : LocalDateTime.now().toString()));
-                    }
-                }
-
-                if (ausenciasPendientesList != null) {
-                    for (com.coopreducto.tthh.entity.Ausencia a : ausenciasPendientesList) {
-                        ultimas.add(new DashboardAdminDTO.SolicitudResumenDTO(
-                                a.getId(), // ID might clash in frontend URL if not handled carefully, assumes handled
-                                           // by context
-                                "Ausencia: " + (a.getMotivo() != null ? a.getMotivo() : "Solicitud de ausencia"),
-                                a.getTipo() != null ? a.getTipo() : "AUSENCIA",
-                                a.getEstado() != null ? a.getEstado() : "PENDIENTE",
-                                "MEDIA", // Default priority for absences
-                                a.getEmpleado() != null
-                                        ? a.getEmpleado().getNombres() + " " + a.getEmpleado().getApellidos()
-                                        : "Sin asignar",
-                                a.getCreatedAt() != null ? a.getCreatedAt().toString()
-                                        : LocalDateTime.now().toString()));
-                    }
-                }
-
-                // Sort combined list by date descending
-                ultimas.sort((a, b) -> LocalDateTime.parse(b.getFechaCreacion())
-                        .compareTo(LocalDateTime.parse(a.getFechaCreacion())));
-
-                // Limit to 20
-                if (ultimas.size() > 20) {
-                    ultimas = ultimas.subList(0, 20);
-                }
-
-            } catch (Exception ex) {
-                log.error("Error cargando solicitudes pendientes: " + ex.getMessage());
-            }
-            dashboard.setUltimasSolicitudes(ultimas);
-
-            // Defaults for other fields
-            dashboard.setHorasFormacionMes(0);
-            dashboard.setHorasFormacionAnio(0);
-            dashboard.setColaboradoresPorCargo(new HashMap<>());
-            dashboard.setAusenciasUltimos6Meses(new ArrayList<>());
-
-            dashboard.setTopHabilidades(new ArrayList<>());
-
-            return dashboard;
+            return dashboardAdminAggregator.cargar();
         } catch (Exception e) {
             log.error("Error al obtener dashboard admin", e);
             e.printStackTrace(); // Ver en consola directamente
@@ -290,6 +62,12 @@ public class ReportesServiceImpl implements ReportesService {
         }
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SseEmitter suscribirDashboardAdmin() {
+        return dashboardStream.suscribir();
+    }
+
     @Override
     public Map<String, Object> getReporteNomina(Integer anio, Integer mes) {
         // En una fase posterior se conectará con ReciboSalarioRepository
@@ -301,20 +79,36 @@ public class ReportesServiceImpl implements ReportesService {
         return reporte;
     }
 
+    @Override
+    public NominaTendenciaDTO getNominaTendencia(int meses, String sucursal, boolean porSucursal) {
+        return nominaTendencia.calcular(meses, sucursal, porSucursal);
+    }
+
     @Override
     public Map<String, Object> getReporteAusentismo(LocalDate fechaInicio, LocalDate fechaFin) {
         Map<String, Object> reporte = new HashMap<>();
         reporte.put("fechaInicio", fechaInicio);
         reporte.put("fechaFin", fechaFin);
 
-        Long total = asistenciaRepository.countAusenciasGlobal(fechaInicio, fechaFin);
-        reporte.put("totalAusencias", total != null ? total : 0);
-
-        List<Object[]> stats = asistenciaRepository.countByTipoAndRangoFecha(fechaInicio, fechaFin);
+        // Totales del resumen diario: una fila por día del rango en lugar de todas las asistencias
+        Object[] totales = asistenciaResumenDiarioRepository.totalesEnRango(fechaInicio, fechaFin).get(0);
+        long registros = ((Number) totales[0]).longValue();
+        String[] tipos = { "PRESENTE", "TARDANZA", "AUSENTE", "PERMISO", "VACACIONES", "LICENCIA" };
         Map<String, Long> porTipo = new HashMap<>();
-        for (Object[] row : stats) {
-            porTipo.put((String) row[0], (Long) row[1]);
+        long otros = registros;
+        for (int i = 0; i < tipos.length; i++) {
+            long cantidad = ((Number) totales[i + 1]).longValue();
+            if (cantidad > 0) {
+                porTipo.put(tipos[i], cantidad);
+            }
+            otros -= cantidad;
+        }
+        if (otros > 0) {
+            porTipo.put("OTROS", otros);
         }
+
+        reporte.put("totalAusencias", porTipo.getOrDefault("AUSENTE", 0L) + porTipo.getOrDefault("PERMISO", 0L)
+                + porTipo.getOrDefault("LICENCIA", 0L));
         reporte.put("porTipo", porTipo);
 
         return reporte;
@@ -329,7 +123,7 @@ public class ReportesServiceImpl implements ReportesService {
     }
 
     @Override
-    @Cacheable(value = "reporteDemografia")
+    @Cacheable(value = CacheConfig.REPORTE_DEMOGRAFIA, sync = true)
     public Map<String, Object> getReporteDemografia() {
         Map<String, Object> reporte = new HashMap<>();
 
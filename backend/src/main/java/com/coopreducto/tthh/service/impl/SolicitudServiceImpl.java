@@ -3,17 +3,18 @@ package com.coopreducto.tthh.service.impl;
 import com.coopreducto.tthh.dto.SolicitudDTO;
 import com.coopreducto.tthh.entity.Empleado;
 import com.coopreducto.tthh.entity.Solicitud;
+import com.coopreducto.tthh.event.SolicitudModificadaEvent;
 import com.coopreducto.tthh.repository.EmpleadoRepository;
 import com.coopreducto.tthh.repository.SolicitudRepository;
 import com.coopreducto.tthh.service.AuditoriaService;
 import com.coopreducto.tthh.service.SolicitudService;
 import com.coopreducto.tthh.service.WebPushService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.cache.annotation.CacheEvict;
 
 import java.time.LocalDateTime;
 
@@ -27,6 +28,7 @@ public class SolicitudServiceImpl implements SolicitudService {
     private final EmpleadoRepository empleadoRepository;
     private final AuditoriaService auditoriaService;
     private final WebPushService webPushService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -57,7 +59,6 @@ public class SolicitudServiceImpl implements SolicitudService {
     }
 
     @Override
-    @CacheEvict(value = "dashboardAdmin", allEntries = true)
     public SolicitudDTO create(SolicitudDTO solicitudDTO) {
         Empleado empleado = empleadoRepository.findById(solicitudDTO.getEmpleadoId())
                 .orElseThrow(() -> new RuntimeException("Empleado no encontrado"));
@@ -67,6 +68,7 @@ public class SolicitudServiceImpl implements SolicitudService {
         solicitud.setEstado("PENDIENTE");
 
         Solicitud saved = solicitudRepository.save(solicitud);
+        eventPublisher.publishEvent(new SolicitudModificadaEvent(saved.getId()));
 
         auditoriaService.logAccion(
                 com.coopreducto.tthh.util.SecurityUtils.getCurrentUsername(),
@@ -89,7 +91,6 @@ public class SolicitudServiceImpl implements SolicitudService {
     }
 
     @Override
-    @CacheEvict(value = "dashboardAdmin", allEntries = true)
     public SolicitudDTO update(Long id, SolicitudDTO solicitudDTO) {
         Solicitud solicitud = solicitudRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Solicitud no encontrada"));
@@ -104,11 +105,12 @@ public class SolicitudServiceImpl implements SolicitudService {
         solicitud.setPrioridad(solicitudDTO.getPrioridad());
         solicitud.setDatosAdicionales(solicitudDTO.getDatosAdicionales());
 
-        return convertToDTO(solicitudRepository.save(solicitud));
+        Solicitud saved = solicitudRepository.save(solicitud);
+        eventPublisher.publishEvent(new SolicitudModificadaEvent(saved.getId()));
+        return convertToDTO(saved);
     }
 
     @Override
-    @CacheEvict(value = "dashboardAdmin", allEntries = true)
     public SolicitudDTO aprobar(Long id, String respuesta) {
         Solicitud solicitud = solicitudRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Solicitud no encontrada"));
@@ -118,11 +120,12 @@ public class SolicitudServiceImpl implements SolicitudService {
         solicitud.setFechaAprobacion(LocalDateTime.now());
         solicitud.setAprobadoPor(com.coopreducto.tthh.util.SecurityUtils.getCurrentUsername());
 
-        return convertToDTO(solicitudRepository.save(solicitud));
+        Solicitud saved = solicitudRepository.save(solicitud);
+        eventPublisher.publishEvent(new SolicitudModificadaEvent(saved.getId()));
+        return convertToDTO(saved);
     }
 
     @Override
-    @CacheEvict(value = "dashboardAdmin", allEntries = true)
     public SolicitudDTO rechazar(Long id, String respuesta) {
         Solicitud solicitud = solicitudRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Solicitud no encontrada"));
@@ -132,11 +135,12 @@ public class SolicitudServiceImpl implements SolicitudService {
         solicitud.setFechaAprobacion(LocalDateTime.now());
         solicitud.setAprobadoPor(com.coopreducto.tthh.util.SecurityUtils.getCurrentUsername());
 
-        return convertToDTO(solicitudRepository.save(solicitud));
+        Solicitud saved = solicitudRepository.save(solicitud);
+        eventPublisher.publishEvent(new SolicitudModificadaEvent(saved.getId()));
+        return convertToDTO(saved);
     }
 
     @Override
-    @CacheEvict(value = "dashboardAdmin", allEntries = true)
     public void delete(Long id) {
         Solicitud solicitud = solicitudRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Solicitud no encontrada"));
@@ -146,6 +150,7 @@ public class SolicitudServiceImpl implements SolicitudService {
         }
 
         solicitudRepository.delete(solicitud);
+        eventPublisher.publishEvent(new SolicitudModificadaEvent(id));
     }
 
     @Override
@@ -0,0 +1,126 @@
+package com.coopreducto.tthh.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Monto en guaraníes de punto fijo respaldado por un {@code long}.
+ *
+ * El guaraní no tiene centavos, pero las columnas de montos son DECIMAL(10,2)
+ * y el cálculo de nómina redondea los valores intermedios (salario diario,
+ * por hora, por minuto) a 2 decimales. Por eso se guardan centésimos: así los
+ * resultados son idénticos a la cadena de {@link BigDecimal} que reemplaza.
+ *
+ * Reglas de redondeo:
+ * <ul>
+ * <li>Suma, resta y multiplicación por enteros son exactas (con control de
+ * desbordamiento).</li>
+ * <li>{@link #dividir(long)} y {@link #porcentaje(long, long)} redondean a
+ * centésimos con HALF_UP (mitad se aleja de cero), igual que
+ * {@code BigDecimal.divide(d, 2, RoundingMode.HALF_UP)}.</li>
+ * <li>La conversión desde {@link BigDecimal} redondea a 2 decimales con
+ * HALF_UP, la misma escala de las columnas.</li>
+ * </ul>
+ */
+public final class Guaranies implements Comparable<Guaranies> {
+
+    public static final Guaranies CERO = new Guaranies(0L);
+
+    private static final long CENTESIMOS = 100L;
+
+    private final long centesimos;
+
+    private Guaranies(long centesimos) {
+        this.centesimos = centesimos;
+    }
+
+    public static Guaranies of(long guaranies) {
+        return new Guaranies(Math.multiplyExact(guaranies, CENTESIMOS));
+    }
+
+    public static Guaranies ofCentesimos(long centesimos) {
+        return new Guaranies(centesimos);
+    }
+
+    public static Guaranies of(BigDecimal monto) {
+        if (monto == null) {
+            return CERO;
+        }
+        return new Guaranies(monto.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public Guaranies sumar(Guaranies otro) {
+        return new Guaranies(Math.addExact(centesimos, otro.centesimos));
+    }
+
+    public Guaranies restar(Guaranies otro) {
+        return new Guaranies(Math.subtractExact(centesimos, otro.centesimos));
+    }
+
+    public Guaranies multiplicar(long factor) {
+        return new Guaranies(Math.multiplyExact(centesimos, factor));
+    }
+
+    public Guaranies dividir(long divisor) {
+        return new Guaranies(dividirHalfUp(centesimos, divisor));
+    }
+
+    /**
+     * Multiplica por {@code numerador / denominador} (p. ej. 9/100 para el
+     * 9% de IPS) redondeando el resultado a centésimos.
+     */
+    public Guaranies porcentaje(long numerador, long denominador) {
+        return new Guaranies(dividirHalfUp(Math.multiplyExact(centesimos, numerador), denominador));
+    }
+
+    /** El mayor entre este monto y cero. */
+    public Guaranies noNegativo() {
+        return centesimos < 0 ? CERO : this;
+    }
+
+    public boolean esPositivo() {
+        return centesimos > 0;
+    }
+
+    public long getCentesimos() {
+        return centesimos;
+    }
+
+    /** Conversión para las entidades JPA y DTOs (escala 2). */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(centesimos, 2);
+    }
+
+    private static long dividirHalfUp(long dividendo, long divisor) {
+        if (divisor == 0) {
+            throw new ArithmeticException("División por cero");
+        }
+        long cociente = dividendo / divisor;
+        long resto = dividendo % divisor;
+        // Mitad o más del divisor: se aleja de cero según el signo del resultado
+        if (Math.abs(resto) * 2 >= Math.abs(divisor)) {
+            cociente += (dividendo < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return cociente;
+    }
+
+    @Override
+    public int compareTo(Guaranies otro) {
+        return Long.compare(centesimos, otro.centesimos);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Guaranies otro && otro.centesimos == centesimos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centesimos);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,49 @@
+-- Índices compuestos para las consultas mensuales de asistencia
+-- Fecha: 2026-10-17
+-- Descripción: Las consultas mensuales filtran por rango de fecha
+--              (fecha >= inicio AND fecha < inicio + 1 mes), por empleado o por tipo.
+--              Hibernate (ddl-auto: update) crea uk_empleado_fecha e
+--              idx_asistencias_fecha_tipo en bases nuevas; este script es para
+--              bases existentes.
+-- Base de Datos: MySQL
+
+-- MySQL no soporta CREATE INDEX IF NOT EXISTS: se consulta information_schema.
+
+-- Un registro por empleado y día (uk_empleado_fecha, como en schema_completo.sql).
+-- La escritura de marcaciones hace upsert sobre esta clave. Si la base tiene
+-- registros duplicados, el ALTER falla: revisarlos antes con
+--   SELECT empleado_id, fecha, COUNT(*) FROM asistencias
+--   GROUP BY empleado_id, fecha HAVING COUNT(*) > 1;
+SET @existe = (SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'asistencias'
+                 AND index_name = 'uk_empleado_fecha');
+SET @sql = IF(@existe = 0,
+              'ALTER TABLE asistencias ADD UNIQUE KEY uk_empleado_fecha (empleado_id, fecha)',
+              'SELECT ''uk_empleado_fecha ya existe''');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Índice no único de versiones anteriores de este script (mismas columnas)
+SET @existe = (SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'asistencias'
+                 AND index_name = 'idx_asistencias_empleado_fecha');
+SET @sql = IF(@existe > 0,
+              'DROP INDEX idx_asistencias_empleado_fecha ON asistencias',
+              'SELECT ''idx_asistencias_empleado_fecha no existe''');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @existe = (SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'asistencias'
+                 AND index_name = 'idx_asistencias_fecha_tipo');
+SET @sql = IF(@existe = 0,
+              'CREATE INDEX idx_asistencias_fecha_tipo ON asistencias (fecha, tipo)',
+              'SELECT ''idx_asistencias_fecha_tipo ya existe''');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Verificar (opcional)
+-- SHOW INDEX FROM asistencias;
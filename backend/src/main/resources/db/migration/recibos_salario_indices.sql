@@ -0,0 +1,28 @@
+-- Un recibo por empleado y periodo
+-- Fecha: 2026-10-17
+-- Descripción: La generación de nómina, los jobs reanudados y la confirmación
+--              de simulaciones insertan recibos con JDBC batch y omiten los
+--              que ya existen (uk_empleado_anio_mes, como en schema_completo.sql).
+--              Hibernate (ddl-auto: update) crea la clave en bases nuevas; este
+--              script es para bases existentes.
+-- Base de Datos: MySQL
+
+-- MySQL no soporta CREATE INDEX IF NOT EXISTS: se consulta information_schema.
+
+-- Si la base tiene recibos duplicados, el ALTER falla: revisarlos antes con
+--   SELECT empleado_id, anio, mes, COUNT(*) FROM recibos_salario
+--   GROUP BY empleado_id, anio, mes HAVING COUNT(*) > 1;
+-- y, tras verificar los montos, conservar uno por periodo (y recalcular
+-- payroll_runs y nomina_serie_mensual del periodo).
+SET @existe = (SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'recibos_salario'
+                 AND index_name = 'uk_empleado_anio_mes');
+SET @sql = IF(@existe = 0,
+              'ALTER TABLE recibos_salario ADD UNIQUE KEY uk_empleado_anio_mes (empleado_id, anio, mes)',
+              'SELECT ''uk_empleado_anio_mes ya existe''');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Verificar (opcional)
+-- SHOW INDEX FROM recibos_salario;
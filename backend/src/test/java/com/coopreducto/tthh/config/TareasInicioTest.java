@@ -0,0 +1,69 @@
+package com.coopreducto.tthh.config;
+
+import com.coopreducto.tthh.service.impl.AsistenciaServiceImpl;
+import com.coopreducto.tthh.service.impl.NominaJobServiceImpl;
+import com.coopreducto.tthh.service.impl.PresenciaDiaria;
+import com.coopreducto.tthh.service.impl.ReciboSalarioServiceImpl;
+import com.coopreducto.tthh.service.impl.ReporteJobServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class TareasInicioTest {
+
+    private final AsistenciaServiceImpl asistenciaService = mock(AsistenciaServiceImpl.class);
+    private final ReciboSalarioServiceImpl reciboSalarioService = mock(ReciboSalarioServiceImpl.class);
+    private final PresenciaDiaria presenciaDiaria = mock(PresenciaDiaria.class);
+    private final NominaJobServiceImpl nominaJobService = mock(NominaJobServiceImpl.class);
+    private final ReporteJobServiceImpl reporteJobService = mock(ReporteJobServiceImpl.class);
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withBean(AsistenciaServiceImpl.class, () -> asistenciaService)
+            .withBean(ReciboSalarioServiceImpl.class, () -> reciboSalarioService)
+            .withBean(PresenciaDiaria.class, () -> presenciaDiaria)
+            .withBean(NominaJobServiceImpl.class, () -> nominaJobService)
+            .withBean(ReporteJobServiceImpl.class, () -> reporteJobService)
+            .withUserConfiguration(TareasInicio.class);
+
+    @Test
+    void servidorReanudaJobsYCargaResumenesAlArrancar() {
+        runner.run(ctx -> {
+            publicarListo(ctx);
+
+            verify(asistenciaService).inicializarResumenes();
+            verify(reciboSalarioService).inicializarResumenNomina();
+            verify(presenciaDiaria).iniciar();
+            verify(nominaJobService).reanudarPendientes();
+            verify(reporteJobService).reanudarPendientes();
+        });
+    }
+
+    @Test
+    void importacionPorLineaDeComandosNoReanudaJobs() {
+        String[] propiedades = MarcacionImportRunner.PROPIEDADES.entrySet().stream()
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+
+        runner.withPropertyValues(propiedades).run(ctx -> {
+            assertThat(ctx).doesNotHaveBean(TareasInicio.class);
+
+            publicarListo(ctx);
+
+            verifyNoInteractions(asistenciaService, reciboSalarioService, presenciaDiaria,
+                    nominaJobService, reporteJobService);
+        });
+    }
+
+    private static void publicarListo(ConfigurableApplicationContext ctx) {
+        ctx.publishEvent(new ApplicationReadyEvent(new SpringApplication(), new String[0], ctx, Duration.ZERO));
+    }
+}
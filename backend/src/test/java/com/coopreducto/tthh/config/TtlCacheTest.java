@@ -0,0 +1,52 @@
+package com.coopreducto.tthh.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TtlCacheTest {
+
+    private final TtlCache cache = new TtlCache("prueba", Duration.ofMinutes(10), 10);
+
+    @Test
+    void cargaGuardaElValor() {
+        assertThat(cache.get("clave", () -> "valor")).isEqualTo("valor");
+
+        assertThat(cache.get("clave", () -> "otro")).isEqualTo("valor");
+        assertThat(cache.estadisticas().getEscrituras()).isEqualTo(1);
+    }
+
+    @Test
+    void cargaCruzadaConClearNoSeGuarda() {
+        String valor = cache.get("clave", () -> {
+            // Llega la invalidación AFTER_COMMIT mientras se consulta
+            cache.clear();
+            return "anterior";
+        });
+
+        assertThat(valor).isEqualTo("anterior");
+        assertThat(cache.get("clave")).isNull();
+        assertThat(cache.get("clave", () -> "actual")).isEqualTo("actual");
+        assertThat(cache.get("clave").get()).isEqualTo("actual");
+    }
+
+    @Test
+    void cargaCruzadaConEvictNoSeGuarda() {
+        cache.get("clave", () -> {
+            cache.evict("otra");
+            return "anterior";
+        });
+
+        assertThat(cache.get("clave")).isNull();
+    }
+
+    @Test
+    void putExplicitoSeGuardaSiempre() {
+        cache.clear();
+        cache.put("clave", "valor");
+
+        assertThat(cache.get("clave").get()).isEqualTo("valor");
+    }
+}
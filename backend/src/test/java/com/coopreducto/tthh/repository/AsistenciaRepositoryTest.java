@@ -0,0 +1,47 @@
+package com.coopreducto.tthh.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Las consultas mensuales delegan en rangos semiabiertos [primer día del
+ * mes, primer día del mes siguiente).
+ */
+class AsistenciaRepositoryTest {
+
+    private final AsistenciaRepository repository = mock(AsistenciaRepository.class, CALLS_REAL_METHODS);
+
+    @Test
+    void conteoMensualPorEmpleadoUsaElMesCompleto() {
+        repository.countTardanzasMensual(5L, 6, 2024);
+
+        verify(repository).countByEmpleadoAndTipoEnRango(5L, "TARDANZA", LocalDate.of(2024, 6, 1),
+                LocalDate.of(2024, 7, 1));
+    }
+
+    @Test
+    void diciembreTerminaEnEneroDelAnioSiguiente() {
+        repository.countAusenciasGlobalMensual(12, 2024);
+        repository.sumMinutosRetrasoMensual(5L, 12, 2024);
+
+        verify(repository).countByTipoEnRango("AUSENTE", LocalDate.of(2024, 12, 1), LocalDate.of(2025, 1, 1));
+        verify(repository).sumMinutosRetrasoEnRango(5L, LocalDate.of(2024, 12, 1), LocalDate.of(2025, 1, 1));
+    }
+
+    @Test
+    void febreroBisiestoIncluyeEl29() {
+        Pageable pagina = PageRequest.of(0, 10);
+        repository.topEmpleadosTardanzasMensual(2, 2024, pagina);
+
+        // El 29/02 queda dentro: el límite es el 01/03 exclusivo
+        verify(repository).topEmpleadosPorTipoEnRango("TARDANZA", LocalDate.of(2024, 2, 1),
+                LocalDate.of(2024, 3, 1), pagina);
+    }
+}
@@ -0,0 +1,151 @@
+package com.coopreducto.tthh.repository;
+
+import com.coopreducto.tthh.entity.Asistencia;
+import com.coopreducto.tthh.repository.AsistenciaResumenJdbcRepository.Delta;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class AsistenciaResumenJdbcRepositoryTest {
+
+    private static final LocalDate DIA_1 = LocalDate.of(2024, 6, 3);
+    private static final LocalDate DIA_2 = LocalDate.of(2024, 6, 4);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AsistenciaResumenJdbcRepository repository = new AsistenciaResumenJdbcRepository(jdbcTemplate);
+
+    @Test
+    void altasSumanPorTipoJustificacionYMinutos() throws SQLException {
+        repository.sumar(List.of(
+                new Delta(1L, DIA_1, "PRESENTE", 0, false, 1),
+                new Delta(1L, DIA_2, "TARDANZA", 15, true, 1)));
+
+        List<Map<Integer, Object>> mensual = filas("asistencia_resumen_mensual");
+        assertThat(mensual).hasSize(1);
+        // empleado, anio, mes, registros, presentes, tardanzas, ausencias, permisos, vacaciones,
+        // licencias, justificadas, minutos
+        assertThat(valores(mensual.get(0), 1, 12)).containsExactly(1L, 2024, 6, 2L, 1L, 1L, 0L, 0L, 0L, 0L, 1L, 15L);
+
+        List<Map<Integer, Object>> diario = filas("asistencia_resumen_diario");
+        assertThat(diario).hasSize(2);
+        // fecha, registros, presentes, tardanzas, ..., justificadas, minutos
+        assertThat(valores(diario.get(0), 1, 10))
+                .containsExactly(Date.valueOf(DIA_1), 1L, 1L, 0L, 0L, 0L, 0L, 0L, 0L, 0L);
+        assertThat(valores(diario.get(1), 1, 10))
+                .containsExactly(Date.valueOf(DIA_2), 1L, 0L, 1L, 0L, 0L, 0L, 0L, 1L, 15L);
+    }
+
+    @Test
+    void cambioDeTipoRestaElAnteriorYSumaElNuevo() throws SQLException {
+        repository.sumar(List.of(
+                new Delta(1L, DIA_1, "TARDANZA", 10, false, -1),
+                new Delta(1L, DIA_1, "PRESENTE", 0, false, 1)));
+
+        List<Map<Integer, Object>> mensual = filas("asistencia_resumen_mensual");
+        assertThat(valores(mensual.get(0), 4, 12)).containsExactly(0L, 1L, -1L, 0L, 0L, 0L, 0L, 0L, -10L);
+    }
+
+    @Test
+    void diferenciasQueSeAnulanNoEscriben() {
+        repository.sumar(Arrays.asList(
+                new Delta(1L, DIA_1, "AUSENTE", 0, true, -1),
+                null,
+                new Delta(1L, DIA_1, "AUSENTE", 0, true, 1)));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void tiposSinContadorSoloSumanRegistros() throws SQLException {
+        repository.sumar(List.of(new Delta(1L, DIA_1, "FERIADO", 0, false, 1)));
+
+        assertThat(valores(filas("asistencia_resumen_mensual").get(0), 4, 12))
+                .containsExactly(1L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L);
+    }
+
+    @Test
+    void filasMensualesOrdenadasPorEmpleadoAnioYMes() throws SQLException {
+        repository.sumar(List.of(
+                new Delta(2L, DIA_1, "PRESENTE", 0, false, 1),
+                new Delta(1L, LocalDate.of(2024, 7, 1), "PRESENTE", 0, false, 1),
+                new Delta(1L, DIA_1, "PRESENTE", 0, false, 1)));
+
+        List<Map<Integer, Object>> mensual = filas("asistencia_resumen_mensual");
+        assertThat(mensual).extracting(f -> List.of(f.get(1), f.get(3)))
+                .containsExactly(List.of(1L, 6), List.of(1L, 7), List.of(2L, 6));
+    }
+
+    @Test
+    void deltaDeRegistroSinEmpleadoEsNull() {
+        Asistencia asistencia = new Asistencia();
+        asistencia.setFecha(DIA_1);
+        asistencia.setTipo("PRESENTE");
+
+        assertThat(Delta.de(asistencia, 1)).isNull();
+    }
+
+    /**
+     * Parámetros (posición -> valor) de cada fila enviada en batch a la
+     * tabla indicada, en el orden de envío.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private List<Map<Integer, Object>> filas(String tabla) throws SQLException {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Collection> lotes = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter> setters =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate, atLeast(1)).batchUpdate(sql.capture(), lotes.capture(), anyInt(), setters.capture());
+
+        List<Map<Integer, Object>> filas = new ArrayList<>();
+        for (int i = 0; i < sql.getAllValues().size(); i++) {
+            if (!sql.getAllValues().get(i).contains(tabla + " ")) {
+                continue;
+            }
+            for (Object fila : lotes.getAllValues().get(i)) {
+                Map<Integer, Object> valores = new HashMap<>();
+                setters.getAllValues().get(i).setValues(registrador(valores), fila);
+                filas.add(valores);
+            }
+        }
+        return filas;
+    }
+
+    private static PreparedStatement registrador(Map<Integer, Object> valores) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, (proxy, metodo, args) -> {
+                    if (metodo.getName().startsWith("set") && args != null && args.length == 2
+                            && args[0] instanceof Integer posicion) {
+                        valores.put(posicion, args[1]);
+                    }
+                    return null;
+                });
+    }
+
+    private static List<Object> valores(Map<Integer, Object> fila, int desde, int hasta) {
+        List<Object> valores = new ArrayList<>();
+        for (int i = desde; i <= hasta; i++) {
+            valores.add(fila.get(i));
+        }
+        return valores;
+    }
+}
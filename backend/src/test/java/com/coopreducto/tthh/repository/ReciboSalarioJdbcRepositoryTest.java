@@ -0,0 +1,75 @@
+package com.coopreducto.tthh.repository;
+
+import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.entity.ReciboSalario;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ReciboSalarioJdbcRepositoryTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final NamedParameterJdbcTemplate namedJdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+    private final ReciboSalarioJdbcRepository repository =
+            new ReciboSalarioJdbcRepository(jdbcTemplate, namedJdbcTemplate);
+
+    @Test
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    void omiteEmpleadosQueYaTienenReciboDelPeriodo() {
+        when(namedJdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of(1L));
+        ReciboSalario existente = recibo(1L);
+        ReciboSalario nuevo = recibo(2L);
+
+        List<ReciboSalario> insertados = repository.insertarLote(List.of(existente, nuevo));
+
+        assertThat(insertados).containsExactly(nuevo);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Collection> lote = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), lote.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(lote.getValue()).containsExactly(nuevo);
+        assertThat(sql.getValue()).contains("ON DUPLICATE KEY UPDATE id = id");
+    }
+
+    @Test
+    void loteSinRecibosNuevosNoEscribe() {
+        when(namedJdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of(1L));
+
+        assertThat(repository.insertarLote(List.of(recibo(1L)))).isEmpty();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void loteVacioNoConsulta() {
+        assertThat(repository.insertarLote(List.of())).isEmpty();
+        verifyNoInteractions(jdbcTemplate, namedJdbcTemplate);
+    }
+
+    private static ReciboSalario recibo(Long empleadoId) {
+        Empleado empleado = new Empleado();
+        empleado.setId(empleadoId);
+        ReciboSalario recibo = new ReciboSalario();
+        recibo.setEmpleado(empleado);
+        recibo.setAnio(2024);
+        recibo.setMes(6);
+        return recibo;
+    }
+}
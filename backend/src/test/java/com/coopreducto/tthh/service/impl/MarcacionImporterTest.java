@@ -0,0 +1,136 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.dto.ImportacionMarcacionesDTO;
+import com.coopreducto.tthh.repository.EmpleadoRepository;
+import com.coopreducto.tthh.service.impl.MarcacionEscritor.Clave;
+import com.coopreducto.tthh.service.impl.MarcacionEscritor.Pendiente;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MarcacionImporterTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 3, 1);
+
+    private final Map<Clave, Pendiente> escritas = new HashMap<>();
+    private MarcacionEscritor marcacionEscritor;
+    private MarcacionImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        EmpleadoRepository empleadoRepository = mock(EmpleadoRepository.class);
+        when(empleadoRepository.findIdDocumentoYHorario()).thenReturn(List.<Object[]>of(
+                new Object[] { 1L, "4.328.485", LocalTime.of(8, 0) },
+                new Object[] { 2L, "1234567", null }));
+
+        marcacionEscritor = mock(MarcacionEscritor.class);
+        when(marcacionEscritor.escribir(anyMap(), eq("IMPORTACION"))).thenAnswer(inv -> {
+            Map<Clave, Pendiente> lote = inv.getArgument(0);
+            escritas.putAll(lote);
+            return new MarcacionEscritor.Resultado(lote.size(), 0);
+        });
+
+        importer = new MarcacionImporter(empleadoRepository, marcacionEscritor,
+                mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void csvConFechaIsoAgrupaEntradaYSalidaDelDia() {
+        ImportacionMarcacionesDTO resultado = importar(
+                "documento,fecha_hora\n"
+                        + "4328485,2025-03-01 07:58:12\n"
+                        + "4328485;2025-03-01 17:05:40\n"
+                        + "\"1234567\",\"2025-03-01 08:10\"\n");
+
+        assertThat(resultado.getLineas()).isEqualTo(4);
+        assertThat(resultado.getAceptadas()).isEqualTo(3);
+        assertThat(resultado.getRechazadas()).isZero();
+        assertThat(resultado.getDiasEmpleado()).isEqualTo(2);
+        assertThat(escritas.get(new Clave(1L, DIA))).isEqualTo(
+                new Pendiente(LocalDateTime.of(2025, 3, 1, 7, 58, 12), LocalDateTime.of(2025, 3, 1, 17, 5, 40)));
+        // Sin segundos
+        assertThat(escritas.get(new Clave(2L, DIA)).getPrimera()).isEqualTo(LocalDateTime.of(2025, 3, 1, 8, 10));
+    }
+
+    @Test
+    void exportacionDatDelRelojConFechaDiaMesAnio() {
+        ImportacionMarcacionesDTO resultado = importar(
+                "   4328485\t01/03/2025 07:58:12\t1\t0\r\n"
+                        + "   1234567\t01-03-2025T08:01\t1\t0\r\n");
+
+        assertThat(resultado.getAceptadas()).isEqualTo(2);
+        assertThat(escritas.get(new Clave(1L, DIA)).getPrimera()).isEqualTo(LocalDateTime.of(2025, 3, 1, 7, 58, 12));
+        assertThat(escritas.get(new Clave(2L, DIA)).getPrimera()).isEqualTo(LocalDateTime.of(2025, 3, 1, 8, 1));
+    }
+
+    @Test
+    void rechazaFechasInvalidasConSuNumeroDeLinea() {
+        ImportacionMarcacionesDTO resultado = importar(
+                "4328485,2025-02-30 08:00\n"   // Día inexistente
+                        + "4328485,01/03/25 08:00\n" // Año de dos dígitos
+                        + "4328485,2025-03-01 8\n"   // Sin minutos
+                        + "4328485,2025-03-01\n"     // Sin hora
+                        + "9999999,2025-03-01 08:00\n"
+                        + "abc,2025-03-01 08:00\n");
+
+        assertThat(resultado.getAceptadas()).isZero();
+        assertThat(resultado.getRechazadas()).isEqualTo(6);
+        assertThat(resultado.getDetalleRechazos()).containsExactly(
+                "línea 1: fecha/hora inválida",
+                "línea 2: fecha/hora inválida",
+                "línea 3: fecha/hora inválida",
+                "línea 4: fecha/hora inválida",
+                "línea 5: documento no registrado: 9999999",
+                "línea 6: documento inválido");
+        assertThat(escritas).isEmpty();
+    }
+
+    @Test
+    void lineaDemasiadoLargaCuentaComoLinea() {
+        ImportacionMarcacionesDTO resultado = importar(
+                "documento,fecha_hora\n"
+                        + "x".repeat(100_000) + "\n"
+                        + "abc\n"
+                        + "4328485,2025-03-01 07:58:12\n");
+
+        assertThat(resultado.getLineas()).isEqualTo(4);
+        assertThat(resultado.getAceptadas()).isEqualTo(1);
+        assertThat(resultado.getDetalleRechazos()).containsExactly(
+                "línea 2: línea demasiado larga",
+                "línea 3: documento inválido");
+    }
+
+    @Test
+    void loteAbortadoPorDeadlockSeReintenta() {
+        when(marcacionEscritor.escribir(anyMap(), eq("IMPORTACION")))
+                .thenThrow(new DeadlockLoserDataAccessException("deadlock", null))
+                .thenAnswer(inv -> new MarcacionEscritor.Resultado(((Map<?, ?>) inv.getArgument(0)).size(), 0));
+
+        ImportacionMarcacionesDTO resultado = importar("4328485,2025-03-01 07:58:12\n");
+
+        assertThat(resultado.getRegistrosNuevos()).isEqualTo(1);
+        verify(marcacionEscritor, times(2)).escribir(anyMap(), eq("IMPORTACION"));
+    }
+
+    private ImportacionMarcacionesDTO importar(String contenido) {
+        return importer.importar(new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8)), "prueba");
+    }
+}
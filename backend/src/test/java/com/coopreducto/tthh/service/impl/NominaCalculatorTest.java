@@ -0,0 +1,91 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.entity.ReciboSalario;
+import com.coopreducto.tthh.service.impl.NominaCalculator.ResumenAsistencia;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regresión: el cálculo con Guaranies debe dar exactamente los mismos montos
+ * que la cadena de BigDecimal que reemplazó.
+ */
+class NominaCalculatorTest {
+
+    private static final long[] SALARIOS = {
+            0L, 1L, 29L, 2_550_307L, 2_798_309L, 3_000_000L, 4_500_001L, 7_777_777L, 15_000_000L, 99_999_999L };
+
+    private final NominaCalculator calculator = new NominaCalculator();
+
+    @Test
+    void coincideConLaCadenaBigDecimalEnSalariosRepresentativos() {
+        long[][] asistencias = { { 0, 0, 0 }, { 1, 0, 0 }, { 0, 3, 47 }, { 2, 5, 181 }, { 30, 0, 0 }, { 31, 22, 9_999 } };
+        for (long salario : SALARIOS) {
+            for (long[] a : asistencias) {
+                verificar(salario, new ResumenAsistencia(a[0], a[1], a[2]));
+            }
+        }
+    }
+
+    @Test
+    void coincideConLaCadenaBigDecimalEnCasosAleatorios() {
+        Random random = new Random(20240601L);
+        for (int i = 0; i < 5_000; i++) {
+            long salario = random.nextInt(30_000_000);
+            verificar(salario, new ResumenAsistencia(random.nextInt(8), random.nextInt(20), random.nextInt(600)));
+        }
+    }
+
+    @Test
+    void sinResumenNoDescuentaAsistencia() {
+        ReciboSalario recibo = calculator.calcular(empleado(3_000_000L), null, 2024, 6);
+        assertThat(recibo.getOtrosDescuentos()).isEqualByComparingTo("0");
+        assertThat(recibo.getSalarioNeto()).isEqualByComparingTo("2730000");
+        assertThat(recibo.getObservaciones()).isEmpty();
+    }
+
+    @Test
+    void elNetoNuncaEsNegativo() {
+        ReciboSalario recibo = calculator.calcular(empleado(1_000_000L), new ResumenAsistencia(40, 0, 0), 2024, 2);
+        assertThat(recibo.getSalarioNeto()).isEqualByComparingTo("0");
+        assertThat(recibo.getObservaciones()).isEqualTo("Ausencias: 40. ");
+    }
+
+    private void verificar(long salario, ResumenAsistencia resumen) {
+        ReciboSalario actual = calculator.calcular(empleado(salario), resumen, 2024, 6);
+        BigDecimal[] esperado = cadenaAnterior(salario, resumen);
+        String caso = "salario " + salario + ", " + resumen;
+        assertThat(actual.getSalarioBruto()).as(caso).isEqualByComparingTo(esperado[0]);
+        assertThat(actual.getDescuentosIps()).as(caso).isEqualByComparingTo(esperado[1]);
+        assertThat(actual.getOtrosDescuentos()).as(caso).isEqualByComparingTo(esperado[2]);
+        assertThat(actual.getSalarioNeto()).as(caso).isEqualByComparingTo(esperado[3]);
+    }
+
+    /** Cálculo original con BigDecimal: [bruto, IPS, otros descuentos, neto]. */
+    private static BigDecimal[] cadenaAnterior(long salario, ResumenAsistencia resumen) {
+        BigDecimal salarioBase = BigDecimal.valueOf(salario);
+        BigDecimal descuentoIps = salarioBase.multiply(new BigDecimal("0.09"));
+        BigDecimal salarioDiario = salarioBase.divide(new BigDecimal("30"), 2, RoundingMode.HALF_UP);
+        BigDecimal descuentoAusencias = salarioDiario.multiply(BigDecimal.valueOf(resumen.getAusencias()));
+        BigDecimal salarioHora = salarioDiario.divide(new BigDecimal("8"), 2, RoundingMode.HALF_UP);
+        BigDecimal salarioMinuto = salarioHora.divide(new BigDecimal("60"), 2, RoundingMode.HALF_UP);
+        BigDecimal descuentoTardanzas = salarioMinuto.multiply(BigDecimal.valueOf(resumen.getMinutosRetraso()));
+        BigDecimal salarioNeto = salarioBase.subtract(descuentoIps.add(descuentoAusencias).add(descuentoTardanzas));
+        if (salarioNeto.compareTo(BigDecimal.ZERO) < 0) {
+            salarioNeto = BigDecimal.ZERO;
+        }
+        return new BigDecimal[] { salarioBase, descuentoIps, descuentoAusencias.add(descuentoTardanzas), salarioNeto };
+    }
+
+    private static Empleado empleado(long salario) {
+        Empleado empleado = new Empleado();
+        empleado.setId(1L);
+        empleado.setSalario(BigDecimal.valueOf(salario));
+        return empleado;
+    }
+}
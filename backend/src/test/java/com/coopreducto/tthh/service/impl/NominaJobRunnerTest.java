@@ -0,0 +1,81 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.entity.NominaJob;
+import com.coopreducto.tthh.repository.NominaJobCheckpointRepository;
+import com.coopreducto.tthh.repository.NominaJobRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * El job solo se ejecuta si la instancia lo reclama en la base, y se
+ * detiene si otra ejecución se lo quita.
+ */
+class NominaJobRunnerTest {
+
+    private static final Long JOB_ID = 7L;
+
+    private final NominaJobRepository jobRepository = mock(NominaJobRepository.class);
+    private final NominaEngine nominaEngine = mock(NominaEngine.class);
+    private final NominaJobRunner runner = new NominaJobRunner(jobRepository,
+            mock(NominaJobCheckpointRepository.class), nominaEngine);
+
+    @Test
+    void jobReclamadoPorOtraEjecucionNoSeEjecuta() {
+        when(jobRepository.reclamar(eq(JOB_ID), anyString(), any(), any())).thenReturn(0);
+
+        runner.ejecutar(JOB_ID);
+
+        verifyNoInteractions(nominaEngine);
+        verify(jobRepository, never()).finalizar(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void jobReclamadoSeFinalizaConSuEjecutor() {
+        reclamado();
+        when(nominaEngine.generar(eq(2024), eq(6), any())).thenReturn(new NominaEngine.ResultadoNomina());
+
+        runner.ejecutar(JOB_ID);
+
+        verify(jobRepository).finalizar(eq(JOB_ID), anyString(), eq(NominaJob.COMPLETADO), isNull(), any());
+    }
+
+    @Test
+    void perderElReclamoDetieneLaCorrida() {
+        reclamado();
+        when(jobRepository.renovarLatido(eq(JOB_ID), anyString(), any())).thenReturn(0);
+        boolean[] cancelado = new boolean[1];
+        when(nominaEngine.generar(eq(2024), eq(6), any())).thenAnswer(inv -> {
+            cancelado[0] = inv.<NominaEngine.Seguimiento>getArgument(2).cancelado();
+            return new NominaEngine.ResultadoNomina();
+        });
+
+        runner.ejecutar(JOB_ID);
+
+        assertThat(cancelado[0]).isTrue();
+        verify(jobRepository, never()).isCancelacionSolicitada(any());
+    }
+
+    private void reclamado() {
+        when(jobRepository.reclamar(eq(JOB_ID), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(NominaJob.builder()
+                .id(JOB_ID)
+                .anio(2024)
+                .mes(6)
+                .estado(NominaJob.EN_PROCESO)
+                .build()));
+    }
+}
@@ -0,0 +1,109 @@
+package com.coopreducto.tthh.service.impl;
+
+import com.coopreducto.tthh.entity.Empleado;
+import com.coopreducto.tthh.entity.ReciboComision;
+import com.coopreducto.tthh.entity.ReciboSalario;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReciboPdfRendererTest {
+
+    private final ReciboPdfRenderer renderer = new ReciboPdfRenderer();
+
+    @Test
+    void reciboDeSalarioMuestraEmpleadoPeriodoYFechaDelRecibo() throws IOException {
+        String texto = texto(renderer.renderizar(reciboSalario(1L, "Ana")));
+
+        assertThat(texto).contains("Cooperativa Reducto Ltda", "Obs.: Salario Junio 2024", "Gomez, Ana",
+                "Analista");
+        // Fecha y hora de la última modificación, no del momento del render
+        assertThat(texto).contains("Fecha : 15/06/24", "Hora : 10:20:30");
+    }
+
+    @Test
+    void reciboDeComisionMuestraEmpleadoYPeriodo() throws IOException {
+        ReciboComision comision = new ReciboComision();
+        comision.setId(7L);
+        comision.setEmpleado(empleado(1L, "Ana"));
+        comision.setAnio(2024);
+        comision.setMes(6);
+        comision.setFechaPago(LocalDate.of(2024, 6, 28));
+        comision.setProduccionMensual(new BigDecimal("150000000"));
+        comision.setMontoComision(new BigDecimal("1500000"));
+        comision.setMetaAlcanzadaPorcentaje(new BigDecimal("105.5"));
+
+        String texto = texto(renderer.renderizar(comision));
+
+        assertThat(texto).contains("Cooperativa Reducto Ltda", "Periodo: 6/2024", "Documento: 4328485");
+    }
+
+    @Test
+    void estilosCompartidosSonSegurosEntreHilos() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> textos = new ArrayList<>();
+            for (long i = 1; i <= 40; i++) {
+                ReciboSalario recibo = reciboSalario(i, "Empleado" + i);
+                textos.add(executor.submit(() -> texto(renderer.renderizar(recibo))));
+            }
+            for (int i = 0; i < textos.size(); i++) {
+                assertThat(textos.get(i).get()).contains("Gomez, Empleado" + (i + 1), "Hora : 10:20:30");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String texto(byte[] pdf) throws IOException {
+        assertThat(new String(pdf, 0, 5)).isEqualTo("%PDF-");
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            return new PdfTextExtractor(reader).getTextFromPage(1);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static ReciboSalario reciboSalario(Long id, String nombres) {
+        ReciboSalario recibo = new ReciboSalario();
+        recibo.setId(id);
+        recibo.setEmpleado(empleado(id, nombres));
+        recibo.setAnio(2024);
+        recibo.setMes(6);
+        recibo.setFechaPago(LocalDate.of(2024, 6, 28));
+        recibo.setSalarioBruto(new BigDecimal("3000000"));
+        recibo.setDescuentosIps(new BigDecimal("270000"));
+        recibo.setDescuentosJubilacion(BigDecimal.ZERO);
+        recibo.setOtrosDescuentos(new BigDecimal("100000"));
+        recibo.setBonificaciones(BigDecimal.ZERO);
+        recibo.setSalarioNeto(new BigDecimal("2630000"));
+        recibo.setEstado("GENERADO");
+        recibo.setCreatedAt(LocalDateTime.of(2024, 6, 1, 8, 0));
+        recibo.setUpdatedAt(LocalDateTime.of(2024, 6, 15, 10, 20, 30));
+        return recibo;
+    }
+
+    private static Empleado empleado(Long id, String nombres) {
+        Empleado empleado = new Empleado();
+        empleado.setId(id);
+        empleado.setNombres(nombres);
+        empleado.setApellidos("Gomez");
+        empleado.setNumeroDocumento("4328485");
+        empleado.setNumeroSocio("S-" + id);
+        empleado.setCargo("Analista");
+        return empleado;
+    }
+}
@@ -0,0 +1,96 @@
+package com.coopreducto.tthh.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GuaraniesTest {
+
+    @Test
+    void conversionDesdeYHaciaBigDecimal() {
+        assertThat(Guaranies.of(2_550_307L).toBigDecimal()).isEqualTo(new BigDecimal("2550307.00"));
+        assertThat(Guaranies.of(new BigDecimal("1234.5")).getCentesimos()).isEqualTo(123_450L);
+        assertThat(Guaranies.of((BigDecimal) null)).isEqualTo(Guaranies.CERO);
+        assertThat(Guaranies.ofCentesimos(-5L).toString()).isEqualTo("-0.05");
+    }
+
+    @Test
+    void conversionDesdeBigDecimalRedondeaHalfUpADosDecimales() {
+        assertThat(Guaranies.of(new BigDecimal("10.005")).getCentesimos()).isEqualTo(1_001L);
+        assertThat(Guaranies.of(new BigDecimal("10.004")).getCentesimos()).isEqualTo(1_000L);
+        assertThat(Guaranies.of(new BigDecimal("-10.005")).getCentesimos()).isEqualTo(-1_001L);
+    }
+
+    @Test
+    void sumaRestaYMultiplicacionSonExactas() {
+        Guaranies a = Guaranies.ofCentesimos(1_999L);
+        Guaranies b = Guaranies.ofCentesimos(1L);
+        assertThat(a.sumar(b)).isEqualTo(Guaranies.of(20L));
+        assertThat(b.restar(a)).isEqualTo(Guaranies.ofCentesimos(-1_998L));
+        assertThat(a.multiplicar(3L)).isEqualTo(Guaranies.ofCentesimos(5_997L));
+    }
+
+    @Test
+    void divisionRedondeaLaMitadAlejandoseDeCero() {
+        // 1 / 8 = 0.125 -> 0.13
+        assertThat(Guaranies.of(1L).dividir(8L)).isEqualTo(Guaranies.ofCentesimos(13L));
+        // 0.05 / 2 = 0.025 -> 0.03 y -0.025 -> -0.03
+        assertThat(Guaranies.ofCentesimos(5L).dividir(2L)).isEqualTo(Guaranies.ofCentesimos(3L));
+        assertThat(Guaranies.ofCentesimos(-5L).dividir(2L)).isEqualTo(Guaranies.ofCentesimos(-3L));
+        assertThat(Guaranies.ofCentesimos(5L).dividir(-2L)).isEqualTo(Guaranies.ofCentesimos(-3L));
+        // Por debajo de la mitad se trunca
+        assertThat(Guaranies.ofCentesimos(4L).dividir(3L)).isEqualTo(Guaranies.ofCentesimos(1L));
+    }
+
+    @Test
+    void divisionCoincideConBigDecimalHalfUp() {
+        long[] montos = { 0L, 1L, 7L, 99L, 2_550_307L, 3_000_000L, 12_345_679L, -4_001L };
+        long[] divisores = { 1L, 3L, 7L, 8L, 30L, 60L, 100L };
+        for (long monto : montos) {
+            for (long divisor : divisores) {
+                Guaranies centesimos = Guaranies.ofCentesimos(monto);
+                BigDecimal esperado = centesimos.toBigDecimal()
+                        .divide(BigDecimal.valueOf(divisor), 2, RoundingMode.HALF_UP);
+                assertThat(centesimos.dividir(divisor).toBigDecimal())
+                        .as("%s / %d", centesimos, divisor)
+                        .isEqualByComparingTo(esperado);
+            }
+        }
+    }
+
+    @Test
+    void porcentajeRedondeaACentesimos() {
+        assertThat(Guaranies.of(2_550_307L).porcentaje(9L, 100L)).isEqualTo(Guaranies.ofCentesimos(22_952_763L));
+        // 0.01 * 9% = 0.0009 -> 0.00
+        assertThat(Guaranies.ofCentesimos(1L).porcentaje(9L, 100L)).isEqualTo(Guaranies.CERO);
+        // 0.50 * 9% = 0.045 -> 0.05
+        assertThat(Guaranies.ofCentesimos(50L).porcentaje(9L, 100L)).isEqualTo(Guaranies.ofCentesimos(5L));
+    }
+
+    @Test
+    void divisionPorCeroFalla() {
+        assertThatThrownBy(() -> Guaranies.of(1L).dividir(0L)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void desbordamientoFallaEnLugarDeDarLaVuelta() {
+        Guaranies maximo = Guaranies.ofCentesimos(Long.MAX_VALUE);
+        assertThatThrownBy(() -> maximo.sumar(Guaranies.ofCentesimos(1L))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> maximo.multiplicar(2L)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Guaranies.of(Long.MAX_VALUE / 10)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void noNegativoYComparacion() {
+        assertThat(Guaranies.ofCentesimos(-1L).noNegativo()).isEqualTo(Guaranies.CERO);
+        assertThat(Guaranies.ofCentesimos(1L).noNegativo()).isEqualTo(Guaranies.ofCentesimos(1L));
+        assertThat(Guaranies.ofCentesimos(1L).esPositivo()).isTrue();
+        assertThat(Guaranies.CERO.esPositivo()).isFalse();
+        assertThat(Guaranies.of(1L)).isGreaterThan(Guaranies.ofCentesimos(99L));
+        assertThat(Guaranies.of(1L).hashCode()).isEqualTo(Guaranies.ofCentesimos(100L).hashCode());
+    }
+}
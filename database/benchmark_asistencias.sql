@@ -0,0 +1,99 @@
+-- ============================================
+-- BENCHMARK: consultas mensuales de asistencia
+-- Compara MONTH()/YEAR() contra rango semiabierto, sin y con los índices
+-- idx_asistencias_empleado_fecha e idx_asistencias_fecha_tipo.
+-- Base de Datos: MySQL 8.0.18+ (EXPLAIN ANALYZE)
+--
+-- Uso (en una base de pruebas, NO en producción):
+--   mysql -u root -p sistema_tthh_bench < benchmark_asistencias.sql > resultado.txt
+-- Se crea la tabla asistencias_bench con ~1.000.000 de filas
+-- (2.000 empleados x 500 días hábiles); la tabla real no se modifica.
+-- ============================================
+
+SET SESSION cte_max_recursion_depth = 1000000;
+
+DROP TABLE IF EXISTS asistencias_bench;
+CREATE TABLE asistencias_bench (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    empleado_id BIGINT NOT NULL,
+    fecha DATE NOT NULL,
+    tipo VARCHAR(50) NOT NULL,
+    minutos_retraso INT DEFAULT 0
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- 2.000 empleados x 500 días: ~85% PRESENTE, ~10% TARDANZA, ~5% AUSENTE
+INSERT INTO asistencias_bench (empleado_id, fecha, tipo, minutos_retraso)
+WITH RECURSIVE
+    empleados (id) AS (SELECT 1 UNION ALL SELECT id + 1 FROM empleados WHERE id < 2000),
+    dias (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM dias WHERE n < 499)
+SELECT e.id,
+       DATE_ADD('2024-01-01', INTERVAL d.n DAY),
+       CASE WHEN (e.id * 31 + d.n * 17) % 20 < 2 THEN 'TARDANZA'
+            WHEN (e.id * 31 + d.n * 17) % 20 = 2 THEN 'AUSENTE'
+            ELSE 'PRESENTE' END,
+       CASE WHEN (e.id * 31 + d.n * 17) % 20 < 2 THEN (e.id + d.n) % 45 + 1 ELSE 0 END
+FROM empleados e CROSS JOIN dias d;
+
+ANALYZE TABLE asistencias_bench;
+SELECT COUNT(*) AS filas FROM asistencias_bench;
+
+-- ============================================
+-- 1. SIN ÍNDICES
+-- ============================================
+
+-- Por empleado (countTardanzasMensual)
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM asistencias_bench
+WHERE empleado_id = 1234 AND tipo = 'TARDANZA' AND MONTH(fecha) = 3 AND YEAR(fecha) = 2025;
+
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM asistencias_bench
+WHERE empleado_id = 1234 AND tipo = 'TARDANZA' AND fecha >= '2025-03-01' AND fecha < '2025-04-01';
+
+-- Global (countTardanzasGlobalMensual)
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM asistencias_bench
+WHERE tipo = 'TARDANZA' AND MONTH(fecha) = 3 AND YEAR(fecha) = 2025;
+
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM asistencias_bench
+WHERE tipo = 'TARDANZA' AND fecha >= '2025-03-01' AND fecha < '2025-04-01';
+
+-- ============================================
+-- 2. CON ÍNDICES COMPUESTOS
+-- ============================================
+
+CREATE INDEX idx_asistencias_empleado_fecha ON asistencias_bench (empleado_id, fecha);
+CREATE INDEX idx_asistencias_fecha_tipo ON asistencias_bench (fecha, tipo);
+ANALYZE TABLE asistencias_bench;
+
+-- MONTH()/YEAR(): solo aprovecha empleado_id; el filtro global sigue recorriendo la tabla
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM asistencias_bench
+WHERE empleado_id = 1234 AND tipo = 'TARDANZA' AND MONTH(fecha) = 3 AND YEAR(fecha) = 2025;
+
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM asistencias_bench
+WHERE tipo = 'TARDANZA' AND MONTH(fecha) = 3 AND YEAR(fecha) = 2025;
+
+-- Rango semiabierto: range scan sobre los índices compuestos
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM asistencias_bench
+WHERE empleado_id = 1234 AND tipo = 'TARDANZA' AND fecha >= '2025-03-01' AND fecha < '2025-04-01';
+
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM asistencias_bench
+WHERE tipo = 'TARDANZA' AND fecha >= '2025-03-01' AND fecha < '2025-04-01';
+
+-- Resumen agrupado del mes (reconstrucción de asistencia_resumen_mensual)
+EXPLAIN ANALYZE
+SELECT empleado_id,
+       SUM(CASE WHEN tipo = 'AUSENTE' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN tipo = 'TARDANZA' THEN 1 ELSE 0 END),
+       COALESCE(SUM(minutos_retraso), 0)
+FROM asistencias_bench
+WHERE fecha >= '2025-03-01' AND fecha < '2025-04-01'
+GROUP BY empleado_id;
+
+-- Limpieza
+DROP TABLE asistencias_bench;
@@ -67,6 +67,7 @@ CREATE TABLE IF NOT EXISTS recibos_salario (
     pdf_url VARCHAR(500),
     estado VARCHAR(20) DEFAULT 'GENERADO',
     observaciones TEXT,
+    sucursal VARCHAR(100),  -- Sucursal del empleado al emitir/cerrar el recibo
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     created_by VARCHAR(100),
@@ -369,7 +370,7 @@ CREATE TABLE IF NOT EXISTS asistencias (
     
     FOREIGN KEY (empleado_id) REFERENCES empleados(id) ON DELETE CASCADE,
     UNIQUE KEY uk_empleado_fecha (empleado_id, fecha),
-    INDEX idx_fecha (fecha),
+    INDEX idx_asistencias_fecha_tipo (fecha, tipo),
     INDEX idx_tipo (tipo),
     INDEX idx_justificado (justificado)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
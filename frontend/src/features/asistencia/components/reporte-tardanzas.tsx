@@ -1,30 +1,37 @@
 "use client";
 
 import { useState } from "react";
-import { useQuery } from "@tanstack/react-query";
+import { keepPreviousData, useQuery } from "@tanstack/react-query";
 import { asistenciaApi } from "@/src/lib/api/asistencia";
 import { Card, CardContent, CardHeader, CardTitle } from "@/src/components/ui/card";
 import { Table, TableBody, TableCell, TableHead, TableHeader, TableRow } from "@/src/components/ui/table";
 import { Badge } from "@/src/components/ui/badge";
-import { Clock, DollarSign, TrendingUp, AlertTriangle, User } from "lucide-react";
+import { Button } from "@/src/components/ui/button";
+import { Clock, DollarSign, TrendingUp, AlertTriangle, User, ChevronLeft, ChevronRight } from "lucide-react";
 import { Select, SelectContent, SelectItem, SelectTrigger, SelectValue } from "@/src/components/ui/select";
 import { MESES } from "@/src/types/payroll";
 
+const TAMANIO_PAGINA = 50;
+
 export function ReporteTardanzas() {
     const [mes, setMes] = useState(new Date().getMonth() + 1);
     const [anio, setAnio] = useState(new Date().getFullYear());
+    const [pagina, setPagina] = useState(0);
 
-    const { data: report, isLoading } = useQuery({
-        queryKey: ["reporte-tardanzas-global", anio, mes],
-        queryFn: () => asistenciaApi.getReporteGlobal(anio, mes),
+    const { data: report, isLoading, isFetching } = useQuery({
+        queryKey: ["reporte-tardanzas-global", anio, mes, pagina],
+        queryFn: () => asistenciaApi.getReporteGlobal(anio, mes, pagina, TAMANIO_PAGINA),
+        placeholderData: keepPreviousData,
     });
 
     const formatCurrency = (val: number) =>
         new Intl.NumberFormat("es-PY", { style: "currency", currency: "PYG", maximumFractionDigits: 0 }).format(val);
 
     const tardanzas = report?.tardanzas || [];
-    const totalDescuentosPeriodo = tardanzas.reduce((acc, curr) => acc + curr.totalDescuento, 0);
-    const totalMinutosPeriodo = tardanzas.reduce((acc, curr) => acc + curr.totalMinutosRetraso, 0);
+    const totalDescuentosPeriodo = report?.totalDescuento ?? 0;
+    const totalMinutosPeriodo = report?.totalMinutosRetraso ?? 0;
+    const totalPaginas = report?.totalPaginas ?? 0;
+    const desde = (report?.pagina ?? 0) * (report?.tamanio ?? TAMANIO_PAGINA);
 
     if (isLoading) {
         return (
@@ -45,7 +52,7 @@ export function ReporteTardanzas() {
                     <p className="text-sm text-neutral-500">Resumen global de tardanzas y descuentos calculados.</p>
                 </div>
                 <div className="flex gap-2">
-                    <Select value={mes.toString()} onValueChange={(v) => setMes(parseInt(v))}>
+                    <Select value={mes.toString()} onValueChange={(v) => { setMes(parseInt(v)); setPagina(0); }}>
                         <SelectTrigger className="w-[140px]">
                             <SelectValue placeholder="Mes" />
                         </SelectTrigger>
@@ -55,7 +62,7 @@ export function ReporteTardanzas() {
                             ))}
                         </SelectContent>
                     </Select>
-                    <Select value={anio.toString()} onValueChange={(v) => setAnio(parseInt(v))}>
+                    <Select value={anio.toString()} onValueChange={(v) => { setAnio(parseInt(v)); setPagina(0); }}>
                         <SelectTrigger className="w-[100px]">
                             <SelectValue placeholder="Año" />
                         </SelectTrigger>
@@ -92,7 +99,7 @@ export function ReporteTardanzas() {
                         <CardTitle className="text-sm font-medium text-neutral-800">Colaboradores Afectados</CardTitle>
                     </CardHeader>
                     <CardContent>
-                        <div className="text-2xl font-bold text-neutral-900">{tardanzas.length}</div>
+                        <div className="text-2xl font-bold text-neutral-900">{report?.totalColaboradores ?? 0}</div>
                         <p className="text-xs text-neutral-500 mt-1">Personal con al menos una tardanza</p>
                     </CardContent>
                 </Card>
@@ -128,7 +135,7 @@ export function ReporteTardanzas() {
                                         <TableCell className="pl-6 py-4">
                                             <div className="flex items-center gap-3">
                                                 <div className="w-8 h-8 rounded-full bg-neutral-100 flex items-center justify-center text-xs font-bold text-neutral-600">
-                                                    {index + 1}
+                                                    {desde + index + 1}
                                                 </div>
                                                 <span className="font-medium text-neutral-900">{item.colaborador}</span>
                                             </div>
@@ -149,6 +156,26 @@ export function ReporteTardanzas() {
                             )}
                         </TableBody>
                     </Table>
+                    {totalPaginas > 1 && (
+                        <div className="flex items-center justify-between border-t border-neutral-100 px-6 py-3">
+                            <span className="text-sm text-neutral-500">
+                                {desde + 1}–{desde + tardanzas.length} de {report?.totalColaboradores ?? 0} colaboradores
+                            </span>
+                            <div className="flex items-center gap-2">
+                                <Button variant="ghost" size="icon" className="h-8 w-8" disabled={pagina === 0 || isFetching}
+                                    onClick={() => setPagina(pagina - 1)}>
+                                    <ChevronLeft className="w-4 h-4" />
+                                </Button>
+                                <span className="text-sm font-medium text-neutral-700">
+                                    Página {pagina + 1} de {totalPaginas}
+                                </span>
+                                <Button variant="ghost" size="icon" className="h-8 w-8" disabled={pagina + 1 >= totalPaginas || isFetching}
+                                    onClick={() => setPagina(pagina + 1)}>
+                                    <ChevronRight className="w-4 h-4" />
+                                </Button>
+                            </div>
+                        </div>
+                    )}
                 </CardContent>
             </Card>
         </div>
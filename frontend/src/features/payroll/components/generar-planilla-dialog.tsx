@@ -1,16 +1,19 @@
 "use client";
 
-import { useState } from "react";
-import { useMutation, useQueryClient } from "@tanstack/react-query";
+import { useEffect, useState } from "react";
+import { useMutation, useQuery, useQueryClient } from "@tanstack/react-query";
 import { Dialog, DialogContent, DialogHeader, DialogTitle, DialogFooter, DialogDescription } from "@/src/components/ui/dialog";
 import { Button } from "@/src/components/ui/button";
 import { Select, SelectContent, SelectItem, SelectTrigger, SelectValue } from "@/src/components/ui/select";
 import { Label } from "@/src/components/ui/label";
-import { MESES } from "@/src/types/payroll";
+import { Progress } from "@/src/components/ui/progress";
+import { MESES, NominaJob } from "@/src/types/payroll";
 import { Loader2, Calendar } from "lucide-react";
 import { useToast } from "@/src/hooks/use-toast";
 import { payrollApi } from "@/src/lib/api/payroll";
 
+const ESTADOS_ACTIVOS: NominaJob["estado"][] = ["PENDIENTE", "EN_PROCESO"];
+
 interface GenerarPlanillaDialogProps {
     open: boolean;
     onOpenChange: (open: boolean) => void;
@@ -24,15 +27,55 @@ export function GenerarPlanillaDialog({ open, onOpenChange }: GenerarPlanillaDia
 
     const [mes, setMes] = useState<number>(currentMonth);
     const [anio, setAnio] = useState<number>(currentYear);
+    // Job en curso: la generación corre en segundo plano y se consulta su avance
+    const [jobId, setJobId] = useState<number | null>(null);
+
+    const { data: job } = useQuery({
+        queryKey: ["payroll-job", jobId],
+        queryFn: () => payrollApi.getJob(jobId as number),
+        enabled: jobId !== null,
+        refetchInterval: (query) => {
+            const estado = query.state.data?.estado;
+            return !estado || ESTADOS_ACTIVOS.includes(estado) ? 2000 : false;
+        },
+    });
+
+    const enCurso = jobId !== null && (!job || ESTADOS_ACTIVOS.includes(job.estado));
+
+    useEffect(() => {
+        if (!job || job.id !== jobId || ESTADOS_ACTIVOS.includes(job.estado)) return;
+
+        const periodo = `${MESES.find(m => m.value === job.mes)?.label} ${job.anio}`;
+        queryClient.invalidateQueries({ queryKey: ["payroll-dashboard"] });
+        if (job.estado === "COMPLETADO") {
+            toast({
+                title: "Planilla Generada",
+                description: `Se generaron ${job.generados} recibos para ${periodo}` +
+                    (job.errores > 0 ? ` (${job.errores} con error)` : ""),
+                variant: job.errores > 0 ? "destructive" : undefined,
+            });
+        } else if (job.estado === "CANCELADO") {
+            toast({
+                title: "Generación Cancelada",
+                description: `Se generaron ${job.generados} recibos para ${periodo} antes de cancelar.`,
+            });
+        } else {
+            toast({
+                title: "Error",
+                description: job.mensajeError || "No se pudo generar la planilla.",
+                variant: "destructive",
+            });
+        }
+        setJobId(null);
+    }, [job, jobId, queryClient, toast]);
 
     const mutation = useMutation({
         mutationFn: ({ anio, mes }: { anio: number; mes: number }) => payrollApi.generar(anio, mes),
-        onSuccess: () => {
-            queryClient.invalidateQueries({ queryKey: ["payroll-dashboard"] });
-            onOpenChange(false);
+        onSuccess: (nuevoJob) => {
+            setJobId(nuevoJob.id);
             toast({
-                title: "Planilla Generada",
-                description: `Se han generado los recibos para ${MESES.find(m => m.value === mes)?.label} ${anio}`,
+                title: "Generación Iniciada",
+                description: `Se están generando los recibos para ${MESES.find(m => m.value === nuevoJob.mes)?.label} ${nuevoJob.anio}. Puede cerrar esta ventana.`,
             });
         },
         onError: () => {
@@ -96,22 +139,35 @@ export function GenerarPlanillaDialog({ open, onOpenChange }: GenerarPlanillaDia
                     </div>
                 </div>
 
-                <div className="bg-amber-50 p-3 rounded-lg border border-amber-100 mb-4">
-                    <p className="text-sm text-amber-800">
-                        ⚠️ Esta acción procesará los salarios base, bonificaciones y deducciones automáticas para el periodo seleccionado.
-                    </p>
-                </div>
+                {enCurso ? (
+                    <div className="space-y-2 mb-4">
+                        <div className="flex justify-between text-sm text-muted-foreground">
+                            <span>{job?.estado === "EN_PROCESO" ? "Generando recibos..." : "En cola..."}</span>
+                            <span>
+                                {job?.procesados ?? 0}
+                                {job?.total ? ` / ${job.total}` : ""}
+                            </span>
+                        </div>
+                        <Progress value={job?.porcentaje ?? 0} />
+                    </div>
+                ) : (
+                    <div className="bg-amber-50 p-3 rounded-lg border border-amber-100 mb-4">
+                        <p className="text-sm text-amber-800">
+                            ⚠️ Esta acción procesará los salarios base, bonificaciones y deducciones automáticas para el periodo seleccionado.
+                        </p>
+                    </div>
+                )}
 
                 <DialogFooter>
                     <Button variant="outline" onClick={() => onOpenChange(false)} disabled={mutation.isPending}>
-                        Cancelar
+                        {enCurso ? "Cerrar" : "Cancelar"}
                     </Button>
                     <Button
                         onClick={handleGenerar}
-                        disabled={mutation.isPending}
+                        disabled={mutation.isPending || enCurso}
                         className="bg-emerald-600 hover:bg-emerald-700 text-white"
                     >
-                        {mutation.isPending ? (
+                        {mutation.isPending || enCurso ? (
                             <>
                                 <Loader2 className="w-4 h-4 mr-2 animate-spin" />
                                 Generando...
@@ -45,8 +45,8 @@ export const asistenciaApi = {
         return put<Asistencia>(`${ASISTENCIA_URL}/${id}/justificar?motivo=${encodeURIComponent(motivo)}`);
     },
 
-    // Obtener reporte global de tardanzas y descuentos
-    getReporteGlobal: async (anio: number, mes: number) => {
-        return get<import('@/src/types/asistencia').AttendanceGlobalReport>(`${ASISTENCIA_URL}/reporte-global?anio=${anio}&mes=${mes}`);
+    // Obtener reporte global de tardanzas y descuentos (ranking paginado, página desde 0)
+    getReporteGlobal: async (anio: number, mes: number, page = 0, size = 50) => {
+        return get<import('@/src/types/asistencia').AttendanceGlobalReport>(`${ASISTENCIA_URL}/reporte-global?anio=${anio}&mes=${mes}&page=${page}&size=${size}`);
     }
 };
@@ -1,5 +1,5 @@
 import { get, post } from './client';
-import { ReciboSalario, ReciboSalarioFormData } from '@/src/types/payroll';
+import { NominaJob, ReciboSalario, ReciboSalarioFormData } from '@/src/types/payroll';
 import { PageResponse, PaginationParams } from '@/src/types/api';
 
 const PAYROLL_URL = '/payroll';
@@ -71,10 +71,17 @@ export const payrollApi = {
     },
 
     /**
-     * Generar nómina para un periodo
+     * Encolar la generación de nómina para un periodo (job en segundo plano)
      */
-    generar: async (anio: number, mes: number): Promise<void> => {
-        return post<void>(`${PAYROLL_URL}/generar?anio=${anio}&mes=${mes}`, {});
+    generar: async (anio: number, mes: number): Promise<NominaJob> => {
+        return post<NominaJob>(`${PAYROLL_URL}/generar?anio=${anio}&mes=${mes}`, {});
+    },
+
+    /**
+     * Obtener el avance de un job de generación de nómina
+     */
+    getJob: async (id: number): Promise<NominaJob> => {
+        return get<NominaJob>(`${PAYROLL_URL}/jobs/${id}`);
     },
 
     /**
@@ -29,5 +29,12 @@ export interface ColaboradorTardanza {
 export interface AttendanceGlobalReport {
     mes: number;
     anio: number;
+    // Página del ranking; los totales cubren todo el periodo
     tardanzas: ColaboradorTardanza[];
+    totalColaboradores: number;
+    totalMinutosRetraso: number;
+    totalDescuento: number;
+    pagina: number;
+    tamanio: number;
+    totalPaginas: number;
 }
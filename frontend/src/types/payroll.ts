@@ -35,6 +35,26 @@ export interface PayrollDashboard {
     historial: PayrollRun[];
 }
 
+export interface NominaJob {
+    id: number;
+    anio: number;
+    mes: number;
+    estado: 'PENDIENTE' | 'EN_PROCESO' | 'COMPLETADO' | 'CANCELADO' | 'FALLIDO';
+    total?: number;
+    procesados: number;
+    generados: number;
+    omitidos: number;
+    errores: number;
+    porcentaje?: number;
+    recibosPorSegundo?: number;
+    cancelacionSolicitada?: boolean;
+    mensajeError?: string;
+    iniciadoPor?: string;
+    iniciadoAt?: string;
+    finalizadoAt?: string;
+    createdAt?: string;
+}
+
 export interface ReciboSalarioFormData {
     empleadoId: number;
     anio: number;